@@ -0,0 +1,529 @@
+/*
+ *
+ * Copyright (c) 2026 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.edif;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+/**
+ * Reads and writes an {@link EDIFNetlist} in a compact binary format, used to cache a parsed EDIF
+ * file.  Each string of the netlist is stored once in a string table, and the netlist objects
+ * refer to strings, cells, ports and instances by integer index.  The interfaces of all cells are
+ * stored before their contents, so that instances and port refs can refer to any cell or port
+ * regardless of the order of the cells.  The length and modification time of the source EDIF
+ * file are stored in the header to detect when the binary file is stale.
+ *
+ * Layout, big endian:
+ * <pre>
+ * header:     int magic, int version, long source length, long source last modified
+ * strings:    int count, {int UTF-8 length, bytes}
+ * netlist:    name, int count, {string comment}, int count, {string key, value} metax
+ * interfaces: int numLibraries, {name, int numCells, {name, view, properties,
+ *             int numPorts, {name, byte direction, int width, properties}}}
+ * contents:   for each cell: int numInsts, {name, int cell, viewref, properties},
+ *             int numNets, {name, properties, int numPortInsts, {string, int index, int port, int inst}}
+ * design:     byte hasDesign, name, int top cell, properties
+ * </pre>
+ * A string is an index in the string table, -1 if null, and a name is the string of the name
+ * followed by the string of its EDIF rename.  Cells and ports are numbered in file order over all
+ * libraries, instances in file order within their parent cell, and -1 stands for none.  A value
+ * is a byte type and a string, and properties are an int count, {name, value}, then a string owner.
+ * Created on: Oct 17, 2026
+ */
+public class BinaryEDIF {
+
+	public static final int MAGIC = 0x52574542; // "RWEB"
+	public static final int VERSION = 1;
+
+	/** Extension added to the name of an EDIF file to get the name of its binary file */
+	public static final String FILE_EXTENSION = ".bedf";
+
+	private static final int HEADER_SIZE = 24;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Writes a netlist to a binary file.  The file is written under a temporary name unique to
+	 * this write and then atomically moved in place, so that neither an interrupted write nor
+	 * concurrent jobs writing the same file leave a truncated or mixed file.
+	 * @param fileName Name of the binary file.
+	 * @param netlist The netlist to write.
+	 * @param sourceFileName Name of the EDIF file the netlist was read from, to check for
+	 * staleness when reading the binary file, or null if none.
+	 */
+	public static void writeBinaryEDIF(String fileName, EDIFNetlist netlist, String sourceFileName){
+		long sourceLength = -1;
+		long sourceLastModified = -1;
+		if(sourceFileName != null){
+			File source = new File(sourceFileName);
+			sourceLength = source.length();
+			sourceLastModified = source.lastModified();
+		}
+		File file = new File(fileName);
+		File tmp = new File(fileName + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmp), BUFFER_SIZE))){
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(sourceLength);
+			out.writeLong(sourceLastModified);
+			new NetlistWriter(out).write(netlist);
+		} catch (IOException e) {
+			tmp.delete();
+			throw new RuntimeException("ERROR: Could not write binary EDIF file " + fileName, e);
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, 
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tmp.delete();
+			throw new RuntimeException("ERROR: Could not rename " + tmp + " to " + fileName, e);
+		}
+	}
+
+	/**
+	 * Reads a netlist from a binary file.
+	 * @param fileName Name of the binary file.
+	 * @return The netlist, equal to the netlist that was written.
+	 */
+	public static EDIFNetlist readBinaryEDIF(String fileName){
+		try(DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE))){
+			readHeader(in, fileName);
+			return new NetlistReader(in).read();
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not read binary EDIF file " + fileName, e);
+		}
+	}
+
+	/**
+	 * Checks that a binary file exists, has the current version and was written from the current
+	 * content of an EDIF file, as given by its length and modification time.
+	 * @param fileName Name of the binary file.
+	 * @param sourceFileName Name of the EDIF file.
+	 * @return True if the binary file can be read instead of the EDIF file.
+	 */
+	public static boolean isUpToDate(String fileName, String sourceFileName){
+		File file = new File(fileName);
+		File source = new File(sourceFileName);
+		if(!file.isFile() || !source.isFile() || file.length() < HEADER_SIZE) return false;
+		try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+			if(in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+			return in.readLong() == source.length() && in.readLong() == source.lastModified();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static void readHeader(DataInputStream in, String fileName) throws IOException{
+		if(in.readInt() != MAGIC){
+			throw new RuntimeException("ERROR: " + fileName + " is not a binary EDIF file.");
+		}
+		int version = in.readInt();
+		if(version != VERSION){
+			throw new RuntimeException("ERROR: Binary EDIF file version " + version
+					+ " is not supported, expected version " + VERSION + ".");
+		}
+		in.readLong(); // source length
+		in.readLong(); // source last modified
+	}
+
+	private static class NetlistWriter {
+
+		private final DataOutputStream out;
+
+		private final Map<String,Integer> stringIndex = new HashMap<>();
+
+		private final List<String> strings = new ArrayList<>();
+
+		private final Map<EDIFCell,Integer> cellIndex = new IdentityHashMap<>();
+
+		private final Map<EDIFPort,Integer> portIndex = new IdentityHashMap<>();
+
+		private NetlistWriter(DataOutputStream out){
+			this.out = out;
+		}
+
+		private void write(EDIFNetlist netlist) throws IOException{
+			indexNetlist(netlist);
+
+			out.writeInt(strings.size());
+			for(String s : strings){
+				byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			writeName(netlist);
+			out.writeInt(netlist.getComments().size());
+			for(String comment : netlist.getComments()){
+				writeString(comment);
+			}
+			out.writeInt(netlist.getMetax().size());
+			for(Entry<String,EDIFPropertyValue> e : netlist.getMetax().entrySet()){
+				writeString(e.getKey());
+				writeValue(e.getValue());
+			}
+
+			out.writeInt(netlist.getLibraries().size());
+			for(EDIFLibrary lib : netlist.getLibraries()){
+				writeName(lib);
+				out.writeInt(lib.getCells().size());
+				for(EDIFCell cell : lib.getCells()){
+					writeName(cell);
+					writeName(cell.getEDIFView());
+					writeProperties(cell);
+					out.writeInt(cell.getPorts().size());
+					for(EDIFPort port : cell.getPorts()){
+						writeName(port);
+						out.writeByte(port.getDirection() == null ? -1 : port.getDirection().ordinal());
+						out.writeInt(port.getWidth());
+						writeProperties(port);
+					}
+				}
+			}
+
+			for(EDIFLibrary lib : netlist.getLibraries()){
+				for(EDIFCell cell : lib.getCells()){
+					writeContents(cell);
+				}
+			}
+
+			EDIFDesign design = netlist.getDesign();
+			out.writeBoolean(design != null);
+			if(design != null){
+				writeName(design);
+				out.writeInt(design.getTopCell() == null ? -1 : getCellIndex(design.getTopCell()));
+				writeProperties(design);
+			}
+		}
+
+		private void writeContents(EDIFCell cell) throws IOException{
+			Map<EDIFCellInst,Integer> instIndex = new IdentityHashMap<>();
+			out.writeInt(cell.getCellInsts().size());
+			for(EDIFCellInst inst : cell.getCellInsts()){
+				instIndex.put(inst, instIndex.size());
+				writeName(inst);
+				out.writeInt(getCellIndex(inst.getCellType()));
+				writeName(inst.getViewref());
+				writeProperties(inst);
+			}
+			out.writeInt(cell.getNets().size());
+			for(EDIFNet net : cell.getNets()){
+				writeName(net);
+				writeProperties(net);
+				out.writeInt(net.getPortInsts().size());
+				for(EDIFPortInst portInst : net.getPortInsts()){
+					writeString(portInst.getName());
+					out.writeInt(portInst.getIndex());
+					Integer port = portInst.getPort() == null ? null : portIndex.get(portInst.getPort());
+					out.writeInt(port == null ? -1 : port);
+					Integer inst = portInst.getCellInst() == null ? null : instIndex.get(portInst.getCellInst());
+					if(portInst.getCellInst() != null && inst == null){
+						throw new RuntimeException("ERROR: Port ref " + portInst + " of net " + net
+								+ " refers to an instance outside of cell " + cell);
+					}
+					out.writeInt(inst == null ? -1 : inst);
+				}
+			}
+		}
+
+		private int getCellIndex(EDIFCell cell){
+			Integer idx = cellIndex.get(cell);
+			if(idx == null){
+				throw new RuntimeException("ERROR: Cell " + cell + " is referenced but is not in a "
+						+ "library of the netlist.");
+			}
+			return idx;
+		}
+
+		private void indexNetlist(EDIFNetlist netlist){
+			indexName(netlist);
+			for(String comment : netlist.getComments()){
+				indexString(comment);
+			}
+			for(Entry<String,EDIFPropertyValue> e : netlist.getMetax().entrySet()){
+				indexString(e.getKey());
+				indexString(e.getValue().getValue());
+			}
+			for(EDIFLibrary lib : netlist.getLibraries()){
+				indexName(lib);
+				for(EDIFCell cell : lib.getCells()){
+					cellIndex.put(cell, cellIndex.size());
+					indexName(cell);
+					indexName(cell.getEDIFView());
+					indexProperties(cell);
+					for(EDIFPort port : cell.getPorts()){
+						portIndex.put(port, portIndex.size());
+						indexName(port);
+						indexProperties(port);
+					}
+					for(EDIFCellInst inst : cell.getCellInsts()){
+						indexName(inst);
+						indexName(inst.getViewref());
+						indexProperties(inst);
+					}
+					for(EDIFNet net : cell.getNets()){
+						indexName(net);
+						indexProperties(net);
+						for(EDIFPortInst portInst : net.getPortInsts()){
+							indexString(portInst.getName());
+						}
+					}
+				}
+			}
+			EDIFDesign design = netlist.getDesign();
+			if(design != null){
+				indexName(design);
+				indexProperties(design);
+			}
+		}
+
+		private void indexString(String s){
+			if(s != null && !stringIndex.containsKey(s)){
+				stringIndex.put(s, strings.size());
+				strings.add(s);
+			}
+		}
+
+		private void indexName(EDIFName name){
+			if(name == null) return;
+			indexString(name.getName());
+			indexString(name.getEDIFName());
+		}
+
+		private void indexProperties(EDIFPropertyObject o){
+			for(Entry<EDIFName,EDIFPropertyValue> p : o.getProperties().entrySet()){
+				indexName(p.getKey());
+				indexString(p.getValue().getValue());
+			}
+			indexString(o.getOwner());
+		}
+
+		private void writeString(String s) throws IOException{
+			out.writeInt(s == null ? -1 : stringIndex.get(s));
+		}
+
+		private void writeName(EDIFName name) throws IOException{
+			writeString(name == null ? null : name.getName());
+			writeString(name == null ? null : name.getEDIFName());
+		}
+
+		private void writeValue(EDIFPropertyValue value) throws IOException{
+			out.writeByte(value.getType() == null ? -1 : value.getType().ordinal());
+			writeString(value.getValue());
+		}
+
+		private void writeProperties(EDIFPropertyObject o) throws IOException{
+			out.writeInt(o.getProperties().size());
+			for(Entry<EDIFName,EDIFPropertyValue> p : o.getProperties().entrySet()){
+				writeName(p.getKey());
+				writeValue(p.getValue());
+			}
+			writeString(o.getOwner());
+		}
+	}
+
+	private static class NetlistReader {
+
+		private static final EDIFDirection[] DIRECTIONS = EDIFDirection.values();
+
+		private static final EDIFValueType[] VALUE_TYPES = EDIFValueType.values();
+
+		private final DataInputStream in;
+
+		private String[] strings;
+
+		private final List<EDIFCell> cells = new ArrayList<>();
+
+		private final List<EDIFPort> ports = new ArrayList<>();
+
+		private NetlistReader(DataInputStream in){
+			this.in = in;
+		}
+
+		private EDIFNetlist read() throws IOException{
+			strings = new String[in.readInt()];
+			byte[] bytes = new byte[256];
+			for(int i=0; i < strings.length; i++){
+				int length = in.readInt();
+				if(length > bytes.length) bytes = new byte[Math.max(length, bytes.length * 2)];
+				in.readFully(bytes, 0, length);
+				strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+			}
+
+			EDIFNetlist netlist = readName(new EDIFNetlist());
+			int numComments = in.readInt();
+			for(int i=0; i < numComments; i++){
+				netlist.addComment(readString());
+			}
+			int numMetax = in.readInt();
+			for(int i=0; i < numMetax; i++){
+				String key = readString();
+				netlist.addMetax(key, readValue());
+			}
+
+			int numLibraries = in.readInt();
+			for(int i=0; i < numLibraries; i++){
+				EDIFLibrary lib = readName(new EDIFLibrary());
+				netlist.addLibrary(lib);
+				int numCells = in.readInt();
+				for(int j=0; j < numCells; j++){
+					EDIFCell cell = readName(new EDIFCell());
+					cell.setView(readName(new EDIFName()));
+					readProperties(cell);
+					lib.addCell(cell);
+					cells.add(cell);
+					int numPorts = in.readInt();
+					for(int k=0; k < numPorts; k++){
+						EDIFPort port = readName(new EDIFPort());
+						byte direction = in.readByte();
+						port.setDirection(direction < 0 ? null : DIRECTIONS[direction]);
+						port.setWidth(in.readInt());
+						port.setIsLittleEndian();
+						readProperties(port);
+						cell.addPort(port);
+						ports.add(port);
+					}
+				}
+			}
+
+			for(EDIFCell cell : cells){
+				readContents(cell);
+			}
+
+			if(in.readBoolean()){
+				EDIFDesign design = readName(new EDIFDesign());
+				int topCell = in.readInt();
+				if(topCell >= 0) design.setTopCell(cells.get(topCell));
+				readProperties(design);
+				netlist.setDesign(design);
+			}
+			return netlist;
+		}
+
+		private void readContents(EDIFCell cell) throws IOException{
+			EDIFCellInst[] insts = new EDIFCellInst[in.readInt()];
+			for(int i=0; i < insts.length; i++){
+				EDIFCellInst inst = readName(new EDIFCellInst());
+				EDIFCell cellType = cells.get(in.readInt());
+				inst.setCellType(cellType);
+				EDIFName viewref = readName(new EDIFName());
+				if(!isSameName(viewref, cellType.getEDIFView())){
+					inst.setViewref(viewref);
+				}
+				readProperties(inst);
+				cell.addCellInst(inst);
+				insts[i] = inst;
+			}
+			int numNets = in.readInt();
+			for(int i=0; i < numNets; i++){
+				EDIFNet net = readName(new EDIFNet());
+				readProperties(net);
+				cell.addNet(net);
+				int numPortInsts = in.readInt();
+				for(int j=0; j < numPortInsts; j++){
+					EDIFPortInst portInst = new EDIFPortInst();
+					portInst.setName(readString());
+					portInst.setIndex(in.readInt());
+					int port = in.readInt();
+					if(port >= 0) portInst.setPort(ports.get(port));
+					int inst = in.readInt();
+					if(inst >= 0) portInst.setCellInst(insts[inst]);
+					net.addPortInst(portInst);
+				}
+			}
+		}
+
+		private static boolean isSameName(EDIFName a, EDIFName b){
+			if(b == null) return a.getName() == null && a.getEDIFName() == null;
+			return Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getEDIFName(), b.getEDIFName());
+		}
+
+		private String readString() throws IOException{
+			int idx = in.readInt();
+			return idx < 0 ? null : strings[idx];
+		}
+
+		private <T extends EDIFName> T readName(T name) throws IOException{
+			name.setName(readString());
+			name.setEDIFRename(readString());
+			return name;
+		}
+
+		private EDIFPropertyValue readValue() throws IOException{
+			EDIFPropertyValue value = new EDIFPropertyValue();
+			byte type = in.readByte();
+			value.setType(type < 0 ? null : VALUE_TYPES[type]);
+			value.setValue(readString());
+			return value;
+		}
+
+		private void readProperties(EDIFPropertyObject o) throws IOException{
+			int numProperties = in.readInt();
+			for(int i=0; i < numProperties; i++){
+				EDIFName key = readName(new EDIFName());
+				o.addProperty(key, readValue());
+			}
+			String owner = readString();
+			if(owner != null) o.setOwner(owner);
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 2){
+			System.out.println("USAGE: <input.edf> <output" + FILE_EXTENSION + "> [output.edf]");
+			return;
+		}
+		CodePerfTracker t = new CodePerfTracker("Binary EDIF", true);
+		t.start("Parse EDIF");
+		EDIFNetlist netlist = EDIFTools.loadEDIFFile(args[0]);
+		t.stop().start("Write binary EDIF");
+		writeBinaryEDIF(args[1], netlist, args[0]);
+		t.stop().start("Read binary EDIF");
+		netlist = readBinaryEDIF(args[1]);
+		t.stop();
+		if(args.length > 2){
+			t.start("Write EDIF");
+			netlist.exportEDIF(args[2]);
+			t.stop();
+		}
+		t.printSummary();
+	}
+}
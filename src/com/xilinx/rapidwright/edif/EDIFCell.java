@@ -58,6 +58,12 @@ public class EDIFCell extends EDIFPropertyObject {
 	
 	private EDIFName view = DEFAULT_VIEW;
 	
+	/** Number of changes to the instances and nets of this cell, see {@link EDIFHierarchyIndex} */
+	private transient int modCount = 0;
+	
+	/** Name tables of the instances and nets of this cell, built by {@link EDIFHierarchyIndex} */
+	private transient volatile EDIFHierarchyIndex.CellTables hierarchyTables;
+	
 	public EDIFCell(EDIFLibrary lib, String name){
 		super(name);
 		if(lib != null) lib.addCell(this);
@@ -150,6 +156,7 @@ public class EDIFCell extends EDIFPropertyObject {
 	public EDIFCellInst addCellInst(EDIFCellInst instance){
 		if(instances == null) instances = getNewMap();
 		instance.setParentCell(this);
+		modCount++;
 		EDIFCellInst collision = instances.put(instance.getName(), instance);
 		if(collision != null && instance != collision){
 			throw new RuntimeException("ERROR: Name collsion inside EDIFCell " + 
@@ -172,10 +179,23 @@ public class EDIFCell extends EDIFPropertyObject {
 			instance.setName(instance.getName() + "_" + getLibrary().getNetlist().nameSpaceUniqueCount++);
 		}
 		instance.updateEDIFRename();
+		modCount++;
 		instances.put(instance.getName(), instance);
 		return instance;
 	}
 	
+	int getModCount(){
+		return modCount;
+	}
+	
+	EDIFHierarchyIndex.CellTables getHierarchyTables(){
+		return hierarchyTables;
+	}
+	
+	void setHierarchyTables(EDIFHierarchyIndex.CellTables hierarchyTables){
+		this.hierarchyTables = hierarchyTables;
+	}
+	
 	public EDIFCellInst getCellInst(String name){
 		if(instances == null) return null;;
 		return instances.get(name);
@@ -189,6 +209,7 @@ public class EDIFCell extends EDIFPropertyObject {
 	public EDIFNet addNet(EDIFNet net){
 		if(nets == null) nets = getNewMap();
 		net.setParentCell(this);
+		modCount++;
 		EDIFNet collision = nets.put(net.getName(), net);
 		if(collision != null && net != collision){
 			throw new RuntimeException("ERROR: Name collision inside EDIFCell " + 
@@ -213,6 +234,7 @@ public class EDIFCell extends EDIFPropertyObject {
 	
 	public EDIFNet removeNet(String name){
 		if(nets == null) return null;;
+		modCount++;
 		return nets.remove(name);
 	}
 	/**
@@ -281,6 +303,7 @@ public class EDIFCell extends EDIFPropertyObject {
 	
 	public EDIFCellInst removeCellInst(String name){
 		if(instances == null) return null;
+		modCount++;
 		return instances.remove(name);
 	}
 	
@@ -369,11 +392,19 @@ public class EDIFCell extends EDIFPropertyObject {
 		return instances.values();
 	}
 	
+	Map<String,EDIFCellInst> getCellInstMap(){
+		return instances == null ? Collections.emptyMap() : instances;
+	}
+	
 	public Collection<EDIFNet> getNets(){
 		if(nets == null) return Collections.emptyList();
 		return nets.values();
 	}
 	
+	Map<String,EDIFNet> getNetMap(){
+		return nets == null ? Collections.emptyMap() : nets;
+	}
+	
 	/**
 	 * Populates an internal map between port-based port ref name,  'bus[3]' or 'clk'.  
 	 * @param portInstName Name from a port ref as generated in @link {@link EDIFPortInst#getPortInstNameFromPort()} 
@@ -453,9 +484,26 @@ public class EDIFCell extends EDIFPropertyObject {
 		instances = null;
 		nets = null;
 		internalPortMap = null;
+		modCount++;
 	}
 	
 	public void exportEDIF(Writer wr) throws IOException{
+		exportEDIFHeader(wr);
+		for(EDIFCellInst i : getCellInsts()){
+			i.exportEDIF(wr);						
+		}
+		for(EDIFNet n : getNets()){
+			n.exportEDIF(wr);
+		}
+		exportEDIFFooter(wr);
+	}
+	
+	/**
+	 * Writes the EDIF syntax of this cell up to its first instance.
+	 * @param wr The writer to export the EDIF syntax to.
+	 * @throws IOException
+	 */
+	void exportEDIFHeader(Writer wr) throws IOException{
 		wr.write("   (cell ");
 		exportEDIFName(wr);
 		wr.write(" (celltype GENERIC)\n");
@@ -469,12 +517,16 @@ public class EDIFCell extends EDIFPropertyObject {
 		wr.write("       )\n"); // Interface end
 		if(hasContents()){
 			wr.write("       (contents\n");
-			for(EDIFCellInst i : getCellInsts()){
-				i.exportEDIF(wr);						
-			}
-			for(EDIFNet n : getNets()){
-				n.exportEDIF(wr);
-			}
+		}
+	}
+	
+	/**
+	 * Writes the EDIF syntax of this cell after its last net.
+	 * @param wr The writer to export the EDIF syntax to.
+	 * @throws IOException
+	 */
+	void exportEDIFFooter(Writer wr) throws IOException{
+		if(hasContents()){
 			wr.write("       )\n"); // Contents end
 		}
 		if(getProperties().size() > 0){
@@ -52,6 +52,12 @@ public class EDIFCellInst extends EDIFPropertyObject {
 	public static final String BLACK_BOX_PROP_VERSAL = "black_box";
 	
 	private Map<String,EDIFPortInst> portInsts;
+	
+	/** Number of changes to the port refs of this instance, see {@link EDIFHierarchyIndex} */
+	private transient int modCount = 0;
+	
+	/** Name table of the port refs of this instance, built by {@link EDIFHierarchyIndex} */
+	private transient volatile EDIFHierarchyIndex.NameTable<EDIFPortInst> hierarchyTable;
 
 	protected EDIFCellInst(){
 		
@@ -108,6 +114,7 @@ public class EDIFCellInst extends EDIFPropertyObject {
 		if(!epr.getCellInst().equals(this)) 
 			throw new RuntimeException("ERROR: Incorrect EDIFPortInst '"+
 				epr.getFullName()+"' being added to EDIFCellInst " + toString());
+		modCount++;
 		return portInsts.put(epr.getName(),epr);
 	}
 	
@@ -118,6 +125,7 @@ public class EDIFCellInst extends EDIFPropertyObject {
 	 */
 	protected EDIFPortInst removePortInst(EDIFPortInst epr){
 		if(portInsts == null) return null;
+		modCount++;
 		return portInsts.remove(epr.getName());
 	}
 	
@@ -128,9 +136,22 @@ public class EDIFCellInst extends EDIFPropertyObject {
 	 */
 	protected EDIFPortInst removePortInst(String portName){
 		if(portInsts == null) return null;
+		modCount++;
 		return portInsts.remove(portName);
 	}
 	
+	int getModCount(){
+		return modCount;
+	}
+	
+	EDIFHierarchyIndex.NameTable<EDIFPortInst> getHierarchyTable(){
+		return hierarchyTable;
+	}
+	
+	void setHierarchyTable(EDIFHierarchyIndex.NameTable<EDIFPortInst> hierarchyTable){
+		this.hierarchyTable = hierarchyTable;
+	}
+	
 	/**
 	 * Gets the port ref on this cell by pin name (not full
 	 * port ref name).  
@@ -0,0 +1,282 @@
+/*
+ *
+ * Copyright (c) 2026 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.edif;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Resolves hierarchical names of instances, nets and port refs of an {@link EDIFNetlist}.  The
+ * instances and nets of each cell, and the port refs of each instance, are kept in hash tables
+ * that are probed with a range of the hierarchical name, so a lookup walks down from the top cell
+ * one level per name segment without splitting the name or allocating strings.  The tables are
+ * built per cell rather than per hierarchical instance, so their size is proportional to the
+ * netlist and not to its flattened hierarchy.
+ *
+ * Names are resolved as by {@link EDIFNetlist#getCellInstFromHierName(String)} and
+ * {@link EDIFNetlist#getHierNetFromName(String)}, including names of instances and nets that
+ * contain {@link EDIFTools#EDIF_HIER_SEP}.  The immutable tables of a cell or an instance are
+ * kept by the cell or the instance itself, so they are dropped along with removed instances, and
+ * rebuilt when its instances, nets or port refs were added or removed since they were built.
+ * Lookups may be made by multiple threads, as long as the netlist is not modified meanwhile.
+ * Created on: Oct 17, 2026
+ */
+public class EDIFHierarchyIndex {
+
+	private static final char SEP = EDIFTools.EDIF_HIER_SEP.charAt(0);
+
+	private final EDIFNetlist netlist;
+
+	/**
+	 * Creates an index and builds the tables of the cells of all libraries of the netlist.  The
+	 * tables of the port refs of an instance are built when the instance is first looked up.
+	 * @param netlist The netlist to index.
+	 */
+	public EDIFHierarchyIndex(EDIFNetlist netlist){
+		this.netlist = netlist;
+		for(EDIFLibrary lib : netlist.getLibraries()){
+			for(EDIFCell cell : lib.getCells()){
+				getTables(cell);
+			}
+		}
+	}
+
+	/**
+	 * Drops the tables of all cells and instances of the netlist, to be rebuilt on the next lookups.
+	 */
+	public void invalidate(){
+		for(EDIFLibrary lib : netlist.getLibraries()){
+			for(EDIFCell cell : lib.getCells()){
+				cell.setHierarchyTables(null);
+				for(EDIFCellInst inst : cell.getCellInsts()){
+					inst.setHierarchyTable(null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets an instance by its hierarchical name, see {@link EDIFNetlist#getCellInstFromHierName(String)}.
+	 * @param name Hierarchical name of the instance, for example: 'clk_wiz/inst/bufg0'
+	 * @return The instance, the top cell instance if the name is empty, or null if none exists.
+	 */
+	public EDIFCellInst getCellInst(String name){
+		return findCellInst(name, name.length());
+	}
+
+	/**
+	 * Gets a net by its hierarchical name, see {@link EDIFNetlist#getHierNetFromName(String)}.
+	 * @param netName Hierarchical name of the net, for example: 'inst0/inst1/inst2/net0'
+	 * @return The net, or null if none exists.
+	 */
+	public EDIFNet getNet(String netName){
+		FoundNet found = findNet(netName);
+		return found == null ? null : found.net;
+	}
+
+	/**
+	 * Gets a hierarchical net by its hierarchical name, see {@link EDIFNetlist#getHierNetFromName(String)}.
+	 * @param netName Hierarchical name of the net, for example: 'inst0/inst1/inst2/net0'
+	 * @return The hierarchical net, or null if none exists.
+	 */
+	public EDIFHierNet getHierNet(String netName){
+		FoundNet found = findNet(netName);
+		if(found == null) return null;
+		return new EDIFHierNet(found.sep < 0 ? "" : netName.substring(0, found.sep), found.net);
+	}
+
+	/**
+	 * Gets a port ref by its hierarchical name, see {@link EDIFNetlist#getHierPortInstFromName(String)}.
+	 * @param hierPortInstName Hierarchical name of the port ref, for example: 'inst0/inst1/D'
+	 * @return The port ref, or null if none exists.
+	 */
+	public EDIFPortInst getPortInst(String hierPortInstName){
+		int sep = hierPortInstName.lastIndexOf(SEP);
+		EDIFCellInst inst = findCellInst(hierPortInstName, Math.max(sep, 0));
+		if(inst == null) return null;
+		return getPortInstTable(inst).get(hierPortInstName, sep + 1, hierPortInstName.length());
+	}
+
+	/**
+	 * Gets a hierarchical port ref by its hierarchical name, see
+	 * {@link EDIFNetlist#getHierPortInstFromName(String)}.
+	 * @param hierPortInstName Hierarchical name of the port ref, for example: 'inst0/inst1/D'
+	 * @return The hierarchical port ref, or null if none exists.
+	 */
+	public EDIFHierPortInst getHierPortInst(String hierPortInstName){
+		EDIFPortInst portInst = getPortInst(hierPortInstName);
+		if(portInst == null) return null;
+		int sep = hierPortInstName.lastIndexOf(SEP);
+		int parentSep = sep <= 0 ? -1 : hierPortInstName.lastIndexOf(SEP, sep - 1);
+		return new EDIFHierPortInst(parentSep < 0 ? "" : hierPortInstName.substring(0, parentSep), portInst);
+	}
+
+	/**
+	 * A net and the index of the separator between the instance and net names in its hierarchical
+	 * name, -1 for a net of the top cell.
+	 */
+	private static class FoundNet {
+		private final EDIFNet net;
+		private final int sep;
+
+		private FoundNet(EDIFNet net, int sep){
+			this.net = net;
+			this.sep = sep;
+		}
+	}
+
+	/**
+	 * Finds a net, trying the longest instance names first.
+	 * @return The net found, or null if the net does not exist.
+	 */
+	private FoundNet findNet(String netName){
+		int sep = netName.lastIndexOf(SEP);
+		while(true){
+			EDIFCellInst inst = findCellInst(netName, Math.max(sep, 0));
+			if(inst != null){
+				EDIFNet net = getTables(inst.getCellType()).nets.get(netName, sep + 1, netName.length());
+				if(net != null){
+					return new FoundNet(net, sep);
+				}
+			}
+			if(sep <= 0) return null;
+			sep = netName.lastIndexOf(SEP, sep - 1);
+			if(sep < 0) return null;
+		}
+	}
+
+	/**
+	 * Walks down the hierarchy along name[0,end).  A segment that is not the name of an instance
+	 * is extended with the next segments until it is.  Trailing separators are ignored, as they
+	 * are by {@link String#split(String)}.
+	 */
+	private EDIFCellInst findCellInst(String name, int end){
+		while(end > 0 && name.charAt(end - 1) == SEP) end--;
+		EDIFCellInst inst = netlist.getTopCellInst();
+		int start = 0;
+		while(start < end){
+			NameTable<EDIFCellInst> insts = getTables(inst.getCellType()).insts;
+			EDIFCellInst child;
+			int hash = 0;
+			int i = start;
+			while(true){
+				char c;
+				while(i < end && (c = name.charAt(i)) != SEP){
+					hash = 31 * hash + c;
+					i++;
+				}
+				child = insts.get(name, start, i, hash);
+				if(child != null || i >= end) break;
+				hash = 31 * hash + SEP;
+				i++;
+			}
+			if(child == null) return null;
+			inst = child;
+			start = i + 1;
+		}
+		return inst;
+	}
+
+	/**
+	 * Gets the tables of a cell, building them if they are missing or out of date.  Threads racing
+	 * to build the tables of the same cell build equal tables, one of which is kept.
+	 */
+	private CellTables getTables(EDIFCell cell){
+		CellTables tables = cell.getHierarchyTables();
+		if(tables == null || tables.modCount != cell.getModCount()){
+			tables = new CellTables(cell);
+			cell.setHierarchyTables(tables);
+		}
+		return tables;
+	}
+
+	private NameTable<EDIFPortInst> getPortInstTable(EDIFCellInst inst){
+		NameTable<EDIFPortInst> table = inst.getHierarchyTable();
+		if(table == null || table.modCount != inst.getModCount()){
+			table = new NameTable<>(inst.getPortInstMap(), inst.getModCount());
+			inst.setHierarchyTable(table);
+		}
+		return table;
+	}
+
+	static class CellTables {
+		private final int modCount;
+		private final NameTable<EDIFCellInst> insts;
+		private final NameTable<EDIFNet> nets;
+
+		private CellTables(EDIFCell cell){
+			this.modCount = cell.getModCount();
+			this.insts = new NameTable<>(cell.getCellInstMap(), modCount);
+			this.nets = new NameTable<>(cell.getNetMap(), modCount);
+		}
+	}
+
+	/**
+	 * Open addressing hash table from names to objects, probed with a range of a string.  The
+	 * hash of a name is {@link String#hashCode()}, so the hash of a range can be computed while
+	 * scanning it and is compared with the hash cached by the name before comparing characters.
+	 */
+	static class NameTable<T> {
+		private final int modCount;
+		private final String[] names;
+		private final Object[] values;
+		private final int mask;
+
+		private NameTable(Map<String,T> map, int modCount){
+			this.modCount = modCount;
+			int capacity = 2;
+			while(capacity < map.size() * 2) capacity <<= 1;
+			this.names = new String[capacity];
+			this.values = new Object[capacity];
+			this.mask = capacity - 1;
+			for(Entry<String,T> e : map.entrySet()){
+				int i = spread(e.getKey().hashCode()) & mask;
+				while(names[i] != null) i = (i + 1) & mask;
+				names[i] = e.getKey();
+				values[i] = e.getValue();
+			}
+		}
+
+		private T get(String s, int start, int end){
+			int hash = 0;
+			for(int i=start; i < end; i++){
+				hash = 31 * hash + s.charAt(i);
+			}
+			return get(s, start, end, hash);
+		}
+
+		@SuppressWarnings("unchecked")
+		private T get(String s, int start, int end, int hash){
+			int length = end - start;
+			for(int i = spread(hash) & mask; names[i] != null; i = (i + 1) & mask){
+				String name = names[i];
+				if(name.length() == length && name.hashCode() == hash && s.regionMatches(start, name, 0, length)){
+					return (T) values[i];
+				}
+			}
+			return null;
+		}
+
+		private static int spread(int hash){
+			return hash ^ (hash >>> 16);
+		}
+	}
+}
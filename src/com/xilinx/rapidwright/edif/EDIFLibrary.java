@@ -262,13 +262,21 @@ public class EDIFLibrary extends EDIFName {
 	
 
 	public void exportEDIF(Writer bw) throws IOException{
+		exportEDIFHeader(bw);
+		for(EDIFCell cell : getValidCellExportOrder()){
+			cell.exportEDIF(bw);
+		}
+		exportEDIFFooter(bw);
+	}
+	
+	void exportEDIFHeader(Writer bw) throws IOException{
 		bw.write("  (Library ");
 		exportEDIFName(bw);
 		bw.write("\n    (edifLevel 0)\n");
 		bw.write("    (technology (numberDefinition ))\n");
-		for(EDIFCell cell : getValidCellExportOrder()){
-			cell.exportEDIF(bw);
-		}
+	}
+	
+	void exportEDIFFooter(Writer bw) throws IOException{
 		bw.write("  )\n");
 	}
 }
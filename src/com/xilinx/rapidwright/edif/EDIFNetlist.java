@@ -29,6 +29,7 @@ import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -83,6 +84,8 @@ public class EDIFNetlist extends EDIFName {
 	
 	private String[] encryptedCells; 
 	
+	private transient EDIFHierarchyIndex hierarchyIndex;
+	
 	private boolean DEBUG = false;
 
 	public static final Map<String,String> macroExpandExceptionMap;
@@ -272,6 +275,13 @@ public class EDIFNetlist extends EDIFName {
 		return comments;
 	}
 
+	/**
+	 * @return the metax entries by key
+	 */
+	public Map<String, EDIFPropertyValue> getMetax() {
+		return metax;
+	}
+
 	/**
 	 * Migrates all cells in the provided library
 	 * into the standard work library.  
@@ -438,48 +448,14 @@ public class EDIFNetlist extends EDIFName {
 		
 		try {
 			bw = new BufferedWriter(new FileWriter(fileName));
-			bw.write("(edif ");
-			exportEDIFName(bw);
-			bw.write("\n");
-			bw.write("  (edifversion 2 0 0)\n");
-			bw.write("  (edifLevel 0)\n");
-			bw.write("  (keywordmap (keywordlevel 0))\n");
-			bw.write("(status\n");
-			bw.write(" (written\n");
-			bw.write("  (timeStamp ");
-			SimpleDateFormat formatter = new SimpleDateFormat("yyyy MM dd HH mm ss");
-			bw.write(formatter.format(new java.util.Date()));
-			bw.write(")\n");
-			bw.write("  (program \""+Device.FRAMEWORK_NAME+"\" (version \"" + Device.RAPIDWRIGHT_VERSION + "\"))\n");
-			for(String comment : getComments()){
-				bw.write("  (comment \"");
-				bw.write(comment);
-				bw.write("\")\n");
-			}
-			for(Entry<String,EDIFPropertyValue> e : metax.entrySet()){
-				bw.write("(metax ");
-				bw.write(e.getKey());
-				bw.write(" ");
-				e.getValue().writeEDIFString(bw);
-				bw.write(")\n");
-			}
-			bw.write(" )\n");
-			bw.write(")\n");
+			exportEDIFHeader(bw);
 			
 			getHDIPrimitivesLibrary().exportEDIF(bw);
 			for(EDIFLibrary lib : getLibrariesMap().values()){
 				if(lib.getName().equals(EDIFTools.EDIF_LIBRARY_HDI_PRIMITIVES_NAME)) continue;
 				lib.exportEDIF(bw);
 			}
-			bw.write("(comment \"Reference To The Cell Of Highest Level\")\n\n");
-			bw.write("  (design ");
-			EDIFDesign design = getDesign(); 
-			design.exportEDIFName(bw);
-			bw.write("\n    (cellref " + design.getTopCell().getLegalEDIFName() + " (libraryref ");
-			bw.write(design.getTopCell().getLibrary().getLegalEDIFName() +"))\n");
-			design.exportEDIFProperties(bw, "    ");
-			bw.write("  )\n");
-			bw.write(")\n");
+			exportEDIFFooter(bw);
 			bw.flush();
 			bw.close();
 		} catch (IOException e) {
@@ -488,6 +464,102 @@ public class EDIFNetlist extends EDIFName {
 		}
 	}
 	
+	/**
+	 * Writes the netlist to an EDIF file, rendering the cells with multiple threads.  
+	 * Unlike {@link #exportEDIF(String)}, the file is gzipped if its name ends with ".gz".
+	 * @param fileName Name of the EDIF file.
+	 * @param numThreads Number of threads rendering the cells, the cells are rendered by the
+	 * calling thread if 1 or less.
+	 */
+	public void exportEDIF(String fileName, int numThreads){
+		//for(EDIFLibrary lib : getLibraries()){
+		//	lib.ensureValidEDIFCellNames();
+		//}
+		
+		try {
+			new ParallelEDIFWriter(this, numThreads).writeEDIF(fileName);
+		} catch (IOException e) {
+			MessageGenerator.briefError("ERROR: Failed to export EDIF file " + fileName);
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Writes the EDIF syntax of the netlist up to its first library.
+	 * @param bw The writer to export the EDIF syntax to.
+	 * @throws IOException
+	 */
+	void exportEDIFHeader(Writer bw) throws IOException{
+		bw.write("(edif ");
+		exportEDIFName(bw);
+		bw.write("\n");
+		bw.write("  (edifversion 2 0 0)\n");
+		bw.write("  (edifLevel 0)\n");
+		bw.write("  (keywordmap (keywordlevel 0))\n");
+		bw.write("(status\n");
+		bw.write(" (written\n");
+		bw.write("  (timeStamp ");
+		SimpleDateFormat formatter = new SimpleDateFormat("yyyy MM dd HH mm ss");
+		bw.write(formatter.format(new java.util.Date()));
+		bw.write(")\n");
+		bw.write("  (program \""+Device.FRAMEWORK_NAME+"\" (version \"" + Device.RAPIDWRIGHT_VERSION + "\"))\n");
+		for(String comment : getComments()){
+			bw.write("  (comment \"");
+			bw.write(comment);
+			bw.write("\")\n");
+		}
+		for(Entry<String,EDIFPropertyValue> e : metax.entrySet()){
+			bw.write("(metax ");
+			bw.write(e.getKey());
+			bw.write(" ");
+			e.getValue().writeEDIFString(bw);
+			bw.write(")\n");
+		}
+		bw.write(" )\n");
+		bw.write(")\n");
+	}
+	
+	/**
+	 * Writes the EDIF syntax of the netlist after its last library.
+	 * @param bw The writer to export the EDIF syntax to.
+	 * @throws IOException
+	 */
+	void exportEDIFFooter(Writer bw) throws IOException{
+		bw.write("(comment \"Reference To The Cell Of Highest Level\")\n\n");
+		bw.write("  (design ");
+		EDIFDesign design = getDesign(); 
+		design.exportEDIFName(bw);
+		bw.write("\n    (cellref " + design.getTopCell().getLegalEDIFName() + " (libraryref ");
+		bw.write(design.getTopCell().getLibrary().getLegalEDIFName() +"))\n");
+		design.exportEDIFProperties(bw, "    ");
+		bw.write("  )\n");
+		bw.write(")\n");
+	}
+	
+	/**
+	 * Gets the index of the hierarchical names of this netlist, building it if needed.  Once 
+	 * built, the index resolves the hierarchical names given to {@link #getCellInstFromHierName(String)}, 
+	 * {@link #getHierNetFromName(String)}, {@link #getHierPortInstFromName(String)} and the 
+	 * methods using them, such as {@link #getNetAliases(String)}, until 
+	 * {@link #resetHierarchyIndex()} is called.
+	 * @return The index of the hierarchical names of this netlist.
+	 */
+	public EDIFHierarchyIndex getHierarchyIndex(){
+		if(hierarchyIndex == null){
+			hierarchyIndex = new EDIFHierarchyIndex(this);
+		}
+		return hierarchyIndex;
+	}
+	
+	/**
+	 * Drops the index of the hierarchical names of this netlist, if any, so that hierarchical
+	 * names are resolved by walking the netlist again.
+	 */
+	public void resetHierarchyIndex(){
+		if(hierarchyIndex != null) hierarchyIndex.invalidate();
+		hierarchyIndex = null;
+	}
+	
 	/**
 	 * Based on a hierarchical string, this method will get the instance corresponding
 	 * to the name provided.
@@ -496,6 +568,7 @@ public class EDIFNetlist extends EDIFName {
 	 * it returns the top cell instance.
 	 */
 	public EDIFCellInst getCellInstFromHierName(String name){
+		if(hierarchyIndex != null) return hierarchyIndex.getCellInst(name);
 		EDIFCellInst currInst = getTopCellInst();
 		if(name.isEmpty()) return currInst;
 		String[] parts = name.split(EDIFTools.EDIF_HIER_SEP);
@@ -524,6 +597,7 @@ public class EDIFNetlist extends EDIFName {
 	 * @return The hierarchical net, or null if none could be found.
 	 */
 	public EDIFNet getNetFromHierName(String netName){
+		if(hierarchyIndex != null) return hierarchyIndex.getNet(netName);
 		EDIFHierNet net = getHierNetFromName(netName);
 		return net == null ? null : net.getNet();
 	}
@@ -534,6 +608,7 @@ public class EDIFNetlist extends EDIFName {
 	 * @return The port instance of interest or null if none could be found.
 	 */
 	public EDIFHierPortInst getHierPortInstFromName(String hierPortInstName){
+		if(hierarchyIndex != null) return hierarchyIndex.getHierPortInst(hierPortInstName);
 		String instName = "";
 		String localPortName = hierPortInstName;
 		int lastSep = hierPortInstName.lastIndexOf(EDIFTools.EDIF_HIER_SEP);
@@ -612,6 +687,7 @@ public class EDIFNetlist extends EDIFName {
 	 * @return The absolute net with hierarchical name, or null if none could be found.
 	 */
 	public EDIFHierNet getHierNetFromName(String netName){
+		if(hierarchyIndex != null) return hierarchyIndex.getHierNet(netName);
 		String instName = "";
 		String localNetName = netName;
 		int lastSep = netName.lastIndexOf(EDIFTools.EDIF_HIER_SEP);
@@ -799,9 +875,17 @@ public class EDIFNetlist extends EDIFName {
 	
 	private static boolean isDeviceNullPrinted = false;
 	private boolean isTransformPrim(EDIFHierPortInst p){
-		EDIFCellInst cellInst = p.getPortInst().getCellInst();
-		if(!cellInst.getCellType().isPrimitive()) return false;
-		Unisim u = Unisim.valueOf(p.getPortInst().getCellInst().getCellType().getName());
+		return isTransformPrim(p.getPortInst().getCellInst().getCellType());
+	}
+	
+	/**
+	 * Checks if the cell is a primitive that is transformed when placed on the device.
+	 * @param cellType The cell to check.
+	 * @return True if the cell is a primitive with a transform for the series of the device.
+	 */
+	boolean isTransformPrim(EDIFCell cellType){
+		if(!cellType.isPrimitive()) return false;
+		Unisim u = Unisim.valueOf(cellType.getName());
 		if(device == null && !isDeviceNullPrinted){
 			System.err.println("WARNING: EDIFNetlist.device==null when calling isTransformPrim(), results may be incorrect");
 			isDeviceNullPrinted = true;
@@ -987,53 +1071,23 @@ public class EDIFNetlist extends EDIFName {
 	}
 	
 	private void generateParentNetMap(){
+		generateParentNetMap(1);
+	}
+	
+	/**
+	 * Generates the parent net map and the physical net pin map of this netlist with a 
+	 * {@link ParallelParentNetMapper}, replacing the existing ones.
+	 * @param numThreads Number of threads to use, the maps are generated by the calling thread
+	 * if 1 or less.
+	 */
+	public void generateParentNetMap(int numThreads){
 		long start = 0;
 		if(DEBUG){
 			start = System.currentTimeMillis();
 		}
-		if(parentNetMap == null){
-			parentNetMap = new HashMap<>();
-		}
-		if(physicalNetPinMap == null){
-			physicalNetPinMap = new HashMap<String,ArrayList<EDIFHierPortInst>>();
-		}
-		EDIFCell c = getTopCell();
-		Queue<EDIFHierPortInst> queue = new LinkedList<>();
-		// All parent nets are either top-level inputs or outputs of leaf cells
-		// Here we gather all top-level inputs
-		for(EDIFNet n : c.getNets()){
-			for(EDIFPortInst p : n.getPortInsts()){
-				if(p.isTopLevelPort() && p.isInput()){
-					queue.add(new EDIFHierPortInst("", p));
-				}
-			}
-		}
-		// Here we search for all leaf cell insts 
-		Queue<EDIFHierCellInst> instQueue = new LinkedList<>();
-		instQueue.add(new EDIFHierCellInst("", getTopCellInst()));
-		while(!instQueue.isEmpty()){
-			EDIFHierCellInst currInst = instQueue.poll(); 
-			for(EDIFCellInst eci : currInst.getInst().getCellType().getCellInsts()){
-				// Checks if cell is primitive or black box
-				if(eci.getCellType().getCellInsts().size() == 0 && eci.getCellType().getNets().size() == 0){
-					for(EDIFPortInst portInst : eci.getPortInsts()){
-						if(portInst.isOutput()){
-							queue.add(new EDIFHierPortInst(currInst.getFullHierarchicalInstName(), portInst));
-						}
-					}
-				}else{
-					String hName = currInst.getFullHierarchicalInstName();
-					instQueue.add(new EDIFHierCellInst(hName,eci));
-				}
-			}
-		}
-		
-		for(EDIFHierPortInst pr : queue){
-			String parentNetName = pr.getHierarchicalNetName();
-			for(String alias : getNetAliases(parentNetName)){
-				parentNetMap.put(alias, parentNetName);
-			}
-		}
+		parentNetMap = new HashMap<>();
+		physicalNetPinMap = new HashMap<String,ArrayList<EDIFHierPortInst>>();
+		new ParallelParentNetMapper(this, numThreads).generate(parentNetMap, physicalNetPinMap);
 		if(DEBUG){
 			long stop = System.currentTimeMillis();
 			System.out.println("generateParentNetMap() runtime: " + (stop-start)/1000.0f +" seconds ");
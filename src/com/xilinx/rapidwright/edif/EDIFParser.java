@@ -138,6 +138,39 @@ public class EDIFParser {
 		portLookup = new HashMap<>();
 	}
 	
+	/**
+	 * Continues parsing from another stream, for example from the next cell of a file that is
+	 * parsed in chunks.  Reference cells and ports parsed so far are kept.
+	 * @param in The stream, starting at a token boundary.
+	 */
+	void setInputStream(InputStream in){
+		this.in = in;
+		nextTokens.clear();
+		idx = 0;
+		inQuote = false;
+	}
+	
+	/**
+	 * Consumes the opening parenthesis of the next construct.
+	 */
+	void expectLeftParen(){
+		expect(LEFT_PAREN, getNextToken());
+	}
+	
+	/**
+	 * @return The cells referenced or defined so far, by legal EDIF library and cell names.
+	 */
+	Map<String,Map<String,EDIFCell>> getEDIFInstCellMap(){
+		return edifInstCellMap;
+	}
+	
+	/**
+	 * @return The ports parsed so far by their unique EDIF port ID.
+	 */
+	Map<String,EDIFPort> getPortLookup(){
+		return portLookup;
+	}
+	
 	/**
 	 * Gets the reference EDIFCell for the given name.  This is to enable
 	 * references rather than strings to be used to connect the netlist model.
@@ -323,6 +356,43 @@ public class EDIFParser {
 	
 	@SuppressWarnings("unused")
 	public EDIFNetlist parseEDIFNetlist(){
+		parseEDIFNetlistHeader();
+
+		String currToken;
+		while(LEFT_PAREN.equals(currToken = getNextToken())){
+			String nextToken = peekNextToken();
+			if(nextToken.equalsIgnoreCase(LIBRARY)){
+				currNetlist.addLibrary(parseEDIFLibrary());
+			} else if(nextToken.equalsIgnoreCase(COMMENT)){
+				// Final Comment on Reference To The Cell Of Highest Level
+				expect(COMMENT, getNextToken());
+				String comment = getNextToken();
+				expect(RIGHT_PAREN, getNextToken());
+			} else if(nextToken.equalsIgnoreCase(DESIGN)){
+				currNetlist.setDesign(parseEDIFDesign());
+			} else {
+				expect(LIBRARY + " | " + COMMENT + " | " + DESIGN, nextToken);
+			}
+			 
+		}
+		expect(RIGHT_PAREN, currToken);  // edif end
+		
+		// Update PortInsts
+		for(EDIFLibrary lib : currNetlist.getLibraries()){
+			for(EDIFCell cell : lib.getCells()){
+				updatePortInsts(cell, portLookup);
+			}
+		}
+		
+		return currNetlist;
+	}
+	
+	/**
+	 * Parses the beginning of the netlist up to its first library.
+	 * @return The netlist, without libraries or design.
+	 */
+	@SuppressWarnings("unused")
+	EDIFNetlist parseEDIFNetlistHeader(){
 		expect(LEFT_PAREN, getNextToken());
 		expect(EDIF, getNextToken());
 		currNetlist = (EDIFNetlist) parseEDIFNameObject(new EDIFNetlist());
@@ -382,75 +452,81 @@ public class EDIFParser {
 		}
 		expect(RIGHT_PAREN, currToken);
 		expect(RIGHT_PAREN, getNextToken());
-		
+		return currNetlist;
+	}
+	
+	/**
+	 * Parses the design, after the opening parenthesis.
+	 * @return The design, whose top cell is the reference cell of its cellref.
+	 */
+	EDIFDesign parseEDIFDesign(){
+		expect(DESIGN, getNextToken());
+		EDIFDesign design = (EDIFDesign)parseEDIFNameObject(new EDIFDesign());
+		expect(LEFT_PAREN, getNextToken());
+		expect(CELLREF, getNextToken());
+		String cellref = getNextToken();
+		expect(LEFT_PAREN, getNextToken());
+		expect(LIBRARYREF, getNextToken());
+		String libraryref = getNextToken();
+		design.setTopCell(getRefEDIFCell(cellref, libraryref));
+		expect(RIGHT_PAREN, getNextToken());
+		expect(RIGHT_PAREN, getNextToken());
+		String currToken = null;
 		while(LEFT_PAREN.equals(currToken = getNextToken())){
-			String nextToken = peekNextToken();
-			if(nextToken.equalsIgnoreCase(LIBRARY)){
-				currNetlist.addLibrary(parseEDIFLibrary());
-			} else if(nextToken.equalsIgnoreCase(COMMENT)){
-				// Final Comment on Reference To The Cell Of Highest Level
-				expect(COMMENT, getNextToken());
-				String comment = getNextToken();
-				expect(RIGHT_PAREN, getNextToken());
-			} else if(nextToken.equalsIgnoreCase(DESIGN)){
-				expect(DESIGN, getNextToken());
-				EDIFDesign design = (EDIFDesign)parseEDIFNameObject(new EDIFDesign());
-				currNetlist.setDesign(design);
-				expect(LEFT_PAREN, getNextToken());
-				expect(CELLREF, getNextToken());
-				String cellref = getNextToken();
-				expect(LEFT_PAREN, getNextToken());
-				expect(LIBRARYREF, getNextToken());
-				String libraryref = getNextToken();
-				design.setTopCell(getRefEDIFCell(cellref, libraryref));
-				expect(RIGHT_PAREN, getNextToken());
-				expect(RIGHT_PAREN, getNextToken());
-				currToken = null;
-				while(LEFT_PAREN.equals(currToken = getNextToken())){
-					parseProperty(design); 
-				}
-				expect(RIGHT_PAREN, currToken);
-
-			} else {
-				expect(LIBRARY + " | " + COMMENT + " | " + DESIGN, nextToken);
-			}
-			 
+			parseProperty(design); 
 		}
-		expect(RIGHT_PAREN, currToken);  // edif end
-		
-		// Update PortInsts
-		for(EDIFLibrary lib : currNetlist.getLibraries()){
-			for(EDIFCell cell : lib.getCells()){
-				for(EDIFNet net : cell.getNets()){
-					List<EDIFPortInst> portInsts = new ArrayList<>(net.getPortInsts());
-					for(EDIFPortInst portInst : portInsts){
-						EDIFCellInst inst = portInst.getCellInst();
-						EDIFCell c = inst == null ? portInst.getParentCell() : inst.getCellType();
-						String uid = getUniqueEDIFPortID(c.getLibrary(), c, portInst.getName());
-						portInst.setPort(portLookup.get(uid));
-						if(inst == null){
-							cell.addInternalPortMapEntry(portInst.getPortInstNameFromPort(), net);							
-						}else {
-							inst.removePortInst(portInst);
-						}
-						String newPortInstName = portInst.getPortInstNameFromPort();
-						portInst.setName(newPortInstName);
-						if(inst != null){
-							inst.addPortInst(portInst);
-						}
-					}
-					net.getPortInstMap().clear();
-					for(EDIFPortInst portInst : portInsts){
-						net.addPortInst(portInst);
-					}
+		expect(RIGHT_PAREN, currToken);
+		return design;
+	}
+	
+	/**
+	 * Maps the portrefs of the nets of a cell to the ports of the referenced cells and renames
+	 * the port instances after the ports.  The cell types of the instances in the cell must be
+	 * final.
+	 * @param cell The cell to update.
+	 * @param portLookup Ports by their unique EDIF port ID.
+	 */
+	static void updatePortInsts(EDIFCell cell, Map<String,EDIFPort> portLookup){
+		for(EDIFNet net : cell.getNets()){
+			List<EDIFPortInst> portInsts = new ArrayList<>(net.getPortInsts());
+			for(EDIFPortInst portInst : portInsts){
+				EDIFCellInst inst = portInst.getCellInst();
+				EDIFCell c = inst == null ? portInst.getParentCell() : inst.getCellType();
+				String uid = getUniqueEDIFPortID(c.getLibrary(), c, portInst.getName());
+				portInst.setPort(portLookup.get(uid));
+				if(inst == null){
+					cell.addInternalPortMapEntry(portInst.getPortInstNameFromPort(), net);							
+				}else {
+					inst.removePortInst(portInst);
+				}
+				String newPortInstName = portInst.getPortInstNameFromPort();
+				portInst.setName(newPortInstName);
+				if(inst != null){
+					inst.addPortInst(portInst);
 				}
 			}
+			net.getPortInstMap().clear();
+			for(EDIFPortInst portInst : portInsts){
+				net.addPortInst(portInst);
+			}
 		}
-		
-		return currNetlist;
 	}
 	
 	private EDIFLibrary parseEDIFLibrary(){
+		EDIFLibrary library = parseEDIFLibraryHeader();
+		String currToken = null;
+		while(LEFT_PAREN.equals(currToken = getNextToken())){
+			library.addCell(parseEDIFCell(library)); 
+		}
+		expect(RIGHT_PAREN, currToken);
+		return library;
+	}
+	
+	/**
+	 * Parses a library up to its first cell, after the opening parenthesis.
+	 * @return The library, without cells.
+	 */
+	EDIFLibrary parseEDIFLibraryHeader(){
 		expect(LIBRARY, getNextToken());
 		EDIFLibrary library = (EDIFLibrary) parseEDIFNameObject(new EDIFLibrary());
 		expect(LEFT_PAREN, getNextToken());
@@ -465,12 +541,6 @@ public class EDIFParser {
 		expect(NUMBERDEFINITION, getNextToken());
 		expect(RIGHT_PAREN, getNextToken());
 		expect(RIGHT_PAREN, getNextToken());
-		
-		String currToken = null;
-		while(LEFT_PAREN.equals(currToken = getNextToken())){
-			library.addCell(parseEDIFCell(library)); 
-		}
-		expect(RIGHT_PAREN, currToken);
 		return library;
 	}
 	
@@ -525,11 +595,11 @@ public class EDIFParser {
 	 * prototype port.
 	 * @return A unique EDIF identifier to enable portref lookup post EDIF parsing.
 	 */
-	private String getUniqueEDIFPortID(EDIFLibrary l, EDIFCell c, String edifPortName){
+	private static String getUniqueEDIFPortID(EDIFLibrary l, EDIFCell c, String edifPortName){
 		return l.getName() + "/" + c.getName() + "/" + edifPortName;
 	}
 	
-	private EDIFCell parseEDIFCell(EDIFLibrary lib){
+	EDIFCell parseEDIFCell(EDIFLibrary lib){
 		expect(CELL, getNextToken());
 		EDIFCell cell = (EDIFCell) parseEDIFNameObject(new EDIFCell());
 		cell = updateEDIFRefCellMap(lib, cell);
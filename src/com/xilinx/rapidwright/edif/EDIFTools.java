@@ -29,9 +29,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -138,6 +135,10 @@ public class EDIFTools {
 	/** Flag to switch EDIF files to KRYO files to make Java debugging faster  (must run once without debugging mode first, once set to true) */
 	public static final boolean EDIF_DEBUG = false;
 
+	/** Flag to cache EDIF files read by {@link #readEdifFile(String)} in binary files (see {@link BinaryEDIF}), 
+	 * which are read instead of the EDIF file as long as the EDIF file does not change */
+	public static boolean EDIF_BINARY_CACHE = false;
+
 	public static int UNIQUE_COUNT = 0;
 	
 	private static String getUniqueNetSuffix() {
@@ -696,6 +697,17 @@ public class EDIFTools {
 		return p.parseEDIFNetlist();
 	}
 
+	/**
+	 * Loads an EDIF file, parsing its cells with multiple threads.
+	 * @param fileName Name of the EDIF file.
+	 * @param numThreads Number of threads, the file is parsed by {@link EDIFParser} if 1 or less.
+	 * @return The netlist.
+	 */
+	public static EDIFNetlist loadEDIFFile(String fileName, int numThreads){
+		if(numThreads <= 1) return loadEDIFFile(fileName);
+		return new ParallelEDIFParser(fileName, numThreads).parseEDIFNetlist();
+	}
+
 	public static void ensureCorrectPartInEDIF(EDIFNetlist edif, String partName){
 		Map<EDIFName, EDIFPropertyValue> propMap = edif.getDesign().getProperties();
 		if(propMap == null){
@@ -719,6 +731,24 @@ public class EDIFTools {
 		}
 	}
 
+	/**
+	 * Reads the binary cache of an EDIF file if it is up to date.
+	 * @param binaryFileName Name of the binary file.
+	 * @param edifFileName Name of the EDIF file.
+	 * @return The netlist, or null if the binary file is missing, stale or can not be read, 
+	 * in which case the EDIF file is to be parsed.
+	 */
+	private static EDIFNetlist readBinaryEDIFCache(String binaryFileName, String edifFileName){
+		if(!BinaryEDIF.isUpToDate(binaryFileName, edifFileName)) return null;
+		try {
+			return BinaryEDIF.readBinaryEDIF(binaryFileName);
+		} catch (RuntimeException e) {
+			System.err.println("WARNING: Could not read binary EDIF file " + binaryFileName 
+				+ ", parsing " + edifFileName + " instead: " + e.getMessage());
+			return null;
+		}
+	}
+	
 	public static EDIFNetlist readEdifFile(String edifFileName){
 		EDIFNetlist edif;
 		File edifFile = new File(edifFileName);
@@ -737,12 +767,24 @@ public class EDIFTools {
 					+ "be passed to resulting DCP load script.");
 			}
 		}
-		if(EDIFTools.EDIF_DEBUG && FileTools.isFileNewer(edifFileName + ".dat", edifFileName)){
-			edif = FileTools.readObjectFromKryoFile(edifFileName + ".dat", EDIFNetlist.class);
-		}else{
-			edif = loadEDIFFile(edifFileName);
-			if(!(new File(edifFileName + ".dat").exists()) || FileTools.isFileNewer(edifFileName, edifFileName + ".dat") ){
-				if(EDIFTools.EDIF_DEBUG) FileTools.writeObjectToKryoFile(edifFileName + ".dat", edif);			
+		String binaryFileName = edifFileName + BinaryEDIF.FILE_EXTENSION;
+		edif = EDIF_BINARY_CACHE ? readBinaryEDIFCache(binaryFileName, edifFileName) : null;
+		if(edif == null){
+			if(EDIFTools.EDIF_DEBUG && FileTools.isFileNewer(edifFileName + ".dat", edifFileName)){
+				edif = FileTools.readObjectFromKryoFile(edifFileName + ".dat", EDIFNetlist.class);
+			}else{
+				edif = loadEDIFFile(edifFileName);
+				if(!(new File(edifFileName + ".dat").exists()) || FileTools.isFileNewer(edifFileName, edifFileName + ".dat") ){
+					if(EDIFTools.EDIF_DEBUG) FileTools.writeObjectToKryoFile(edifFileName + ".dat", edif);			
+				}
+				if(EDIF_BINARY_CACHE){
+					try {
+						BinaryEDIF.writeBinaryEDIF(binaryFileName, edif, edifFileName);
+					} catch (RuntimeException e) {
+						System.err.println("WARNING: Could not write binary EDIF file " + binaryFileName 
+							+ ": " + e.getMessage());
+					}
+				}
 			}
 		}
 		if(edifDirectoryName != null) {
@@ -774,12 +816,9 @@ public class EDIFTools {
 	 */
 	public static void writeEDIFFile(OutputStream out, String dcpFileName, EDIFNetlist edif, 
 										String partName){
-		String hiddenEDIFFileName = ".temp_edif_" + FileTools.getUniqueProcessAndHostID() + ".edf";
-		writeEDIFFile(hiddenEDIFFileName, edif, partName);
-		Path path = FileSystems.getDefault().getPath(hiddenEDIFFileName);
+		ensureCorrectPartInEDIF(edif, partName);
 		try {
-			Files.copy(path, out);
-			Files.delete(path);
+			new ParallelEDIFWriter(edif, 1).writeEDIF(out);
 			if(dcpFileName != null && edif.getEncryptedCells() != null) {
 				if(edif.getEncryptedCells().length > 0) {
 					writeTclLoadScriptForPartialEncryptedDesigns(edif, dcpFileName, partName);
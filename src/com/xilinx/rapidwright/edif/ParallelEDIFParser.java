@@ -0,0 +1,431 @@
+/*
+ *
+ * Copyright (c) 2026 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.edif;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+/**
+ * Parses an EDIF file with multiple threads.  The file is memory-mapped and scanned in chunks in
+ * parallel to find where each library, cell and design begins.  The cells are then parsed
+ * concurrently by {@link EDIFParser}s that each read a batch of cells, and a final pass, also
+ * parallel over the cells, links the cellrefs to the parsed cells and the portrefs to their ports.
+ * The netlist is the same as the one read by {@link EDIFParser#parseEDIFNetlist()}, except that the
+ * strings are only unique among the cells parsed by the same thread.
+ * Created on: Oct 17, 2026
+ */
+public class ParallelEDIFParser {
+
+	// a MappedByteBuffer is limited to 2GB, so the file is mapped in segments
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+	// the file is scanned and parsed in this many chunks per thread to balance the load
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	private static final byte LIBRARY = 1;
+	private static final byte CELL = 2;
+	private static final byte DESIGN = 3;
+
+	private String fileName;
+
+	private int numThreads;
+
+	private ByteBuffer[] segments;
+
+	private long size;
+
+	/**
+	 * The opening parenthesis of a library, cell or design.
+	 */
+	private static class Mark {
+		final long pos;
+		int depth;
+		final byte type;
+
+		Mark(long pos, int depth, byte type){
+			this.pos = pos;
+			this.depth = depth;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * The result of scanning a chunk of the file from a given quote state: the marks found with
+	 * their depth relative to the start of the chunk, the depth change and the final quote state.
+	 */
+	private static class Chunk {
+		final long start;
+		final long end;
+		boolean startInQuote;
+		boolean endInQuote;
+		int depthDelta;
+		List<Mark> marks;
+
+		Chunk(long start, long end){
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * A range of consecutive cells parsed by one thread.
+	 */
+	private static class Batch {
+		final List<Mark> marks = new ArrayList<>();
+		final List<Long> ends = new ArrayList<>();
+		final List<EDIFLibrary> libraries = new ArrayList<>();
+		final List<EDIFCell> cells = new ArrayList<>();
+		EDIFParser parser;
+	}
+
+	/**
+	 * Creates a parser using one thread per available processor.
+	 * @param fileName Name of the EDIF file.
+	 */
+	public ParallelEDIFParser(String fileName){
+		this(fileName, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a parser.
+	 * @param fileName Name of the EDIF file.
+	 * @param numThreads Number of threads to scan and parse with.
+	 */
+	public ParallelEDIFParser(String fileName, int numThreads){
+		this.fileName = fileName;
+		this.numThreads = Math.max(1, numThreads);
+	}
+
+	public int getNumThreads(){
+		return numThreads;
+	}
+
+	private void mapFile(){
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			size = channel.size();
+			int numSegments = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+			segments = new ByteBuffer[numSegments];
+			for(int i=0; i < numSegments; i++){
+				long start = (long) i << SEGMENT_BITS;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Couldn't read file : " + fileName, e);
+		}
+	}
+
+	private int get(long pos){
+		return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & (SEGMENT_SIZE - 1))) & 0xff;
+	}
+
+	/**
+	 * Reads a range of the mapped file.  Absolute reads of the mapped buffers do not change their
+	 * state, so any number of streams can read the file concurrently.
+	 */
+	private class RangeInputStream extends InputStream {
+		private long pos;
+		private final long end;
+
+		RangeInputStream(long start, long end){
+			this.pos = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() {
+			return pos < end ? get(pos++) : -1;
+		}
+	}
+
+	/**
+	 * Checks if a keyword followed by white space starts at a position, ignoring case.
+	 */
+	private boolean isKeywordAt(long pos, String keyword){
+		int length = keyword.length();
+		if(pos + length >= size) return false;
+		for(int i=0; i < length; i++){
+			if(Character.toLowerCase(get(pos + i)) != keyword.charAt(i)) return false;
+		}
+		int next = get(pos + length);
+		return next == ' ' || next == '\n' || next == '\r' || next == '\t';
+	}
+
+	private byte getMarkType(long pos){
+		switch(get(pos)){
+			case 'c':
+			case 'C':
+				return isKeywordAt(pos, "cell") ? CELL : 0;
+			case 'l':
+			case 'L':
+				return isKeywordAt(pos, "library") ? LIBRARY : 0;
+			case 'd':
+			case 'D':
+				return isKeywordAt(pos, "design") ? DESIGN : 0;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Scans a chunk for the parentheses outside of quotes, following the same quoting rules as
+	 * the tokenizer of {@link EDIFParser}.
+	 */
+	private void scan(Chunk chunk, boolean startInQuote){
+		boolean inQuote = startInQuote;
+		int depth = 0;
+		List<Mark> marks = new ArrayList<>();
+		for(long pos = chunk.start; pos < chunk.end; pos++){
+			int ch = get(pos);
+			if(ch == '"'){
+				inQuote = !inQuote;
+			}else if(inQuote){
+				continue;
+			}else if(ch == '('){
+				if(pos + 1 < size){
+					byte type = getMarkType(pos + 1);
+					if(type != 0) marks.add(new Mark(pos, depth, type));
+				}
+				depth++;
+			}else if(ch == ')'){
+				depth--;
+			}
+		}
+		chunk.startInQuote = startInQuote;
+		chunk.endInQuote = inQuote;
+		chunk.depthDelta = depth;
+		chunk.marks = marks;
+	}
+
+	/**
+	 * Finds the libraries and designs at the top level of the netlist and the cells of the
+	 * libraries.  Chunks are scanned in parallel assuming they start outside of a quote, and a
+	 * chunk is scanned again if the previous chunk ends inside a quote.
+	 * @return The marks in file order.
+	 */
+	private List<Mark> findMarks(ExecutorService pool) throws InterruptedException, ExecutionException {
+		int numChunks = (int) Math.max(1, Math.min(numThreads * CHUNKS_PER_THREAD, size / (1 << 16)));
+		List<Chunk> chunks = new ArrayList<>();
+		List<Future<?>> futures = new ArrayList<>();
+		for(int i=0; i < numChunks; i++){
+			Chunk chunk = new Chunk(size * i / numChunks, size * (i + 1) / numChunks);
+			chunks.add(chunk);
+			futures.add(pool.submit(() -> scan(chunk, false)));
+		}
+		for(Future<?> f : futures){
+			f.get();
+		}
+
+		List<Mark> marks = new ArrayList<>();
+		boolean inQuote = false;
+		int depth = 0;
+		for(Chunk chunk : chunks){
+			if(chunk.startInQuote != inQuote){
+				scan(chunk, inQuote);
+			}
+			for(Mark m : chunk.marks){
+				m.depth += depth;
+				boolean topLevel = (m.type == CELL) ? m.depth == 2 : m.depth == 1;
+				if(topLevel) marks.add(m);
+			}
+			depth += chunk.depthDelta;
+			inQuote = chunk.endInQuote;
+		}
+		return marks;
+	}
+
+	private EDIFParser newParser(long start, long end){
+		return new EDIFParser(new RangeInputStream(start, end));
+	}
+
+	/**
+	 * Parses the EDIF file.
+	 * @return The netlist.
+	 */
+	public EDIFNetlist parseEDIFNetlist(){
+		mapFile();
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			return parseEDIFNetlist(pool);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("ERROR: Interrupted while parsing EDIF file: " + fileName, e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("ERROR: Failed to parse EDIF file: " + fileName, e.getCause());
+		} finally {
+			pool.shutdownNow();
+			segments = null;
+		}
+	}
+
+	private EDIFNetlist parseEDIFNetlist(ExecutorService pool) throws InterruptedException, ExecutionException {
+		List<Mark> marks = findMarks(pool);
+		if(marks.isEmpty()){
+			return newParser(0, size).parseEDIFNetlist();
+		}
+
+		EDIFNetlist netlist = newParser(0, marks.get(0).pos).parseEDIFNetlistHeader();
+
+		// Libraries and design are small and parsed here, cells are batched for the threads
+		List<EDIFLibrary> libraries = new ArrayList<>();
+		List<Batch> batches = new ArrayList<>();
+		EDIFParser designParser = null;
+		EDIFDesign design = null;
+		long batchSize = Math.max(1, size / (numThreads * CHUNKS_PER_THREAD));
+		Batch batch = null;
+		long batchStart = 0;
+		EDIFLibrary library = null;
+		for(int i=0; i < marks.size(); i++){
+			Mark m = marks.get(i);
+			long end = (i + 1 < marks.size()) ? marks.get(i + 1).pos : size;
+			if(m.type == LIBRARY){
+				EDIFParser p = newParser(m.pos, end);
+				p.expectLeftParen();
+				library = p.parseEDIFLibraryHeader();
+				libraries.add(library);
+			}else if(m.type == DESIGN){
+				designParser = newParser(m.pos, end);
+				designParser.expectLeftParen();
+				design = designParser.parseEDIFDesign();
+			}else if(library != null){
+				if(batch == null || m.pos - batchStart >= batchSize){
+					batch = new Batch();
+					batches.add(batch);
+					batchStart = m.pos;
+				}
+				batch.marks.add(m);
+				batch.ends.add(end);
+				batch.libraries.add(library);
+			}
+		}
+
+		List<Future<?>> futures = new ArrayList<>();
+		for(Batch b : batches){
+			futures.add(pool.submit(() -> parseCells(b)));
+		}
+		for(Future<?> f : futures){
+			f.get();
+		}
+
+		// Add the cells in file order and link the references across batches
+		Map<String,Map<String,EDIFCell>> definedCells = new HashMap<>();
+		Map<String,EDIFPort> portLookup = new HashMap<>();
+		for(Batch b : batches){
+			for(int i=0; i < b.cells.size(); i++){
+				EDIFLibrary lib = b.libraries.get(i);
+				EDIFCell cell = lib.addCell(b.cells.get(i));
+				definedCells.computeIfAbsent(lib.getLegalEDIFName(), k -> new HashMap<>()).put(cell.getLegalEDIFName(), cell);
+			}
+			portLookup.putAll(b.parser.getPortLookup());
+		}
+		for(EDIFLibrary lib : libraries){
+			netlist.addLibrary(lib);
+		}
+		Map<EDIFCell,EDIFCell> references = new IdentityHashMap<>();
+		for(Batch b : batches){
+			addReferences(b.parser, definedCells, references);
+		}
+		if(design != null){
+			addReferences(designParser, definedCells, references);
+			EDIFCell top = references.get(design.getTopCell());
+			if(top != null) design.setTopCell(top);
+			netlist.setDesign(design);
+		}
+
+		futures.clear();
+		for(Batch b : batches){
+			futures.add(pool.submit(() -> {
+				for(EDIFCell cell : b.cells){
+					for(EDIFCellInst inst : cell.getCellInsts()){
+						EDIFCell cellType = references.get(inst.getCellType());
+						if(cellType != null) inst.setCellType(cellType);
+					}
+					EDIFParser.updatePortInsts(cell, portLookup);
+				}
+			}));
+		}
+		for(Future<?> f : futures){
+			f.get();
+		}
+		return netlist;
+	}
+
+	private void parseCells(Batch batch){
+		for(int i=0; i < batch.marks.size(); i++){
+			InputStream in = new RangeInputStream(batch.marks.get(i).pos, batch.ends.get(i));
+			if(batch.parser == null){
+				batch.parser = new EDIFParser(in);
+			}else{
+				batch.parser.setInputStream(in);
+			}
+			batch.parser.expectLeftParen();
+			batch.cells.add(batch.parser.parseEDIFCell(batch.libraries.get(i)));
+		}
+	}
+
+	/**
+	 * Maps the reference cells a parser created for cells defined by other parsers to the
+	 * defined cells.
+	 */
+	private static void addReferences(EDIFParser parser, Map<String,Map<String,EDIFCell>> definedCells,
+			Map<EDIFCell,EDIFCell> references){
+		for(Map.Entry<String,Map<String,EDIFCell>> lib : parser.getEDIFInstCellMap().entrySet()){
+			Map<String,EDIFCell> defined = definedCells.get(lib.getKey());
+			if(defined == null) continue;
+			for(Map.Entry<String,EDIFCell> e : lib.getValue().entrySet()){
+				EDIFCell cell = defined.get(e.getKey());
+				if(cell != null && cell != e.getValue()){
+					references.put(e.getValue(), cell);
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 1){
+			System.out.println("USAGE: <input.edf> [output.edf] [threads]");
+			return;
+		}
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		CodePerfTracker p = new CodePerfTracker("Read/Write EDIF",true);
+		p.start("Parse EDIF");
+		EDIFNetlist n = new ParallelEDIFParser(args[0], threads).parseEDIFNetlist();
+		p.stop().start("Write EDIF");
+		if(args.length > 1) n.exportEDIF(args[1]);
+		p.stop().printSummary();
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ *
+ * Copyright (c) 2026 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.edif;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+/**
+ * Writes an EDIF file with multiple threads.  The netlist is split, in export order, into chunks
+ * of cell headers, instances, nets and cell footers, so that large cells are also split.  The
+ * chunks are rendered to bytes concurrently and written in order to the output channel, with a
+ * bounded number of chunks rendered ahead of the one being written.  The output is the same as
+ * the output of {@link EDIFLibrary#exportEDIF(Writer)} and {@link EDIFCell#exportEDIF(Writer)}
+ * through a {@link java.io.FileWriter}.
+ * Created on: Oct 17, 2026
+ */
+public class ParallelEDIFWriter {
+
+	public static final int DEFAULT_NUM_THREADS = Runtime.getRuntime().availableProcessors();
+
+	// weight of the objects in a chunk, an object weighs 1 plus its port refs and properties
+	private static final int CHUNK_WEIGHT = 1 << 14;
+
+	// max chunks rendered ahead of the one being written, per thread
+	private static final int CHUNKS_AHEAD_PER_THREAD = 4;
+
+	private static final int GZIP_BUFFER_SIZE = 1 << 20;
+
+	private final EDIFNetlist netlist;
+
+	private final int numThreads;
+
+	private final Charset charset = Charset.defaultCharset();
+
+	/**
+	 * Creates a writer.
+	 * @param netlist The netlist to write, which must not change while it is written.
+	 * @param numThreads Number of threads rendering the chunks, the chunks are rendered by the
+	 * calling thread if 1 or less.
+	 */
+	public ParallelEDIFWriter(EDIFNetlist netlist, int numThreads){
+		this.netlist = netlist;
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Writes the netlist to a file, gzipped if the name of the file ends with ".gz".
+	 * @param fileName Name of the EDIF file.
+	 * @throws IOException
+	 */
+	public void writeEDIF(String fileName) throws IOException{
+		try(FileChannel ch = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+			if(fileName.endsWith(".gz")){
+				try(GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(ch), GZIP_BUFFER_SIZE)){
+					writeEDIF(Channels.newChannel(out));
+				}
+			}else{
+				writeEDIF(ch);
+			}
+		}
+	}
+
+	/**
+	 * Writes the netlist to a stream, which is flushed but not closed.
+	 * @param out The stream.
+	 * @throws IOException
+	 */
+	public void writeEDIF(OutputStream out) throws IOException{
+		writeEDIF(Channels.newChannel(out));
+		out.flush();
+	}
+
+	/**
+	 * Writes the netlist to a channel, which is not closed.
+	 * @param out The channel.
+	 * @throws IOException
+	 */
+	public void writeEDIF(WritableByteChannel out) throws IOException{
+		ExecutorService pool = numThreads > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+		try {
+			new Export(out, pool).write();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("ERROR: Interrupted while writing EDIF netlist " + netlist.getName(), e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new RuntimeException("ERROR: Failed to write EDIF netlist " + netlist.getName(), e.getCause());
+		} finally {
+			if(pool != null) pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Part of the EDIF syntax, rendered in order with the other parts of its chunk.
+	 */
+	private interface Part {
+		void export(Writer wr) throws IOException;
+	}
+
+	private class Chunk {
+		private final List<Part> parts = new ArrayList<>();
+		private int weight = 0;
+
+		private ByteBuffer render() throws IOException{
+			StringBuilderWriter wr = new StringBuilderWriter();
+			for(Part part : parts){
+				part.export(wr);
+			}
+			return charset.encode(CharBuffer.wrap(wr.sb));
+		}
+	}
+
+	private class Export {
+
+		private final WritableByteChannel out;
+
+		private final ExecutorService pool;
+
+		private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+
+		private Chunk chunk = new Chunk();
+
+		private Export(WritableByteChannel out, ExecutorService pool){
+			this.out = out;
+			this.pool = pool;
+		}
+
+		private void write() throws IOException, InterruptedException, ExecutionException{
+			add(netlist::exportEDIFHeader, 1);
+			writeLibrary(netlist.getHDIPrimitivesLibrary());
+			for(EDIFLibrary lib : netlist.getLibrariesMap().values()){
+				if(lib.getName().equals(EDIFTools.EDIF_LIBRARY_HDI_PRIMITIVES_NAME)) continue;
+				writeLibrary(lib);
+			}
+			add(netlist::exportEDIFFooter, 1);
+			submit();
+			while(!pending.isEmpty()){
+				writeBuffer(pending.poll().get());
+			}
+		}
+
+		private void writeLibrary(EDIFLibrary lib) throws IOException, InterruptedException, ExecutionException{
+			add(lib::exportEDIFHeader, 1);
+			for(EDIFCell cell : lib.getValidCellExportOrder()){
+				add(cell::exportEDIFHeader, 1 + cell.getPorts().size());
+				for(EDIFCellInst inst : cell.getCellInsts()){
+					add(inst::exportEDIF, 1 + inst.getProperties().size());
+				}
+				for(EDIFNet net : cell.getNets()){
+					add(net::exportEDIF, 1 + net.getPortInsts().size() + net.getProperties().size());
+				}
+				add(cell::exportEDIFFooter, 1 + cell.getProperties().size());
+			}
+			add(lib::exportEDIFFooter, 1);
+		}
+
+		private void add(Part part, int weight) throws IOException, InterruptedException, ExecutionException{
+			chunk.parts.add(part);
+			chunk.weight += weight;
+			if(chunk.weight >= CHUNK_WEIGHT){
+				submit();
+			}
+		}
+
+		private void submit() throws IOException, InterruptedException, ExecutionException{
+			Chunk c = chunk;
+			chunk = new Chunk();
+			if(c.parts.isEmpty()) return;
+			if(pool == null){
+				writeBuffer(c.render());
+				return;
+			}
+			pending.add(pool.submit(c::render));
+			while(pending.size() > numThreads * CHUNKS_AHEAD_PER_THREAD){
+				writeBuffer(pending.poll().get());
+			}
+		}
+
+		private void writeBuffer(ByteBuffer buffer) throws IOException{
+			while(buffer.hasRemaining()){
+				out.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * An unsynchronized writer to a {@link StringBuilder}.
+	 */
+	private static class StringBuilderWriter extends Writer {
+		private final StringBuilder sb = new StringBuilder(1 << 16);
+
+		@Override
+		public void write(String str) {
+			sb.append(str);
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			sb.append(str, off, off + len);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			sb.append(cbuf, off, len);
+		}
+
+		@Override
+		public void write(int c) {
+			sb.append((char) c);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 2){
+			System.out.println("USAGE: <input.edf> <output.edf[.gz]> [numThreads]");
+			return;
+		}
+		int numThreads = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_THREADS;
+		CodePerfTracker t = new CodePerfTracker("Parallel EDIF Writer", true);
+		t.start("Parse EDIF");
+		EDIFNetlist netlist = EDIFTools.loadEDIFFile(args[0]);
+		t.stop().start("Write EDIF");
+		netlist.exportEDIF(args[1], numThreads);
+		t.stop().printSummary();
+	}
+}
@@ -0,0 +1,455 @@
+/*
+ *
+ * Copyright (c) 2026 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.edif;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+/**
+ * Generates the parent net map and the physical net pin map of an {@link EDIFNetlist} in one pass.
+ * Every net of every hierarchical instance gets an id, and the nets connected through the ports
+ * of hierarchical cells are merged with a union-find.  Each set of merged nets is a physical net,
+ * whose parent is the net driven by a leaf cell output or, if there is none, by a top-level input
+ * port, as found by {@link EDIFNetlist#getNetAliases(String)}.
+ *
+ * The connections, leaf cell pins and drivers of a cell are gathered once per cell and replayed
+ * for each of its hierarchical instances.  The hierarchy is split into disjoint subtrees that are
+ * processed concurrently, as their ids and merges stay within their own range of ids, and the
+ * instances above them are merged afterwards by the calling thread.
+ * Created on: Oct 17, 2026
+ */
+public class ParallelParentNetMapper {
+
+	public static final int DEFAULT_NUM_THREADS = Runtime.getRuntime().availableProcessors();
+
+	// subtrees per thread, so that uneven subtrees still balance
+	private static final int TASKS_PER_THREAD = 4;
+
+	private final EDIFNetlist netlist;
+
+	private final int numThreads;
+
+	private final Map<EDIFCell,Template> templates = new IdentityHashMap<>();
+
+	// union-find parent of each net id
+	private int[] parent;
+
+	// hierarchical name of each net id
+	private String[] names;
+
+	// leaf cell pins, driver and transformed aliases of each net id, null if it has none
+	private NetPins[] pins;
+
+	/**
+	 * Creates a mapper.
+	 * @param netlist The netlist to map, which must not change while it is mapped.
+	 * @param numThreads Number of threads mapping the subtrees of the hierarchy, the subtrees are
+	 * mapped by the calling thread if 1 or less.
+	 */
+	public ParallelParentNetMapper(EDIFNetlist netlist, int numThreads){
+		this.netlist = netlist;
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Maps every hierarchical net name that belongs to a driven physical net to the name of its
+	 * parent net, and the name of every parent net to the leaf cell pins of its physical net.  The
+	 * pins of the physical nets driven by GND and VCC cells are added to those of
+	 * {@link Net#GND_NET} and {@link Net#VCC_NET}.  As with {@link EDIFNetlist#getNetAliases(String)},
+	 * a top-level input net of a physical net driven by a leaf cell also gets its leaf cell pins.
+	 * @param parentNetMap Map to add the parent net names to.
+	 * @param physicalNetPinMap Map to add the leaf cell pins to.
+	 */
+	public void generate(Map<String,String> parentNetMap, Map<String,ArrayList<EDIFHierPortInst>> physicalNetPinMap){
+		EDIFCellInst topInst = netlist.getTopCellInst();
+		Template top = getTemplate(topInst.getCellType());
+		parent = new int[top.size];
+		names = new String[top.size];
+		pins = new NetPins[top.size];
+		for(int i=0; i < parent.length; i++){
+			parent[i] = i;
+		}
+
+		List<Context> spine = new ArrayList<>();
+		List<Context> subtrees = split(new Context("", top, 0), spine);
+		ExecutorService pool = numThreads > 1 && subtrees.size() > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+		try {
+			if(pool == null){
+				for(Context c : subtrees) mapSubtree(c);
+			}else{
+				List<Future<?>> futures = new ArrayList<>();
+				for(Context c : subtrees){
+					futures.add(pool.submit(() -> mapSubtree(c)));
+				}
+				for(Future<?> f : futures){
+					f.get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("ERROR: Interrupted while mapping parent nets of netlist " + netlist.getName(), e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("ERROR: Failed to map parent nets of netlist " + netlist.getName(), e.getCause());
+		} finally {
+			if(pool != null) pool.shutdownNow();
+		}
+		// The instances above the subtrees merge nets across subtrees, so they are mapped last
+		for(Context c : spine){
+			mapInstance(c, null);
+		}
+		for(EDIFNet net : top.nets){
+			for(EDIFPortInst p : net.getPortInsts()){
+				if(p.isTopLevelPort() && p.isInput()){
+					getPins(top.netIndex.get(net)).topLevelDriver = new EDIFHierPortInst("", p);
+				}
+			}
+		}
+		collect(parentNetMap, physicalNetPinMap);
+		parent = null;
+		names = null;
+		pins = null;
+	}
+
+	/**
+	 * Splits the hierarchy into subtrees by repeatedly replacing the largest subtree with the
+	 * subtrees of its hierarchical instances, until it is small enough for its share of threads.
+	 * @param root The top instance.
+	 * @param spine Gets the instances that were replaced.
+	 * @return The subtrees.
+	 */
+	private List<Context> split(Context root, List<Context> spine){
+		PriorityQueue<Context> queue = new PriorityQueue<>((a,b) -> Integer.compare(b.template.size, a.template.size));
+		queue.add(root);
+		int maxSize = numThreads > 1 ? Math.max(1, root.template.size / (numThreads * TASKS_PER_THREAD)) : Integer.MAX_VALUE;
+		while(!queue.isEmpty() && queue.peek().template.size > maxSize && queue.peek().template.children.length > 0){
+			Context c = queue.poll();
+			spine.add(c);
+			for(int k=0; k < c.template.children.length; k++){
+				queue.add(c.child(k));
+			}
+		}
+		return new ArrayList<>(queue);
+	}
+
+	private void mapSubtree(Context root){
+		Deque<Context> stack = new ArrayDeque<>();
+		stack.push(root);
+		while(!stack.isEmpty()){
+			mapInstance(stack.pop(), stack);
+		}
+	}
+
+	/**
+	 * Names the nets of a hierarchical instance, records its leaf cell pins and merges its nets
+	 * with the nets of its hierarchical instances, which are in the same subtree unless c is
+	 * in the spine.
+	 * @param c The hierarchical instance.
+	 * @param stack Gets the hierarchical instances of c, or null if they are mapped separately.
+	 */
+	private void mapInstance(Context c, Deque<Context> stack){
+		Template t = c.template;
+		String prefix = c.hierName.isEmpty() ? "" : c.hierName + EDIFTools.EDIF_HIER_SEP;
+		for(int i=0; i < t.nets.length; i++){
+			names[c.base + i] = prefix + t.nets[i].getName();
+		}
+		for(int k=0; k < t.children.length; k++){
+			if(stack != null) stack.push(c.child(k));
+		}
+		for(int j=0; j < t.leafPins.length; j++){
+			EDIFHierPortInst p = new EDIFHierPortInst(c.hierName, t.leafPins[j]);
+			NetPins np = getPins(c.base + t.leafPinNets[j]);
+			np.leafPins.add(p);
+			if(t.leafPinFlags[j] == DRIVER){
+				np.driver = p;
+			}else if(t.leafPinFlags[j] == TRANSFORMED_DRIVER){
+				np.driver = p;
+				np.addAlias(p.getTransformedNetName());
+			}
+		}
+		for(int j=0; j < t.connNets.length; j++){
+			int k = t.connChildren[j];
+			union(c.base + t.connNets[j], c.base + t.childOffsets[k] + t.connChildNets[j]);
+		}
+	}
+
+	private NetPins getPins(int id){
+		NetPins np = pins[id];
+		if(np == null){
+			np = new NetPins();
+			pins[id] = np;
+		}
+		return np;
+	}
+
+	private int find(int x){
+		while(parent[x] != x){
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	private void union(int a, int b){
+		int ra = find(a);
+		int rb = find(b);
+		if(ra < rb) parent[rb] = ra;
+		else if(rb < ra) parent[ra] = rb;
+	}
+
+	/**
+	 * Fills the maps from the sets of merged nets, visiting the net ids in order so that the result
+	 * does not depend on the number of threads.
+	 */
+	private void collect(Map<String,String> parentNetMap, Map<String,ArrayList<EDIFHierPortInst>> physicalNetPinMap){
+		int size = parent.length;
+		// net id of the parent net of each root, the last leaf cell driver wins over a top-level port
+		int[] parentIds = new int[size];
+		boolean[] leafDriven = new boolean[size];
+		ArrayList<EDIFHierPortInst>[] rootPins = newPinLists(size);
+		for(int i=0; i < size; i++) parentIds[i] = -1;
+		for(int i=0; i < size; i++){
+			NetPins np = pins[i];
+			if(np == null) continue;
+			int r = find(i);
+			if(np.driver != null){
+				parentIds[r] = i;
+				leafDriven[r] = true;
+			}else if(np.topLevelDriver != null && !leafDriven[r]){
+				parentIds[r] = i;
+			}
+			if(rootPins[r] == null){
+				rootPins[r] = np.leafPins;
+			}else{
+				rootPins[r].addAll(np.leafPins);
+			}
+		}
+		for(int i=0; i < size; i++){
+			int r = find(i);
+			int p = parentIds[r];
+			if(p == -1) continue;
+			String parentNetName = names[p];
+			parentNetMap.put(names[i], parentNetName);
+			NetPins np = pins[i];
+			if(np != null && np.aliases != null){
+				for(String alias : np.aliases){
+					parentNetMap.put(alias, parentNetName);
+				}
+			}
+			if(np != null && np.topLevelDriver != null && p != i){
+				physicalNetPinMap.put(names[i], rootPins[r] == null ? new ArrayList<>() : new ArrayList<>(rootPins[r]));
+			}
+			if(r != i) continue;
+			ArrayList<EDIFHierPortInst> leafPins = rootPins[r] == null ? new ArrayList<>() : rootPins[r];
+			EDIFHierPortInst driver = pins[p].driver != null ? pins[p].driver : pins[p].topLevelDriver;
+			String staticNetName = getStaticNetName(driver);
+			if(staticNetName != null){
+				ArrayList<EDIFHierPortInst> existing = physicalNetPinMap.get(staticNetName);
+				if(existing == null)
+					physicalNetPinMap.put(staticNetName, leafPins);
+				else
+					existing.addAll(leafPins);
+			}else{
+				physicalNetPinMap.put(parentNetName, leafPins);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArrayList<EDIFHierPortInst>[] newPinLists(int size){
+		return new ArrayList[size];
+	}
+
+	private static String getStaticNetName(EDIFHierPortInst driver){
+		EDIFCellInst inst = driver.getPortInst().getCellInst();
+		if(inst == null) return null;
+		String cellType = inst.getCellType().getName();
+		return cellType.equals("GND") ? Net.GND_NET : (cellType.equals("VCC") ? Net.VCC_NET : null);
+	}
+
+	/**
+	 * Gets the template of a cell, building the templates of its hierarchical descendants first.
+	 * Templates are built by the calling thread before any subtree is mapped.
+	 */
+	private Template getTemplate(EDIFCell cell){
+		Template t = templates.get(cell);
+		if(t == null){
+			t = new Template(cell);
+			templates.put(cell, t);
+		}
+		return t;
+	}
+
+	private static final byte SINK = 0;
+	private static final byte DRIVER = 1;
+	private static final byte TRANSFORMED_DRIVER = 2;
+
+	/**
+	 * Nets, hierarchical instances, connections and leaf cell pins of a cell, indexed so that a
+	 * hierarchical instance of the cell is mapped without hash lookups.  The nets of the cell
+	 * have ids [0, nets.length) relative to the instance, followed by the ids of the subtree of
+	 * each of its hierarchical instances.
+	 */
+	private class Template {
+		private final EDIFNet[] nets;
+		private final Map<EDIFNet,Integer> netIndex = new IdentityHashMap<>();
+		private final EDIFCellInst[] children;
+		private final Template[] childTemplates;
+		private final int[] childOffsets;
+		// connection j joins net connNets[j] to net connChildNets[j] of child connChildren[j]
+		private final int[] connNets;
+		private final int[] connChildren;
+		private final int[] connChildNets;
+		private final EDIFPortInst[] leafPins;
+		private final int[] leafPinNets;
+		private final byte[] leafPinFlags;
+		// number of net ids of the subtree of an instance of this cell
+		private final int size;
+
+		private Template(EDIFCell cell){
+			Collection<EDIFNet> cellNets = cell.getNets();
+			nets = cellNets.toArray(new EDIFNet[cellNets.size()]);
+			for(int i=0; i < nets.length; i++){
+				netIndex.put(nets[i], i);
+			}
+			List<EDIFCellInst> hierInsts = new ArrayList<>();
+			for(EDIFCellInst inst : cell.getCellInsts()){
+				if(!inst.getCellType().isLeafCellOrBlackBox()) hierInsts.add(inst);
+			}
+			children = hierInsts.toArray(new EDIFCellInst[hierInsts.size()]);
+			childTemplates = new Template[children.length];
+			childOffsets = new int[children.length];
+			Map<EDIFCellInst,Integer> childIndex = new IdentityHashMap<>();
+			long offset = nets.length;
+			for(int k=0; k < children.length; k++){
+				childTemplates[k] = getTemplate(children[k].getCellType());
+				childOffsets[k] = (int) offset;
+				childIndex.put(children[k], k);
+				offset += childTemplates[k].size;
+			}
+			if(offset > Integer.MAX_VALUE){
+				throw new RuntimeException("ERROR: Too many hierarchical nets in cell " + cell.getName());
+			}
+			size = (int) offset;
+
+			List<int[]> conns = new ArrayList<>();
+			List<EDIFPortInst> pinList = new ArrayList<>();
+			List<int[]> pinInfo = new ArrayList<>();
+			for(int i=0; i < nets.length; i++){
+				for(EDIFPortInst p : nets[i].getPortInsts()){
+					EDIFCellInst inst = p.getCellInst();
+					if(inst == null) continue;
+					EDIFCell type = inst.getCellType();
+					if(type.isLeafCellOrBlackBox()){
+						byte flag = SINK;
+						if(p.isOutput()){
+							flag = netlist.isTransformPrim(type) ? TRANSFORMED_DRIVER : DRIVER;
+						}
+						pinList.add(p);
+						pinInfo.add(new int[]{i, flag});
+					}else{
+						EDIFNet internal = type.getInternalNet(p);
+						if(internal == null) continue;
+						int k = childIndex.get(inst);
+						Integer childNet = childTemplates[k].netIndex.get(internal);
+						if(childNet == null) continue;
+						conns.add(new int[]{i, k, childNet});
+					}
+				}
+			}
+			connNets = new int[conns.size()];
+			connChildren = new int[conns.size()];
+			connChildNets = new int[conns.size()];
+			for(int j=0; j < conns.size(); j++){
+				connNets[j] = conns.get(j)[0];
+				connChildren[j] = conns.get(j)[1];
+				connChildNets[j] = conns.get(j)[2];
+			}
+			leafPins = pinList.toArray(new EDIFPortInst[pinList.size()]);
+			leafPinNets = new int[leafPins.length];
+			leafPinFlags = new byte[leafPins.length];
+			for(int j=0; j < leafPins.length; j++){
+				leafPinNets[j] = pinInfo.get(j)[0];
+				leafPinFlags[j] = (byte) pinInfo.get(j)[1];
+			}
+		}
+	}
+
+	/**
+	 * A hierarchical instance, with the first net id of its subtree.
+	 */
+	private static class Context {
+		private final String hierName;
+		private final Template template;
+		private final int base;
+
+		private Context(String hierName, Template template, int base){
+			this.hierName = hierName;
+			this.template = template;
+			this.base = base;
+		}
+
+		private Context child(int k){
+			String name = template.children[k].getName();
+			return new Context(hierName.isEmpty() ? name : hierName + EDIFTools.EDIF_HIER_SEP + name,
+					template.childTemplates[k], base + template.childOffsets[k]);
+		}
+	}
+
+	private static class NetPins {
+		private final ArrayList<EDIFHierPortInst> leafPins = new ArrayList<>();
+		private EDIFHierPortInst driver;
+		private EDIFHierPortInst topLevelDriver;
+		private List<String> aliases;
+
+		private void addAlias(String alias){
+			if(aliases == null) aliases = new ArrayList<>(1);
+			aliases.add(alias);
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 1){
+			System.out.println("USAGE: <input.edf> [numThreads]");
+			return;
+		}
+		int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_THREADS;
+		CodePerfTracker t = new CodePerfTracker("Parallel Parent Net Mapper", true);
+		t.start("Parse EDIF");
+		EDIFNetlist netlist = EDIFTools.loadEDIFFile(args[0]);
+		t.stop().start("Map Parent Nets");
+		netlist.generateParentNetMap(numThreads);
+		t.stop().printSummary();
+		System.out.println("Parent net map entries: " + netlist.getParentNetMap().size());
+	}
+}
@@ -0,0 +1,78 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partitions nets into waves, such that the routing bounding boxes of the nets within one wave do not overlap.
+ * The node router only expands routables inside the bounding box of the net being routed,
+ * so the connections of different nets in the same wave never touch the same routing resources
+ * and can be routed concurrently.
+ */
+public class BoundingBoxPartitioner {
+	private final int columns;
+	private final int rows;
+	//id of the last wave that occupies each tile, indexed by row * columns + column
+	private final int[] occupiedWave;
+	private int waveId;
+
+	public BoundingBoxPartitioner(int columns, int rows) {
+		this.columns = columns;
+		this.rows = rows;
+		this.occupiedWave = new int[columns * rows];
+		this.waveId = 0;
+	}
+
+	/**
+	 * Greedily packs the nets into waves, keeping the given order of nets within each wave
+	 * @param nets: The nets to be routed, in routing order
+	 * @return The waves of nets with pairwise non-overlapping bounding boxes
+	 */
+	public List<List<Netplus>> partition(List<Netplus> nets) {
+		List<List<Netplus>> waves = new ArrayList<>();
+		List<Netplus> remaining = nets;
+		while(!remaining.isEmpty()) {
+			this.waveId++;
+			List<Netplus> wave = new ArrayList<>();
+			List<Netplus> deferred = new ArrayList<>();
+			for(Netplus net : remaining) {
+				if(this.isAvailable(net)) {
+					this.occupy(net);
+					wave.add(net);
+				}else {
+					deferred.add(net);
+				}
+			}
+			waves.add(wave);
+			remaining = deferred;
+		}
+		return waves;
+	}
+
+	private boolean isAvailable(Netplus net) {
+		for(int y = this.clampY(net.y_min_b); y <= this.clampY(net.y_max_b); y++) {
+			for(int x = this.clampX(net.x_min_b); x <= this.clampX(net.x_max_b); x++) {
+				if(this.occupiedWave[y * this.columns + x] == this.waveId) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private void occupy(Netplus net) {
+		for(int y = this.clampY(net.y_min_b); y <= this.clampY(net.y_max_b); y++) {
+			for(int x = this.clampX(net.x_min_b); x <= this.clampX(net.x_max_b); x++) {
+				this.occupiedWave[y * this.columns + x] = this.waveId;
+			}
+		}
+	}
+
+	private int clampX(int x) {
+		return Math.max(0, Math.min(this.columns - 1, x));
+	}
+
+	private int clampY(int y) {
+		return Math.max(0, Math.min(this.rows - 1, y));
+	}
+}
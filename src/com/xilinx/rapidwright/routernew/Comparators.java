@@ -14,6 +14,17 @@ public class Comparators {
             }
         }
     };
+	
+	public static Comparator<RNodeQueueElement> RNODE_PRIORITY_COMPARATOR = new Comparator<RNodeQueueElement>() {
+        @Override
+        public int compare(RNodeQueueElement node1, RNodeQueueElement node2) {
+            if(node1.cost < node2.cost) {
+            	return -1;
+            } else {
+            	return 1;
+            }
+        }
+    };
     
 	public static Comparator<Connection>  FanoutBBConnection = new Comparator<Connection>() {
     	@Override
@@ -34,6 +34,26 @@ public class Configuration {
 	private boolean partialRouting;
 	//the flag to direct the dependency of delay info files
 	private boolean hpcRun;
+	//number of threads for routing nets with non-overlapping bounding boxes concurrently, 1 for serial routing
+	private int numThreads;
+	//true to use the indexed binary heap as the A* frontier of the node router instead of the java PriorityQueue
+	private boolean indexedHeap;
+	//true to expand rnodes of the node router from the persistent downhill adjacency cache of the device
+	private boolean deviceGraphCache;
+	//the file of prior connection paths to reuse, written next to the routed checkpoint, null to disable the route cache
+	private String routeCacheFile;
+	//maximum number of bounding box extensions to retry a failed connection within the same iteration
+	private int maxBbExpansions;
+	//minimum Manhattan distance between source and sink of connections routed with bidirectional search, 0 to disable
+	private short bidirectionalMinDistance;
+	//true to estimate the cost to the sink with the lookahead table of the device family instead of the Manhattan distance
+	private boolean lookahead;
+	//prefix of the JSON and CSV files of the router metrics, which are also published in the MetricsRegistry, null to disable
+	private String metricsPrefix;
+	//true to update the timing graph incrementally from the timing edges whose delays changed, instead of full recomputes
+	private boolean incrementalTiming;
+	//text file with the names of the nets changed by an ECO, one per line, to route incrementally, null to route the whole design
+	private String changedNetsFile;
 	
 	public Configuration() {
 		this.setNrOfTrials(100);
@@ -50,6 +70,16 @@ public class Configuration {
 		this.setTimingDriven(false);
 		this.setPartialRouting(false);
 		this.setHpcRun(false);
+		this.setNumThreads(1);
+		this.setIndexedHeap(false);
+		this.setDeviceGraphCache(false);
+		this.setRouteCacheFile(null);
+		this.setMaxBbExpansions(3);
+		this.setBidirectionalMinDistance((short) 0);
+		this.setLookahead(false);
+		this.setMetricsPrefix(null);
+		this.setIncrementalTiming(false);
+		this.setChangedNetsFile(null);
 	}
 	
 	public void customizeConfig(int startIndex, String[] arguments) {
@@ -105,6 +135,36 @@ public class Configuration {
 				
 			}else if(arguments[i].contains("hpcRun")){
 				this.setHpcRun(true);
+				
+			}else if(arguments[i].contains("numThreads")){
+				this.setNumThreads(Integer.parseInt(arguments[++i]));
+				
+			}else if(arguments[i].contains("indexedHeap")){
+				this.setIndexedHeap(true);
+				
+			}else if(arguments[i].contains("deviceGraphCache")){
+				this.setDeviceGraphCache(true);
+				
+			}else if(arguments[i].contains("routeCache")){
+				this.setRouteCacheFile(arguments[++i]);
+				
+			}else if(arguments[i].contains("maxBbExpansions")){
+				this.setMaxBbExpansions(Integer.parseInt(arguments[++i]));
+				
+			}else if(arguments[i].contains("bidirectionalMinDistance")){
+				this.setBidirectionalMinDistance(Short.parseShort(arguments[++i]));
+				
+			}else if(arguments[i].contains("lookahead")){
+				this.setLookahead(true);
+				
+			}else if(arguments[i].contains("metrics")){
+				this.setMetricsPrefix(arguments[++i]);
+				
+			}else if(arguments[i].contains("incrementalTiming")){
+				this.setIncrementalTiming(true);
+				
+			}else if(arguments[i].contains("changedNets")){
+				this.setChangedNetsFile(arguments[++i]);
 			}
 		}
 	}
@@ -221,6 +281,86 @@ public class Configuration {
 		this.hpcRun = hpcRun;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	public boolean isIndexedHeap() {
+		return indexedHeap;
+	}
+
+	public void setIndexedHeap(boolean indexedHeap) {
+		this.indexedHeap = indexedHeap;
+	}
+
+	public boolean isDeviceGraphCache() {
+		return deviceGraphCache;
+	}
+
+	public void setDeviceGraphCache(boolean deviceGraphCache) {
+		this.deviceGraphCache = deviceGraphCache;
+	}
+
+	public String getRouteCacheFile() {
+		return routeCacheFile;
+	}
+
+	public void setRouteCacheFile(String routeCacheFile) {
+		this.routeCacheFile = routeCacheFile;
+	}
+
+	public int getMaxBbExpansions() {
+		return maxBbExpansions;
+	}
+
+	public void setMaxBbExpansions(int maxBbExpansions) {
+		this.maxBbExpansions = maxBbExpansions;
+	}
+
+	public short getBidirectionalMinDistance() {
+		return bidirectionalMinDistance;
+	}
+
+	public void setBidirectionalMinDistance(short bidirectionalMinDistance) {
+		this.bidirectionalMinDistance = bidirectionalMinDistance;
+	}
+
+	public boolean isLookahead() {
+		return lookahead;
+	}
+
+	public void setLookahead(boolean lookahead) {
+		this.lookahead = lookahead;
+	}
+
+	public String getMetricsPrefix() {
+		return metricsPrefix;
+	}
+
+	public void setMetricsPrefix(String metricsPrefix) {
+		this.metricsPrefix = metricsPrefix;
+	}
+
+	public boolean isIncrementalTiming() {
+		return incrementalTiming;
+	}
+
+	public void setIncrementalTiming(boolean incrementalTiming) {
+		this.incrementalTiming = incrementalTiming;
+	}
+
+	public String getChangedNetsFile() {
+		return changedNetsFile;
+	}
+
+	public void setChangedNetsFile(String changedNetsFile) {
+		this.changedNetsFile = changedNetsFile;
+	}
+
 	public RoutingGranularityOpt getOpt() {
 		return opt;
 	}
@@ -239,12 +379,32 @@ public class Configuration {
 		s.append("\n");
 		s.append("Timing-driven: " + this.timingDriven);
 		s.append("\n");
+		s.append("Incremental timing: " + this.incrementalTiming);
+		s.append("\n");
 		s.append("Partial routing: " + this.partialRouting);
 		s.append("\n");
+		s.append("Routing threads: " + this.numThreads);
+		s.append("\n");
+		s.append("Indexed heap: " + this.indexedHeap);
+		s.append("\n");
+		s.append("Device graph cache: " + this.deviceGraphCache);
+		s.append("\n");
+		s.append("Route cache: " + this.routeCacheFile);
+		s.append("\n");
+		s.append("Changed nets: " + this.changedNetsFile);
+		s.append("\n");
 		s.append("Bounding box range: " + this.bbRange);
 		s.append("\n");
+		s.append("Bounding box retries per connection: " + this.maxBbExpansions);
+		s.append("\n");
+		s.append("Bidirectional search min distance: " + this.bidirectionalMinDistance);
+		s.append("\n");
 		s.append("Manhattan distance weight: " + this.mdWeight);
 		s.append("\n");
+		s.append("Lookahead heuristic: " + this.lookahead);
+		s.append("\n");
+		s.append("Metrics: " + this.metricsPrefix);
+		s.append("\n");
 		s.append("Hops weight: " + this.hopWeight);
 		s.append("\n");
 		s.append("Delay weight: " + this.delayWeight);
@@ -0,0 +1,247 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import com.esotericsoftware.kryo.unsafe.UnsafeInput;
+import com.esotericsoftware.kryo.unsafe.UnsafeOutput;
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.IntentCode;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Series;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.router.RouteThruHelper;
+import com.xilinx.rapidwright.util.FileTools;
+
+/**
+ * A lookahead table of the node router, giving the minimum number of rnodes from an rnode
+ * to the switch box at a (dx, dy) tile offset, per intent code of the rnode.
+ * The table is built once per device family by breadth-first expansions from the nodes of an INT tile in the middle of the device,
+ * and is stored under the RapidWright path in the same way RouteThruHelper stores its .rt file.
+ * The offsets are relative to the coordinate tile of an rnode, so the tables are shared by the rnodes of all tile types.
+ * To bound the build time, at most SAMPLES_PER_INTENT_CODE source wires of each intent code are expanded, 
+ * each expansion being limited in depth and size. Offsets beyond the table or not reached are extrapolated 
+ * with the lowest number of rnodes per tile found for the intent code.
+ */
+public class CostLookahead {
+	private static final String folderName = "lookahead";
+	private static final int MAGIC = 0x4c4f4f4b;
+	private static final int VERSION = 3;
+	//the table covers offsets from -RANGE to RANGE tiles in both directions
+	private static final int RANGE = 20;
+	private static final int WIDTH = 2 * RANGE + 1;
+	private static final float UNREACHED = -1;
+	//limits of one breadth-first expansion
+	private static final int MAX_HOPS = 12;
+	private static final int MAX_VISITED_NODES = 1 << 20;
+	//number of source wires expanded per intent code
+	private static final int SAMPLES_PER_INTENT_CODE = 8;
+
+	//costs indexed by the intent code ordinal and (dy + RANGE) * WIDTH + dx + RANGE, null for intent codes without a table
+	private float[][] costs;
+	//lowest number of rnodes per tile of each intent code, the lowest of all intent codes for intent codes without a table
+	private float[] minCostPerTile;
+
+	public CostLookahead(Device device, RouteThruHelper routethruHelper) {
+		String fileName = getSerializedFileName(device);
+		if(new File(fileName).exists() && this.readFile(fileName)) {
+			return;
+		}
+		this.build(device, routethruHelper);
+		this.writeFile(fileName);
+	}
+
+	private static String getSerializedFileName(Device device) {
+		String folder = FileTools.getRapidWrightPath() + File.separator + folderName;
+		FileTools.makeDirs(folder);
+		return folder + File.separator + device.getSeries().name().toLowerCase() + ".la";
+	}
+
+	/**
+	 * Gets the lowest number of rnodes from an rnode to a target at the given tile offset
+	 * @param intentCode: The intent code ordinal of the rnode
+	 * @param dx: The column offset of the target from the rnode
+	 * @param dy: The row offset of the target from the rnode
+	 */
+	public float getCost(int intentCode, int dx, int dy) {
+		int manhattanD = Math.abs(dx) + Math.abs(dy);
+		float minCostPerTile = this.minCostPerTile[intentCode];
+		float[] table = this.costs[intentCode];
+		if(table == null) {
+			return minCostPerTile * manhattanD;
+		}
+		int cdx = Math.max(-RANGE, Math.min(RANGE, dx));
+		int cdy = Math.max(-RANGE, Math.min(RANGE, dy));
+		float cost = table[(cdy + RANGE) * WIDTH + cdx + RANGE];
+		if(cost == UNREACHED) {
+			return minCostPerTile * manhattanD;
+		}
+		return cost + minCostPerTile * (manhattanD - Math.abs(cdx) - Math.abs(cdy));
+	}
+
+	private void build(Device device, RouteThruHelper routethruHelper) {
+		int numIntentCodes = IntentCode.values().length;
+		this.costs = new float[numIntentCodes][];
+		Tile origin = this.getSampleSwitchBox(device);
+
+		//nodes of the sample tile by intent code
+		List<List<Node>> nodes = new ArrayList<>();
+		for(int i = 0; i < numIntentCodes; i++) {
+			nodes.add(new ArrayList<>());
+		}
+		for(int wire = 0; wire < origin.getWireCount(); wire++) {
+			Node node = Node.getNode(origin, wire);
+			if(node == null || !node.getTile().equals(origin) || node.getWire() != wire) continue;
+			nodes.get(node.getIntentCode().ordinal()).add(node);
+		}
+
+		//a fixed number of source wires, evenly spread over the wires of each intent code, are expanded one by one
+		for(int intentCode = 0; intentCode < numIntentCodes; intentCode++) {
+			List<Node> sources = nodes.get(intentCode);
+			if(sources.isEmpty()) continue;
+			this.costs[intentCode] = new float[WIDTH * WIDTH];
+			Arrays.fill(this.costs[intentCode], UNREACHED);
+			int samples = Math.min(SAMPLES_PER_INTENT_CODE, sources.size());
+			for(int s = 0; s < samples; s++) {
+				this.expand(sources.get(s * sources.size() / samples), this.costs[intentCode], routethruHelper);
+			}
+		}
+
+		this.minCostPerTile = new float[numIntentCodes];
+		float globalMin = Float.MAX_VALUE;
+		for(int c = 0; c < numIntentCodes; c++) {
+			float intentCodeMin = Float.MAX_VALUE;
+			float[] table = this.costs[c];
+			if(table != null) {
+				for(int i = 0; i < table.length; i++) {
+					int manhattanD = Math.abs(i % WIDTH - RANGE) + Math.abs(i / WIDTH - RANGE);
+					if(table[i] == UNREACHED || manhattanD == 0) continue;
+					intentCodeMin = Math.min(intentCodeMin, table[i] / manhattanD);
+				}
+			}
+			this.minCostPerTile[c] = intentCodeMin;
+			globalMin = Math.min(globalMin, intentCodeMin);
+		}
+		if(globalMin == Float.MAX_VALUE) {
+			globalMin = 0;
+		}
+		for(int c = 0; c < numIntentCodes; c++) {
+			if(this.minCostPerTile[c] == Float.MAX_VALUE) {
+				this.minCostPerTile[c] = globalMin;
+			}
+		}
+	}
+
+	/**
+	 * Breadth-first expansion from a source node,
+	 * recording the lowest number of rnodes to each tile offset within the table range.
+	 * The expansion stops at MAX_HOPS rnodes or after MAX_VISITED_NODES nodes
+	 */
+	private void expand(Node source, float[] table, RouteThruHelper routethruHelper) {
+		Tile start = RoutingGraph.getCoordinateTile(source);
+		Map<Node, Integer> hops = new HashMap<>();
+		Queue<Node> queue = new ArrayDeque<>();
+		hops.put(source, 0);
+		queue.add(source);
+		while(!queue.isEmpty() && hops.size() < MAX_VISITED_NODES) {
+			Node node = queue.poll();
+			int h = hops.get(node);
+			if(h >= MAX_HOPS) break;
+			for(Node downhill : node.getAllDownhillNodes()) {
+				if(hops.containsKey(downhill) || routethruHelper.isRouteThru(node, downhill)) continue;
+				Tile coordinate = RoutingGraph.getCoordinateTile(downhill);
+				int dx = coordinate.getColumn() - start.getColumn();
+				int dy = coordinate.getRow() - start.getRow();
+				if(Math.abs(dx) > RANGE || Math.abs(dy) > RANGE) continue;
+				hops.put(downhill, h + 1);
+				queue.add(downhill);
+				int i = (dy + RANGE) * WIDTH + dx + RANGE;
+				if(table[i] == UNREACHED || table[i] > h + 1) {
+					table[i] = h + 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the switch box tile closest to the middle of the device
+	 */
+	private Tile getSampleSwitchBox(Device device) {
+		int midRow = device.getRows() / 2;
+		int midColumn = device.getColumns() / 2;
+		Tile closest = null;
+		int closestD = Integer.MAX_VALUE;
+		for(Tile tile : device.getAllTiles()) {
+			TileTypeEnum tt = tile.getTileTypeEnum();
+			boolean switchBox = device.getSeries() == Series.Series7 ?
+					tt == TileTypeEnum.INT_L || tt == TileTypeEnum.INT_R : tt == TileTypeEnum.INT;
+			if(!switchBox) continue;
+			int d = Math.abs(tile.getRow() - midRow) + Math.abs(tile.getColumn() - midColumn);
+			if(d < closestD) {
+				closestD = d;
+				closest = tile;
+			}
+		}
+		return closest;
+	}
+
+	private void writeFile(String fileName) {
+		UnsafeOutput out = FileTools.getUnsafeOutputStream(fileName);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(RANGE);
+		out.writeInt(this.costs.length);
+		out.writeFloats(this.minCostPerTile, 0, this.minCostPerTile.length);
+		for(float[] table : this.costs) {
+			out.writeBoolean(table != null);
+			if(table != null) {
+				out.writeFloats(table, 0, table.length);
+			}
+		}
+		out.close();
+	}
+
+	/**
+	 * @return false if the file was written by another version, with another range or other intent codes
+	 */
+	private boolean readFile(String fileName) {
+		UnsafeInput in = FileTools.getUnsafeInputStream(fileName);
+		try {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != RANGE) {
+				return false;
+			}
+			int numIntentCodes = in.readInt();
+			if(numIntentCodes != IntentCode.values().length) {
+				return false;
+			}
+			this.minCostPerTile = in.readFloats(numIntentCodes);
+			this.costs = new float[numIntentCodes][];
+			for(int i = 0; i < this.costs.length; i++) {
+				if(in.readBoolean()) {
+					this.costs[i] = in.readFloats(WIDTH * WIDTH);
+				}
+			}
+		}finally {
+			in.close();
+		}
+		return true;
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 1) {
+			System.out.println("USAGE: <device name>");
+			return;
+		}
+		Device device = Device.getDevice(args[0]);
+		CostLookahead lookahead = new CostLookahead(device, new RouteThruHelper(device));
+		System.out.println("Lookahead of " + device.getSeries() + ", min cost per tile by intent code = " 
+				+ Arrays.toString(lookahead.minCostPerTile));
+	}
+}
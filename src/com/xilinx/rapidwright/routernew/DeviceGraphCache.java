@@ -0,0 +1,296 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.router.RouteThruHelper;
+import com.xilinx.rapidwright.util.FileTools;
+
+/**
+ * A persistent cache of the downhill adjacency of the nodes of a device, excluding routethrus.
+ * The device is divided into square regions of tiles and the adjacency of all nodes based in a region
+ * is stored in one file per region under the RapidWright path, in the same way RouteThruHelper stores its .rt file.
+ * Region files are built the first time a node of the region is expanded and are memory-mapped by later runs,
+ * so that routing jobs on the same part skip Node.getAllDownhillNodes() and the routethru checks.
+ *
+ * Layout of a region file (ints):
+ * MAGIC, VERSION, number of nodes N, number of children C,
+ * node range of each tile of the region [REGION_TILES + 1],
+ * base wire of each node [N] (ascending within a tile),
+ * child range of each node [N + 1], tile (row << 16 | column) of each child [C], wire of each child [C]
+ */
+public class DeviceGraphCache {
+	private static final String folderName = "routingGraphs";
+	private static final int MAGIC = 0x52524743;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4;
+
+	private static final int REGION_BITS = 5;
+	private static final int REGION_SIZE = 1 << REGION_BITS;
+	private static final int REGION_MASK = REGION_SIZE - 1;
+	private static final int REGION_TILES = REGION_SIZE * REGION_SIZE;
+
+	private final Device device;
+	private final RouteThruHelper routethruHelper;
+	private final String cacheFolder;
+	//memory-mapped region files, keyed by regionRow << 16 | regionColumn
+	private final Map<Integer, Future<IntBuffer>> regions;
+
+	private final AtomicLong regionsBuilt;
+	private final AtomicLong regionsLoaded;
+
+	public DeviceGraphCache(Device device, RouteThruHelper routethruHelper) {
+		this.device = device;
+		this.routethruHelper = routethruHelper;
+		this.cacheFolder = FileTools.getRapidWrightPath() + File.separator + folderName + File.separator + device.getName();
+		FileTools.makeDirs(this.cacheFolder);
+		this.regions = new ConcurrentHashMap<>();
+		this.regionsBuilt = new AtomicLong();
+		this.regionsLoaded = new AtomicLong();
+	}
+
+	/**
+	 * Gets the downhill nodes of a node that are not reached through a routethru,
+	 * building or mapping the file of the region of the node if it has not been used yet
+	 * @param node: The node to be expanded
+	 * @return The downhill nodes, or null if the node is not in the cache
+	 */
+	public List<Node> getDownhillNodes(Node node) {
+		Tile tile = node.getTile();
+		int row = tile.getRow();
+		int column = tile.getColumn();
+		IntBuffer region = this.getRegion((row >>> REGION_BITS) << 16 | (column >>> REGION_BITS));
+
+		int numNodes = region.get(2);
+		int numChildren = region.get(3);
+		int wiresStart = HEADER_SIZE + REGION_TILES + 1;
+		int childRangeStart = wiresStart + numNodes;
+		int childTilesStart = childRangeStart + numNodes + 1;
+		int childWiresStart = childTilesStart + numChildren;
+
+		int local = (row & REGION_MASK) * REGION_SIZE + (column & REGION_MASK);
+		int entry = this.findWire(region, wiresStart, region.get(HEADER_SIZE + local), region.get(HEADER_SIZE + local + 1), node.getWire());
+		if(entry < 0) {
+			return null;
+		}
+		int first = region.get(childRangeStart + entry);
+		int last = region.get(childRangeStart + entry + 1);
+		List<Node> downhillNodes = new ArrayList<>(last - first);
+		for(int i = first; i < last; i++) {
+			int childTile = region.get(childTilesStart + i);
+			Tile t = this.device.getTile(childTile >>> 16, childTile & 0xffff);
+			downhillNodes.add(new Node(t, region.get(childWiresStart + i)));
+		}
+		return downhillNodes;
+	}
+
+	/**
+	 * Binary search of a base wire among the nodes [from, to) of a tile
+	 * @return The node entry of the wire, or -1 if there is none
+	 */
+	private int findWire(IntBuffer region, int wiresStart, int from, int to, int wire) {
+		int low = from;
+		int high = to - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int midWire = region.get(wiresStart + mid);
+			if(midWire < wire) {
+				low = mid + 1;
+			}else if(midWire > wire) {
+				high = mid - 1;
+			}else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the region of a key, loading or building it if it has not been used yet.
+	 * The region is loaded by the first thread that asks for it, outside of any map lock,
+	 * while other threads asking for the same region wait for it
+	 */
+	private IntBuffer getRegion(int regionKey) {
+		Future<IntBuffer> region = this.regions.get(regionKey);
+		if(region == null) {
+			FutureTask<IntBuffer> task = new FutureTask<>(() -> this.loadRegion(regionKey));
+			region = this.regions.putIfAbsent(regionKey, task);
+			if(region == null) {
+				region = task;
+				task.run();
+			}
+		}
+		try {
+			return region.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("ERROR: Interrupted while loading region " + this.getRegionFileName(regionKey), e);
+		} catch (ExecutionException e) {
+			//let a later call retry the region
+			this.regions.remove(regionKey, region);
+			throw new RuntimeException("ERROR: Failed to load region " + this.getRegionFileName(regionKey), e.getCause());
+		}
+	}
+
+	private String getRegionFileName(int regionKey) {
+		return this.cacheFolder + File.separator + (regionKey >>> 16) + "_" + (regionKey & 0xffff) + ".rrg";
+	}
+
+	private IntBuffer loadRegion(int regionKey) {
+		String fileName = this.getRegionFileName(regionKey);
+		File file = new File(fileName);
+		if(file.exists()) {
+			IntBuffer region = this.mapRegionFile(file);
+			if(region != null) {
+				this.regionsLoaded.incrementAndGet();
+				return region;
+			}
+		}
+		int[] data = this.buildRegion(regionKey >>> 16, regionKey & 0xffff);
+		this.writeRegionFile(fileName, data);
+		this.regionsBuilt.incrementAndGet();
+		return IntBuffer.wrap(data);
+	}
+
+	/**
+	 * Maps a region file, returning null if the file was written by another version of the cache
+	 */
+	private IntBuffer mapRegionFile(File file) {
+		try(RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()){
+			IntBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer();
+			if(region.limit() < HEADER_SIZE || region.get(0) != MAGIC || region.get(1) != VERSION) {
+				return null;
+			}
+			return region;
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not map routing graph cache file " + file.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Writes the region to a temporary file first, so that concurrent jobs on the same part never map a partial file
+	 */
+	private void writeRegionFile(String fileName, int[] data) {
+		File tmp = new File(fileName + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+		try(RandomAccessFile raf = new RandomAccessFile(tmp, "rw"); FileChannel channel = raf.getChannel()){
+			ByteBuffer buffer = ByteBuffer.allocate(data.length * Integer.BYTES);
+			buffer.asIntBuffer().put(data);
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not write routing graph cache file " + fileName, e);
+		}
+		if(!tmp.renameTo(new File(fileName))) {
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * Enumerates the nodes based in the tiles of a region and their downhill nodes, excluding routethrus
+	 */
+	private int[] buildRegion(int regionRow, int regionColumn) {
+		int[] tileStart = new int[REGION_TILES + 1];
+		IntList wires = new IntList();
+		IntList childRange = new IntList();
+		IntList childTiles = new IntList();
+		IntList childWires = new IntList();
+
+		for(int local = 0; local < REGION_TILES; local++) {
+			tileStart[local] = wires.size;
+			int row = (regionRow << REGION_BITS) + local / REGION_SIZE;
+			int column = (regionColumn << REGION_BITS) + local % REGION_SIZE;
+			if(row >= this.device.getRows() || column >= this.device.getColumns()) continue;
+			Tile tile = this.device.getTile(row, column);
+			if(tile == null) continue;
+			for(int wire = 0; wire < tile.getWireCount(); wire++) {
+				Node node = Node.getNode(tile, wire);
+				//each node is stored once, in the tile of its base wire
+				if(node == null || !node.getTile().equals(tile) || node.getWire() != wire) continue;
+				wires.add(wire);
+				childRange.add(childTiles.size);
+				for(Node downhill : node.getAllDownhillNodes()) {
+					if(this.routethruHelper.isRouteThru(node, downhill)) continue;
+					Tile t = downhill.getTile();
+					childTiles.add(t.getRow() << 16 | t.getColumn());
+					childWires.add(downhill.getWire());
+				}
+			}
+		}
+		tileStart[REGION_TILES] = wires.size;
+		childRange.add(childTiles.size);
+
+		int[] data = new int[HEADER_SIZE + tileStart.length + wires.size + childRange.size + childTiles.size + childWires.size];
+		data[0] = MAGIC;
+		data[1] = VERSION;
+		data[2] = wires.size;
+		data[3] = childTiles.size;
+		int offset = HEADER_SIZE;
+		System.arraycopy(tileStart, 0, data, offset, tileStart.length);
+		offset += tileStart.length;
+		offset = wires.copyTo(data, offset);
+		offset = childRange.copyTo(data, offset);
+		offset = childTiles.copyTo(data, offset);
+		childWires.copyTo(data, offset);
+		return data;
+	}
+
+	public long getRegionsBuilt() {
+		return this.regionsBuilt.get();
+	}
+
+	public long getRegionsLoaded() {
+		return this.regionsLoaded.get();
+	}
+
+	private static class IntList {
+		int[] values = new int[1 << 10];
+		int size = 0;
+
+		void add(int value) {
+			if(this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.values[this.size++] = value;
+		}
+
+		int copyTo(int[] dst, int offset) {
+			System.arraycopy(this.values, 0, dst, offset, this.size);
+			return offset + this.size;
+		}
+	}
+
+	/**
+	 * Builds the cache files of all regions of a device ahead of routing
+	 */
+	public static void main(String[] args) {
+		if(args.length < 1) {
+			System.out.println("USAGE: <device name>");
+			return;
+		}
+		Device device = Device.getDevice(args[0]);
+		DeviceGraphCache cache = new DeviceGraphCache(device, new RouteThruHelper(device));
+		for(int regionRow = 0; regionRow <= (device.getRows() - 1) >>> REGION_BITS; regionRow++) {
+			for(int regionColumn = 0; regionColumn <= (device.getColumns() - 1) >>> REGION_BITS; regionColumn++) {
+				cache.getRegion(regionRow << 16 | regionColumn);
+			}
+		}
+		System.out.println("Regions built: " + cache.getRegionsBuilt() + ", loaded: " + cache.getRegionsLoaded());
+	}
+}
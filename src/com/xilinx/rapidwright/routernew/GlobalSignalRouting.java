@@ -33,8 +33,7 @@ import com.xilinx.rapidwright.router.UltraScaleClockRouting;
  * Adapted from RW APIs
  */
 public class GlobalSignalRouting {
-	private static Map<Node, RoutableNode> rnodesCreated;
-	private static int rnodeId;
+	private static RoutingGraph graph;
 	private static Design design;
 	private static RouteThruHelper routeThruHelper;
 	
@@ -42,26 +41,18 @@ public class GlobalSignalRouting {
 	static boolean debugPrintClkPIPs = false;
 	static ClockRegion assignedCentroid = null;
 	
-	public GlobalSignalRouting(Design design, Map<Node, RoutableNode> rnodesCreated, int rnodeId, RouteThruHelper routeThruHelper) {
-		setRnodesCreated(rnodesCreated);
-		setRnodeId(rnodeId);
+	public GlobalSignalRouting(Design design, RoutingGraph graph, RouteThruHelper routeThruHelper) {
+		setGraph(graph);
 		GlobalSignalRouting.design = design;
 		GlobalSignalRouting.routeThruHelper = routeThruHelper;
 	}
 	
-	public static Map<Node, RoutableNode> getRnodesCreated() {
-		return rnodesCreated;
+	public static RoutingGraph getGraph() {
+		return graph;
 	}
 
-	public static void setRnodesCreated(Map<Node, RoutableNode> rnodesCreated) {
-		GlobalSignalRouting.rnodesCreated = rnodesCreated;
-	}
-
-	public static int getRnodeId() {
-		return rnodeId;
-	}
-	public static void setRnodeId(int rnodeId) {
-		GlobalSignalRouting.rnodeId = rnodeId;
+	public static void setGraph(RoutingGraph graph) {
+		GlobalSignalRouting.graph = graph;
 	}
 	
 	/**
@@ -299,9 +290,9 @@ public class GlobalSignalRouting {
 			Node node = new Node(t,wire); // same as sink.getConnectedNode()
 			if(debug) 
 				System.out.println(node);
-			RoutableNode sinkRNode = createRoutableNodeAndAdd(rnodeId, node, RoutableType.SINKRR, currNet);
-			sinkRNode.type = RoutableType.SINKRR;
-			sinkRNode.getRoutableData().setPrev(null);
+			RoutableNode sinkRNode = createRoutableNodeAndAdd(node, RoutableType.SINKRR, currNet);
+			sinkRNode.setType(RoutableType.SINKRR);
+			graph.setPrev(sinkRNode.index, RoutingGraph.NULL_ID);
 			
 			q.add(sinkRNode);
 			boolean success = false;
@@ -310,10 +301,10 @@ public class GlobalSignalRouting {
 				visitedRoutable.add(n);
 				
 				if(debug) System.out.println("DEQUEUE:" + n);
-				if(debug) System.out.println(", PREV = " + n.getRoutableData().getPrev() == null ? " null" : n.getRoutableData().getPrev());
+				if(debug) System.out.println(", PREV = " + (graph.getPrev(n.index) == RoutingGraph.NULL_ID ? " null" : graph.getRoutableNode(graph.getPrev(n.index))));
 				
 				if(success = isThisOurStaticSource(design, n, netType, usedRoutable, debug)){
-					n.type = RoutableType.SOURCERR;//set as a source
+					n.setType(RoutableType.SOURCERR);//set as a source
 					//trace back for a complete path
 					if(debug){
 						System.out.println("SINK: TILE = " + t.getName() + " WIRE NAME = " + t.getWireName(wire) + " NODE = " + sink.getConnectedNode().toString());
@@ -325,7 +316,8 @@ public class GlobalSignalRouting {
 						pathNodes.add(n.getNode());
 						
 						if(debug) System.out.println("  " + n.toString());
-						n = (RoutableNode) n.getRoutableData().getPrev();
+						int prev = graph.getPrev(n.index);
+						n = prev == RoutingGraph.NULL_ID ? null : graph.getRoutableNode(prev);
 					}
 					Collections.reverse(pathNodes);
 					sinkPathNodes.put(sink, pathNodes);
@@ -343,10 +335,10 @@ public class GlobalSignalRouting {
 				}
 				for(Node uphillNode : n.getNode().getAllUphillNodes()){
 					if(routeThruHelper.isRouteThru(uphillNode, n.getNode())) continue;
-					RoutableNode nParent = createRoutableNodeAndAdd(rnodeId, uphillNode, RoutableType.INTERRR, currNet);
+					RoutableNode nParent = createRoutableNodeAndAdd(uphillNode, RoutableType.INTERRR, currNet);
 					
 					if(!pruneNode(nParent, unavailableNodes, visitedRoutable)) {
-						nParent.getRoutableData().setPrev(n);
+						graph.setPrev(nParent.index, n.index);
 						q.add(nParent);
 					}
 				}
@@ -370,23 +362,20 @@ public class GlobalSignalRouting {
 		return sinkPathNodes;
 	}
 	
-	public static RoutableNode createRoutableNodeAndAdd(int globalIndex, Node node, RoutableType type, Net net){
+	public static RoutableNode createRoutableNodeAndAdd(Node node, RoutableType type, Net net){
 		NetType netType = net.getType();
-		RoutableNode rrgNode = rnodesCreated.get(node);
+		int id = graph.getId(node);
 		
-		if(!rnodesCreated.containsKey(node)){//TODO reserved rnodes.contains()
+		if(id == RoutingGraph.NULL_ID){//TODO reserved rnodes.contains()
 			//this is for initializing sources and sinks of those to-be-routed nets's connections
-			rrgNode = new RoutableNode(globalIndex, node, type);
-			rnodesCreated.put(rrgNode.getNode(), rrgNode);
-			rnodeId++;
+			id = graph.getOrCreate(node, type);
 		}else{
 			//this is for checking preserved routing resource conflicts among routed nets
-			rrgNode = rnodesCreated.get(node);
-			if(rrgNode.type == type && type == RoutableType.SINKRR && netType == NetType.WIRE)
+			if(graph.getType(id) == type && type == RoutableType.SINKRR && netType == NetType.WIRE)
 				System.out.println("! Conflicting Sink Site Pin Connected Node: " + node);
 		}
 		
-		return rrgNode;
+		return graph.getRoutableNode(id);
 	}
 	
 	private static boolean pruneNode(RoutableNode parent, Set<Node> unavailableNodes, Set<RoutableNode> visitedRoutable){
@@ -0,0 +1,195 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free binary min-heap of rnode ids, keyed by their total path cost.
+ * The heap position of each rnode is kept in a small open-addressing table of the rnode ids pushed since the last clear,
+ * so that pushing an rnode that is already queued lowers its cost in place (decrease-key) instead of adding a duplicate entry.
+ * The table only grows with the number of rnodes pushed for one connection, not with the size of the routing graph,
+ * so that each routing thread can own heaps without paying for every rnode of the graph.
+ * The arrays are reused across connections and clearing only resets the slots of the pushed rnodes.
+ */
+public class IndexedRNodeHeap implements RNodeQueue {
+	private static final int NOT_QUEUED = -1;
+	private static final int EMPTY = -1;
+
+	//rnode ids, their table slots and their costs in heap order
+	private int[] heap;
+	private int[] heapSlots;
+	private float[] keys;
+	private int size;
+	//open-addressing table from the pushed rnode ids to their heap positions, NOT_QUEUED if polled
+	private int[] slotIds;
+	private int[] slotPositions;
+	//the used slots of the table, cleared in time linear to their number
+	private int[] usedSlots;
+	private int numUsedSlots;
+	private int shift;
+
+	public IndexedRNodeHeap() {
+		this(1024);
+	}
+
+	public IndexedRNodeHeap(int initialCapacity) {
+		this.heap = new int[initialCapacity];
+		this.heapSlots = new int[initialCapacity];
+		this.keys = new float[initialCapacity];
+		this.size = 0;
+		this.createTable(Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 2);
+	}
+
+	@Override
+	public void push(int rnode, float cost) {
+		int slot = this.findSlot(rnode);
+		if(this.slotIds[slot] == EMPTY) {
+			slot = this.insert(rnode, slot);
+		}
+		int pos = this.slotPositions[slot];
+		if(pos == NOT_QUEUED) {
+			if(this.size == this.heap.length) {
+				this.heap = Arrays.copyOf(this.heap, this.size << 1);
+				this.heapSlots = Arrays.copyOf(this.heapSlots, this.size << 1);
+				this.keys = Arrays.copyOf(this.keys, this.size << 1);
+			}
+			this.siftUp(this.size++, rnode, slot, cost);
+		}else if(cost < this.keys[pos]) {
+			this.siftUp(pos, rnode, slot, cost);
+		}
+	}
+
+	@Override
+	public int peek() {
+		return this.heap[0];
+	}
+
+	@Override
+	public float peekCost() {
+		return this.keys[0];
+	}
+
+	@Override
+	public int poll() {
+		int top = this.heap[0];
+		this.slotPositions[this.heapSlots[0]] = NOT_QUEUED;
+		int last = --this.size;
+		if(last > 0) {
+			this.siftDown(0, this.heap[last], this.heapSlots[last], this.keys[last]);
+		}
+		return top;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < this.numUsedSlots; i++) {
+			this.slotIds[this.usedSlots[i]] = EMPTY;
+		}
+		this.numUsedSlots = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Moves the hole at pos up until the rnode with the given cost fits and stores it there
+	 */
+	private void siftUp(int pos, int rnode, int slot, float cost) {
+		while(pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if(this.keys[parent] <= cost) break;
+			this.place(pos, this.heap[parent], this.heapSlots[parent], this.keys[parent]);
+			pos = parent;
+		}
+		this.place(pos, rnode, slot, cost);
+	}
+
+	/**
+	 * Moves the hole at pos down until the rnode with the given cost fits and stores it there
+	 */
+	private void siftDown(int pos, int rnode, int slot, float cost) {
+		int half = this.size >>> 1;
+		while(pos < half) {
+			int child = (pos << 1) + 1;
+			int right = child + 1;
+			if(right < this.size && this.keys[right] < this.keys[child]) {
+				child = right;
+			}
+			if(cost <= this.keys[child]) break;
+			this.place(pos, this.heap[child], this.heapSlots[child], this.keys[child]);
+			pos = child;
+		}
+		this.place(pos, rnode, slot, cost);
+	}
+
+	private void place(int pos, int rnode, int slot, float cost) {
+		this.heap[pos] = rnode;
+		this.heapSlots[pos] = slot;
+		this.keys[pos] = cost;
+		this.slotPositions[slot] = pos;
+	}
+
+	/**
+	 * Gets the slot of an rnode id in the table, or the empty slot where it is to be inserted
+	 */
+	private int findSlot(int rnode) {
+		int mask = this.slotIds.length - 1;
+		int slot = (rnode * 0x9E3779B9) >>> this.shift;
+		while(this.slotIds[slot] != rnode && this.slotIds[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Inserts an rnode id that is not in the table, keeping the table at most half full
+	 * @return The slot of the rnode id
+	 */
+	private int insert(int rnode, int slot) {
+		if((this.numUsedSlots + 1) << 1 > this.slotIds.length) {
+			this.rehash(this.slotIds.length << 1);
+			slot = this.findSlot(rnode);
+		}
+		this.slotIds[slot] = rnode;
+		this.slotPositions[slot] = NOT_QUEUED;
+		this.usedSlots[this.numUsedSlots++] = slot;
+		return slot;
+	}
+
+	private void createTable(int capacity) {
+		this.slotIds = new int[capacity];
+		Arrays.fill(this.slotIds, EMPTY);
+		this.slotPositions = new int[capacity];
+		this.usedSlots = new int[capacity >> 1];
+		this.numUsedSlots = 0;
+		this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+	}
+
+	/**
+	 * Moves the pushed rnode ids into a larger table and updates the slots of the queued rnodes
+	 */
+	private void rehash(int capacity) {
+		int[] oldIds = this.slotIds;
+		int[] oldPositions = this.slotPositions;
+		int[] oldUsedSlots = this.usedSlots;
+		int oldNumUsedSlots = this.numUsedSlots;
+		this.createTable(capacity);
+		for(int i = 0; i < oldNumUsedSlots; i++) {
+			int oldSlot = oldUsedSlots[i];
+			int slot = this.findSlot(oldIds[oldSlot]);
+			this.slotIds[slot] = oldIds[oldSlot];
+			this.slotPositions[slot] = oldPositions[oldSlot];
+			this.usedSlots[this.numUsedSlots++] = slot;
+		}
+		for(int pos = 0; pos < this.size; pos++) {
+			this.heapSlots[pos] = this.findSlot(this.heap[pos]);
+		}
+	}
+}
@@ -2,11 +2,15 @@ package com.xilinx.rapidwright.routernew;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 
 import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
 import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.Tile;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.timing.delayestimator.DelayQueryCache;
+import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.MessageGenerator;
 
 public class Main {
@@ -43,7 +47,7 @@ public class Main {
 		this.checkAverageWiresandNodesEachTile();
 					
 		if(config.getOpt() == RoutingGranularityOpt.NODE){
-			RoutableNodeRouter router = new RoutableNodeRouter(this.design, config);
+			RoutableNodeRouter router = new RoutableNodeRouter(this.design, config, this.readChangedNets());
 			
 			router.designInfo();
 			this.routerConfigurationInfo();
@@ -53,6 +57,12 @@ public class Main {
 			this.t.stop();
 			
 			router.getDesign().writeCheckpoint(this.toWriteDCPfileName,t);
+			if(router.routeCache != null) {
+				String routeCacheFileName = this.toWriteDCPfileName.substring(0, this.toWriteDCPfileName.lastIndexOf(".")) + ".rcache";
+				router.routeCache.writeFile(routeCacheFileName);
+				System.out.printf("Route cache: %d hits, %d misses, %d entries written to %s\n", router.routeCache.getHits(), 
+						router.routeCache.getMisses(), router.routeCache.size(), routeCacheFileName);
+			}
 			
 			router.getAllHopsAndManhattanD();
 			
@@ -64,6 +74,13 @@ public class Main {
 					router.checkAverageNumWires(),
 					1, 0, 0,
 					router.averFanoutRNodes, 0, 0, 0, 0, 0, 0);
+			System.out.printf("Routing graph arrays: %.2f MB\n", router.graph.getHeapSizeEstimate() * 1e-6);
+			System.out.printf("Bounding box retries: %d\n", router.bbRetries);
+			this.exportMetrics(router.metrics);
+			if(router.deviceGraphCache != null) {
+				System.out.printf("Device graph cache regions: %d loaded, %d built\n", 
+						router.deviceGraphCache.getRegionsLoaded(), router.deviceGraphCache.getRegionsBuilt());
+			}
 			
 			this.runtimeInfoPrinting(routingRuntime, 
 					router.itry, 
@@ -87,6 +104,10 @@ public class Main {
 					config.getInitial_pres_fac(),
 					config.getPres_fac_mult(),
 					config.getAcc_fac());
+			if(config.getMetricsPrefix() != null) {
+				router.metrics = new RouterMetrics(this.design.getName() + "_wire");
+				MetricsRegistry.register(router.metrics);
+			}
 			
 			router.designInfo();
 			this.routerConfigurationInfo();
@@ -96,6 +117,7 @@ public class Main {
 			this.t.stop();
 			
 			router.getDesign().writeCheckpoint(this.toWriteDCPfileName,t);
+			this.exportMetrics(router.metrics);
 			
 			router.getAllHopsAndManhattanD();
 			
@@ -130,6 +152,8 @@ public class Main {
 				
 				router.getDesign().writeCheckpoint(this.toWriteDCPfileName,t);
 				
+				this.exportMetrics(router.metrics);
+				
 				router.getAllHopsAndManhattanD();
 				router.checkAverageNumWires();
 				
@@ -143,13 +167,18 @@ public class Main {
 						router.averNodeGroupPerSiblings,
 						router.averNodePerSiblings,
 						router.averFanoutRNodes,
-						router.estimator != null? router.estimator.intableQuery - router.intableCall: 0,
-						router.estimator != null? router.estimator.outOfTableQuery - router.outtableCall: 0,
+						router.estimator != null? router.estimator.getIntableQueryCount() - router.intableCall: 0,
+						router.estimator != null? router.estimator.getOutOfTableQueryCount() - router.outtableCall: 0,
 						router.callDelayEstimator,
 						router.noCallOfDelayEstimator,
-						router.estimator != null? router.estimator.pinbounceQuery - router.pinbounce: 0,
-						router.estimator != null? router.estimator.pinfeedQuery - router.pinfeed: 0);
-				
+						router.estimator != null? router.estimator.getPinbounceQueryCount() - router.pinbounce: 0,
+						router.estimator != null? router.estimator.getPinfeedQueryCount() - router.pinfeed: 0);
+				if(router.estimator != null && router.estimator.getQueryCache() != null) {
+					DelayQueryCache queryCache = router.estimator.getQueryCache();
+					System.out.printf("Delay estimator cache: %d hits, %d misses, %.2f hit rate, %d entries\n",
+							queryCache.getHitCount(), queryCache.getMissCount(), queryCache.getHitRate(), queryCache.size());
+				}
+
 				this.runtimeInfoPrinting(routingRuntime,
 						router.itry, 
 						router.connectionsRouted,
@@ -168,6 +197,33 @@ public class Main {
 	}		
 	
 	
+	/**
+	 * Reads the nets changed by an ECO from the file given by the changedNets option
+	 * @return The changed nets, or null to route the whole design
+	 */
+	private Set<Net> readChangedNets() {
+		if(config.getChangedNetsFile() == null) return null;
+		Set<Net> changedNets = new HashSet<>();
+		for(String line : FileTools.getLinesFromTextFile(config.getChangedNetsFile())) {
+			String netName = line.trim();
+			if(netName.isEmpty() || netName.startsWith("#")) continue;
+			Net net = this.design.getNet(netName);
+			if(net == null) {
+				System.out.println("WARNING: Changed net " + netName + " not found in the design");
+				continue;
+			}
+			changedNets.add(net);
+		}
+		System.out.println("Changed nets: " + changedNets.size() + " read from " + config.getChangedNetsFile());
+		return changedNets;
+	}
+	
+	private void exportMetrics(RouterMetrics metrics) {
+		if(metrics == null) return;
+		metrics.export(config.getMetricsPrefix());
+		System.out.println("Router metrics written to " + config.getMetricsPrefix() + ".json");
+	}
+	
 	public void checkAverageWiresandNodesEachTile(){
 		Device dev = this.design.getDevice();
 		Collection<Tile> tiles = dev.getAllTiles();
@@ -0,0 +1,33 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process registry of the metrics of the routers, so that a scheduler running routers in the same JVM
+ * can observe routing runs while they are in progress
+ */
+public class MetricsRegistry {
+	private static final Map<String, RouterMetrics> metrics = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the metrics of a router under their name, replacing earlier metrics with the same name
+	 */
+	public static void register(RouterMetrics routerMetrics) {
+		metrics.put(routerMetrics.name, routerMetrics);
+	}
+
+	public static void unregister(String name) {
+		metrics.remove(name);
+	}
+
+	public static RouterMetrics get(String name) {
+		return metrics.get(name);
+	}
+
+	public static List<RouterMetrics> getAll() {
+		return new ArrayList<>(metrics.values());
+	}
+}
@@ -18,6 +18,8 @@ public class Netplus{
 	public float x_geo, y_geo;
 	public short hpwl;
 	public short fanout;
+	//number of times the bounding box has been extended, which makes later extensions of the net progressively larger
+	private short bbExpansions;
 	
 	public Netplus(int id, short bbRange, Net net){
 		this.id = id;
@@ -110,11 +112,32 @@ public class Netplus{
 		return null;
 	}
 	
+	/**
+	 * Extends the bounding box by a margin that doubles with each of the first extensions of the net,
+	 * so that nets which needed larger boxes in previous attempts and iterations grow faster
+	 */
 	public void extendBoundingBox() {
-		this.x_min_b -= 4;
-		this.x_max_b += 4;
-		this.y_min_b -= 2;
-		this.y_max_b += 2;
+		int scale = 1 << Math.min(this.bbExpansions, 3);
+		this.x_min_b -= 4 * scale;
+		this.x_max_b += 4 * scale;
+		this.y_min_b -= 2 * scale;
+		this.y_max_b += 2 * scale;
+		this.bbExpansions++;
+	}
+	
+	/**
+	 * Extends the bounding box so that a routing resource at (x, y) lies strictly inside it,
+	 * e.g. for the nodes of a kept routing that leaves the box of the pins
+	 */
+	public void includeInBoundingBox(short x, short y) {
+		this.x_min_b = (short) Math.min(this.x_min_b, x - 1);
+		this.x_max_b = (short) Math.max(this.x_max_b, x + 1);
+		this.y_min_b = (short) Math.min(this.y_min_b, y - 1);
+		this.y_max_b = (short) Math.max(this.y_max_b, y + 1);
+	}
+	
+	public short getBbExpansions() {
+		return this.bbExpansions;
 	}
 	
 	public int hashCode(){
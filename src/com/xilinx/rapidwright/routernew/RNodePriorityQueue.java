@@ -0,0 +1,50 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.PriorityQueue;
+
+/**
+ * RNodeQueue backed by a java.util.PriorityQueue.
+ * Every push allocates a new element and an rnode whose cost is lowered stays in the queue with its stale cost.
+ */
+public class RNodePriorityQueue implements RNodeQueue {
+	private PriorityQueue<RNodeQueueElement> queue;
+	
+	public RNodePriorityQueue() {
+		this.queue = new PriorityQueue<>(Comparators.RNODE_PRIORITY_COMPARATOR);
+	}
+	
+	@Override
+	public void push(int rnode, float cost) {
+		this.queue.add(new RNodeQueueElement(rnode, cost));
+	}
+
+	@Override
+	public int peek() {
+		return this.queue.peek().rnode;
+	}
+
+	@Override
+	public float peekCost() {
+		return this.queue.peek().cost;
+	}
+
+	@Override
+	public int poll() {
+		return this.queue.poll().rnode;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return this.queue.size();
+	}
+
+	@Override
+	public void clear() {
+		this.queue.clear();
+	}
+}
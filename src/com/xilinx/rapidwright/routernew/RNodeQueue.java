@@ -0,0 +1,33 @@
+package com.xilinx.rapidwright.routernew;
+
+/**
+ * The A* frontier of the node router, holding rnode ids of the RoutingGraph ordered by their total path cost
+ */
+public interface RNodeQueue {
+	
+	/**
+	 * Adds an rnode with the given cost, or lowers its cost if it is already queued with a higher one
+	 */
+	public void push(int rnode, float cost);
+	
+	/**
+	 * Gets the rnode with the lowest cost without removing it
+	 */
+	public int peek();
+	
+	/**
+	 * Gets the cost of the rnode with the lowest cost
+	 */
+	public float peekCost();
+	
+	/**
+	 * Removes and returns the rnode with the lowest cost
+	 */
+	public int poll();
+	
+	public boolean isEmpty();
+	
+	public int size();
+	
+	public void clear();
+}
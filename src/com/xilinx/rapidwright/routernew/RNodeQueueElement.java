@@ -0,0 +1,14 @@
+package com.xilinx.rapidwright.routernew;
+
+/**
+ * Queue element of the node router, referring to an rnode of the RoutingGraph by its id
+ */
+public class RNodeQueueElement {
+	final int rnode;
+	final float cost;
+	
+	public RNodeQueueElement(int rnode, float cost){
+		this.rnode = rnode;
+		this.cost = cost;
+	}
+}
@@ -2,218 +2,138 @@ package com.xilinx.rapidwright.routernew;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 import com.xilinx.rapidwright.device.Node;
-import com.xilinx.rapidwright.device.Tile;
-import com.xilinx.rapidwright.device.TileTypeEnum;
-import com.xilinx.rapidwright.device.Wire;
-import com.xilinx.rapidwright.router.RouteThruHelper;
-import com.xilinx.rapidwright.util.Pair;
 
+/**
+ * A Routable view of one rnode of a RoutingGraph.
+ * It carries no routing data itself, all attributes are stored in the graph under the rnode index,
+ * so views can be created on demand and two views of the same index are equal.
+ */
 public class RoutableNode implements Routable{
-	public int index;
-	private Node node;
-	public RoutableType type;
-	
-	public short x, y;
-	
-	public float base_cost;
-	
-	private final RoutableData rnodeData;
-	
-	private boolean target;
-	public List<Routable> children;
-	private boolean childrenSet;
-	
-	public RoutableNode(int index, Node node, RoutableType type){
+	public final int index;
+	private final RoutingGraph graph;
+
+	public RoutableNode(RoutingGraph graph, int index){
+		this.graph = graph;
 		this.index = index;
-		this.type = type;
-		this.node = node;
-		this.rnodeData = new RoutableData(this.index);
-		this.childrenSet = false;
-		this.target = false;
-		this.setXY();
-		this.setBaseCost();
 	}
-	
-	public Pair<Integer, Long> setChildren(Connection c, int globalIndex, Map<Node, RoutableNode> createdRoutable,
-			RouteThruHelper routethruHelper, long callingOfGetNextRoutable, Set<Node> reserved){
-		List<Node> allDownHillNodes = this.node.getAllDownhillNodes();
-		callingOfGetNextRoutable++;
-		this.children = new ArrayList<>();
-		for(Node node:allDownHillNodes){
-			//TODO make available routethrus available
-			if(reserved.contains(node)) continue;
-			if(!routethruHelper.isRouteThru(this.node, node)){//routethrus are forbidden in this way
-				RoutableNode child = createdRoutable.get(node);
-				if(child == null) {
-					child = new RoutableNode(globalIndex, node, RoutableType.INTERRR);
-					globalIndex++;
-					this.children.add(child);
-					createdRoutable.put(node, child);
-				}else {
-					this.children.add(child);//the sink routable of a target has been created up-front 
-				}
-			}
-		}
-		this.childrenSet = true;
-		
-		return new Pair<Integer, Long>(globalIndex, callingOfGetNextRoutable);
+
+	public RoutingGraph getGraph() {
+		return this.graph;
 	}
-	
-	public void setBaseCost(){
-		if(this.type == RoutableType.SOURCERR){
-			base_cost = 1;
-			
-		}else if(this.type == RoutableType.INTERRR){
-			base_cost = 1f;
-			
-		}else if(this.type == RoutableType.SINKRR){//this is for faster maze expansion convergence to the sink
-			base_cost = 0.95f;//virtually the same to the logic block input pin, since no alternative ipins are considered
-		}else{
-			base_cost = 1;
-		}
+
+	public void setType(RoutableType type) {
+		this.graph.setType(this.index, type);
 	}
 
 	@Override
 	public boolean overUsed() {
-		return Routable.capacity < this.getOccupancy();
+		return this.graph.overUsed(this.index);
 	}
-	
+
 	@Override
 	public boolean used(){
-		return this.getOccupancy() > 0;
+		return this.graph.used(this.index);
 	}
-	
+
 	@Override
 	public boolean illegal(){
-		return Routable.capacity < this.rnodeData.numUniqueParents();
+		return this.graph.illegal(this.index);
 	}
 
 	@Override
 	public void setXY() {
-		try {
-			this.node.getAllWiresInNode();
-		}catch (Exception e) {
-			System.out.println(this.node);
-		}
-		Wire[] wires = this.node.getAllWiresInNode();
-		List<Tile> intTiles = new ArrayList<>();
-		
-		for(Wire w : wires) {
-			if(w.getTile().getTileTypeEnum() == TileTypeEnum.INT) {
-				intTiles.add(w.getTile());
-			}
-		}
-		
-		if(intTiles.size() > 1) {
-			this.x = (short) intTiles.get(1).getColumn();
-			this.y = (short) intTiles.get(1).getRow();
-		}else if(intTiles.size() == 1) {
-			this.x = (short) intTiles.get(0).getColumn();
-			this.y = (short) intTiles.get(0).getRow();
-		}else {
-			this.x = (short) wires[0].getTile().getColumn();
-			this.y = (short) wires[0].getTile().getRow();
-		}
+		//coordinates are set by the graph when the rnode is created
 	}
-	
+
 	@Override
 	public void updatePresentCongestionPenalty(float pres_fac) {
-		
-		RoutableData data = this.rnodeData;
-		
-		int occ = this.getOccupancy();
-		int cap = Routable.capacity;
-		
-		if (occ < cap) {
-			data.setPres_cost(1);
-		} else {
-			data.setPres_cost(1 + (occ - cap + 1) * pres_fac);
-		}
+		this.graph.updatePresentCongestionPenalty(this.index, pres_fac);
 	}
-	
+
 	@Override
 	public String toString(){
-		String coordinate = "";	
-		coordinate = "(" + this.x + "," + this.y + ")";
+		String coordinate = "";
+		coordinate = "(" + this.getX() + "," + this.getY() + ")";
 		StringBuilder s = new StringBuilder();
 		s.append("id = " + this.index);
 		s.append(", ");
-		s.append("node " + this.node.toString());
+		s.append("node " + this.getNode().toString());
 		s.append(", ");
 		s.append(coordinate);
 		s.append(", ");
-		s.append(String.format("type = %s", this.type));
-		
+		s.append(String.format("type = %s", this.getRoutableType()));
+
 		return s.toString();
 	}
-	
+
 	@Override
 	public int hashCode(){
 		return this.index;
 	}
 
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) return true;
+		if(!(obj instanceof RoutableNode)) return false;
+		RoutableNode other = (RoutableNode) obj;
+		return this.index == other.index && this.graph == other.graph;
+	}
+
 	@Override
 	public float getManhattanD() {
-		float md = 0;
-		if(this.rnodeData.getPrev() != null){
-			md = Math.abs(this.rnodeData.getPrev().getX() - this.getX()) + Math.abs(this.rnodeData.getPrev().getY() - this.getY());
-		}
-		return md;
+		return this.graph.getManhattanD(this.index);
 	}
 
-	
-	public boolean isInBoundingBoxLimit(Connection con) {		
-		return this.x > con.net.x_min_b && this.x < con.net.x_max_b && this.y > con.net.y_min_b && this.y < con.net.y_max_b;
+	@Override
+	public boolean isInBoundingBoxLimit(Connection con) {
+		return this.graph.isInBoundingBoxLimit(this.index, con);
 	}
-	
+
 	@Override
 	public Node getNode() {
-		return this.node;
+		return this.graph.getNode(this.index);
 	}
 
 	@Override
 	public boolean isTarget() {
-		return this.target;
+		return this.graph.isTarget(this.index);
 	}
 
 	@Override
 	public void setTarget(boolean isTarget) {
-		this.target = isTarget;	
+		this.graph.setTarget(this.index, isTarget);
 	}
 
 	@Override
 	public RoutableType getRoutableType() {
-		return this.type;
+		return this.graph.getType(this.index);
 	}
 
 	@Override
 	public int getOccupancy() {
-		
-		return this.rnodeData.getOccupancy();
+		return this.graph.getOccupancy(this.index);
 	}
 
 	@Override
 	public float getPres_cost() {
-		return this.rnodeData.getPres_cost();
+		return this.graph.getPresCost(this.index);
 	}
 
 	@Override
-	public void setPres_cost(float pres_cost) {	
-		this.rnodeData.setPres_cost(pres_cost);
+	public void setPres_cost(float pres_cost) {
+		this.graph.setPresCost(this.index, pres_cost);
 	}
 
 	@Override
 	public float getAcc_cost() {
-		return this.rnodeData.getAcc_cost();
+		return this.graph.getAccCost(this.index);
 	}
 
 	@Override
 	public void setAcc_cost(float acc_cost) {
-		this.rnodeData.setAcc_cost(acc_cost);	
+		this.graph.setAccCost(this.index, acc_cost);
 	}
 
 	@Override
@@ -223,42 +143,47 @@ public class RoutableNode implements Routable{
 	}
 	@Override
 	public short getX() {
-		return this.x;
+		return this.graph.getX(this.index);
 	}
 
 	@Override
 	public short getY() {
-		return this.y;
+		return this.graph.getY(this.index);
 	}
-	
+
 	@Override
 	public float getBase_cost() {
-		return this.base_cost;
+		return this.graph.getBaseCost(this.index);
 	}
 
 	@Override
 	public RoutableData getRoutableData() {
-		return this.rnodeData;
+		return this.graph.getRoutableData(this.index);
 	}
 
+	@Override
 	public boolean isChildrenSet() {
-		return childrenSet;
+		return this.graph.isChildrenSet(this.index);
 	}
 
 	@Override
 	public void setChildrenSet(boolean childrenSet) {
-		this.childrenSet = childrenSet;
+		this.graph.setChildrenSet(this.index, childrenSet);
 	}
 
 	@Override
 	public List<Routable> getChildren() {
-		return this.children;
+		List<Routable> children = new ArrayList<>();
+		for(int i = 0; i < this.graph.getNumChildren(this.index); i++) {
+			children.add(this.graph.getRoutableNode(this.graph.getChild(this.index, i)));
+		}
+		return children;
 	}
 
 	@Override
 	public void setDelay(short delay) {
 		// TODO Auto-generated method stub
-		
+
 	}
-	
+
 }
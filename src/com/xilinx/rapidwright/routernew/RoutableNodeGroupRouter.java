@@ -84,10 +84,13 @@ public class RoutableNodeGroupRouter{
 	public int connectionsRouted;
 	public long nodesExpanded;
 	public long nodesExpandedFirstIter;
+	public long nodesPushed;
 	public int connectionsRoutedIteration;
 	public long nodesPopedFromQueue;
 	public long nodesPopedFromQueueFirstIter;
 	public long callingOfGetNextRoutable;
+	//per-iteration metrics, null if disabled in the configuration
+	public RouterMetrics metrics;
 	
 	public Set<Integer> overUsedRNodes;
 	public Set<Integer> usedRNodes;
@@ -123,13 +126,21 @@ public class RoutableNodeGroupRouter{
 		this.requiredTiming = this.getDesignTimingReq() * 1000;
 		
 		if(this.config.isTimingDriven()) {
-			this.timingManager = new TimingManager(this.design, true);	
+			this.timingManager = new TimingManager(this.design, false);
+			this.timingManager.getTimingGraph().setBuildThreads(this.config.getNumThreads());
+			this.timingManager.build();
+			this.timingManager.getTimingGraph().setIncrementalTiming(this.config.isIncrementalTiming());
+			this.timingManager.getTimingGraph().setPropagationThreads(this.config.getNumThreads());
 			Device device = Device.getDevice("xcvu3p-ffvc1517");	
 		    this.estimator = new DelayEstimatorTable(device, new InterconnectInfo(), config.isHpcRun());//DelayEstimatorTable<>(device,ictInfo, (short) 10, (short) 19, 0);
 			
 		}
 		
 		this.routerTimer = new RouterTimer();
+		if(this.config.getMetricsPrefix() != null) {
+			this.metrics = new RouterMetrics(this.design.getName() + "_nodegroup");
+			MetricsRegistry.register(this.metrics);
+		}
 		this.fanout1Net = 0;
 		this.rrgNodeId = 0;
 		this.rrgNodeId = this.initializeNetsCons(config.getBbRange());
@@ -140,6 +151,7 @@ public class RoutableNodeGroupRouter{
 		this.connectionsRoutedIteration = 0;
 		this.nodesExpanded = 0;
 		this.nodesExpandedFirstIter = 0;
+		this.nodesPushed = 0;
 		this.nodesPopedFromQueue = 0;
 		this.nodesPopedFromQueueFirstIter = 0;
 		this.callingOfGetNextRoutable = 0;
@@ -443,10 +455,10 @@ public class RoutableNodeGroupRouter{
 			}
 		}
 		
-		intableCall = this.estimator.intableQuery;
-		outtableCall = this.estimator.outOfTableQuery;
-		pinbounce = this.estimator.pinbounceQuery;
-		pinfeed = this.estimator.pinfeedQuery;
+		intableCall = this.estimator.getIntableQueryCount();
+		outtableCall = this.estimator.getOutOfTableQueryCount();
+		pinbounce = this.estimator.getPinbounceQueryCount();
+		pinfeed = this.estimator.getPinfeedQueryCount();
 	}
 	
 	public int routingRuntime(){
@@ -493,6 +505,15 @@ public class RoutableNodeGroupRouter{
 		}
 	}
 	public void route(){
+		try {
+			this.routeIterations();
+		} finally {
+			//release the timing propagation threads
+			if(this.timingManager != null) this.timingManager.shutdown();
+		}
+	}
+	
+	private void routeIterations(){
 		//sorted nets and connections
 		this.sortedListOfConnection = new ArrayList<>();
 		this.sortedListOfConnection.addAll(this.connections);
@@ -712,6 +733,11 @@ public class RoutableNodeGroupRouter{
 				this.overUsedEntryNodes(),
 				this.multiFaninEntryNodes(),
 				config.isTimingDriven()?this.maxDelayAndTimingVertex.getFirst():null);
+		if(this.metrics != null) {
+			//the queue size is not tracked by this router
+			this.metrics.recordIteration(this.itry, this.connectionsRoutedIteration, this.nodesPushed, this.nodesPopedFromQueue,
+					this.rnodesCreated.size(), this.usedRNodes.size(), overUsed, illegal, iterEnd - iterStart, rnodesT, 0);
+		}
 	}
 	
 	public void updateCostFactors(){
@@ -1280,6 +1306,7 @@ public class RoutableNodeGroupRouter{
 			childRNode.setThruNodeGroup(thruNodeGroup);
 			if(rnode != null) data.setLevel(level);
 			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
+			this.nodesPushed++;
 			
 		}else if (data.updateLowerBoundTotalPathCost(new_lower_bound_total_path_cost)) {//this block of code needed for better results
 			//queue is sorted by lower bound total cost
@@ -1288,6 +1315,7 @@ public class RoutableNodeGroupRouter{
 			childRNode.setThruNodeGroup(thruNodeGroup);
 			if(rnode != null) data.setLevel(level);
 			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
+			this.nodesPushed++;
 		}
 	}
 	
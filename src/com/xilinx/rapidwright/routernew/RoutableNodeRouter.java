@@ -1,16 +1,22 @@
 package com.xilinx.rapidwright.routernew;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.design.DesignTools;
@@ -23,7 +29,6 @@ import com.xilinx.rapidwright.device.Series;
 import com.xilinx.rapidwright.device.Tile;
 import com.xilinx.rapidwright.device.TileTypeEnum;
 import com.xilinx.rapidwright.device.Wire;
-import com.xilinx.rapidwright.util.Pair;
 import com.xilinx.rapidwright.router.RouteThruHelper;
 
 public class RoutableNodeRouter{
@@ -43,12 +48,17 @@ public class RoutableNodeRouter{
 	public int numUnrecognizedNets;
 	public int numRoutbleNets;
 	
-	public PriorityQueue<QueueElement> queue;
-	public Collection<RoutableData> rnodesVisited;
-	public Map<Node, RoutableNode> rnodesCreated;//node and rnode pair
+	public RoutingContext routingContext;
+	public RoutingGraph graph;
 	public Map<Node, Net> reservedNodes;
 	
 	public RouteThruHelper routethruHelper;
+	//persistent downhill adjacency of the device, null if disabled in the configuration
+	public DeviceGraphCache deviceGraphCache;
+	//prior paths of connections, null if disabled in the configuration
+	public RouteCache routeCache;
+	//lookahead heuristic replacing the Manhattan distance estimate, null if disabled in the configuration
+	public CostLookahead lookahead;
 	
 	public int itry;
 	public float pres_fac;
@@ -60,6 +70,7 @@ public class RoutableNodeRouter{
 	public Configuration config;
 	
 	public int rnodeId;
+	private ExecutorService routingThreads;
 	public int firstIterRNodes;
 	public float firstRouting;
 	public float firtRnodeT;
@@ -72,6 +83,12 @@ public class RoutableNodeRouter{
 	public long nodesPoped;
 	public long nodesPopedFirstIter;
 	public long callingOfGetNextRoutable;
+	//routing attempts of failed connections with a larger bounding box within the same iteration
+	public long bbRetries;
+	//largest size of the forward queue within the current iteration
+	public int maxQueueSizeIteration;
+	//per-iteration and per-connection metrics, null if disabled in the configuration
+	public RouterMetrics metrics;
 	
 	public Set<Integer> overUsedRNodes;
 	public Set<Integer> usedRNodes;
@@ -80,26 +97,60 @@ public class RoutableNodeRouter{
 	public long hops;
 	public float manhattanD;
 	
+	//nets to be re-routed by the incremental mode, null to route the whole design
+	private Set<Net> changedNets;
+	//connections of unchanged nets whose existing routing is kept by the incremental mode
+	public List<Connection> seededConnections;
+	//nets with at least one connection re-routed by the incremental mode
+	private Set<Netplus> reroutedNets;
+	
 	public RoutableNodeRouter(Design design,
 			Configuration config){
+		this(design, config, null);
+	}
+	
+	/**
+	 * Creates a router for incremental routing of engineering change orders on a routed design.
+	 * Only the connections of the changed nets (and of nets without any PIPs) are ripped up and routed, 
+	 * the routing of the other nets is kept and contributes to the congestion costs, so that their connections 
+	 * are only re-routed when the new routing overlaps with them.
+	 * @param design: The routed design
+	 * @param config: The router configuration
+	 * @param changedNets: The nets changed by the ECO, null to route the whole design
+	 */
+	public RoutableNodeRouter(Design design,
+			Configuration config, Set<Net> changedNets){
 		this.design = design;
 		DesignTools.createMissingSitePinInsts(this.design);
 		
-		this.queue = new PriorityQueue<>(Comparators.PRIORITY_COMPARATOR);
-		this.rnodesVisited = new ArrayList<>();
 		this.reservedNodes = new HashMap<>();
-		this.rnodesCreated = new HashMap<>();
+		this.graph = new RoutingGraph();
+		
+		this.changedNets = changedNets;
+		this.seededConnections = new ArrayList<>();
+		this.reroutedNets = ConcurrentHashMap.newKeySet();
 		
 		this.config = config;
+		this.routingContext = new RoutingContext(this.config.isIndexedHeap());
 		
 		this.routerTimer = new RouterTimer();
-		this.rnodeId = 0;
-		this.rnodeId = this.categrizingRoutingTargets();
+		this.categrizingRoutingTargets();
+		this.rnodeId = this.graph.size();
 				
 		this.sortedListOfConnection = new ArrayList<>();
 		this.sortedListOfNetplus = new ArrayList<>();
 		
 		this.routethruHelper = new RouteThruHelper(this.design.getDevice());
+		if(this.config.isDeviceGraphCache()) {
+			this.deviceGraphCache = new DeviceGraphCache(this.design.getDevice(), this.routethruHelper);
+		}
+		if(this.config.isLookahead()) {
+			this.lookahead = new CostLookahead(this.design.getDevice(), this.routethruHelper);
+		}
+		if(this.config.getRouteCacheFile() != null) {
+			this.routeCache = new RouteCache(this.design.getDevice(), this.config);
+			this.routeCache.readFile(this.config.getRouteCacheFile());
+		}
 		
 		this.connectionsRouted = 0;
 		this.connectionsRoutedIteration = 0;
@@ -108,13 +159,19 @@ public class RoutableNodeRouter{
 		this.nodesPoped = 0;
 		this.nodesPopedFirstIter = 0;
 		this.callingOfGetNextRoutable = 0;
+		this.bbRetries = 0;
+		this.maxQueueSizeIteration = 0;
+		if(this.config.getMetricsPrefix() != null) {
+			this.metrics = new RouterMetrics(this.design.getName() + "_node");
+			MetricsRegistry.register(this.metrics);
+		}
 		
 		this.usedRNodes = new HashSet<>();
 		this.overUsedRNodes = new HashSet<>();
 		this.illegalRNodes = new HashSet<>();
 	}
 	
-	public int categrizingRoutingTargets(){
+	public void categrizingRoutingTargets(){
 		this.numWIRENetsToBeRouted = 0;
 		this.numConsToBeRouted = 0;
 		this.numReservedRoutableNets = 0;
@@ -152,12 +209,21 @@ public class RoutableNodeRouter{
 				System.err.println("Unknown net: " + n.toString());
 			}
 		}
-		
-		return this.rnodeId;
+	}
+	
+	/**
+	 * In incremental mode, only the changed nets are routed from scratch and the routing of the other nets is kept
+	 */
+	public boolean isIncremental() {
+		return this.changedNets != null;
+	}
+	
+	private boolean isUnchangedNet(Net n) {
+		return this.isIncremental() && !this.changedNets.contains(n);
 	}
 	
 	public void buildGlobalClkRoutingTargets(Net clk) {
-		if(!config.isPartialRouting()) {
+		if(!config.isPartialRouting() && !this.isUnchangedNet(clk)) {
 			if(RouterHelper.isRoutableNetWithSourceSinks(clk)) {
 				this.clkNets.add(clk);
 				this.numRoutbleNets++;
@@ -177,7 +243,9 @@ public class RoutableNodeRouter{
 	}
 	
 	public void buildNetConRoutingTargets(Net n) {
-		if(!config.isPartialRouting()){
+		if(this.isUnchangedNet(n) && n.hasPIPs()){
+			this.seedRoutingOfNet(this.initializeNetAndCons(n, this.config.getBbRange()));
+		}else if(!config.isPartialRouting() || this.isIncremental()){
 			n.unroute();
 			this.initializeNetAndCons(n, this.config.getBbRange());
 		}else{
@@ -200,9 +268,9 @@ public class RoutableNodeRouter{
 			sinks.add(sink);
 		}
 		if(sinks.size() > 0 ) {
-			if(!config.isPartialRouting()) {
+			if(!config.isPartialRouting() && !this.isUnchangedNet(staticNet)) {
 				for(SitePinInst sink : sinks) {
-					sinkrns.add(this.createRoutableNodeAndAdd(this.rnodeId, sink.getConnectedNode(), RoutableType.SINKRR, staticNet));
+					sinkrns.add(this.createRoutableNodeAndAdd(sink.getConnectedNode(), RoutableType.SINKRR, staticNet));
 				}
 				this.staticNetAndRoutingTargets.put(staticNet, sinkrns);
 				this.numRoutbleNets++;
@@ -219,7 +287,7 @@ public class RoutableNodeRouter{
 	
 	public void routeStaticNets(){
 		if(!config.isPartialRouting()){
-			GlobalSignalRouting routingTool = new GlobalSignalRouting(this.design, this.rnodesCreated, this.rnodeId, this.routethruHelper);
+			GlobalSignalRouting routingTool = new GlobalSignalRouting(this.design, this.graph, this.routethruHelper);
 			Set<Node> unavailbleNodes = getAllUsedNodesOfRoutedNets();
 			unavailbleNodes.addAll(this.reservedNodes.keySet());
 			for(Net n:this.staticNetAndRoutingTargets.keySet()){
@@ -230,8 +298,7 @@ public class RoutableNodeRouter{
 					unavailbleNodes.addAll(spiRoutedNodes.get(spi));
 				}
 			}
-			this.rnodesCreated = GlobalSignalRouting.getRnodesCreated();
-			this.rnodeId = GlobalSignalRouting.getRnodeId();
+			this.rnodeId = this.graph.size();
 		}else {
 			for(Net n:this.staticNetAndRoutingTargets.keySet()){
 				this.reserveNet(n);
@@ -257,14 +324,14 @@ public class RoutableNodeRouter{
 		this.reserveConnectedNodesOfNetPins(n);
 	}
 	
-	public void initializeNetAndCons(Net n, short bbRange){
+	public Netplus initializeNetAndCons(Net n, short bbRange){
 		Netplus np = new Netplus(this.numWIRENetsToBeRouted, bbRange, n);
 		this.nets.add(np);
 		this.numWIRENetsToBeRouted++;
 		this.numRoutbleNets++;
 		
 		SitePinInst source = n.getSource();
-		RoutableNode sourceRNode = this.createRoutableNodeAndAdd(this.rnodeId, source.getConnectedNode(), RoutableType.SOURCERR, n);
+		RoutableNode sourceRNode = this.createRoutableNodeAndAdd(source.getConnectedNode(), RoutableType.SOURCERR, n);
 		
 		for(SitePinInst sink:n.getSinkPins()){
 			
@@ -275,14 +342,14 @@ public class RoutableNodeRouter{
 					throw new IllegalArgumentException(errMsg);
 				}
 				
-				sourceRNode = this.createRoutableNodeAndAdd(this.rnodeId, source.getConnectedNode(), RoutableType.SOURCERR, n);		
+				sourceRNode = this.createRoutableNodeAndAdd(source.getConnectedNode(), RoutableType.SOURCERR, n);		
 			}
 			
 			Connection c = new Connection(this.numConsToBeRouted, source, sink);	
 			c.setSourceRNode(sourceRNode);
 			
 			//create RNode of the sink pin up front 
-			RoutableNode sinkRNode = this.createRoutableNodeAndAdd(this.rnodeId, sink.getConnectedNode(), RoutableType.SINKRR, n);
+			RoutableNode sinkRNode = this.createRoutableNodeAndAdd(sink.getConnectedNode(), RoutableType.SINKRR, n);
 			
 			c.setSinkRNode(sinkRNode);
 			
@@ -292,6 +359,49 @@ public class RoutableNodeRouter{
 			this.numConsToBeRouted++;
 		}
 		
+		return np;
+	}
+	
+	/**
+	 * Recovers the path of each connection of a routed net by tracing its PIPs back from the sink to the source.
+	 * Connections that can not be traced are marked unrouted and will be routed by the incremental mode.
+	 * The bounding box of the net is extended to cover the recovered paths, which may leave the box of its pins,
+	 * so that ripping up a seeded connection in a parallel wave only touches rnodes inside the box of its net
+	 * @param np: The unchanged net
+	 */
+	public void seedRoutingOfNet(Netplus np){
+		Map<Node, Node> driverNodes = new HashMap<>();
+		for(PIP pip : np.getNet().getPIPs()){
+			driverNodes.put(pip.getEndNode(), pip.getStartNode());
+			if(pip.isBidirectional()){
+				driverNodes.putIfAbsent(pip.getStartNode(), pip.getEndNode());
+			}
+		}
+		
+		for(Connection con : np.getConnection()){
+			Node source = con.getSourceRNode().getNode();
+			List<Node> path = new ArrayList<>();
+			Node node = con.getSinkRNode().getNode();
+			//the path can not be longer than the number of PIPs, which also stops at loops of bidirectional PIPs
+			while(node != null && !node.equals(source) && path.size() <= driverNodes.size()){
+				path.add(node);
+				node = driverNodes.get(node);
+			}
+			if(node == null || !node.equals(source)) {
+				con.sink.setRouted(false);
+				continue;
+			}
+			
+			for(Node pathNode : path){
+				int rnode = this.graph.getOrCreate(pathNode, RoutableType.INTERRR);
+				np.includeInBoundingBox(this.graph.getX(rnode), this.graph.getY(rnode));
+				con.addRNode(this.graph.getRoutableNode(rnode));
+			}
+			con.addRNode(con.getSourceRNode());
+			np.includeInBoundingBox(con.getSourceRNode().getX(), con.getSourceRNode().getY());
+			con.sink.setRouted(true);
+			this.seededConnections.add(con);
+		}
 	}
 	
 	public void reservePipsOfNet(Net n){
@@ -326,22 +436,20 @@ public class RoutableNodeRouter{
 		}
 	}
 	
-	public RoutableNode createRoutableNodeAndAdd(int globalIndex, Node node, RoutableType type, Net net){
-		RoutableNode rrgNode;
+	public RoutableNode createRoutableNodeAndAdd(Node node, RoutableType type, Net net){
 		NetType netType = net.getType();
-		if(!this.rnodesCreated.containsKey(node)){
+		int id = this.graph.getId(node);
+		if(id == RoutingGraph.NULL_ID){
 			//this is for initializing sources and sinks of those to-be-routed nets's connections
-			rrgNode = new RoutableNode(globalIndex, node, type);
-			this.rnodesCreated.put(rrgNode.getNode(), rrgNode);
+			id = this.graph.getOrCreate(node, type);
 			this.rnodeId++;
 		}else{
 			//this is for checking preserved routing resource conflicts among routed nets
-			rrgNode = this.rnodesCreated.get(node);
-			if(rrgNode.type == type && type == RoutableType.SINKRR && netType == NetType.WIRE)
+			if(this.graph.getType(id) == type && type == RoutableType.SINKRR && netType == NetType.WIRE)
 				System.out.println("! Conflicting Sink Site Pin Connected Node: " + node);
 		}
 		
-		return rrgNode;
+		return this.graph.getRoutableNode(id);
 	}
 	
 	//TODO having this list of node, the target RoutableNode of a connection will change, not the connected node to the sink pin
@@ -368,8 +476,8 @@ public class RoutableNodeRouter{
 	public List<Routable> findOutoutPinINTNode(SitePinInst source, Net n){
 		List<Routable> partialPath = new ArrayList<>();
 		Node sourceNode = source.getConnectedNode();
-		RoutableNode rnode = this.createRoutableNodeAndAdd(this.rnodeId, sourceNode, RoutableType.SOURCERR, n);
-		rnode.getRoutableData().setPrev(null);
+		RoutableNode rnode = this.createRoutableNodeAndAdd(sourceNode, RoutableType.SOURCERR, n);
+		this.graph.setPrev(rnode.index, RoutingGraph.NULL_ID);
 		Queue<RoutableNode> q = new LinkedList<>();
 		q.add(rnode);
 		while(!q.isEmpty()){
@@ -378,7 +486,7 @@ public class RoutableNodeRouter{
 			if(this.isSwitchBox(tmpNode)){
 				while(rnode != null){
 					partialPath.add(rnode);//rip-up and re-routing should not clear this path?
-					rnode = (RoutableNode) rnode.getRoutableData().getPrev();
+					rnode = this.getPrev(rnode);
 				}
 				//add all INT nodes to partial path as the sources of a con
 				return partialPath;
@@ -388,15 +496,15 @@ public class RoutableNodeRouter{
 				Tile tile = pip.getStartWire().getTile();
 				Wire tmpWire = new Wire(tile, pip.getEndWireIndex());
 				Node newNode = new Node(tmpWire.getTile(),tmpWire.getWireIndex());
-				RoutableNode rnewNode = this.createRoutableNodeAndAdd(this.rnodeId, newNode, RoutableType.INTERRR, n);
-				rnewNode.getRoutableData().setPrev(rnode);
+				RoutableNode rnewNode = this.createRoutableNodeAndAdd(newNode, RoutableType.INTERRR, n);
+				this.graph.setPrev(rnewNode.index, rnode.index);
 				q.add(rnewNode);
 				
 				Wire newNodeHead = tmpWire.getStartWire();
 				if(!newNodeHead.equals(tmpWire)){
 					Node newHeadNode = new Node(newNodeHead.getTile(), newNodeHead.getWireIndex());
-					RoutableNode rnewHeadNode = this.createRoutableNodeAndAdd(this.rnodeId, newHeadNode, RoutableType.INTERRR, n);
-					rnewHeadNode.getRoutableData().setPrev(rnode);
+					RoutableNode rnewHeadNode = this.createRoutableNodeAndAdd(newHeadNode, RoutableType.INTERRR, n);
+					this.graph.setPrev(rnewHeadNode.index, rnode.index);
 					q.add(rnewHeadNode);
 				}
 			}
@@ -407,13 +515,13 @@ public class RoutableNodeRouter{
 	}
 	
 	//TODO use this for INT-based routing
-	public List<Routable> findInputPinFeed(Routable rnode, Net net){
+	public List<Routable> findInputPinFeed(RoutableNode rnode, Net net){
 		List<Routable> partialPath = new ArrayList<>();
 		
 		//this should be handled well, otherwise it will impact the routing functionality, e.g. con target unreachable
-		rnode.getRoutableData().setPrev(null);
+		this.graph.setPrev(rnode.index, RoutingGraph.NULL_ID);
 		
-		Queue<Routable> q = new LinkedList<>();
+		Queue<RoutableNode> q = new LinkedList<>();
 		q.add(rnode);
 		
 		while(!q.isEmpty()){
@@ -423,7 +531,7 @@ public class RoutableNodeRouter{
 			if(this.isSwitchBox(tmpNode)){
 				while(rnode != null){
 					partialPath.add(rnode);//rip-up and re-routing should not clear this path?
-					rnode = rnode.getRoutableData().getPrev();
+					rnode = this.getPrev(rnode);
 				}
 				
 				return partialPath;
@@ -432,8 +540,8 @@ public class RoutableNodeRouter{
 			for(PIP pip:tmpNode.getTile().getBackwardPIPs(tmpNode.getWire())){
 				Wire tmpWire = new Wire(tmpNode.getTile(),pip.getStartWireIndex());
 				Node newNode = new Node(tmpWire.getTile(),tmpWire.getWireIndex());
-				Routable rnewNode = this.createRoutableNodeAndAdd(this.rnodeId, newNode, RoutableType.INTERRR, net);
-				rnewNode.getRoutableData().setPrev(rnode);
+				RoutableNode rnewNode = this.createRoutableNodeAndAdd(newNode, RoutableType.INTERRR, net);
+				this.graph.setPrev(rnewNode.index, rnode.index);
 				q.add(rnewNode);
 				
 				
@@ -441,8 +549,8 @@ public class RoutableNodeRouter{
 				if(!newNodeHead.equals(tmpWire)){
 //					System.out.println("----many----");//what does this mean? it is the same case for the existing rw router
 					Node newHeadNode = new Node(newNodeHead.getTile(), newNodeHead.getWireIndex());
-					Routable rnewHeadNode = this.createRoutableNodeAndAdd(this.rnodeId, newHeadNode, RoutableType.INTERRR, net);
-					rnewHeadNode.getRoutableData().setPrev(rnode);
+					RoutableNode rnewHeadNode = this.createRoutableNodeAndAdd(newHeadNode, RoutableType.INTERRR, net);
+					this.graph.setPrev(rnewHeadNode.index, rnode.index);
 					q.add(rnewHeadNode);
 				}
 			}
@@ -451,6 +559,11 @@ public class RoutableNodeRouter{
 		return null;
 	}
 	
+	private RoutableNode getPrev(RoutableNode rnode) {
+		int prev = this.graph.getPrev(rnode.index);
+		return prev == RoutingGraph.NULL_ID ? null : this.graph.getRoutableNode(prev);
+	}
+	
 	public void checkDesignWideInputPinFeed(){
 		Map<TileTypeEnum, Set<Integer>> map = new HashMap<>();
 		for(Connection con : this.connections){
@@ -497,8 +610,7 @@ public class RoutableNodeRouter{
 	}
 	
 	public void initializeRouting(){
-		this.rnodesVisited.clear();
-    	this.queue.clear(); 	
+		this.routingContext.clear();
 		this.itry = 1;
     	this.hist_fac = config.getAcc_fac();
     	this.pres_fac = config.getInitial_pres_fac();
@@ -536,18 +648,45 @@ public class RoutableNodeRouter{
 		
 		//initialize router
 		this.initializeRouting();
-				
+		if(this.isIncremental()) {
+			//the kept routing contributes to the congestion costs with the initial present congestion factor
+			for(Connection con : this.seededConnections) {
+				this.addUsageInfoUpdateCongestion(con);
+			}
+		}
+		if(this.isParallelRouting()) {
+			this.routingThreads = Executors.newFixedThreadPool(this.config.getNumThreads());
+		}
+		
+		try {
+			this.routeConnectionsIteratively();
+		}finally {
+			if(this.routingThreads != null) {
+				this.routingThreads.shutdown();
+				this.routingThreads = null;
+			}
+		}
+	}
+	
+	private void routeConnectionsIteratively(){
 		//do routing
 		boolean validRouting;
         
 		while(this.itry < config.getNrOfTrials()){
 			this.iterationStart = System.nanoTime();			
-			this.connectionsRoutedIteration = 0;	
+			this.connectionsRoutedIteration = 0;
+			this.maxQueueSizeIteration = 0;
+			
+			if(this.isParallelRouting()) {
+				this.routeConnectionsInParallel();
+			}else {
+				for(Connection con : this.sortedListOfConnection) {
+					this.routingScenarios(con);
+				}
+				this.mergeRoutingStatistics(this.routingContext);
+			}
+			this.rnodeId = this.graph.size();
 			
-			validRouting = true;
-			for(Connection con : this.sortedListOfConnection) {
-				this.routingScenarios(con);
-			}			
 			//check if routing is valid
 			validRouting = this.isValidRouting();
 			//fix illegal routing trees if any
@@ -593,18 +732,147 @@ public class RoutableNodeRouter{
 		return;
 	}
 	
+	public boolean isParallelRouting() {
+		return this.config.getNumThreads() > 1;
+	}
+	
 	public void routingScenarios(Connection con){
 		if(this.itry == 1){
-			this.routerTimer.firstIteration.start();
-			this.routeCon(con);
-			this.routerTimer.firstIteration.finish();
+			if(this.needsRouting(con)) {
+				this.routerTimer.firstIteration.start();
+				this.routeConAdaptively(con, this.routingContext);
+				this.routerTimer.firstIteration.finish();
+			}
 		}else if(con.congested()){
 			this.routerTimer.rerouteCongestion.start();
-			this.routeCon(con);
+			this.routeConAdaptively(con, this.routingContext);
 			this.routerTimer.rerouteCongestion.finish();
 		}else if(!con.sink.isRouted()) {
-			this.routeCon(con);
+			this.routeConAdaptively(con, this.routingContext);
+		}
+		this.extendBoundingBoxOfFailedNets(this.routingContext);
+	}
+	
+	private boolean needsRouting(Connection con) {
+		//the incremental mode starts from the kept routing, so its first iteration only routes the delta
+		return (this.itry == 1 && !this.isIncremental()) || con.congested() || !con.sink.isRouted();
+	}
+	
+	/**
+	 * Routes the connections of one iteration with multiple threads.
+	 * Nets are packed into waves of non-overlapping bounding boxes, 
+	 * the nets of a wave are routed concurrently and each net is routed by a single thread
+	 * with its own queue and visited routables. Congestion costs are only updated inside the bounding box of the net,
+	 * so no two threads modify the same rnode within a wave.
+	 */
+	private void routeConnectionsInParallel(){
+		Map<Netplus, List<Connection>> netCons = new LinkedHashMap<>();
+		for(Connection con : this.sortedListOfConnection) {
+			if(!this.needsRouting(con)) continue;
+			netCons.computeIfAbsent(con.getNet(), k -> new ArrayList<>()).add(con);
+		}
+		
+		Timer timer = this.itry == 1 ? this.routerTimer.firstIteration : this.routerTimer.rerouteCongestion;
+		timer.start();
+		BoundingBoxPartitioner partitioner = new BoundingBoxPartitioner(this.design.getDevice().getColumns(), 
+				this.design.getDevice().getRows());
+		List<RoutingContext> contexts = new ArrayList<>();
+		for(int i = 0; i < this.config.getNumThreads(); i++) {
+			contexts.add(new RoutingContext(this.config.isIndexedHeap()));
+		}
+		for(List<Netplus> wave : partitioner.partition(new ArrayList<>(netCons.keySet()))) {
+			this.routeWave(wave, netCons, contexts);
+			for(RoutingContext context : contexts) {
+				//growing the boxes of failed nets would break the partitioning of the wave, so their retries are serial
+				for(Connection con : context.failedConnections) {
+					if(!this.retryWithLargerBoundingBox(con, this.routingContext)) {
+						this.routingContext.netsToExtend.add(con.getNet());
+					}
+				}
+				context.failedConnections.clear();
+				this.mergeRoutingStatistics(context);
+			}
+			this.extendBoundingBoxOfFailedNets(this.routingContext);
+			this.mergeRoutingStatistics(this.routingContext);
+		}
+		timer.finish();
+	}
+	
+	private void routeWave(List<Netplus> wave, Map<Netplus, List<Connection>> netCons, List<RoutingContext> contexts) {
+		AtomicInteger nextNet = new AtomicInteger();
+		List<Callable<Void>> workers = new ArrayList<>();
+		for(RoutingContext context : contexts) {
+			workers.add(() -> {
+				for(int i = nextNet.getAndIncrement(); i < wave.size(); i = nextNet.getAndIncrement()) {
+					for(Connection con : netCons.get(wave.get(i))) {
+						//earlier connections of the same net may have resolved the congestion
+						if(this.needsRouting(con) && !this.routeCon(con, context)) {
+							context.failedConnections.add(con);
+						}
+					}
+				}
+				return null;
+			});
+		}
+		
+		try {
+			for(Future<Void> result : this.routingThreads.invokeAll(workers)) {
+				result.get();
+			}
+		}catch(InterruptedException | ExecutionException e) {
+			throw new RuntimeException("ERROR: Parallel routing of iteration " + this.itry + " failed", e);
+		}
+	}
+	
+	/**
+	 * Routes a connection and, if its sink can not be reached, retries it within the same iteration with a larger bounding box.
+	 * The net of a connection that still fails is extended again before the next iteration
+	 */
+	private boolean routeConAdaptively(Connection con, RoutingContext context) {
+		if(this.routeCon(con, context) || this.retryWithLargerBoundingBox(con, context)) {
+			return true;
+		}
+		context.netsToExtend.add(con.getNet());
+		return false;
+	}
+	
+	/**
+	 * Extends the bounding box of the net of a failed connection and routes it again,
+	 * at most maxBbExpansions times per connection and iteration
+	 */
+	private boolean retryWithLargerBoundingBox(Connection con, RoutingContext context) {
+		context.retryingWithLargerBoundingBox = true;
+		try {
+			for(int i = 0; i < this.config.getMaxBbExpansions(); i++) {
+				con.getNet().extendBoundingBox();
+				context.bbRetries++;
+				if(this.routeCon(con, context)) {
+					return true;
+				}
+			}
+			return false;
+		}finally {
+			context.retryingWithLargerBoundingBox = false;
+		}
+	}
+	
+	private void extendBoundingBoxOfFailedNets(RoutingContext context) {
+		for(Netplus net : context.netsToExtend) {
+			net.extendBoundingBox();
 		}
+		context.netsToExtend.clear();
+	}
+	
+	private void mergeRoutingStatistics(RoutingContext context) {
+		this.connectionsRouted += context.connectionsRouted;
+		this.connectionsRoutedIteration += context.connectionsRouted;
+		this.nodesPushed += context.nodesPushed;
+		this.nodesPoped += context.nodesPoped;
+		this.callingOfGetNextRoutable += context.callingOfGetNextRoutable;
+		this.bbRetries += context.bbRetries;
+		this.maxQueueSizeIteration = Math.max(this.maxQueueSizeIteration, context.maxQueueSize);
+		this.routerTimer.rnodesCreation.addTime(context.rnodesCreation.getTime());
+		context.resetStatistics();
 	}
 	
 	public void sortNetsAndConnections(){
@@ -619,8 +887,8 @@ public class RoutableNodeRouter{
 	}
 	
 	public boolean isValidRouting(){
-		for(RoutableNode rnode:this.rnodesCreated.values()){
-			if(rnode.overUsed()){
+		for(int rnode = 0; rnode < this.graph.size(); rnode++){
+			if(this.graph.overUsed(rnode)){
 				return false;
 			}
 		}
@@ -635,13 +903,13 @@ public class RoutableNodeRouter{
 			int globalRNodeId, long rnodesT){
 		
 		if(this.itry == 1){
-			this.firstIterRNodes = this.rnodesCreated.size();
+			this.firstIterRNodes = this.graph.size();
 			this.firstRouting = (float) ((iterEnd - iterStart - rnodesT)*1e-9);
 			this.firtRnodeT = (float) (this.routerTimer.rnodesCreation.getTime() * 1e-9);
 		}
 		this.getOverusedAndIllegalRNodesInfo(connections);
 		
-		int numRNodesCreated = this.rnodesCreated.size();
+		int numRNodesCreated = this.graph.size();
 		int overUsed = this.overUsedRNodes.size();
 		int illegal = this.illegalRNodes.size();
 		double overUsePercentage = 100.0 * (double)this.overUsedRNodes.size() / numRNodesCreated;
@@ -655,6 +923,10 @@ public class RoutableNodeRouter{
 				illegal,
 				overUsed,
 				overUsePercentage);
+		if(this.metrics != null) {
+			this.metrics.recordIteration(this.itry, this.connectionsRoutedIteration, this.nodesPushed, this.nodesPoped,
+					numRNodesCreated, this.usedRNodes.size(), overUsed, illegal, iterEnd - iterStart, rnodesT, this.maxQueueSizeIteration);
+		}
 	}
 	
 	public void updateCostFactors(){ 
@@ -667,14 +939,14 @@ public class RoutableNodeRouter{
 	}
 	
 	private void updateCost(float pres_fac, float acc_fac) {
-		for(RoutableNode rnode:this.rnodesCreated.values()){
-			int overuse =rnode.getOccupancy() - Routable.capacity;
+		for(int rnode = 0; rnode < this.graph.size(); rnode++){
+			int overuse = this.graph.getOccupancy(rnode) - Routable.capacity;
 			//Present congestion penalty
 			if(overuse == 0) {
-				rnode.setPres_cost(1 + pres_fac);
+				this.graph.setPresCost(rnode, 1 + pres_fac);
 			} else if (overuse > 0) {
-				rnode.setPres_cost(1 + (overuse + 1) * pres_fac);
-				rnode.setAcc_cost(rnode.getAcc_cost() + overuse * acc_fac);
+				this.graph.setPresCost(rnode, 1 + (overuse + 1) * pres_fac);
+				this.graph.setAccCost(rnode, this.graph.getAccCost(rnode) + overuse * acc_fac);
 			}
 		}	
 	}
@@ -685,15 +957,15 @@ public class RoutableNodeRouter{
 		this.averFanoutRNodes = 0;
 		float sumChildren = 0;
 		float sumRNodes = 0;
-		for(Routable rn:this.rnodesCreated.values()){
+		for(int rn = 0; rn < this.graph.size(); rn++){
 			
-			if(rn.isChildrenSet()){
-				sumChildren += rn.getChildren().size();
+			if(this.graph.isChildrenSet(rn)){
+				sumChildren += this.graph.getNumChildren(rn);
 				sumRNodes++;
 			}
 			
-			if(rn.overUsed() || rn.illegal()){
-				System.err.println(rn.toString());
+			if(this.graph.overUsed(rn) || this.graph.illegal(rn)){
+				System.err.println(this.graph.getRoutableNode(rn).toString());
 				err++;
 			}
 		}
@@ -792,45 +1064,54 @@ public class RoutableNodeRouter{
 	}
 	
 	public void ripup(Connection con){
-		Routable parent = null;
+		int source = this.getSourceId(con);
+		int parent = RoutingGraph.NULL_ID;
 		for(int i = con.rnodes.size() - 1; i >= 0; i--){
-			Routable rnode = con.rnodes.get(i);
-			RoutableData rNodeData = rnode.getRoutableData();
+			int rnode = ((RoutableNode) con.rnodes.get(i)).index;
 			
-			rNodeData.removeSource(con.source);
+			this.graph.removeSource(rnode, source);
 			
-			if(parent == null){
-				parent = rnode;
-			}else{
-				rNodeData.removeParent(parent);
-				parent = rnode;
+			if(parent != RoutingGraph.NULL_ID){
+				this.graph.removeParent(rnode, parent);
 			}
+			parent = rnode;
 			// Calculation of present congestion penalty
-			rnode.updatePresentCongestionPenalty(this.pres_fac);
+			this.graph.updatePresentCongestionPenalty(rnode, this.pres_fac);
 		}
 	}
 	
 	public void addUsageInfoUpdateCongestion(Connection con){
-		Routable parent = null;
+		int source = this.getSourceId(con);
+		int parent = RoutingGraph.NULL_ID;
 		for(int i = con.rnodes.size()-1; i >= 0; i--){
-			Routable rnode = con.rnodes.get(i);
-			RoutableData rNodeData = rnode.getRoutableData();
+			int rnode = ((RoutableNode) con.rnodes.get(i)).index;
 			
-			rNodeData.addSource(con.source);
+			this.graph.addSource(rnode, source);
 			
-			if(parent == null){
-				parent = rnode;
-			}else{
-				rNodeData.addParent(parent);
-				parent = rnode;
+			if(parent != RoutingGraph.NULL_ID){
+				this.graph.addParent(rnode, parent);
 			}
+			parent = rnode;
 			// Calculation of present congestion penalty
-			rnode.updatePresentCongestionPenalty(this.pres_fac);
+			this.graph.updatePresentCongestionPenalty(rnode, this.pres_fac);
 		}
 	}
 	
+	/**
+	 * The users of an rnode are told apart by the rnode of the source pin of their connection
+	 */
+	private int getSourceId(Connection con) {
+		return ((RoutableNode) con.getSourceRNode()).index;
+	}
+	
+	private int getSinkId(Connection con) {
+		return ((RoutableNode) con.getSinkRNode()).index;
+	}
+	
 	public void pipsAssignment(){
 		for(Netplus np:this.sortedListOfNetplus){
+			//nets kept by the incremental mode keep their PIPs
+			if(this.isIncremental() && !this.reroutedNets.contains(np)) continue;
 			Set<PIP> netPIPs = new HashSet<>();
 			
 			for(Connection c:np.getConnection()){
@@ -868,42 +1149,285 @@ public class RoutableNodeRouter{
 			System.out.println("No PIP oversage");
 	}
 	
-	public boolean targetReached(Connection con){
-		return this.queue.peek().rnode.isTarget();
+	public boolean targetReached(Connection con, RoutingContext context){
+		//the sink is compared by id, since target flags of other threads' connections are not visible here
+		return context.queue.peek() == this.getSinkId(con);
+	}
+	
+	/**
+	 * Routes a connection with the queue and visited rnodes of the given context
+	 * @param con: The connection to be routed
+	 * @param context: The search state of the calling thread
+	 * @return true if the sink of the connection has been reached
+	 */
+	public boolean routeCon(Connection con, RoutingContext context){
+		if(this.metrics == null) {
+			return this.searchCon(con, context);
+		}
+		//the reason is taken before the connection is ripped up
+		RouterMetrics.RerouteReason reason = this.getRerouteReason(con, context);
+		long start = System.nanoTime();
+		long pushed = context.nodesPushed;
+		long poped = context.nodesPoped;
+		boolean successCon = this.searchCon(con, context);
+		this.metrics.recordConnection(con, this.itry, reason, context.nodesPushed - pushed, context.nodesPoped - poped, 
+				System.nanoTime() - start, successCon);
+		return successCon;
+	}
+	
+	private RouterMetrics.RerouteReason getRerouteReason(Connection con, RoutingContext context) {
+		if(context.retryingWithLargerBoundingBox) {
+			return RouterMetrics.RerouteReason.BOUNDING_BOX_RETRY;
+		}else if(this.itry == 1 && !this.isIncremental()) {
+			return RouterMetrics.RerouteReason.FIRST_ITERATION;
+		}else if(con.congested()) {
+			return RouterMetrics.RerouteReason.CONGESTED;
+		}
+		return RouterMetrics.RerouteReason.UNROUTED;
 	}
 	
-	public void routeCon(Connection con){
-		this.prepareForRoutingACon(con);
+	private boolean searchCon(Connection con, RoutingContext context){
+		this.prepareForRoutingACon(con, context);
+		if(this.routeCache != null && this.reuseCachedRoute(con, context)) {
+			return true;
+		}
 		
 		boolean successCon = false;
-		while(!this.queue.isEmpty()){	
-			if(!this.targetReached(con)) {
-				RoutableNode rnode = (RoutableNode) this.queue.poll().rnode;
-				this.nodesPoped++;
-				
-				if(!rnode.isChildrenSet()){
-					this.routerTimer.rnodesCreation.start();
-					Pair<Integer, Long> intPair = rnode.setChildren(con, this.rnodeId, this.rnodesCreated, 
-							this.routethruHelper, this.callingOfGetNextRoutable, this.reservedNodes.keySet());
-					this.rnodeId = intPair.getFirst();
-					this.callingOfGetNextRoutable = intPair.getSecond();
-					this.routerTimer.rnodesCreation.finish();
+		if(this.isBidirectionalSearch(con)) {
+			successCon = this.searchBidirectionally(con, context);
+		}else {
+			while(!context.queue.isEmpty()){	
+				if(!this.targetReached(con, context)) {
+					int rnode = context.queue.poll();
+					context.nodesPoped++;
+					this.setChildrenIfNotSet(rnode, context);
+					this.exploringAndExpansion(rnode, con, context);
+					context.maxQueueSize = Math.max(context.maxQueueSize, context.queue.size());
+				}else {
+					successCon = true;
+					break;
 				}
-				
-				this.exploringAndExpansion(rnode, con);
-			}else {
-				successCon = true;
-				break;
 			}
 		}
 		
 		if(successCon) {
-			this.finishRoutingACon(con);
+			this.finishRoutingACon(con, context);
 			con.sink.setRouted(true);
 		}else {
+			this.resetExpansionRecords(context);
 			con.sink.setRouted(false);
-			con.getNet().extendBoundingBox();
 		}
+		return successCon;
+	}
+	
+	private void setChildrenIfNotSet(int rnode, RoutingContext context) {
+		if(!this.graph.isChildrenSet(rnode)){
+			context.rnodesCreation.start();
+			if(this.deviceGraphCache != null) {
+				this.graph.setChildren(rnode, this.deviceGraphCache, this.routethruHelper, this.reservedNodes.keySet());
+			}else {
+				this.graph.setChildren(rnode, this.routethruHelper, this.reservedNodes.keySet());
+			}
+			context.callingOfGetNextRoutable++;
+			context.rnodesCreation.finish();
+		}
+	}
+	
+	/**
+	 * Long connections are searched from both ends, if enabled in the configuration
+	 */
+	private boolean isBidirectionalSearch(Connection con) {
+		int minDistance = this.config.getBidirectionalMinDistance();
+		return minDistance > 0 && this.expectManhatD(this.getSourceId(con), con) >= minDistance;
+	}
+	
+	/**
+	 * Bidirectional A* search of a connection, expanding the smaller frontier of the forward search from the source downhill 
+	 * and the backward search from the sink uphill. An rnode touched by both searches joins two partial paths.
+	 * The search stops when the cheapest joined path is not more expensive than the key of either frontier, 
+	 * then the backward half is linked into the prev pointers, so that the routing is saved as for the forward search
+	 * @return true if a path from the source to the sink has been found
+	 */
+	private boolean searchBidirectionally(Connection con, RoutingContext context) {
+		int sink = this.getSinkId(con);
+		context.backwardQueue.clear();
+		this.pushingBackward(sink, RoutingGraph.NULL_ID, 0, 0, context);
+		
+		int meeting = RoutingGraph.NULL_ID;
+		float bestPathCost = Float.MAX_VALUE;
+		while(!context.queue.isEmpty() && !context.backwardQueue.isEmpty()) {
+			if(meeting != RoutingGraph.NULL_ID 
+					&& bestPathCost <= Math.max(context.queue.peekCost(), context.backwardQueue.peekCost())) {
+				break;
+			}
+			
+			if(context.queue.size() <= context.backwardQueue.size()) {
+				int rnode = context.queue.poll();
+				context.nodesPoped++;
+				this.setChildrenIfNotSet(rnode, context);
+				this.exploringAndExpansion(rnode, con, context);
+				for(int i = 0; i < this.graph.getNumChildren(rnode); i++) {
+					int child = this.graph.getChild(rnode, i);
+					if(this.graph.isTouched(child) && this.graph.isBackwardTouched(child) && this.getJoinedPathCost(child) < bestPathCost) {
+						bestPathCost = this.getJoinedPathCost(child);
+						meeting = child;
+					}
+				}
+			}else {
+				int rnode = context.backwardQueue.poll();
+				context.nodesPoped++;
+				if(!this.graph.isUphillSet(rnode)) {
+					context.rnodesCreation.start();
+					this.graph.setUphill(rnode, this.routethruHelper, this.reservedNodes.keySet());
+					context.rnodesCreation.finish();
+				}
+				this.exploringBackward(rnode, con, context);
+				for(int i = 0; i < this.graph.getNumUphill(rnode); i++) {
+					int parent = this.graph.getUphill(rnode, i);
+					if(this.graph.isTouched(parent) && this.graph.isBackwardTouched(parent) && this.getJoinedPathCost(parent) < bestPathCost) {
+						bestPathCost = this.getJoinedPathCost(parent);
+						meeting = parent;
+					}
+				}
+			}
+		}
+		context.backwardQueue.clear();
+		
+		if(meeting == RoutingGraph.NULL_ID) {
+			return false;
+		}
+		meeting = this.removeLoopOfJoinedPath(meeting, sink);
+		for(int rnode = meeting; rnode != sink; rnode = this.graph.getNext(rnode)) {
+			this.graph.setPrev(this.graph.getNext(rnode), rnode);
+		}
+		return true;
+	}
+	
+	/**
+	 * The two halves of a joined path may share rnodes, which would make a loop of the linked prev pointers.
+	 * Moves the meeting rnode back to the shared rnode closest to the source, which drops the loop
+	 * @return The meeting rnode of a loop-free path
+	 */
+	private int removeLoopOfJoinedPath(int meeting, int sink) {
+		boolean loopFree = false;
+		while(!loopFree) {
+			Set<Integer> forwardHalf = new HashSet<>();
+			for(int rnode = meeting; rnode != RoutingGraph.NULL_ID; rnode = this.graph.getPrev(rnode)) {
+				forwardHalf.add(rnode);
+			}
+			loopFree = true;
+			for(int rnode = meeting; rnode != sink; ) {
+				rnode = this.graph.getNext(rnode);
+				if(forwardHalf.contains(rnode)) {
+					meeting = rnode;
+					loopFree = false;
+					break;
+				}
+			}
+		}
+		return meeting;
+	}
+	
+	/**
+	 * The cost of the path through an rnode touched by both searches,
+	 * the forward partial path cost includes the rnode itself while the backward one starts after it
+	 */
+	private float getJoinedPathCost(int rnode) {
+		return this.graph.getPartialPathCost(rnode) + this.graph.getBackwardPartialPathCost(rnode);
+	}
+	
+	/**
+	 * Exploring the uphill rnodes of an rnode for the backward search of a connection,
+	 * pushing the uphill rnode if it is the source or is within the routing bounding box
+	 */
+	private void exploringBackward(int rnode, Connection con, RoutingContext context) {
+		int source = this.getSourceId(con);
+		for(int i = 0; i < this.graph.getNumUphill(rnode); i++) {
+			int parent = this.graph.getUphill(rnode, i);
+			if(parent == source
+					|| (this.graph.getType(parent) == RoutableType.INTERRR && this.graph.isInBoundingBoxLimit(parent, con))) {
+				this.evaluateCostPushingBackward(rnode, parent, con, context);
+				context.nodesPushed++;
+			}
+		}
+	}
+	
+	/**
+	 * Pushing an uphill rnode into the backward queue, the cost of rnode is added to the downstream path cost of its parent
+	 * and the expected cost is estimated towards the source
+	 */
+	private void evaluateCostPushingBackward(int rnode, int parent, Connection con, RoutingContext context) {
+		int source = this.getSourceId(con);
+		float new_partial_path_cost = this.graph.getBackwardPartialPathCost(rnode) 
+				+ this.getRoutableCost(rnode, con, this.graph.countSourceUses(rnode, source));
+		float new_lower_bound_total_path_cost = new_partial_path_cost;
+		if(parent != source) {
+			int countSourceUses = this.graph.countSourceUses(parent, source);
+			float expected_distance_cost = Math.abs(this.graph.getX(parent) - this.graph.getX(source)) 
+					+ Math.abs(this.graph.getY(parent) - this.graph.getY(source));
+			new_lower_bound_total_path_cost += config.getMdWeight() * expected_distance_cost / (1 + countSourceUses) 
+					+ config.getHopWeight() * (this.graph.getBackwardLevel(rnode) + 1);
+		}
+		this.pushingBackward(parent, rnode, new_partial_path_cost, new_lower_bound_total_path_cost, context);
+	}
+	
+	private void pushingBackward(int parent, int rnode, float new_partial_path_cost, float new_lower_bound_total_path_cost,
+			RoutingContext context) {
+		if(!this.graph.isBackwardTouched(parent)) {
+			context.addVisited(parent);
+		} else if (new_lower_bound_total_path_cost >= this.graph.getBackwardLowerBoundTotalPathCost(parent)) {
+			return;
+		}
+		this.graph.setBackwardLowerBoundTotalPathCost(parent, new_lower_bound_total_path_cost);
+		this.graph.setBackwardPartialPathCost(parent, new_partial_path_cost);
+		this.graph.setNext(parent, rnode);
+		this.graph.setBackwardLevel(parent, rnode == RoutingGraph.NULL_ID ? 0 : this.graph.getBackwardLevel(rnode) + 1);
+		context.backwardQueue.push(parent, new_lower_bound_total_path_cost);
+	}
+	
+	/**
+	 * Reuses the most recent cached path of a connection that is fully available, 
+	 * i.e. none of its rnodes is reserved or used by another source, instead of searching a new one.
+	 * Only paths that stay inside the current bounding box of the connection are taken, so that connections routed 
+	 * concurrently never share rnodes. In later iterations this replays the last path of a connection that was 
+	 * ripped up once the other users of its rnodes moved away, a path that is still overused is searched again 
+	 * so that negotiated congestion can move the connection
+	 * @return true if a cached path has been taken as the routing of the connection
+	 */
+	private boolean reuseCachedRoute(Connection con, RoutingContext context) {
+		int source = this.getSourceId(con);
+		int sink = this.getSinkId(con);
+		for(List<Node> path : this.routeCache.getPaths(con)) {
+			if(path.isEmpty()) continue;
+			int[] rnodes = new int[path.size()];
+			boolean available = true;
+			for(int i = 0; i < rnodes.length && available; i++) {
+				Node node = path.get(i);
+				if(this.reservedNodes.containsKey(node)) {
+					available = false;
+					break;
+				}
+				rnodes[i] = this.graph.getOrCreate(node, RoutableType.INTERRR);
+				if(!this.graph.isInBoundingBoxLimit(rnodes[i], con)) {
+					available = false;
+					break;
+				}
+				int occupancy = this.graph.getOccupancy(rnodes[i]);
+				available = occupancy == 0 || (occupancy == 1 && this.graph.countSourceUses(rnodes[i], source) > 0);
+			}
+			if(!available || rnodes[0] != sink || rnodes[rnodes.length - 1] != source) continue;
+			
+			this.resetExpansionRecords(context);
+			for(int rnode : rnodes) {
+				con.addRNode(this.graph.getRoutableNode(rnode));
+			}
+			this.addUsageInfoUpdateCongestion(con);
+			con.sink.setRouted(true);
+			this.routeCache.addHit();
+			return true;
+		}
+		this.routeCache.addMiss();
+		return false;
 	}
 	
 	public void printConRNodes(Connection con){
@@ -915,166 +1439,183 @@ public class RoutableNodeRouter{
 			
 	}
 	
-	public void finishRoutingACon(Connection con){
+	public void finishRoutingACon(Connection con, RoutingContext context){
 		//save routing in connection class
 		this.saveRouting(con);
+		if(this.routeCache != null) {
+			this.routeCache.putPath(con);
+		}
 		
-		con.getSinkRNode().setTarget(false);
 		// Reset path cost
-		this.resetExpansionRecords();
+		this.resetExpansionRecords(context);
 		
 		this.addUsageInfoUpdateCongestion(con);
 	}
 	/**
-	 * Tracing back from the sink routable to the source of the target connection
+	 * Tracing back from the sink rnode to the source of the target connection
 	 * Storing the path of the connection
 	 * @param con: The connection that is being routed
 	 */
 	public void saveRouting(Connection con){
-		Routable rn = con.getSinkRNode();
-		while (rn != null) {
-			con.addRNode(rn);
-			rn = rn.getRoutableData().getPrev();
+		int rn = this.getSinkId(con);
+		while (rn != RoutingGraph.NULL_ID) {
+			con.addRNode(this.graph.getRoutableNode(rn));
+			rn = this.graph.getPrev(rn);
 		}
 	}
 	
-	public void resetExpansionRecords() {
-		for (RoutableData node : this.rnodesVisited) {
-			node.setTouched(false);
+	public void resetExpansionRecords(RoutingContext context) {
+		for (int i = 0; i < context.numVisited; i++) {
+			this.graph.resetTouched(context.rnodesVisited[i]);
 		}
-		this.rnodesVisited.clear();	
+		context.numVisited = 0;	
 	}
 	/**
-	 * Exploring children of the routable for routing a connection
+	 * Exploring children of the rnode for routing a connection
 	 * pushing the child into the queue if is the target or is within the routing bounding box
-	 * @param rnode: The routable popped out from the queue
+	 * @param rnode: The rnode popped out from the queue
 	 * @param con: The connection that is being routed
+	 * @param context: The search state of the calling thread
 	 */
-	public void exploringAndExpansion(Routable rnode, Connection con){
-		for(Routable childRNode:rnode.getChildren()){
+	public void exploringAndExpansion(int rnode, Connection con, RoutingContext context){
+		int sink = this.getSinkId(con);
+		for(int i = 0; i < this.graph.getNumChildren(rnode); i++){
+			int childRNode = this.graph.getChild(rnode, i);
 			
-			if(childRNode.isTarget()){		
-				this.evaluateCostPushing(rnode, childRNode, con);
-				this.nodesPushed++;
+			if(childRNode == sink){		
+				this.evaluateCostPushing(rnode, childRNode, con, context);
+				context.nodesPushed++;
 				
-			}else if(childRNode.getRoutableType() == RoutableType.INTERRR) {
-				if(childRNode.isInBoundingBoxLimit(con)){
-					this.evaluateCostPushing(rnode, childRNode, con);
-					this.nodesPushed++;
+			}else if(this.graph.getType(childRNode) == RoutableType.INTERRR) {
+				if(this.graph.isInBoundingBoxLimit(childRNode, con)){
+					this.evaluateCostPushing(rnode, childRNode, con, context);
+					context.nodesPushed++;
 				}
 			}
 		}
 	}
 	/**
 	 * Pushing childRNode into the queue after cost evaluation
-	 * @param rnode: The parent routale of childRNode
-	 * @param childRNode: Current routable that is being evaluated
+	 * @param rnode: The parent rnode of childRNode
+	 * @param childRNode: Current rnode that is being evaluated
 	 * @param con: Current target connection
+	 * @param context: The search state of the calling thread
 	 */
-	private void evaluateCostPushing(Routable rnode, Routable childRNode, Connection con) {
-		RoutableData data = childRNode.getRoutableData();
-		int countSourceUses = data.countSourceUses(con.source);
+	private void evaluateCostPushing(int rnode, int childRNode, Connection con, RoutingContext context) {
+		int countSourceUses = this.graph.countSourceUses(childRNode, this.getSourceId(con));
 		
-		float partial_path_cost = rnode.getRoutableData().getPartialPathCost();//upstream path cost	
+		float partial_path_cost = this.graph.getPartialPathCost(rnode);//upstream path cost	
 		float rnodeCost = this.getRoutableCost(childRNode, con, countSourceUses);
 		
 		float new_partial_path_cost = partial_path_cost + rnodeCost;//upstream path cost + cost of node under consideration
 		float new_lower_bound_total_path_cost;
 		
-		if(childRNode.getRoutableType() == RoutableType.INTERRR){
-			float expected_distance_cost = this.expectManhatD(childRNode, con);	
-			float expected_wire_cost = expected_distance_cost / (1 + countSourceUses);
-			new_lower_bound_total_path_cost = new_partial_path_cost + config.getMdWeight() * expected_wire_cost + config.getHopWeight() * (rnode.getRoutableData().getLevel() + 1);
+		if(this.graph.getType(childRNode) == RoutableType.INTERRR){
+			float expected_wire_cost;
+			if(this.lookahead != null) {
+				expected_wire_cost = config.getMdWeight() * this.expectLookaheadCost(childRNode, con) / (1 + countSourceUses);
+			}else {
+				float expected_distance_cost = this.expectManhatD(childRNode, con);	
+				expected_wire_cost = config.getMdWeight() * expected_distance_cost / (1 + countSourceUses);
+			}
+			new_lower_bound_total_path_cost = new_partial_path_cost + expected_wire_cost + config.getHopWeight() * (this.graph.getLevel(rnode) + 1);
 			
 		}else{//sink
 			new_lower_bound_total_path_cost = new_partial_path_cost;
 		}
 		
-		this.pushing(childRNode, rnode, new_partial_path_cost, new_lower_bound_total_path_cost);
+		this.pushing(childRNode, rnode, new_partial_path_cost, new_lower_bound_total_path_cost, context);
 	}
 	/**
 	 * Setting the costs of current ChildRNode and pushing it into queue
-	 * @param childRNode: Current routable that is being evaluated
-	 * @param rnode: The parent routale of this childRNode
+	 * @param childRNode: Current rnode that is being evaluated
+	 * @param rnode: The parent rnode of this childRNode, NULL_ID for the source
 	 * @param new_partial_path_cost: The upstream path cost from this current childRNode to the source, inclusive
 	 * @param new_lower_bound_total_path_cost: Total path cost of the childRNode
+	 * @param context: The search state of the calling thread
 	 */
-	private void pushing(Routable childRNode, Routable rnode, float new_partial_path_cost, float new_lower_bound_total_path_cost) {
-		RoutableData data = childRNode.getRoutableData();
-		
-		if(!data.isTouched()) {
-			this.rnodesVisited.add(data);
-			data.setLowerBoundTotalPathCost(new_lower_bound_total_path_cost);
-			data.setPartialPathCost(new_partial_path_cost);
-			data.setPrev(rnode);
-			if(rnode != null) data.setLevel(rnode.getRoutableData().getLevel()+1);
-			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
-			
-		} else if (data.updateLowerBoundTotalPathCost(new_lower_bound_total_path_cost)) {
-			data.setPartialPathCost(new_partial_path_cost);
-			data.setPrev(rnode);
-			if(rnode != null) data.setLevel(rnode.getRoutableData().getLevel()+1);
-			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
+	private void pushing(int childRNode, int rnode, float new_partial_path_cost, float new_lower_bound_total_path_cost,
+			RoutingContext context) {
+		if(!this.graph.isTouched(childRNode)) {
+			context.addVisited(childRNode);
+		} else if (new_lower_bound_total_path_cost >= this.graph.getLowerBoundTotalPathCost(childRNode)) {
+			return;
 		}
+		this.graph.setLowerBoundTotalPathCost(childRNode, new_lower_bound_total_path_cost);
+		this.graph.setPartialPathCost(childRNode, new_partial_path_cost);
+		this.graph.setPrev(childRNode, rnode);
+		this.graph.setLevel(childRNode, rnode == RoutingGraph.NULL_ID ? 0 : this.graph.getLevel(rnode) + 1);
+		context.queue.push(childRNode, new_lower_bound_total_path_cost);
 	}
 	/**
-	 * This is to get the congestion cost and bias cost of the current routable
-	 * @param rnode: The current routable that is being evaluated
+	 * This is to get the congestion cost and bias cost of the current rnode
+	 * @param rnode: The current rnode that is being evaluated
 	 * @param con: The current target connection
 	 * @param countSourceUses: The number of nets that are using rnode,
 	 * Note: a net is represented by the connection's source
 	 * @return Biased cost of rnode
 	 */
-	private float getRoutableCost(Routable rnode, Connection con, int countSourceUses) {	
+	private float getRoutableCost(int rnode, Connection con, int countSourceUses) {	
 		boolean containsSource = countSourceUses != 0;
 		//Present congestion cost
 		float pres_cost;
 		if(containsSource) {
-			int overoccupation = rnode.getOccupancy() - Routable.capacity;	
+			int overoccupation = this.graph.getOccupancy(rnode) - Routable.capacity;	
 			pres_cost = 1 + overoccupation * this.pres_fac;
 		}else{
-			pres_cost = rnode.getPres_cost();
+			pres_cost = this.graph.getPresCost(rnode);
 		}
 		
+		float base_cost = this.graph.getBaseCost(rnode);
 		//Bias cost
 		float bias_cost = 0;
-		if(rnode.getRoutableType() == RoutableType.INTERRR) {
+		if(this.graph.getType(rnode) == RoutableType.INTERRR) {
 			Netplus net = con.getNet();
-			bias_cost = 0.5f * rnode.getBase_cost() / net.fanout * 
-					(Math.abs(rnode.getX() - net.x_geo) + Math.abs(rnode.getY() - net.y_geo)) / net.hpwl;
+			bias_cost = 0.5f * base_cost / net.fanout * 
+					(Math.abs(this.graph.getX(rnode) - net.x_geo) + Math.abs(this.graph.getY(rnode) - net.y_geo)) / net.hpwl;
 		}
 		
-		return rnode.getBase_cost() * rnode.getAcc_cost() * pres_cost / (1 + countSourceUses) + bias_cost;
+		return base_cost * this.graph.getAccCost(rnode) * pres_cost / (1 + countSourceUses) + bias_cost;
 	}
 	
-	private float expectManhatD(Routable childRNode, Connection con){
-		return Math.abs(childRNode.getX() - con.getSinkRNode().getX()) + Math.abs(childRNode.getY() - con.getSinkRNode().getY());
+	/**
+	 * The lowest path cost of the rnodes to the sink given by the lookahead, in the unit of getRoutableCost:
+	 * each rnode other than the sink costs at least its base cost of 1, as the acc and present congestion costs are no lower than 1
+	 */
+	private float expectLookaheadCost(int childRNode, Connection con){
+		int sink = this.getSinkId(con);
+		return this.lookahead.getCost(this.graph.getIntentCode(childRNode), 
+				this.graph.getX(sink) - this.graph.getX(childRNode), this.graph.getY(sink) - this.graph.getY(childRNode));
+	}
+	
+	private float expectManhatD(int childRNode, Connection con){
+		int sink = this.getSinkId(con);
+		return Math.abs(this.graph.getX(childRNode) - this.graph.getX(sink)) + Math.abs(this.graph.getY(childRNode) - this.graph.getY(sink));
 	}
 	
-	public void prepareForRoutingACon(Connection con){
+	public void prepareForRoutingACon(Connection con, RoutingContext context){
 		this.ripup(con);
 		
-		this.connectionsRouted++;
-		this.connectionsRoutedIteration++;
+		context.connectionsRouted++;
+		if(this.isIncremental()) {
+			this.reroutedNets.add(con.getNet());
+		}
 		// Clear previous route of the connection
 		con.resetConnection();
 		// Clear the priority queue
-		this.queue.clear();	
-		
-		//set the sink rrg node of con as the target
-		con.getSinkRNode().setTarget(true);
+		context.queue.clear();	
 		
 		// Add source to queue
-		this.pushing(con.getSourceRNode(), null, 0, 0);
+		this.pushing(this.getSourceId(con), RoutingGraph.NULL_ID, 0, 0, context);
 	}
 	
 	public float checkAverageNumWires(){
 		float aver = 0;
 		float sum = 0;
-		for(RoutableNode rn:this.rnodesCreated.values()){
-			sum += rn.getNode().getAllWiresInNode().length;
+		for(int rn = 0; rn < this.graph.size(); rn++){
+			sum += this.graph.getNode(rn).getAllWiresInNode().length;
 		}
-		aver = sum / this.rnodesCreated.values().size();
+		aver = sum / this.graph.size();
 		
 		return aver;
 	}
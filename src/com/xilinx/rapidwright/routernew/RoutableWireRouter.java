@@ -60,9 +60,12 @@ public class RoutableWireRouter{
 	public int connectionsRouted;
 	public long nodesExpanded;
 	public long nodesExpandedFirstIter;
+	public long nodesPushed;
 	public int connectionsRoutedIteration;
 	public long nodesPopedFromQueue;
 	public long nodesPopedFromQueueFirstIter;
+	//per-iteration metrics, null unless set before routing
+	public RouterMetrics metrics;
 	
 	public Set<Integer> overUsedRNodes;
 	public Set<Integer> usedRNodes;
@@ -113,6 +116,7 @@ public class RoutableWireRouter{
 		this.connectionsRouted = 0;
 		this.connectionsRoutedIteration = 0;
 		this.nodesExpanded = 0;
+		this.nodesPushed = 0;
 		
 		this.usedRNodes = new HashSet<>();
 		this.overUsedRNodes = new HashSet<>();
@@ -374,6 +378,11 @@ public class RoutableWireRouter{
 				illegal,
 				overUsed,
 				overUsePercentage);
+		if(this.metrics != null) {
+			//the queue size is not tracked by this router
+			this.metrics.recordIteration(this.itry, this.connectionsRoutedIteration, this.nodesPushed, this.nodesPopedFromQueue,
+					numRNodesCreated, this.usedRNodes.size(), overUsed, illegal, iterEnd - iterStart, rnodesT, 0);
+		}
 	}
 	
 	public void updateCostFactors(){
@@ -837,6 +846,7 @@ public class RoutableWireRouter{
 			data.setPrev(rnode);
 			if(rnode != null) data.setLevel(rnode.getRoutableData().getLevel()+1);
 			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
+			this.nodesPushed++;
 			if(this.debugExpansion) this.printInfo("\t\t node added, queue size = " + this.queue.size());
 			
 		} else if (data.updateLowerBoundTotalPathCost(new_lower_bound_total_path_cost)) {
@@ -846,6 +856,7 @@ public class RoutableWireRouter{
 			data.setPrev(rnode);
 			if(rnode != null) data.setLevel(rnode.getRoutableData().getLevel()+1);
 			this.queue.add(new QueueElement(childRNode, new_lower_bound_total_path_cost));
+			this.nodesPushed++;
 		}
 	}
 	
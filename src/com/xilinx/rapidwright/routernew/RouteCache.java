@@ -0,0 +1,180 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.esotericsoftware.kryo.unsafe.UnsafeInput;
+import com.esotericsoftware.kryo.unsafe.UnsafeOutput;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.util.FileTools;
+
+/**
+ * Cache of the routed paths of connections, keyed by the source pin, the sink pin and the cost epoch 
+ * (a hash of the device and the cost parameters of the router).
+ * The most recent distinct paths of each key are kept, so that the router can reuse a prior path of a connection
+ * that would not overuse any node instead of searching it again, in the later iterations of a run 
+ * and across runs of near-identical designs. The routing bounding box is not part of the key, as it grows 
+ * when a connection is retried; the router checks that a path lies inside the current box when it replays it.
+ * Paths are stored as packed node coordinates (row, column, base wire), from the sink to the source.
+ */
+public class RouteCache {
+	private static final int MAGIC = 0x52434348;
+	private static final int VERSION = 2;
+	//the number of distinct paths kept per key
+	private static final int MAX_PATHS = 4;
+
+	private final Device device;
+	private final int costEpoch;
+	private final Map<String, List<long[]>> paths;
+
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	public RouteCache(Device device, Configuration config) {
+		this.device = device;
+		this.costEpoch = Objects.hash(device.getName(), config.getBbRange(), config.getMdWeight(), config.getHopWeight(),
+				config.getInitial_pres_fac(), config.getPres_fac_mult(), config.getAcc_fac());
+		this.paths = new ConcurrentHashMap<>();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+	}
+
+	public String getKey(Connection con) {
+		StringBuilder s = new StringBuilder();
+		this.appendPin(s, con.source);
+		s.append("->");
+		this.appendPin(s, con.sink);
+		s.append("#" + this.costEpoch);
+		return s.toString();
+	}
+
+	private void appendPin(StringBuilder s, SitePinInst pin) {
+		s.append(pin.getSite().getName());
+		s.append("/");
+		s.append(pin.getName());
+	}
+
+	/**
+	 * Gets the cached paths of a connection as lists of nodes from the sink to the source, most recent first
+	 */
+	public List<List<Node>> getPaths(Connection con) {
+		List<long[]> cached = this.paths.get(this.getKey(con));
+		if(cached == null) {
+			return Collections.emptyList();
+		}
+		List<List<Node>> nodePaths = new ArrayList<>(cached.size());
+		for(long[] path : cached) {
+			List<Node> nodes = new ArrayList<>(path.length);
+			for(long packed : path) {
+				Tile tile = this.device.getTile((int) (packed >>> 48), (int) ((packed >>> 32) & 0xffff));
+				nodes.add(new Node(tile, (int) packed));
+			}
+			nodePaths.add(nodes);
+		}
+		return nodePaths;
+	}
+
+	/**
+	 * Adds the routed path of a connection as the most recent path of its key
+	 * @param con: The connection with its rnodes from the sink to the source
+	 */
+	public void putPath(Connection con) {
+		long[] path = new long[con.rnodes.size()];
+		for(int i = 0; i < path.length; i++) {
+			path[i] = this.pack(con.rnodes.get(i).getNode());
+		}
+		this.paths.compute(this.getKey(con), (key, cached) -> {
+			List<long[]> updated = new ArrayList<>(MAX_PATHS);
+			updated.add(path);
+			if(cached != null) {
+				for(long[] p : cached) {
+					if(updated.size() == MAX_PATHS) break;
+					if(!Arrays.equals(p, path)) updated.add(p);
+				}
+			}
+			return updated;
+		});
+	}
+
+	private long pack(Node node) {
+		Tile tile = node.getTile();
+		return ((long) tile.getRow() << 48) | ((long) tile.getColumn() << 32) | (node.getWire() & 0xffffffffL);
+	}
+
+	public void addHit() {
+		this.hits.incrementAndGet();
+	}
+
+	public void addMiss() {
+		this.misses.incrementAndGet();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public int size() {
+		return this.paths.size();
+	}
+
+	public void writeFile(String fileName) {
+		UnsafeOutput out = FileTools.getUnsafeOutputStream(fileName);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeString(this.device.getName());
+		out.writeInt(this.paths.size());
+		for(Entry<String, List<long[]>> e : this.paths.entrySet()) {
+			out.writeString(e.getKey());
+			out.writeInt(e.getValue().size());
+			for(long[] path : e.getValue()) {
+				out.writeInt(path.length);
+				out.writeLongs(path, 0, path.length);
+			}
+		}
+		out.close();
+	}
+
+	/**
+	 * Reads the paths of a cache file written for the same device, entries of other cost epochs are never hit
+	 * @return true if the file has been read
+	 */
+	public boolean readFile(String fileName) {
+		if(!new File(fileName).exists()) {
+			return false;
+		}
+		UnsafeInput in = FileTools.getUnsafeInputStream(fileName);
+		try {
+			if(in.readInt() != MAGIC || in.readInt() != VERSION || !this.device.getName().equals(in.readString())) {
+				return false;
+			}
+			int count = in.readInt();
+			for(int i = 0; i < count; i++) {
+				String key = in.readString();
+				int numPaths = in.readInt();
+				List<long[]> cached = new ArrayList<>(numPaths);
+				for(int j = 0; j < numPaths; j++) {
+					cached.add(in.readLongs(in.readInt()));
+				}
+				this.paths.put(key, cached);
+			}
+		}finally {
+			in.close();
+		}
+		return true;
+	}
+}
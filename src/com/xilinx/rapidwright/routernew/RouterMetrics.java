@@ -0,0 +1,292 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of a routing run of a routernew router: per-iteration counters, per-connection histograms,
+ * the slowest connections and the reasons connections were routed.
+ * Routers record into it while routing, so a snapshot can be taken at any time through the MetricsRegistry,
+ * and it can be exported as JSON or CSV after routing.
+ */
+public class RouterMetrics {
+	/**
+	 * Why a connection is (re)routed
+	 */
+	public enum RerouteReason {
+		FIRST_ITERATION, CONGESTED, UNROUTED, BOUNDING_BOX_RETRY
+	}
+
+	//the number of slowest connections kept
+	private static final int SLOWEST_CONNECTIONS = 50;
+
+	public final String name;
+	private final List<IterationMetrics> iterations;
+	private final Histogram nodesPushedPerConnection;
+	private final Histogram nodesPopedPerConnection;
+	private final Histogram microsecondsPerConnection;
+	private final AtomicLongArray rerouteReasons;
+	private final PriorityQueue<ConnectionMetrics> slowestConnections;
+	private volatile long slowestConnectionsThreshold;
+
+	private long lastNodesPushed;
+	private long lastNodesPoped;
+	private long lastRNodesCreationTime;
+
+	public RouterMetrics(String name) {
+		this.name = name;
+		this.iterations = Collections.synchronizedList(new ArrayList<>());
+		this.nodesPushedPerConnection = new Histogram();
+		this.nodesPopedPerConnection = new Histogram();
+		this.microsecondsPerConnection = new Histogram();
+		this.rerouteReasons = new AtomicLongArray(RerouteReason.values().length);
+		this.slowestConnections = new PriorityQueue<>((c1, c2) -> Long.compare(c1.time, c2.time));
+		this.slowestConnectionsThreshold = 0;
+	}
+
+	/**
+	 * Records the statistics of an iteration, given the totals of the counters since the start of routing
+	 */
+	public void recordIteration(int iteration, int connectionsRouted, long totalNodesPushed, long totalNodesPoped,
+			int rnodes, int usedRNodes, int overUsedRNodes, int illegalRNodes,
+			long iterationTime, long totalRNodesCreationTime, int maxQueueSize) {
+		IterationMetrics it = new IterationMetrics();
+		it.iteration = iteration;
+		it.connectionsRouted = connectionsRouted;
+		it.nodesPushed = totalNodesPushed - this.lastNodesPushed;
+		it.nodesPoped = totalNodesPoped - this.lastNodesPoped;
+		it.rnodes = rnodes;
+		it.usedRNodes = usedRNodes;
+		it.overUsedRNodes = overUsedRNodes;
+		it.illegalRNodes = illegalRNodes;
+		it.time = iterationTime;
+		it.rnodesCreationTime = totalRNodesCreationTime - this.lastRNodesCreationTime;
+		it.maxQueueSize = maxQueueSize;
+		Runtime runtime = Runtime.getRuntime();
+		it.heapUsed = runtime.totalMemory() - runtime.freeMemory();
+		this.lastNodesPushed = totalNodesPushed;
+		this.lastNodesPoped = totalNodesPoped;
+		this.lastRNodesCreationTime = totalRNodesCreationTime;
+		this.iterations.add(it);
+	}
+
+	/**
+	 * Records the search of one connection, may be called by multiple routing threads
+	 */
+	public void recordConnection(Connection con, int iteration, RerouteReason reason, long nodesPushed, long nodesPoped,
+			long time, boolean routed) {
+		this.rerouteReasons.incrementAndGet(reason.ordinal());
+		this.nodesPushedPerConnection.add(nodesPushed);
+		this.nodesPopedPerConnection.add(nodesPoped);
+		this.microsecondsPerConnection.add(time / 1000);
+		if(time <= this.slowestConnectionsThreshold) return;
+
+		synchronized(this.slowestConnections) {
+			ConnectionMetrics c = new ConnectionMetrics();
+			c.connectionId = con.id;
+			c.netName = con.getNet().getNet().getName();
+			c.iteration = iteration;
+			c.reason = reason;
+			c.nodesPushed = nodesPushed;
+			c.nodesPoped = nodesPoped;
+			c.time = time;
+			c.routed = routed;
+			this.slowestConnections.add(c);
+			if(this.slowestConnections.size() > SLOWEST_CONNECTIONS) {
+				this.slowestConnections.poll();
+				this.slowestConnectionsThreshold = this.slowestConnections.peek().time;
+			}
+		}
+	}
+
+	public List<IterationMetrics> getIterations() {
+		synchronized(this.iterations) {
+			return new ArrayList<>(this.iterations);
+		}
+	}
+
+	/**
+	 * @return The slowest connections, slowest first
+	 */
+	public List<ConnectionMetrics> getSlowestConnections() {
+		List<ConnectionMetrics> slowest;
+		synchronized(this.slowestConnections) {
+			slowest = new ArrayList<>(this.slowestConnections);
+		}
+		slowest.sort((c1, c2) -> Long.compare(c2.time, c1.time));
+		return slowest;
+	}
+
+	public long getRerouteCount(RerouteReason reason) {
+		return this.rerouteReasons.get(reason.ordinal());
+	}
+
+	public Histogram getNodesPushedPerConnection() {
+		return this.nodesPushedPerConnection;
+	}
+
+	public Histogram getNodesPopedPerConnection() {
+		return this.nodesPopedPerConnection;
+	}
+
+	public Histogram getMicrosecondsPerConnection() {
+		return this.microsecondsPerConnection;
+	}
+
+	public String toJson() {
+		StringBuilder s = new StringBuilder();
+		s.append("{\n");
+		s.append("  \"name\": " + quote(this.name) + ",\n");
+		s.append("  \"iterations\": [");
+		List<IterationMetrics> its = this.getIterations();
+		for(int i = 0; i < its.size(); i++) {
+			IterationMetrics it = its.get(i);
+			s.append(i == 0 ? "\n" : ",\n");
+			s.append(String.format("    {\"iteration\": %d, \"connectionsRouted\": %d, \"nodesPushed\": %d, \"nodesPoped\": %d, "
+					+ "\"rnodes\": %d, \"usedRNodes\": %d, \"overUsedRNodes\": %d, \"illegalRNodes\": %d, "
+					+ "\"timeNs\": %d, \"rnodesCreationTimeNs\": %d, \"maxQueueSize\": %d, \"heapUsedBytes\": %d}",
+					it.iteration, it.connectionsRouted, it.nodesPushed, it.nodesPoped, it.rnodes, it.usedRNodes,
+					it.overUsedRNodes, it.illegalRNodes, it.time, it.rnodesCreationTime, it.maxQueueSize, it.heapUsed));
+		}
+		s.append("\n  ],\n");
+		s.append("  \"rerouteReasons\": {");
+		for(RerouteReason reason : RerouteReason.values()) {
+			s.append(reason.ordinal() == 0 ? "" : ", ");
+			s.append(quote(reason.name()) + ": " + this.getRerouteCount(reason));
+		}
+		s.append("},\n");
+		s.append("  \"nodesPushedPerConnection\": " + this.nodesPushedPerConnection.toJson() + ",\n");
+		s.append("  \"nodesPopedPerConnection\": " + this.nodesPopedPerConnection.toJson() + ",\n");
+		s.append("  \"microsecondsPerConnection\": " + this.microsecondsPerConnection.toJson() + ",\n");
+		s.append("  \"slowestConnections\": [");
+		List<ConnectionMetrics> slowest = this.getSlowestConnections();
+		for(int i = 0; i < slowest.size(); i++) {
+			ConnectionMetrics c = slowest.get(i);
+			s.append(i == 0 ? "\n" : ",\n");
+			s.append(String.format("    {\"id\": %d, \"net\": %s, \"iteration\": %d, \"reason\": %s, \"nodesPushed\": %d, "
+					+ "\"nodesPoped\": %d, \"timeNs\": %d, \"routed\": %b}",
+					c.connectionId, quote(c.netName), c.iteration, quote(c.reason.name()), c.nodesPushed, c.nodesPoped, c.time, c.routed));
+		}
+		s.append("\n  ]\n");
+		s.append("}\n");
+		return s.toString();
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * Quotes a CSV field as in RFC 4180, doubling the quotes in the value
+	 */
+	private static String quoteCsv(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	public void writeJson(String fileName) {
+		try(PrintWriter out = new PrintWriter(new FileWriter(fileName))){
+			out.print(this.toJson());
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not write router metrics to " + fileName, e);
+		}
+	}
+
+	/**
+	 * Writes one CSV row per iteration
+	 */
+	public void writeIterationsCsv(String fileName) {
+		try(PrintWriter out = new PrintWriter(new FileWriter(fileName))){
+			out.println("iteration,connectionsRouted,nodesPushed,nodesPoped,rnodes,usedRNodes,overUsedRNodes,illegalRNodes,"
+					+ "timeNs,rnodesCreationTimeNs,maxQueueSize,heapUsedBytes");
+			for(IterationMetrics it : this.getIterations()) {
+				out.println(it.iteration + "," + it.connectionsRouted + "," + it.nodesPushed + "," + it.nodesPoped + ","
+						+ it.rnodes + "," + it.usedRNodes + "," + it.overUsedRNodes + "," + it.illegalRNodes + ","
+						+ it.time + "," + it.rnodesCreationTime + "," + it.maxQueueSize + "," + it.heapUsed);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not write router metrics to " + fileName, e);
+		}
+	}
+
+	/**
+	 * Writes one CSV row per slowest connection
+	 */
+	public void writeConnectionsCsv(String fileName) {
+		try(PrintWriter out = new PrintWriter(new FileWriter(fileName))){
+			out.println("id,net,iteration,reason,nodesPushed,nodesPoped,timeNs,routed");
+			for(ConnectionMetrics c : this.getSlowestConnections()) {
+				out.println(c.connectionId + "," + quoteCsv(c.netName) + "," + c.iteration + "," + c.reason + ","
+						+ c.nodesPushed + "," + c.nodesPoped + "," + c.time + "," + c.routed);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not write router metrics to " + fileName, e);
+		}
+	}
+
+	/**
+	 * Writes <prefix>.json, <prefix>_iterations.csv and <prefix>_connections.csv
+	 */
+	public void export(String prefix) {
+		this.writeJson(prefix + ".json");
+		this.writeIterationsCsv(prefix + "_iterations.csv");
+		this.writeConnectionsCsv(prefix + "_connections.csv");
+	}
+
+	public static class IterationMetrics {
+		public int iteration;
+		public int connectionsRouted;
+		public long nodesPushed;
+		public long nodesPoped;
+		public int rnodes;
+		public int usedRNodes;
+		public int overUsedRNodes;
+		public int illegalRNodes;
+		public long time;
+		public long rnodesCreationTime;
+		public int maxQueueSize;
+		public long heapUsed;
+	}
+
+	public static class ConnectionMetrics {
+		public int connectionId;
+		public String netName;
+		public int iteration;
+		public RerouteReason reason;
+		public long nodesPushed;
+		public long nodesPoped;
+		public long time;
+		public boolean routed;
+	}
+
+	/**
+	 * Thread-safe histogram with power-of-two buckets, bucket i counts the values in [2^(i-1), 2^i), bucket 0 counts 0
+	 */
+	public static class Histogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+		public void add(long value) {
+			this.buckets.incrementAndGet(value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value));
+		}
+
+		public long getCount(int bucket) {
+			return this.buckets.get(bucket);
+		}
+
+		public String toJson() {
+			int last = 63;
+			while(last > 0 && this.buckets.get(last) == 0) last--;
+			StringBuilder s = new StringBuilder("[");
+			for(int i = 0; i <= last; i++) {
+				s.append(i == 0 ? "" : ", ");
+				s.append(this.buckets.get(i));
+			}
+			return s.append("]").toString();
+		}
+	}
+}
@@ -60,6 +60,12 @@ class Timer {
 	public long getTime() {
 		return this.time;
 	}
+	public void addTime(long time) {
+		this.time += time;
+	}
+	public void reset() {
+		this.time = 0;
+	}
 	public String toString() {
 		return String.format("%-25s %7.3f s\n", this.name, this.time * 1e-9);
 	}
@@ -0,0 +1,76 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The search state owned by one routing thread of the node router, 
+ * i.e. the priority queue, the routables visited while routing a connection and the expansion statistics.
+ * The serial router uses a single context, while each worker thread of the parallel mode owns one
+ * and its statistics are merged back into the router after each wave of nets.
+ */
+public class RoutingContext {
+	public RNodeQueue queue;
+	//frontier of the backward half of the bidirectional search, expanding from the sink uphill
+	public RNodeQueue backwardQueue;
+	//ids of the rnodes visited while routing the current connection
+	public int[] rnodesVisited;
+	public int numVisited;
+	//nets with failed connections, the bounding boxes of which are extended after routing the connections
+	public List<Netplus> netsToExtend;
+	//connections that failed within a wave of the parallel router, to be retried with larger bounding boxes after the wave
+	public List<Connection> failedConnections;
+	public Timer rnodesCreation;
+	
+	public int connectionsRouted;
+	public long nodesPushed;
+	public long nodesPoped;
+	public long callingOfGetNextRoutable;
+	public long bbRetries;
+	//largest size of the forward queue since the statistics were reset
+	public int maxQueueSize;
+	//true while the connection being routed is retried with a larger bounding box, recorded as its reroute reason
+	public boolean retryingWithLargerBoundingBox;
+	
+	public RoutingContext(boolean indexedHeap) {
+		if(indexedHeap) {
+			this.queue = new IndexedRNodeHeap();
+			this.backwardQueue = new IndexedRNodeHeap();
+		}else {
+			this.queue = new RNodePriorityQueue();
+			this.backwardQueue = new RNodePriorityQueue();
+		}
+		this.rnodesVisited = new int[1 << 10];
+		this.numVisited = 0;
+		this.netsToExtend = new ArrayList<>();
+		this.failedConnections = new ArrayList<>();
+		this.rnodesCreation = new Timer("rnodes creation");
+		this.resetStatistics();
+	}
+	
+	public void resetStatistics() {
+		this.connectionsRouted = 0;
+		this.nodesPushed = 0;
+		this.nodesPoped = 0;
+		this.callingOfGetNextRoutable = 0;
+		this.bbRetries = 0;
+		this.maxQueueSize = 0;
+		this.rnodesCreation.reset();
+	}
+	
+	public void addVisited(int rnode) {
+		if(this.numVisited == this.rnodesVisited.length) {
+			this.rnodesVisited = Arrays.copyOf(this.rnodesVisited, this.numVisited * 2);
+		}
+		this.rnodesVisited[this.numVisited++] = rnode;
+	}
+	
+	public void clear() {
+		this.queue.clear();
+		this.backwardQueue.clear();
+		this.numVisited = 0;
+		this.netsToExtend.clear();
+		this.failedConnections.clear();
+	}
+}
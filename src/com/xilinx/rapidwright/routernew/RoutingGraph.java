@@ -0,0 +1,882 @@
+package com.xilinx.rapidwright.routernew;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.device.Wire;
+import com.xilinx.rapidwright.router.RouteThruHelper;
+
+/**
+ * A compact routing resource graph (RRG) of the node router.
+ * Instead of one RoutableNode, RoutableData, CountingSet and map entry per rnode, all rnode attributes
+ * (coordinates, type, costs, occupancy, prev pointers, levels) live in parallel primitive arrays indexed by the rnode id,
+ * and the children of expanded rnodes are stored CSR-style as segments of one shared id array.
+ * The arrays are allocated in fixed-size pages, so the graph can grow while the worker threads of
+ * the parallel router read rnodes created before. Lookups and rnode creation do not take a graph-wide lock:
+ * node ids are kept in a ConcurrentHashMap, ids and child segments are reserved with atomic counters,
+ * and only adding a page is serialized. RoutableNode is kept as a lightweight view of an rnode id
+ * for code that works with the Routable API.
+ */
+public class RoutingGraph {
+	public static final int NULL_ID = -1;
+
+	private static final int PAGE_BITS = 16;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private static final byte TOUCHED = 1;
+	private static final byte CHILDREN_SET = 2;
+	private static final byte BACKWARD_TOUCHED = 4;
+	private static final byte UPHILL_SET = 8;
+	private static final byte TARGET = 16;
+	private static final RoutableType[] TYPES = RoutableType.values();
+
+	//number of rnode ids handed out
+	private final AtomicInteger size;
+	private final Map<Node, Integer> ids;
+	//serializes adding pages, the page tables themselves are published through volatile fields
+	private final Object pageLock = new Object();
+	//number of pages that exist in all rnode arrays, published after the last array got its page
+	private volatile int readyPages;
+
+	private final ObjectPages<Node> nodes;
+	private final ShortPages x;
+	private final ShortPages y;
+	private final BytePages types;
+	private final BytePages intentCodes;
+	private final BytePages flags;
+	private final FloatPages presCost;
+	private final FloatPages accCost;
+	private final FloatPages partialPathCost;
+	private final FloatPages lowerBoundTotalPathCost;
+	private final IntPages prev;
+	private final ShortPages level;
+	//search state of the backward (sink to source) half of the bidirectional search
+	private final FloatPages backwardPartialPathCost;
+	private final FloatPages backwardLowerBoundTotalPathCost;
+	private final IntPages next;
+	private final ShortPages backwardLevel;
+	//the first unique user of an rnode is stored inline, further users only for overused rnodes in the maps below
+	private final IntPages firstSource;
+	private final ShortPages firstSourceCount;
+	private final IntPages firstParent;
+	private final ShortPages firstParentCount;
+	private final Map<Integer, CountingSet<Integer>> moreSources;
+	private final Map<Integer, CountingSet<Integer>> moreParents;
+	//CSR children: the children of rnode i are childTargets[childStart[i], childStart[i] + childCount[i])
+	private final IntPages childStart;
+	private final ShortPages childCount;
+	//uphill rnodes for the backward search, stored as segments of the same target array
+	private final IntPages uphillStart;
+	private final ShortPages uphillCount;
+	private final IntPages childTargets;
+	private final AtomicInteger childEnd;
+
+	public RoutingGraph() {
+		this.size = new AtomicInteger();
+		this.ids = new ConcurrentHashMap<>(1 << 10);
+		this.nodes = new ObjectPages<>();
+		this.x = new ShortPages();
+		this.y = new ShortPages();
+		this.types = new BytePages();
+		this.intentCodes = new BytePages();
+		this.flags = new BytePages();
+		this.presCost = new FloatPages();
+		this.accCost = new FloatPages();
+		this.partialPathCost = new FloatPages();
+		this.lowerBoundTotalPathCost = new FloatPages();
+		this.prev = new IntPages();
+		this.level = new ShortPages();
+		this.backwardPartialPathCost = new FloatPages();
+		this.backwardLowerBoundTotalPathCost = new FloatPages();
+		this.next = new IntPages();
+		this.backwardLevel = new ShortPages();
+		this.firstSource = new IntPages();
+		this.firstSourceCount = new ShortPages();
+		this.firstParent = new IntPages();
+		this.firstParentCount = new ShortPages();
+		this.moreSources = new ConcurrentHashMap<>();
+		this.moreParents = new ConcurrentHashMap<>();
+		this.childStart = new IntPages();
+		this.childCount = new ShortPages();
+		this.uphillStart = new IntPages();
+		this.uphillCount = new ShortPages();
+		this.childTargets = new IntPages();
+		this.childEnd = new AtomicInteger();
+	}
+
+	/**
+	 * Gets the number of rnodes. While worker threads are expanding, this may include rnodes that are still being initialized
+	 */
+	public int size() {
+		return this.size.get();
+	}
+
+	/**
+	 * Gets the id of the rnode of a node, or NULL_ID if no rnode has been created for it
+	 */
+	public int getId(Node node) {
+		Integer id = this.ids.get(node);
+		return id == null ? NULL_ID : id;
+	}
+
+	/**
+	 * Gets the id of the rnode of a node, creating the rnode with the given type if it does not exist yet
+	 */
+	public int getOrCreate(Node node, RoutableType type) {
+		Integer id = this.ids.get(node);
+		if(id != null) {
+			return id;
+		}
+		//the rnode is initialized before its id is published in the map
+		return this.ids.computeIfAbsent(node, n -> {
+			int newId = this.size.getAndIncrement();
+			this.ensurePages(newId);
+			this.initialize(newId, n, getCoordinateTile(n), type);
+			return newId;
+		});
+	}
+
+	public boolean contains(Node node) {
+		return this.ids.containsKey(node);
+	}
+
+	/**
+	 * Makes sure the pages holding the rnode id exist
+	 */
+	private void ensurePages(int id) {
+		int page = id >>> PAGE_BITS;
+		if(page < this.readyPages) return;
+		synchronized(this.pageLock) {
+			while(this.readyPages <= page) {
+				this.addPage();
+			}
+		}
+	}
+
+	private void initialize(int id, Node node, Tile tile, RoutableType type) {
+		this.nodes.set(id, node);
+		this.x.set(id, (short) tile.getColumn());
+		this.y.set(id, (short) tile.getRow());
+		this.types.set(id, (byte) type.ordinal());
+		this.intentCodes.set(id, (byte) node.getIntentCode().ordinal());
+		this.presCost.set(id, 1);
+		this.accCost.set(id, 1);
+		this.prev.set(id, NULL_ID);
+		this.next.set(id, NULL_ID);
+		this.firstSource.set(id, NULL_ID);
+		this.firstParent.set(id, NULL_ID);
+	}
+
+	private void addPage() {
+		this.nodes.addPage(new Node[PAGE_SIZE]);
+		this.x.addPage();
+		this.y.addPage();
+		this.types.addPage();
+		this.intentCodes.addPage();
+		this.flags.addPage();
+		this.presCost.addPage();
+		this.accCost.addPage();
+		this.partialPathCost.addPage();
+		this.lowerBoundTotalPathCost.addPage();
+		this.prev.addPage();
+		this.level.addPage();
+		this.backwardPartialPathCost.addPage();
+		this.backwardLowerBoundTotalPathCost.addPage();
+		this.next.addPage();
+		this.backwardLevel.addPage();
+		this.firstSource.addPage();
+		this.firstSourceCount.addPage();
+		this.firstParent.addPage();
+		this.firstParentCount.addPage();
+		this.childStart.addPage();
+		this.childCount.addPage();
+		this.uphillStart.addPage();
+		this.uphillCount.addPage();
+		//only now may other threads write rnodes of the new page
+		this.readyPages = this.readyPages + 1;
+	}
+
+	/**
+	 * Gets the tile that gives the coordinates of an rnode, i.e. the INT tile of its node, 
+	 * or the second one for nodes spanning multiple INT tiles
+	 */
+	static Tile getCoordinateTile(Node node) {
+		Wire[] wires = node.getAllWiresInNode();
+		List<Tile> intTiles = new ArrayList<>();
+		
+		for(Wire w : wires) {
+			if(w.getTile().getTileTypeEnum() == TileTypeEnum.INT) {
+				intTiles.add(w.getTile());
+			}
+		}
+		
+		if(intTiles.size() > 1) {
+			return intTiles.get(1);
+		}else if(intTiles.size() == 1) {
+			return intTiles.get(0);
+		}
+		return wires[0].getTile();
+	}
+
+	/**
+	 * Creates the downhill children of an rnode, excluding reserved nodes and routethrus
+	 * @return The number of children
+	 */
+	public int setChildren(int id, RouteThruHelper routethruHelper, Set<Node> reserved) {
+		Node node = this.getNode(id);
+		List<Node> allDownHillNodes = node.getAllDownhillNodes();
+		int[] children = new int[allDownHillNodes.size()];
+		int numChildren = 0;
+		for(Node downhill : allDownHillNodes) {
+			//TODO make available routethrus available
+			if(reserved.contains(downhill)) continue;
+			if(!routethruHelper.isRouteThru(node, downhill)) {//routethrus are forbidden in this way
+				//the sink rnode of a target has been created up-front
+				children[numChildren++] = this.getOrCreate(downhill, RoutableType.INTERRR);
+			}
+		}
+		this.setChildren(id, children, numChildren);
+		return numChildren;
+	}
+
+	/**
+	 * Creates the downhill children of an rnode from the device graph cache, excluding reserved nodes.
+	 * Falls back to expanding the node on the device if it is not in the cache
+	 * @return The number of children
+	 */
+	public int setChildren(int id, DeviceGraphCache deviceGraphCache, RouteThruHelper routethruHelper, Set<Node> reserved) {
+		List<Node> cachedDownhillNodes = deviceGraphCache.getDownhillNodes(this.getNode(id));
+		if(cachedDownhillNodes == null) {
+			return this.setChildren(id, routethruHelper, reserved);
+		}
+		int[] children = new int[cachedDownhillNodes.size()];
+		int numChildren = 0;
+		for(Node downhill : cachedDownhillNodes) {
+			if(reserved.contains(downhill)) continue;
+			//routethrus have been excluded when the cache was built
+			children[numChildren++] = this.getOrCreate(downhill, RoutableType.INTERRR);
+		}
+		this.setChildren(id, children, numChildren);
+		return numChildren;
+	}
+
+	/**
+	 * Stores the children ids of an rnode as one segment of the CSR target array
+	 */
+	public void setChildren(int id, int[] children, int numChildren) {
+		this.childStart.set(id, this.appendSegment(children, numChildren));
+		this.childCount.set(id, (short) numChildren);
+		this.flags.set(id, (byte) (this.flags.get(id) | CHILDREN_SET));
+	}
+
+	/**
+	 * Creates the uphill rnodes of an rnode for the backward search, excluding reserved nodes and routethrus
+	 * @return The number of uphill rnodes
+	 */
+	public int setUphill(int id, RouteThruHelper routethruHelper, Set<Node> reserved) {
+		Node node = this.getNode(id);
+		List<Node> allUphillNodes = node.getAllUphillNodes();
+		int[] uphill = new int[allUphillNodes.size()];
+		int numUphill = 0;
+		for(Node up : allUphillNodes) {
+			if(reserved.contains(up)) continue;
+			if(!routethruHelper.isRouteThru(up, node)) {
+				uphill[numUphill++] = this.getOrCreate(up, RoutableType.INTERRR);
+			}
+		}
+		this.uphillStart.set(id, this.appendSegment(uphill, numUphill));
+		this.uphillCount.set(id, (short) numUphill);
+		this.flags.set(id, (byte) (this.flags.get(id) | UPHILL_SET));
+		return numUphill;
+	}
+
+	/**
+	 * Appends ids to the shared target array
+	 * @return The start index of the new segment
+	 */
+	private int appendSegment(int[] ids, int num) {
+		int start;
+		while(true) {
+			int end = this.childEnd.get();
+			start = end;
+			//segments never span two pages
+			if((start & PAGE_MASK) + num > PAGE_SIZE) {
+				start = (start | PAGE_MASK) + 1;
+			}
+			if(this.childEnd.compareAndSet(end, start + num)) break;
+		}
+		int lastPage = (start + num) >>> PAGE_BITS;
+		if(this.childTargets.numPages() <= lastPage) {
+			synchronized(this.pageLock) {
+				while(this.childTargets.numPages() <= lastPage) {
+					this.childTargets.addPage();
+				}
+			}
+		}
+		for(int i = 0; i < num; i++) {
+			this.childTargets.set(start + i, ids[i]);
+		}
+		return start;
+	}
+
+	public boolean isUphillSet(int id) {
+		return (this.flags.get(id) & UPHILL_SET) != 0;
+	}
+
+	public int getNumUphill(int id) {
+		return this.uphillCount.get(id);
+	}
+
+	public int getUphill(int id, int i) {
+		return this.childTargets.get(this.uphillStart.get(id) + i);
+	}
+
+	public boolean isChildrenSet(int id) {
+		return (this.flags.get(id) & CHILDREN_SET) != 0;
+	}
+
+	/**
+	 * Marks the children of an rnode as set or, if false, to be created again on the next expansion
+	 */
+	public void setChildrenSet(int id, boolean childrenSet) {
+		this.setFlag(id, CHILDREN_SET, childrenSet);
+	}
+
+	public boolean isTarget(int id) {
+		return (this.flags.get(id) & TARGET) != 0;
+	}
+
+	public void setTarget(int id, boolean target) {
+		this.setFlag(id, TARGET, target);
+	}
+
+	private void setFlag(int id, byte mask, boolean value) {
+		byte flag = this.flags.get(id);
+		this.flags.set(id, (byte) (value ? flag | mask : flag & ~mask));
+	}
+
+	/**
+	 * Gets a RoutableData view of an rnode for users of the Routable API.
+	 * The view reads and writes the graph arrays, except for the sources and parents, 
+	 * which the graph stores as ids and are only accessible through the graph
+	 */
+	public RoutableData getRoutableData(int id) {
+		return new GraphRoutableData(id);
+	}
+
+	public int getNumChildren(int id) {
+		return this.childCount.get(id);
+	}
+
+	public int getChild(int id, int i) {
+		return this.childTargets.get(this.childStart.get(id) + i);
+	}
+
+	public Node getNode(int id) {
+		return this.nodes.get(id);
+	}
+
+	public short getX(int id) {
+		return this.x.get(id);
+	}
+
+	public short getY(int id) {
+		return this.y.get(id);
+	}
+
+	public RoutableType getType(int id) {
+		return TYPES[this.types.get(id)];
+	}
+
+	public void setType(int id, RoutableType type) {
+		this.types.set(id, (byte) type.ordinal());
+	}
+
+	/**
+	 * Gets the ordinal of the intent code of the node of an rnode
+	 */
+	public int getIntentCode(int id) {
+		return this.intentCodes.get(id) & 0xff;
+	}
+
+	public float getBaseCost(int id) {
+		//this is for faster maze expansion convergence to the sink,
+		//virtually the same to the logic block input pin, since no alternative ipins are considered
+		return this.getType(id) == RoutableType.SINKRR ? 0.95f : 1;
+	}
+
+	public float getPresCost(int id) {
+		return this.presCost.get(id);
+	}
+
+	public void setPresCost(int id, float pres_cost) {
+		this.presCost.set(id, pres_cost);
+	}
+
+	public float getAccCost(int id) {
+		return this.accCost.get(id);
+	}
+
+	public void setAccCost(int id, float acc_cost) {
+		this.accCost.set(id, acc_cost);
+	}
+
+	public float getPartialPathCost(int id) {
+		return this.partialPathCost.get(id);
+	}
+
+	public void setPartialPathCost(int id, float partial_path_cost) {
+		this.partialPathCost.set(id, partial_path_cost);
+	}
+
+	public float getLowerBoundTotalPathCost(int id) {
+		return this.lowerBoundTotalPathCost.get(id);
+	}
+
+	public void setLowerBoundTotalPathCost(int id, float lower_bound_total_path_cost) {
+		this.lowerBoundTotalPathCost.set(id, lower_bound_total_path_cost);
+		this.setTouched(id, true);
+	}
+
+	public boolean isTouched(int id) {
+		return (this.flags.get(id) & TOUCHED) != 0;
+	}
+
+	public void setTouched(int id, boolean touched) {
+		this.setFlag(id, TOUCHED, touched);
+	}
+
+	public boolean isBackwardTouched(int id) {
+		return (this.flags.get(id) & BACKWARD_TOUCHED) != 0;
+	}
+
+	/**
+	 * Clears the forward and backward search records of an rnode
+	 */
+	public void resetTouched(int id) {
+		this.flags.set(id, (byte) (this.flags.get(id) & ~(TOUCHED | BACKWARD_TOUCHED)));
+	}
+
+	public float getBackwardPartialPathCost(int id) {
+		return this.backwardPartialPathCost.get(id);
+	}
+
+	public void setBackwardPartialPathCost(int id, float backward_partial_path_cost) {
+		this.backwardPartialPathCost.set(id, backward_partial_path_cost);
+	}
+
+	public float getBackwardLowerBoundTotalPathCost(int id) {
+		return this.backwardLowerBoundTotalPathCost.get(id);
+	}
+
+	public void setBackwardLowerBoundTotalPathCost(int id, float backward_lower_bound_total_path_cost) {
+		this.backwardLowerBoundTotalPathCost.set(id, backward_lower_bound_total_path_cost);
+		this.flags.set(id, (byte) (this.flags.get(id) | BACKWARD_TOUCHED));
+	}
+
+	public int getNext(int id) {
+		return this.next.get(id);
+	}
+
+	public void setNext(int id, int nextId) {
+		this.next.set(id, nextId);
+	}
+
+	public int getBackwardLevel(int id) {
+		return this.backwardLevel.get(id);
+	}
+
+	public void setBackwardLevel(int id, int level) {
+		this.backwardLevel.set(id, (short) level);
+	}
+
+	public int getPrev(int id) {
+		return this.prev.get(id);
+	}
+
+	public void setPrev(int id, int prevId) {
+		this.prev.set(id, prevId);
+	}
+
+	public int getLevel(int id) {
+		return this.level.get(id);
+	}
+
+	public void setLevel(int id, int level) {
+		this.level.set(id, (short) level);
+	}
+
+	public void addSource(int id, int source) {
+		this.addUser(id, source, this.firstSource, this.firstSourceCount, this.moreSources);
+	}
+
+	public void removeSource(int id, int source) {
+		this.removeUser(id, source, this.firstSource, this.firstSourceCount, this.moreSources);
+	}
+
+	public int countSourceUses(int id, int source) {
+		return this.countUses(id, source, this.firstSource, this.firstSourceCount, this.moreSources);
+	}
+
+	public int numUniqueSources(int id) {
+		return this.numUniqueUsers(id, this.firstSource, this.moreSources);
+	}
+
+	public void addParent(int id, int parent) {
+		this.addUser(id, parent, this.firstParent, this.firstParentCount, this.moreParents);
+	}
+
+	public void removeParent(int id, int parent) {
+		this.removeUser(id, parent, this.firstParent, this.firstParentCount, this.moreParents);
+	}
+
+	public int numUniqueParents(int id) {
+		return this.numUniqueUsers(id, this.firstParent, this.moreParents);
+	}
+
+	public int getOccupancy(int id) {
+		return this.numUniqueSources(id);
+	}
+
+	public boolean used(int id) {
+		return this.getOccupancy(id) > 0;
+	}
+
+	public boolean overUsed(int id) {
+		return Routable.capacity < this.getOccupancy(id);
+	}
+
+	public boolean illegal(int id) {
+		return Routable.capacity < this.numUniqueParents(id);
+	}
+
+	public void updatePresentCongestionPenalty(int id, float pres_fac) {
+		int occ = this.getOccupancy(id);
+		int cap = Routable.capacity;
+
+		if (occ < cap) {
+			this.setPresCost(id, 1);
+		} else {
+			this.setPresCost(id, 1 + (occ - cap + 1) * pres_fac);
+		}
+	}
+
+	public float getManhattanD(int id) {
+		int prevId = this.getPrev(id);
+		if(prevId == NULL_ID) {
+			return 0;
+		}
+		return Math.abs(this.getX(prevId) - this.getX(id)) + Math.abs(this.getY(prevId) - this.getY(id));
+	}
+
+	public boolean isInBoundingBoxLimit(int id, Connection con) {
+		short x = this.getX(id);
+		short y = this.getY(id);
+		return x > con.net.x_min_b && x < con.net.x_max_b && y > con.net.y_min_b && y < con.net.y_max_b;
+	}
+
+	/**
+	 * Gets a Routable view of an rnode, e.g. for storing the routing of a connection
+	 */
+	public RoutableNode getRoutableNode(int id) {
+		return new RoutableNode(this, id);
+	}
+
+	private void addUser(int id, int user, IntPages first, ShortPages firstCount, Map<Integer, CountingSet<Integer>> more) {
+		int firstUser = first.get(id);
+		if(firstUser == NULL_ID) {
+			first.set(id, user);
+			firstCount.set(id, (short) 1);
+		}else if(firstUser == user) {
+			firstCount.set(id, (short) (firstCount.get(id) + 1));
+		}else {
+			more.computeIfAbsent(id, k -> new CountingSet<>()).add(user);
+		}
+	}
+
+	private void removeUser(int id, int user, IntPages first, ShortPages firstCount, Map<Integer, CountingSet<Integer>> more) {
+		if(first.get(id) == user) {
+			short count = (short) (firstCount.get(id) - 1);
+			firstCount.set(id, count);
+			if(count == 0) {
+				first.set(id, NULL_ID);
+				this.promoteUser(id, first, firstCount, more);
+			}
+			return;
+		}
+		CountingSet<Integer> users = more.get(id);
+		if(users != null) {
+			users.remove(user);
+			if(users.isEmpty()) {
+				more.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * Moves one of the additional users of an rnode to the inline slot after the first user has been removed
+	 */
+	private void promoteUser(int id, IntPages first, ShortPages firstCount, Map<Integer, CountingSet<Integer>> more) {
+		CountingSet<Integer> users = more.get(id);
+		if(users == null) return;
+		Integer user = users.getMap().keySet().iterator().next();
+		int count = users.count(user);
+		for(int i = 0; i < count; i++) {
+			users.remove(user);
+		}
+		if(users.isEmpty()) {
+			more.remove(id);
+		}
+		first.set(id, user);
+		firstCount.set(id, (short) count);
+	}
+
+	private int countUses(int id, int user, IntPages first, ShortPages firstCount, Map<Integer, CountingSet<Integer>> more) {
+		if(first.get(id) == user) {
+			return firstCount.get(id);
+		}
+		if(first.get(id) == NULL_ID) {
+			return 0;
+		}
+		CountingSet<Integer> users = more.get(id);
+		return users == null ? 0 : users.count(user);
+	}
+
+	private int numUniqueUsers(int id, IntPages first, Map<Integer, CountingSet<Integer>> more) {
+		if(first.get(id) == NULL_ID) {
+			return 0;
+		}
+		CountingSet<Integer> users = more.get(id);
+		return users == null ? 1 : 1 + users.uniqueSize();
+	}
+
+	/**
+	 * Estimates the heap used by the graph arrays and the node index in bytes, excluding the Node objects
+	 */
+	public long getHeapSizeEstimate() {
+		long pages = this.nodes.numPages();
+		//node reference, x, y, type, intent code, flags, 6 costs, prev, next, 2 levels, first source/parent with counts, 
+		//child and uphill start and count
+		long bytesPerRNode = 4 + 2 + 2 + 1 + 1 + 1 + 6 * 4 + 4 + 4 + 2 * 2 + (4 + 2) * 2 + (4 + 2) * 2;
+		return pages * PAGE_SIZE * bytesPerRNode + this.childTargets.numPages() * PAGE_SIZE * 4L
+				+ this.ids.size() * 48L;
+	}
+
+	/**
+	 * A RoutableData backed by the arrays of the graph
+	 */
+	private class GraphRoutableData extends RoutableData {
+		//false while the RoutableData constructor initializes its own fields
+		private final boolean constructed;
+
+		GraphRoutableData(int id) {
+			super(id);
+			this.constructed = true;
+		}
+
+		@Override
+		public boolean updateLowerBoundTotalPathCost(float new_lower_bound_total_path_cost) {
+			if (new_lower_bound_total_path_cost < RoutingGraph.this.getLowerBoundTotalPathCost(this.index)) {
+				RoutingGraph.this.lowerBoundTotalPathCost.set(this.index, new_lower_bound_total_path_cost);
+				return true;
+			}
+			return false;
+		}
+		@Override
+		public void setLowerBoundTotalPathCost(float new_lower_bound_total_path_cost) {
+			RoutingGraph.this.setLowerBoundTotalPathCost(this.index, new_lower_bound_total_path_cost);
+		}
+		@Override
+		public void setPartialPathCost(float new_partial_path_cost) {
+			RoutingGraph.this.setPartialPathCost(this.index, new_partial_path_cost);
+		}
+		@Override
+		public float getLowerBoundTotalPathCost() {
+			return RoutingGraph.this.getLowerBoundTotalPathCost(this.index);
+		}
+		@Override
+		public float getPartialPathCost() {
+			return RoutingGraph.this.getPartialPathCost(this.index);
+		}
+		@Override
+		public void addSource(SitePinInst source) {
+			throw new UnsupportedOperationException("ERROR: The sources of an rnode are ids of the RoutingGraph, use RoutingGraph.addSource()");
+		}
+		@Override
+		public int numUniqueSources() {
+			return RoutingGraph.this.numUniqueSources(this.index);
+		}
+		@Override
+		public void removeSource(SitePinInst source) {
+			throw new UnsupportedOperationException("ERROR: The sources of an rnode are ids of the RoutingGraph, use RoutingGraph.removeSource()");
+		}
+		@Override
+		public int countSourceUses(SitePinInst source) {
+			throw new UnsupportedOperationException("ERROR: The sources of an rnode are ids of the RoutingGraph, use RoutingGraph.countSourceUses()");
+		}
+		@Override
+		public int numUniqueParents() {
+			return RoutingGraph.this.numUniqueParents(this.index);
+		}
+		@Override
+		public void addParent(Routable parent) {
+			RoutingGraph.this.addParent(this.index, this.getId(parent));
+		}
+		@Override
+		public void removeParent(Routable parent) {
+			RoutingGraph.this.removeParent(this.index, this.getId(parent));
+		}
+		@Override
+		public int getOccupancy() {
+			return RoutingGraph.this.getOccupancy(this.index);
+		}
+		@Override
+		public Routable getPrev() {
+			int prevId = RoutingGraph.this.getPrev(this.index);
+			return prevId == NULL_ID ? null : getRoutableNode(prevId);
+		}
+		@Override
+		public void setPrev(Routable prev) {
+			RoutingGraph.this.setPrev(this.index, prev == null ? NULL_ID : this.getId(prev));
+		}
+		@Override
+		public int getLevel() {
+			return RoutingGraph.this.getLevel(this.index);
+		}
+		@Override
+		public void setLevel(int level) {
+			RoutingGraph.this.setLevel(this.index, level);
+		}
+		@Override
+		public float getPres_cost() {
+			return getPresCost(this.index);
+		}
+		@Override
+		public void setPres_cost(float pres_cost) {
+			setPresCost(this.index, pres_cost);
+		}
+		@Override
+		public float getAcc_cost() {
+			return getAccCost(this.index);
+		}
+		@Override
+		public void setAcc_cost(float acc_cost) {
+			setAccCost(this.index, acc_cost);
+		}
+		@Override
+		public boolean isTouched() {
+			return RoutingGraph.this.isTouched(this.index);
+		}
+		@Override
+		public void setTouched(boolean touched) {
+			//the RoutableData constructor must not reset the search state of the rnode
+			if(this.constructed) {
+				RoutingGraph.this.setTouched(this.index, touched);
+			}
+		}
+
+		private int getId(Routable rnode) {
+			if(!(rnode instanceof RoutableNode) || ((RoutableNode) rnode).getGraph() != RoutingGraph.this) {
+				throw new IllegalArgumentException("ERROR: " + rnode + " is not an rnode of this RoutingGraph");
+			}
+			return ((RoutableNode) rnode).index;
+		}
+	}
+
+	private static class ObjectPages<T> {
+		private volatile Object[][] pages = new Object[0][];
+
+		void addPage(T[] page) {
+			Object[][] newPages = Arrays.copyOf(this.pages, this.pages.length + 1);
+			newPages[newPages.length - 1] = page;
+			this.pages = newPages;
+		}
+		@SuppressWarnings("unchecked")
+		T get(int i) {
+			return (T) this.pages[i >>> PAGE_BITS][i & PAGE_MASK];
+		}
+		void set(int i, T value) {
+			this.pages[i >>> PAGE_BITS][i & PAGE_MASK] = value;
+		}
+		int numPages() {
+			return this.pages.length;
+		}
+	}
+
+	private static class IntPages {
+		private volatile int[][] pages = new int[0][];
+
+		void addPage() {
+			int[][] newPages = Arrays.copyOf(this.pages, this.pages.length + 1);
+			newPages[newPages.length - 1] = new int[PAGE_SIZE];
+			this.pages = newPages;
+		}
+		int get(int i) {
+			return this.pages[i >>> PAGE_BITS][i & PAGE_MASK];
+		}
+		void set(int i, int value) {
+			this.pages[i >>> PAGE_BITS][i & PAGE_MASK] = value;
+		}
+		int numPages() {
+			return this.pages.length;
+		}
+	}
+
+	private static class ShortPages {
+		private volatile short[][] pages = new short[0][];
+
+		void addPage() {
+			short[][] newPages = Arrays.copyOf(this.pages, this.pages.length + 1);
+			newPages[newPages.length - 1] = new short[PAGE_SIZE];
+			this.pages = newPages;
+		}
+		short get(int i) {
+			return this.pages[i >>> PAGE_BITS][i & PAGE_MASK];
+		}
+		void set(int i, short value) {
+			this.pages[i >>> PAGE_BITS][i & PAGE_MASK] = value;
+		}
+	}
+
+	private static class BytePages {
+		private volatile byte[][] pages = new byte[0][];
+
+		void addPage() {
+			byte[][] newPages = Arrays.copyOf(this.pages, this.pages.length + 1);
+			newPages[newPages.length - 1] = new byte[PAGE_SIZE];
+			this.pages = newPages;
+		}
+		byte get(int i) {
+			return this.pages[i >>> PAGE_BITS][i & PAGE_MASK];
+		}
+		void set(int i, byte value) {
+			this.pages[i >>> PAGE_BITS][i & PAGE_MASK] = value;
+		}
+	}
+
+	private static class FloatPages {
+		private volatile float[][] pages = new float[0][];
+
+		void addPage() {
+			float[][] newPages = Arrays.copyOf(this.pages, this.pages.length + 1);
+			newPages[newPages.length - 1] = new float[PAGE_SIZE];
+			this.pages = newPages;
+		}
+		float get(int i) {
+			return this.pages[i >>> PAGE_BITS][i & PAGE_MASK];
+		}
+		void set(int i, float value) {
+			this.pages[i >>> PAGE_BITS][i & PAGE_MASK] = value;
+		}
+	}
+}
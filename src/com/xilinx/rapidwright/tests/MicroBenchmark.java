@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.tests;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the throughput of small operations, in the spirit of JMH: each benchmark runs a number of
+ * timed warmup iterations, whose results are dropped, followed by timed measurement iterations.
+ * Operations are run in batches between reads of the clock, the batch size is calibrated during
+ * warmup, and the results of the operations are consumed so that the JIT cannot remove them.
+ * Results are printed and can be appended to a CSV file to be tracked across releases.
+ */
+public class MicroBenchmark {
+
+	/**
+	 * An operation to measure.
+	 */
+	public interface Operation {
+		/**
+		 * Runs the operation once.
+		 * @param i Running count of the operation, to select the input of this run.
+		 * @return Any value computed by the operation, consumed by the benchmark.
+		 */
+		long run(int i);
+	}
+
+	/**
+	 * Throughput of a benchmark over its measurement iterations.
+	 */
+	public static class Result {
+		public final String name;
+		public final long operations;
+		public final double meanOpsPerSec;
+		public final double stdDevOpsPerSec;
+		public final double minOpsPerSec;
+		public final double maxOpsPerSec;
+
+		Result(String name, long operations, double[] opsPerSec) {
+			this.name = name;
+			this.operations = operations;
+			double sum = 0;
+			double min = Double.MAX_VALUE;
+			double max = 0;
+			for(double v : opsPerSec){
+				sum += v;
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+			double mean = sum / opsPerSec.length;
+			double var = 0;
+			for(double v : opsPerSec){
+				var += (v - mean) * (v - mean);
+			}
+			this.meanOpsPerSec = mean;
+			this.stdDevOpsPerSec = opsPerSec.length > 1 ? Math.sqrt(var / (opsPerSec.length - 1)) : 0;
+			this.minOpsPerSec = min;
+			this.maxOpsPerSec = max;
+		}
+
+		public double getNanosPerOp() {
+			return meanOpsPerSec == 0 ? 0 : 1e9 / meanOpsPerSec;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-48s %14.1f ops/s +- %5.1f%% %14.1f ns/op", name, meanOpsPerSec,
+					meanOpsPerSec == 0 ? 0 : 100.0 * stdDevOpsPerSec / meanOpsPerSec, getNanosPerOp());
+		}
+	}
+
+	// a batch of operations takes at least this long during measurement
+	private static final long MIN_BATCH_NANOS = 100_000;
+
+	private int warmupIterations = 5;
+	private int measurementIterations = 10;
+	private long iterationNanos = 1_000_000_000L;
+	private final List<Result> results = new ArrayList<>();
+	private volatile long sink;
+
+	public int getWarmupIterations() {
+		return warmupIterations;
+	}
+
+	public void setWarmupIterations(int warmupIterations) {
+		this.warmupIterations = warmupIterations;
+	}
+
+	public int getMeasurementIterations() {
+		return measurementIterations;
+	}
+
+	public void setMeasurementIterations(int measurementIterations) {
+		this.measurementIterations = measurementIterations;
+	}
+
+	public long getIterationMillis() {
+		return iterationNanos / 1_000_000;
+	}
+
+	public void setIterationMillis(long iterationMillis) {
+		this.iterationNanos = iterationMillis * 1_000_000;
+	}
+
+	/**
+	 * Runs and prints a benchmark.
+	 * @param name Name of the benchmark.
+	 * @param op The operation to measure.
+	 * @return The throughput of the operation.
+	 */
+	public Result run(String name, Operation op) {
+		int batch = 1;
+		int i = 0;
+		for(int w = 0; w < warmupIterations; w++){
+			long start = System.nanoTime();
+			long now = start;
+			while(now - start < iterationNanos){
+				long batchStart = now;
+				long acc = 0;
+				for(int b = 0; b < batch; b++){
+					acc += op.run(i++);
+				}
+				sink = acc;
+				now = System.nanoTime();
+				if(now - batchStart < MIN_BATCH_NANOS && batch < (1 << 24))
+					batch <<= 1;
+			}
+		}
+
+		double[] opsPerSec = new double[measurementIterations];
+		long operations = 0;
+		for(int m = 0; m < measurementIterations; m++){
+			System.gc();
+			long ops = 0;
+			long acc = 0;
+			long start = System.nanoTime();
+			long now = start;
+			while(now - start < iterationNanos){
+				for(int b = 0; b < batch; b++){
+					acc += op.run(i++);
+				}
+				ops += batch;
+				now = System.nanoTime();
+			}
+			sink = acc;
+			opsPerSec[m] = ops * 1e9 / (now - start);
+			operations += ops;
+		}
+
+		Result result = new Result(name, operations, opsPerSec);
+		results.add(result);
+		System.out.println(result);
+		return result;
+	}
+
+	public List<Result> getResults() {
+		return results;
+	}
+
+	/**
+	 * Appends the results to a CSV file, with a header if the file is new.
+	 * @param fileName Name of the CSV file.
+	 * @param label Label of the run, such as a release or a commit, written in the first column.
+	 */
+	public void writeCSV(String fileName, String label) {
+		boolean exists = new File(fileName).exists();
+		try (PrintWriter pw = new PrintWriter(new FileWriter(fileName, true))) {
+			if(!exists)
+				pw.println("label,benchmark,ops_per_sec,stddev_ops_per_sec,min_ops_per_sec,max_ops_per_sec,ns_per_op");
+			for(Result r : results){
+				pw.printf("%s,%s,%.3f,%.3f,%.3f,%.3f,%.3f\n", label, r.name, r.meanOpsPerSec, r.stdDevOpsPerSec,
+						r.minOpsPerSec, r.maxOpsPerSec, r.getNanosPerOp());
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("ERROR: Could not write benchmark results to " + fileName, e);
+		}
+	}
+}
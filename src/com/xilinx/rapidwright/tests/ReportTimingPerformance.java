@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2020 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.xilinx.rapidwright.design.Cell;
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SiteInst;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.BEL;
+import com.xilinx.rapidwright.device.BELPin;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.SiteTypeEnum;
+import com.xilinx.rapidwright.timing.CompactTimingGraph;
+import com.xilinx.rapidwright.timing.DelayCache;
+import com.xilinx.rapidwright.timing.DelayModel;
+import com.xilinx.rapidwright.timing.NodeGroup;
+import com.xilinx.rapidwright.timing.NodeGroupSiblings;
+import com.xilinx.rapidwright.timing.TimingGraph;
+import com.xilinx.rapidwright.timing.TimingManager;
+import com.xilinx.rapidwright.timing.TimingModel;
+import com.xilinx.rapidwright.timing.delayestimator.DelayEstimatorTable;
+import com.xilinx.rapidwright.timing.delayestimator.DelayQueryCache;
+import com.xilinx.rapidwright.timing.delayestimator.InterconnectInfo;
+
+/**
+ * Reports the throughput of the hot paths of the timing engine on a placed and routed design:
+ * arrival time propagation of the TimingGraph, TimingModel.calcDelay(), the logic and intrasite
+ * delay lookups of the DelayModel and the DelayEstimatorTable queries.  The workloads are recorded
+ * from the connections and cells of the design, the delay estimator also runs a synthetic workload
+ * pairing random sources with random sinks.  Cached paths are measured with and without their
+ * caches.  Results can be appended to a CSV file to be compared across releases.
+ *
+ * Usage: ReportTimingPerformance input.dcp [results.csv [label]]
+ */
+public class ReportTimingPerformance {
+
+	// max number of queries recorded for each workload
+	private static final int MAX_QUERIES = 100_000;
+	private static final long SEED = 0;
+
+	private static class Connection {
+		final SitePinInst source;
+		final SitePinInst sink;
+		final Net net;
+
+		Connection(SitePinInst source, SitePinInst sink, Net net) {
+			this.source = source;
+			this.sink = sink;
+			this.net = net;
+		}
+	}
+
+	private static class PinQuery {
+		final SiteTypeEnum siteType;
+		final String belName;
+		final String frPin;
+		final String toPin;
+
+		PinQuery(SiteTypeEnum siteType, String belName, String frPin, String toPin) {
+			this.siteType = siteType;
+			this.belName = belName;
+			this.frPin = frPin;
+			this.toPin = toPin;
+		}
+	}
+
+	private static class EstimatorQuery {
+		final NodeGroup source;
+		final NodeGroup sink;
+
+		EstimatorQuery(NodeGroup source, NodeGroup sink) {
+			this.source = source;
+			this.sink = sink;
+		}
+	}
+
+	public static void main(String[] args) {
+		if(args.length < 1){
+			System.out.println("USAGE: <input.dcp> [results.csv [label]]");
+			return;
+		}
+		Design design = Design.readCheckpoint(args[0]);
+		MicroBenchmark bench = new MicroBenchmark();
+
+		TimingManager tm = new TimingManager(design);
+		benchmarkPropagation(bench, tm.getTimingGraph());
+		List<Connection> connections = getConnections(design);
+		benchmarkCalcDelay(bench, tm.getTimingModel(), connections);
+		benchmarkDelayModel(bench, design, tm.getTimingGraph().getintraSiteAndLogicDelayModel());
+		benchmarkDelayEstimator(bench, design, connections);
+
+		if(args.length > 1){
+			String label = args.length > 2 ? args[2] : design.getName();
+			bench.writeCSV(args[1], label);
+			System.out.println("Benchmark results written to " + args[1]);
+		}
+	}
+
+	private static void benchmarkPropagation(MicroBenchmark bench, TimingGraph graph) {
+		System.out.println("Timing graph: " + graph.vertexSet().size() + " vertices, " + graph.edgeSet().size() + " edges");
+		bench.run("TimingGraph.computeArrivalTimes", i -> {
+			graph.computeArrivalTimes();
+			return 1;
+		});
+		bench.run("TimingGraph.updateTimingInParallel", i -> (long) graph.updateTimingInParallel().getFirst().floatValue());
+		CompactTimingGraph compact = CompactTimingGraph.fromTimingGraph(graph);
+		bench.run("CompactTimingGraph.computeArrivalTimes", i -> {
+			compact.computeArrivalTimes();
+			return compact.getMaxArrivalVertex();
+		});
+	}
+
+	private static List<Connection> getConnections(Design design) {
+		List<Connection> connections = new ArrayList<>();
+		for(Net net : design.getNets()){
+			if(net.isClockNet() || net.isStaticNet() || !net.hasPIPs() || net.getSource() == null) continue;
+			for(SitePinInst sink : net.getSinkPins()){
+				connections.add(new Connection(net.getSource(), sink, net));
+			}
+		}
+		Collections.shuffle(connections, new Random(SEED));
+		if(connections.size() > MAX_QUERIES)
+			connections = new ArrayList<>(connections.subList(0, MAX_QUERIES));
+		System.out.println("Routed connections: " + connections.size());
+		return connections;
+	}
+
+	private static void benchmarkCalcDelay(MicroBenchmark bench, TimingModel model, List<Connection> connections) {
+		if(connections.isEmpty()) return;
+		DelayCache cache = model.getDelayCache();
+		model.setDelayCache(null);
+		bench.run("TimingModel.calcDelay", i -> {
+			Connection c = connections.get(i % connections.size());
+			return (long) model.calcDelay(c.source, c.sink, c.net);
+		});
+		model.setDelayCache(new DelayCache(DelayCache.DEFAULT_MAX_SIZE));
+		bench.run("TimingModel.calcDelay (cached)", i -> {
+			Connection c = connections.get(i % connections.size());
+			return (long) model.calcDelay(c.source, c.sink, c.net);
+		});
+		model.setDelayCache(cache);
+	}
+
+	private static void benchmarkDelayModel(MicroBenchmark bench, Design design, DelayModel delayModel) {
+		List<PinQuery> logicQueries = new ArrayList<>();
+		List<PinQuery> intraSiteQueries = new ArrayList<>();
+		for(SiteInst si : design.getSiteInsts()){
+			for(Cell src : si.getCells()){
+				BEL srcBEL = src.getBEL();
+				if(srcBEL == null || src.isRoutethru()) continue;
+				for(String out : src.getPinMappingsP2L().keySet()){
+					BELPin outPin = srcBEL.getPin(out);
+					if(outPin == null || !outPin.isOutput()) continue;
+					for(String in : src.getPinMappingsP2L().keySet()){
+						BELPin inPin = srcBEL.getPin(in);
+						if(inPin == null || !inPin.isInput()) continue;
+						PinQuery q = new PinQuery(null, srcBEL.getName(), in, out);
+						if(logicQueries.size() < MAX_QUERIES && getLogicDelay(delayModel, q) >= 0)
+							logicQueries.add(q);
+					}
+					for(Cell dst : si.getCells()){
+						BEL dstBEL = dst.getBEL();
+						if(dst == src || dstBEL == null || dst.isRoutethru()) continue;
+						for(String in : dst.getPinMappingsP2L().keySet()){
+							BELPin inPin = dstBEL.getPin(in);
+							if(inPin == null || !inPin.isInput()) continue;
+							PinQuery q = new PinQuery(si.getSiteTypeEnum(), null, src.getBELName() + "/" + out,
+									dst.getBELName() + "/" + in);
+							if(intraSiteQueries.size() < MAX_QUERIES && getIntraSiteDelay(delayModel, q) >= 0)
+								intraSiteQueries.add(q);
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Logic delay queries: " + logicQueries.size() + ", intrasite delay queries: " + intraSiteQueries.size());
+		if(!logicQueries.isEmpty()){
+			bench.run("DelayModel.getLogicDelay", i -> {
+				PinQuery q = logicQueries.get(i % logicQueries.size());
+				return delayModel.getLogicDelay(q.belName, q.frPin, q.toPin);
+			});
+		}
+		if(!intraSiteQueries.isEmpty()){
+			bench.run("DelayModel.getIntraSiteDelay", i -> {
+				PinQuery q = intraSiteQueries.get(i % intraSiteQueries.size());
+				return delayModel.getIntraSiteDelay(q.siteType, q.frPin, q.toPin);
+			});
+		}
+	}
+
+	private static short getLogicDelay(DelayModel delayModel, PinQuery q) {
+		try {
+			return delayModel.getLogicDelay(q.belName, q.frPin, q.toPin);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+
+	private static short getIntraSiteDelay(DelayModel delayModel, PinQuery q) {
+		try {
+			return delayModel.getIntraSiteDelay(q.siteType, q.frPin, q.toPin);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static void benchmarkDelayEstimator(MicroBenchmark bench, Design design, List<Connection> connections) {
+		DelayEstimatorTable estimator = new DelayEstimatorTable(design.getDevice(), new InterconnectInfo(), false);
+
+		// the node groups the router starts from when leaving the source pin, and the sink pins
+		List<List<NodeGroup>> sources = new ArrayList<>();
+		List<NodeGroup> sinks = new ArrayList<>();
+		List<EstimatorQuery> recorded = new ArrayList<>();
+		for(Connection c : connections){
+			List<NodeGroup> thruGroups = new ArrayList<>();
+			NodeGroup sinkGroup;
+			try {
+				NodeGroupSiblings source = new NodeGroupSiblings(c.source);
+				for(NodeGroupSiblings next : source.getNextNodeGroupSiblings(Collections.<Node>emptySet())){
+					thruGroups.add(next.getThruNodeGroup(source.getExitNode()));
+				}
+				sinkGroup = new NodeGroupSiblings(c.sink).getSiblings()[0];
+			} catch (RuntimeException e) {
+				continue;
+			}
+			for(NodeGroup thru : thruGroups){
+				EstimatorQuery q = new EstimatorQuery(thru, sinkGroup);
+				if(getMinDelay(estimator, q) >= 0)
+					recorded.add(q);
+			}
+			sources.add(thruGroups);
+			sinks.add(sinkGroup);
+		}
+		if(recorded.isEmpty()) return;
+
+		Random random = new Random(SEED);
+		List<EstimatorQuery> synthetic = new ArrayList<>();
+		for(int attempts = 0; synthetic.size() < recorded.size() && attempts < 4 * recorded.size(); attempts++){
+			List<NodeGroup> thruGroups = sources.get(random.nextInt(sources.size()));
+			if(thruGroups.isEmpty()) continue;
+			EstimatorQuery q = new EstimatorQuery(thruGroups.get(random.nextInt(thruGroups.size())),
+					sinks.get(random.nextInt(sinks.size())));
+			if(getMinDelay(estimator, q) >= 0)
+				synthetic.add(q);
+		}
+		System.out.println("Delay estimator queries: " + recorded.size() + " recorded, " + synthetic.size() + " synthetic");
+
+		DelayQueryCache cache = estimator.getQueryCache();
+		estimator.setQueryCache(null);
+		bench.run("DelayEstimatorTable.getMinDelayToSinkPin", i -> {
+			EstimatorQuery q = recorded.get(i % recorded.size());
+			return estimator.getMinDelayToSinkPin(q.source, q.sink);
+		});
+		if(!synthetic.isEmpty()){
+			bench.run("DelayEstimatorTable.getMinDelayToSinkPin (synthetic)", i -> {
+				EstimatorQuery q = synthetic.get(i % synthetic.size());
+				return estimator.getMinDelayToSinkPin(q.source, q.sink);
+			});
+		}
+		estimator.setQueryCache(cache);
+		cache.clear();
+		bench.run("DelayEstimatorTable.getMinDelayToSinkPin (cached)", i -> {
+			EstimatorQuery q = recorded.get(i % recorded.size());
+			return estimator.getMinDelayToSinkPin(q.source, q.sink);
+		});
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static short getMinDelay(DelayEstimatorTable estimator, EstimatorQuery q) {
+		try {
+			return estimator.getMinDelayToSinkPin(q.source, q.sink);
+		} catch (RuntimeException e) {
+			return -1;
+		}
+	}
+}
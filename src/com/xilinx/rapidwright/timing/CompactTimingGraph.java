@@ -0,0 +1,607 @@
+/*
+ * Copyright (c) 2019 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.jgrapht.GraphPath;
+import org.jgrapht.graph.GraphWalk;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+
+/**
+ * A compact, array-backed alternative to the {@link TimingGraph}.  Vertices are int ids with
+ * interned names, edges are stored once in CSR adjacency arrays sorted by source vertex, and logic
+ * delays, net delays, arrival times and required times are kept in float arrays.  No object is
+ * created per vertex or per edge, which takes a fraction of the heap of the JGraphT-based graph.
+ * Vertex ids are assigned in topological order, so arrival and required times are propagated by
+ * plain loops over the ids.
+ *
+ * The graph is either built directly by {@link TimingGraph#buildCompact(com.xilinx.rapidwright.tests.CodePerfTracker)}
+ * or converted from a built TimingGraph by {@link #fromTimingGraph(TimingGraph)}.  Report code
+ * working on GraphPaths of TimingVertex and TimingEdge objects is served by
+ * {@link #getCriticalPaths(int)}, which materializes the objects of the reported paths only.
+ */
+public class CompactTimingGraph {
+
+    private static final byte FLOP_INPUT = 1;
+    private static final byte FLOP_OUTPUT = 2;
+
+    private final Design design;
+    private final int numVertices;
+    private final int numEdges;
+
+    // interned names and flop flags of the vertices
+    private final String[] names;
+    private final byte[] flags;
+    // vertex ids ordered by name, for lookups by name
+    private final int[] idsByName;
+
+    // edges of vertex v are edge ids fanoutStart[v]..fanoutStart[v+1], going to edgeDst
+    private final int[] fanoutStart;
+    private final int[] edgeSrc;
+    private final int[] edgeDst;
+    // incoming edges of vertex v are faninEdges[faninStart[v]..faninStart[v+1])
+    private final int[] faninStart;
+    private final int[] faninEdges;
+
+    private final float[] logicDelays;
+    private final float[] netDelays;
+    private final Net[] nets;
+
+    private final float[] arrivalTimes;
+    private final float[] requiredTimes;
+
+    private CompactTimingGraph(Design design, Builder b, int[] order) {
+        this.design = design;
+        this.numVertices = b.numVertices;
+        this.numEdges = b.numEdges;
+
+        // renumber the vertices in topological order
+        int[] newId = new int[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            newId[order[i]] = i;
+        }
+        this.names = new String[numVertices];
+        this.flags = new byte[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            names[newId[v]] = b.names.get(v);
+            flags[newId[v]] = b.flags[v];
+        }
+        Integer[] byName = new Integer[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            byName[v] = v;
+        }
+        Arrays.sort(byName, (v1, v2) -> names[v1].compareTo(names[v2]));
+        this.idsByName = new int[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            idsByName[i] = byName[i];
+        }
+
+        this.fanoutStart = new int[numVertices + 1];
+        this.faninStart = new int[numVertices + 1];
+        for (int e = 0; e < numEdges; e++) {
+            fanoutStart[newId[b.edgeSrc[e]] + 1]++;
+            faninStart[newId[b.edgeDst[e]] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            fanoutStart[v + 1] += fanoutStart[v];
+            faninStart[v + 1] += faninStart[v];
+        }
+        this.edgeSrc = new int[numEdges];
+        this.edgeDst = new int[numEdges];
+        this.faninEdges = new int[numEdges];
+        this.logicDelays = new float[numEdges];
+        this.netDelays = new float[numEdges];
+        this.nets = new Net[numEdges];
+        int[] fanoutNext = Arrays.copyOf(fanoutStart, numVertices);
+        int[] faninNext = Arrays.copyOf(faninStart, numVertices);
+        for (int i = 0; i < numEdges; i++) {
+            int src = newId[b.edgeSrc[i]];
+            int dst = newId[b.edgeDst[i]];
+            int e = fanoutNext[src]++;
+            edgeSrc[e] = src;
+            edgeDst[e] = dst;
+            logicDelays[e] = b.logicDelays[i];
+            netDelays[e] = b.netDelays[i];
+            nets[e] = b.nets.get(i);
+            faninEdges[faninNext[dst]++] = e;
+        }
+
+        this.arrivalTimes = new float[numVertices];
+        this.requiredTimes = new float[numVertices];
+    }
+
+    /**
+     * Creates the compact representation of a built TimingGraph, including its current delays.
+     * @param graph The TimingGraph to be converted.
+     * @return The compact graph.
+     */
+    public static CompactTimingGraph fromTimingGraph(TimingGraph graph) {
+        Builder b = new Builder(graph.vertexSet().size(), graph.edgeSet().size());
+        Map<TimingVertex, Integer> ids = new HashMap<>();
+        for (TimingVertex v : graph.vertexSet()) {
+            ids.put(v, b.addVertex(v.getName(), v.getFlopInput(), v.getFlopOutput()));
+        }
+        for (TimingEdge e : graph.edgeSet()) {
+            b.addEdge(ids.get(e.getSrc()), ids.get(e.getDst()), e.getLogicDelay(), e.getNetDelay(), e.getNet());
+        }
+        return b.build(graph.design);
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    /**
+     * Gets the id of a vertex by name.
+     * @param name The name of the vertex.
+     * @return The id of the vertex, or -1 if there is no vertex with this name.
+     */
+    public int getVertexId(String name) {
+        int low = 0;
+        int high = numVertices - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = names[idsByName[mid]].compareTo(name);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return idsByName[mid];
+        }
+        return -1;
+    }
+
+    public String getName(int v) {
+        return names[v];
+    }
+
+    public boolean isFlopInput(int v) {
+        return (flags[v] & FLOP_INPUT) != 0;
+    }
+
+    public boolean isFlopOutput(int v) {
+        return (flags[v] & FLOP_OUTPUT) != 0;
+    }
+
+    public int getEdgeSrc(int e) {
+        return edgeSrc[e];
+    }
+
+    public int getEdgeDst(int e) {
+        return edgeDst[e];
+    }
+
+    public float getDelay(int e) {
+        return logicDelays[e] + netDelays[e];
+    }
+
+    public float getLogicDelay(int e) {
+        return logicDelays[e];
+    }
+
+    public float getNetDelay(int e) {
+        return netDelays[e];
+    }
+
+    public void setNetDelay(int e, float netDelay) {
+        netDelays[e] = netDelay;
+    }
+
+    public Net getNet(int e) {
+        return nets[e];
+    }
+
+    public float getArrivalTime(int v) {
+        return arrivalTimes[v];
+    }
+
+    public float getRequiredTime(int v) {
+        return requiredTimes[v];
+    }
+
+    public float getSlack(int v) {
+        return requiredTimes[v] - arrivalTimes[v];
+    }
+
+    /**
+     * Computes the arrival times of all vertices in the order of their ids.
+     */
+    public void computeArrivalTimes() {
+        for (int v = 0; v < numVertices; v++) {
+            float arrival = 0;
+            for (int i = faninStart[v]; i < faninStart[v + 1]; i++) {
+                int e = faninEdges[i];
+                arrival = Math.max(arrival, arrivalTimes[edgeSrc[e]] + getDelay(e));
+            }
+            arrivalTimes[v] = arrival;
+        }
+    }
+
+    /**
+     * Computes the required times of all vertices in reversed order of their ids.  Vertices without
+     * fan-out receive the requirement.
+     * @param requirement The required time in picoseconds at the timing endpoints.
+     */
+    public void computeRequiredTimes(float requirement) {
+        for (int v = numVertices - 1; v >= 0; v--) {
+            float required = requirement;
+            for (int e = fanoutStart[v]; e < fanoutStart[v + 1]; e++) {
+                required = Math.min(required, requiredTimes[edgeDst[e]] - getDelay(e));
+            }
+            requiredTimes[v] = required;
+        }
+    }
+
+    /**
+     * @return The vertex with the max arrival time, or -1 if the graph is empty.
+     */
+    public int getMaxArrivalVertex() {
+        int maxV = -1;
+        for (int v = 0; v < numVertices; v++) {
+            if (maxV == -1 || arrivalTimes[v] > arrivalTimes[maxV])
+                maxV = v;
+        }
+        return maxV;
+    }
+
+    /**
+     * Gets the worst slack at the timing endpoints, i.e. the connected vertices without fan-out.
+     * @return The worst slack, computed from the last propagated arrival and required times.
+     */
+    public float getWorstSlack() {
+        float worst = Float.MAX_VALUE;
+        for (int v = 0; v < numVertices; v++) {
+            if (fanoutStart[v] == fanoutStart[v + 1] && faninStart[v] != faninStart[v + 1])
+                worst = Math.min(worst, getSlack(v));
+        }
+        return worst;
+    }
+
+    /**
+     * Traces the critical path arriving at a vertex back to a vertex without fan-in.
+     * @param v The end vertex of the path.
+     * @return The edge ids of the path, from its start to v.
+     */
+    public int[] getCriticalPathEdges(int v) {
+        List<Integer> path = new ArrayList<>();
+        while (faninStart[v] != faninStart[v + 1]) {
+            int critical = faninEdges[faninStart[v]];
+            for (int i = faninStart[v]; i < faninStart[v + 1]; i++) {
+                int e = faninEdges[i];
+                if (arrivalTimes[edgeSrc[e]] + getDelay(e) > arrivalTimes[edgeSrc[critical]] + getDelay(critical))
+                    critical = e;
+            }
+            path.add(critical);
+            v = edgeSrc[critical];
+        }
+        Collections.reverse(path);
+        int[] edges = new int[path.size()];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = path.get(i);
+        }
+        return edges;
+    }
+
+    /**
+     * Extracts the k paths with the largest delays, in order of decreasing delay, as 
+     * {@link TimingGraph#getCriticalPaths(int)} does: paths are grown backward from the timing 
+     * endpoints in best-first order, using the arrival time at the head of a partial path as the 
+     * exact delay of its best completion.
+     * @param k The number of paths to extract.
+     * @return The edge ids of up to k paths, each from a vertex without fan-in to a vertex without
+     * fan-out.
+     */
+    public List<int[]> getCriticalPathEdgeLists(int k) {
+        computeArrivalTimes();
+        List<int[]> result = new ArrayList<>();
+        PriorityQueue<PathSuffix> queue = new PriorityQueue<>((p1, p2) -> Float.compare(p2.bound, p1.bound));
+        for (int v = 0; v < numVertices; v++) {
+            if (fanoutStart[v] == fanoutStart[v + 1] && faninStart[v] != faninStart[v + 1])
+                queue.add(new PathSuffix(v, -1, null, 0, arrivalTimes[v]));
+        }
+        while (!queue.isEmpty() && result.size() < k) {
+            PathSuffix suffix = queue.poll();
+            if (faninStart[suffix.head] == faninStart[suffix.head + 1]) {
+                int[] edges = new int[suffix.length];
+                int i = 0;
+                for (PathSuffix p = suffix; p.edge != -1; p = p.next) {
+                    edges[i++] = p.edge;
+                }
+                result.add(edges);
+                continue;
+            }
+            for (int i = faninStart[suffix.head]; i < faninStart[suffix.head + 1]; i++) {
+                int e = faninEdges[i];
+                int src = edgeSrc[e];
+                float delay = suffix.delay + getDelay(e);
+                queue.add(new PathSuffix(src, e, suffix, delay, arrivalTimes[src] + delay));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A partial path grown backward from a timing endpoint, sharing its tail with the partial path
+     * it was grown from.
+     */
+    private static class PathSuffix {
+        final int head;
+        // edge leaving the head, -1 for the endpoint itself
+        final int edge;
+        final PathSuffix next;
+        final int length;
+        // delay from the head to the endpoint
+        final float delay;
+        // delay of the most critical complete path ending with this suffix
+        final float bound;
+
+        PathSuffix(int head, int edge, PathSuffix next, float delay, float bound) {
+            this.head = head;
+            this.edge = edge;
+            this.next = next;
+            this.length = next == null ? 0 : next.length + 1;
+            this.delay = delay;
+            this.bound = bound;
+        }
+    }
+
+    /**
+     * Adapter for report code: extracts the k paths with the largest delays and materializes them
+     * as GraphPaths of a TimingGraph holding only the vertices and edges of these paths.
+     * @param k The number of paths to extract.
+     * @return Up to k GraphPaths in order of decreasing delay.
+     */
+    public List<GraphPath<TimingVertex, TimingEdge>> getCriticalPaths(int k) {
+        List<int[]> edgeLists = getCriticalPathEdgeLists(k);
+        List<GraphPath<TimingVertex, TimingEdge>> paths = new ArrayList<>(edgeLists.size());
+        if (edgeLists.isEmpty())
+            return paths;
+        TimingGraph pathGraph = new TimingGraph(design);
+        Map<Integer, TimingVertex> vertices = new HashMap<>();
+        Map<Integer, TimingEdge> edges = new HashMap<>();
+        for (int[] edgeList : edgeLists) {
+            List<TimingEdge> pathEdges = new ArrayList<>(edgeList.length);
+            float delay = 0;
+            for (int e : edgeList) {
+                TimingEdge edge = edges.get(e);
+                if (edge == null) {
+                    TimingVertex src = getPathVertex(pathGraph, vertices, edgeSrc[e]);
+                    TimingVertex dst = getPathVertex(pathGraph, vertices, edgeDst[e]);
+                    edge = new TimingEdge(pathGraph, src, dst, nets[e] == null ? null : nets[e].getLogicalNet(), nets[e]);
+                    pathGraph.addEdge(src, dst, edge);
+                    edge.setLogicDelay(logicDelays[e]);
+                    edge.setNetDelay(netDelays[e]);
+                    edges.put(e, edge);
+                }
+                pathEdges.add(edge);
+                delay += getDelay(e);
+            }
+            TimingVertex start = vertices.get(edgeSrc[edgeList[0]]);
+            TimingVertex end = vertices.get(edgeDst[edgeList[edgeList.length - 1]]);
+            paths.add(new GraphWalk<>(pathGraph, start, end, pathEdges, delay));
+        }
+        pathGraph.computeArrivalTimes();
+        return paths;
+    }
+
+    /**
+     * Adapter for report code: materializes the path with the max delay, see 
+     * {@link #getCriticalPaths(int)}.
+     * @return The critical path, or null if the graph has no edges.
+     */
+    public GraphPath<TimingVertex, TimingEdge> getMaxDelayPath() {
+        List<GraphPath<TimingVertex, TimingEdge>> paths = getCriticalPaths(1);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+
+    private TimingVertex getPathVertex(TimingGraph pathGraph, Map<Integer, TimingVertex> vertices, int v) {
+        TimingVertex vertex = vertices.get(v);
+        if (vertex == null) {
+            vertex = toTimingVertex(v);
+            pathGraph.addVertex(vertex);
+            vertices.put(v, vertex);
+        }
+        return vertex;
+    }
+
+    private TimingVertex toTimingVertex(int v) {
+        TimingVertex vertex = new TimingVertex(names[v]);
+        if (isFlopInput(v))
+            vertex.setFlopInput();
+        if (isFlopOutput(v))
+            vertex.setFlopOutput();
+        return vertex;
+    }
+
+    /**
+     * @return An estimate of the heap taken by the arrays of this graph in bytes, excluding the
+     * names shared with the netlist.
+     */
+    public long getHeapSizeEstimate() {
+        long perVertex = 8 + 1 + 4 + 4 + 4 + 4 + 4;
+        long perEdge = 4 + 4 + 4 + 4 + 4 + 8;
+        return numVertices * perVertex + numEdges * perEdge;
+    }
+
+    /**
+     * Collects vertices and edges with growable arrays and builds the CSR representation.
+     */
+    public static class Builder {
+        private int numVertices;
+        private int numEdges;
+        private List<String> names;
+        private byte[] flags;
+        private int[] edgeSrc;
+        private int[] edgeDst;
+        private float[] logicDelays;
+        private float[] netDelays;
+        private List<Net> nets;
+        // lookups of getOrAddVertex() and putEdge(), created on first use
+        private Map<String, Integer> vertexIds;
+        private Map<Long, Integer> edgeIds;
+
+        public Builder(int expectedVertices, int expectedEdges) {
+            this.names = new ArrayList<>(expectedVertices);
+            this.flags = new byte[Math.max(16, expectedVertices)];
+            this.edgeSrc = new int[Math.max(16, expectedEdges)];
+            this.edgeDst = new int[edgeSrc.length];
+            this.logicDelays = new float[edgeSrc.length];
+            this.netDelays = new float[edgeSrc.length];
+            this.nets = new ArrayList<>(expectedEdges);
+        }
+
+        /**
+         * @return The id of the new vertex, valid until {@link #build(Design)} renumbers the vertices.
+         */
+        public int addVertex(String name, boolean flopInput, boolean flopOutput) {
+            if (numVertices == flags.length)
+                flags = Arrays.copyOf(flags, numVertices * 2);
+            names.add(name.intern());
+            flags[numVertices] = (byte) ((flopInput ? FLOP_INPUT : 0) | (flopOutput ? FLOP_OUTPUT : 0));
+            return numVertices++;
+        }
+
+        /**
+         * @return The id of the vertex added by {@link #getOrAddVertex(String)} with this name, or
+         * -1 if there is none.
+         */
+        public int getVertexId(String name) {
+            if (vertexIds == null)
+                return -1;
+            Integer v = vertexIds.get(name);
+            return v == null ? -1 : v;
+        }
+
+        /**
+         * @return The id of the vertex with this name, added without flop flags if it does not
+         * exist yet.
+         */
+        public int getOrAddVertex(String name) {
+            if (vertexIds == null)
+                vertexIds = new HashMap<>();
+            Integer v = vertexIds.get(name);
+            if (v == null) {
+                v = addVertex(name, false, false);
+                vertexIds.put(name, v);
+            }
+            return v;
+        }
+
+        public void setFlopInput(int v) {
+            flags[v] |= FLOP_INPUT;
+        }
+
+        public void setFlopOutput(int v) {
+            flags[v] |= FLOP_OUTPUT;
+        }
+
+        /**
+         * Adds an edge, or replaces the delays and the net of the edge put between the same
+         * vertices before, as the TimingGraph keeps one edge per pair of vertices.
+         */
+        public void putEdge(int src, int dst, float logicDelay, float netDelay, Net net) {
+            if (edgeIds == null)
+                edgeIds = new HashMap<>();
+            Integer e = edgeIds.get(((long) src << 32) | dst);
+            if (e == null) {
+                edgeIds.put(((long) src << 32) | dst, numEdges);
+                addEdge(src, dst, logicDelay, netDelay, net);
+                return;
+            }
+            logicDelays[e] = logicDelay;
+            netDelays[e] = netDelay;
+            nets.set(e, net);
+        }
+
+        public void addEdge(int src, int dst, float logicDelay, float netDelay, Net net) {
+            if (numEdges == edgeSrc.length) {
+                int size = numEdges * 2;
+                edgeSrc = Arrays.copyOf(edgeSrc, size);
+                edgeDst = Arrays.copyOf(edgeDst, size);
+                logicDelays = Arrays.copyOf(logicDelays, size);
+                netDelays = Arrays.copyOf(netDelays, size);
+            }
+            edgeSrc[numEdges] = src;
+            edgeDst[numEdges] = dst;
+            logicDelays[numEdges] = logicDelay;
+            netDelays[numEdges] = netDelay;
+            nets.add(net);
+            numEdges++;
+        }
+
+        /**
+         * Orders the vertices topologically and builds the compact graph.
+         * @param design The design of the timing graph.
+         * @return The compact graph.
+         */
+        public CompactTimingGraph build(Design design) {
+            int[] inDegree = new int[numVertices];
+            int[] outStart = new int[numVertices + 1];
+            for (int e = 0; e < numEdges; e++) {
+                inDegree[edgeDst[e]]++;
+                outStart[edgeSrc[e] + 1]++;
+            }
+            for (int v = 0; v < numVertices; v++) {
+                outStart[v + 1] += outStart[v];
+            }
+            int[] outDst = new int[numEdges];
+            int[] outNext = Arrays.copyOf(outStart, numVertices);
+            for (int e = 0; e < numEdges; e++) {
+                outDst[outNext[edgeSrc[e]]++] = edgeDst[e];
+            }
+            int[] order = new int[numVertices];
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < numVertices; v++) {
+                if (inDegree[v] == 0)
+                    order[tail++] = v;
+            }
+            while (head < tail) {
+                int v = order[head++];
+                for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+                    if (--inDegree[outDst[i]] == 0)
+                        order[tail++] = outDst[i];
+                }
+            }
+            if (tail != numVertices) {
+                throw new RuntimeException("ERROR: The timing graph has a cycle, " + (numVertices - tail)
+                        + " vertices can not be ordered.");
+            }
+            vertexIds = null;
+            edgeIds = null;
+            return new CompactTimingGraph(design, this, order);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2019 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.BELPin;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Site;
+import com.xilinx.rapidwright.device.Tile;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the delays calculated by {@link TimingModel#calcDelay(SitePinInst, SitePinInst,
+ * BELPin, BELPin, Site, Site, com.xilinx.rapidwright.design.Net)}, keyed by the routing signature
+ * of a connection: the ordered nodes from the sink to the source pin and the pins at both ends.
+ * The cache is split into segments selected by the hash of the signature, each segment is an LRU
+ * map with its own lock, so that threads calculating different connections rarely wait on each
+ * other.  A cache can be shared by multiple TimingModels of the same device and by multiple
+ * threads.  TimingModels do not use a cache unless one is set, see {@link #forDesign(Design)}.
+ */
+public class DelayCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 18;
+    public static final int DEFAULT_NUM_SEGMENTS = 64;
+
+    private final int maxSize;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     * @param maxSize The max number of connections kept.
+     */
+    public DelayCache(int maxSize) {
+        this(maxSize, DEFAULT_NUM_SEGMENTS);
+    }
+
+    /**
+     * Creates an empty cache.
+     * @param maxSize The max number of connections kept over all segments.
+     * @param numSegments The number of segments, rounded up to a power of 2.
+     */
+    public DelayCache(int maxSize, int numSegments) {
+        int n = 1;
+        while (n < numSegments)
+            n <<= 1;
+        this.maxSize = maxSize;
+        this.segments = new Segment[n];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+        int segmentSize = Math.max(1, maxSize / n);
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Creates a cache holding the connections of a design, i.e. one entry per sink pin.
+     * @param design The design whose connections are calculated.
+     * @return An empty cache.
+     */
+    public static DelayCache forDesign(Design design) {
+        long sinks = 0;
+        for (Net net : design.getNets()) {
+            sinks += net.getSinkPins().size();
+        }
+        return new DelayCache((int) Math.max(DEFAULT_NUM_SEGMENTS, Math.min(Integer.MAX_VALUE, sinks)));
+    }
+
+    /**
+     * Looks up the delay of a connection.
+     * @param key Routing signature of the connection.
+     * @return The net delay and the intrasite delay of the connection, or null if not cached.
+     */
+    public float[] get(Key key) {
+        float[] delay = segmentOf(key).get(key);
+        if (delay == null)
+            misses.increment();
+        else
+            hits.increment();
+        return delay;
+    }
+
+    /**
+     * Stores the delay of a connection, evicting the least recently used connection of its segment
+     * if the segment is full.
+     * @param key Routing signature of the connection.
+     * @param netDelay The delay returned by calcDelay() in picoseconds.
+     * @param intrasiteDelay The intrasite delay of the connection in picoseconds.
+     */
+    public void put(Key key, float netDelay, float intrasiteDelay) {
+        segmentOf(key).put(key, new float[] {netDelay, intrasiteDelay});
+    }
+
+    /**
+     * Removes all connections, for example after the delay terms of the model have changed or cells
+     * have been moved without changing the routing.
+     */
+    public void clear() {
+        for (Segment s : segments) {
+            s.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment s : segments) {
+            size += s.size();
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The fraction of the lookups that found the connection, 0 if there was no lookup.
+     */
+    public float getHitRate() {
+        long h = hits.sum();
+        long lookups = h + misses.sum();
+        return lookups == 0 ? 0f : (float) h / lookups;
+    }
+
+    private Segment segmentOf(Key key) {
+        // the high bits of the hash select the segment, the low bits the bucket within it
+        return segments[segments.length == 1 ? 0 : (key.hashCode() * 0x9E3779B9) >>> segmentShift];
+    }
+
+    private static class Segment {
+        private final LinkedHashMap<Key, float[]> delays;
+
+        Segment(int maxSize) {
+            this.delays = new LinkedHashMap<Key, float[]>(16, 0.75f, true) {
+                private static final long serialVersionUID = -4275218841406630911L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized float[] get(Key key) {
+            return delays.get(key);
+        }
+
+        synchronized void put(Key key, float[] delay) {
+            delays.put(key, delay);
+        }
+
+        synchronized void clear() {
+            delays.clear();
+        }
+
+        synchronized int size() {
+            return delays.size();
+        }
+    }
+
+    /**
+     * The routing signature of a connection.  Nodes and site pins are stored as tile wires packed
+     * into longs, so a key does not keep device objects other than the BELPins.  The cells 
+     * connected to the pins are not part of the signature, so the cache has to be cleared if cells
+     * are moved without changing the routing.
+     */
+    public static final class Key {
+        private final long[] nodes;
+        private final long startPin;
+        private final long endPin;
+        private final BELPin sourceBELPin;
+        private final BELPin sinkBELPin;
+        private final int hash;
+
+        /**
+         * Creates the signature of a connection.
+         * @param nodes The nodes of the connection from the sink to the source.
+         * @param startPinInst Source pin, may be null.
+         * @param endPinInst Sink pin, may be null.
+         * @param sourceBELPin Source BELPin, may be null.
+         * @param sinkBELPin Sink BELPin, may be null.
+         */
+        public Key(List<Node> nodes, SitePinInst startPinInst, SitePinInst endPinInst,
+                   BELPin sourceBELPin, BELPin sinkBELPin) {
+            this.nodes = new long[nodes.size()];
+            for (int i = 0; i < this.nodes.length; i++) {
+                Node node = nodes.get(i);
+                this.nodes[i] = tileWire(node.getTile(), node.getWire());
+            }
+            this.startPin = pin(startPinInst);
+            this.endPin = pin(endPinInst);
+            this.sourceBELPin = sourceBELPin;
+            this.sinkBELPin = sinkBELPin;
+            long h = Arrays.hashCode(this.nodes);
+            h = h * 31 + startPin;
+            h = h * 31 + endPin;
+            h = h * 31 + Objects.hashCode(sourceBELPin);
+            h = h * 31 + Objects.hashCode(sinkBELPin);
+            this.hash = (int) (h ^ (h >>> 32));
+        }
+
+        private static long tileWire(Tile tile, int wire) {
+            return ((long) tile.getRow() << 48) | ((long) (tile.getColumn() & 0xffff) << 32) 
+                    | (wire & 0xffffffffL);
+        }
+
+        private static long pin(SitePinInst pinInst) {
+            if (pinInst == null)
+                return -1;
+            Site site = pinInst.getSite();
+            return tileWire(site.getTile(), site.getTileWireIndexFromPinName(pinInst.getName()));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hash == other.hash && startPin == other.startPin && endPin == other.endPin
+                    && Arrays.equals(nodes, other.nodes)
+                    && Objects.equals(sourceBELPin, other.sourceBELPin)
+                    && Objects.equals(sinkBELPin, other.sinkBELPin);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2019 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Propagates arrival and required times of a {@link TimingGraph} with multiple threads.  The graph
+ * is levelized once, such that every edge goes from a lower to a higher level, and the vertices of
+ * a level are processed in parallel by a {@link ForkJoinPool}, one level after the other.  Vertices
+ * are identified by their topological index, the fan-in and fan-out of each vertex are stored as
+ * ranges of primitive arrays and the arrival and required times are kept in float arrays, so that
+ * the propagation does not touch the JGraphT structures.  The results are copied into the
+ * TimingVertex objects by {@link #writeBack()}.
+ */
+public class ParallelTimingPropagator {
+
+    // levels with fewer vertices are processed by the calling thread
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final ForkJoinPool pool;
+    private final List<TimingVertex> vertices;
+    private final TimingEdge[] edges;
+    private final float[] delays;
+
+    // vertex ids in level order and the start of each level in it
+    private final int[] levelOrder;
+    private final int[] levelStart;
+
+    // fan-in of vertex v: edges faninEdges[faninStart[v]..faninStart[v+1]) from vertices faninSrc
+    private final int[] faninStart;
+    private final int[] faninSrc;
+    private final int[] faninEdges;
+    // fan-out of vertex v: edges fanoutEdges[fanoutStart[v]..fanoutStart[v+1]) to vertices fanoutDst
+    private final int[] fanoutStart;
+    private final int[] fanoutDst;
+    private final int[] fanoutEdges;
+
+    private final float[] arrivalTimes;
+    private final float[] requiredTimes;
+    private boolean requiredTimesSet;
+
+    /**
+     * Levelizes a timing graph.  The propagator has to be created again when edges or vertices are
+     * added to or removed from the graph, while changes of edge delays are read by each propagation.
+     * @param graph The timing graph.
+     * @param pool The pool of the threads used for propagation.
+     */
+    public ParallelTimingPropagator(TimingGraph graph, ForkJoinPool pool) {
+        this.pool = pool;
+        this.vertices = graph.getLevelizedOrder();
+        int numVertices = vertices.size();
+        this.edges = graph.edgeSet().toArray(new TimingEdge[0]);
+        this.delays = new float[edges.length];
+
+        this.faninStart = new int[numVertices + 1];
+        this.fanoutStart = new int[numVertices + 1];
+        for (TimingEdge e : edges) {
+            faninStart[e.getDst().getTopologicalIndex() + 1]++;
+            fanoutStart[e.getSrc().getTopologicalIndex() + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            faninStart[v + 1] += faninStart[v];
+            fanoutStart[v + 1] += fanoutStart[v];
+        }
+        this.faninSrc = new int[edges.length];
+        this.faninEdges = new int[edges.length];
+        this.fanoutDst = new int[edges.length];
+        this.fanoutEdges = new int[edges.length];
+        int[] faninNext = Arrays.copyOf(faninStart, numVertices);
+        int[] fanoutNext = Arrays.copyOf(fanoutStart, numVertices);
+        for (int i = 0; i < edges.length; i++) {
+            int src = edges[i].getSrc().getTopologicalIndex();
+            int dst = edges[i].getDst().getTopologicalIndex();
+            faninSrc[faninNext[dst]] = src;
+            faninEdges[faninNext[dst]++] = i;
+            fanoutDst[fanoutNext[src]] = dst;
+            fanoutEdges[fanoutNext[src]++] = i;
+        }
+
+        // the level of a vertex is one more than the highest level of its fan-in
+        int[] level = new int[numVertices];
+        int numLevels = 0;
+        for (int v = 0; v < numVertices; v++) {
+            for (int i = faninStart[v]; i < faninStart[v + 1]; i++) {
+                level[v] = Math.max(level[v], level[faninSrc[i]] + 1);
+            }
+            numLevels = Math.max(numLevels, level[v] + 1);
+        }
+        this.levelStart = new int[numLevels + 1];
+        for (int v = 0; v < numVertices; v++) {
+            levelStart[level[v] + 1]++;
+        }
+        for (int l = 0; l < numLevels; l++) {
+            levelStart[l + 1] += levelStart[l];
+        }
+        this.levelOrder = new int[numVertices];
+        int[] levelNext = Arrays.copyOf(levelStart, numLevels);
+        for (int v = 0; v < numVertices; v++) {
+            levelOrder[levelNext[level[v]]++] = v;
+        }
+
+        this.arrivalTimes = new float[numVertices];
+        this.requiredTimes = new float[numVertices];
+    }
+
+    public int getNumLevels() {
+        return levelStart.length - 1;
+    }
+
+    /**
+     * Propagates arrival times level by level from the vertices without fan-in, reading the current
+     * delays of the edges.
+     */
+    public void propagateArrivalTimes() {
+        parallelFor(0, edges.length, i -> delays[i] = edges[i].getDelay());
+        for (int l = 0; l < getNumLevels(); l++) {
+            parallelFor(levelStart[l], levelStart[l + 1], i -> {
+                int v = levelOrder[i];
+                float arrival = 0;
+                for (int j = faninStart[v]; j < faninStart[v + 1]; j++) {
+                    arrival = Math.max(arrival, arrivalTimes[faninSrc[j]] + delays[faninEdges[j]]);
+                }
+                arrivalTimes[v] = arrival;
+            });
+        }
+    }
+
+    /**
+     * Propagates required times level by level from the vertices without fan-out, which receive the
+     * requirement.  Uses the edge delays read by the last {@link #propagateArrivalTimes()}.
+     * @param requirement The required time in picoseconds at the timing endpoints.
+     */
+    public void propagateRequiredTimes(float requirement) {
+        for (int l = getNumLevels() - 1; l >= 0; l--) {
+            parallelFor(levelStart[l], levelStart[l + 1], i -> {
+                int v = levelOrder[i];
+                float required = requirement;
+                for (int j = fanoutStart[v]; j < fanoutStart[v + 1]; j++) {
+                    required = Math.min(required, requiredTimes[fanoutDst[j]] - delays[fanoutEdges[j]]);
+                }
+                requiredTimes[v] = required;
+            });
+        }
+        requiredTimesSet = true;
+    }
+
+    /**
+     * @return The id of the vertex with the max arrival time, or -1 if the graph is empty.
+     */
+    public int getMaxArrivalVertex() {
+        int maxV = -1;
+        for (int v = 0; v < arrivalTimes.length; v++) {
+            if (maxV == -1 || arrivalTimes[v] > arrivalTimes[maxV])
+                maxV = v;
+        }
+        return maxV;
+    }
+
+    public TimingVertex getVertex(int id) {
+        return vertices.get(id);
+    }
+
+    public float getArrivalTime(int id) {
+        return arrivalTimes[id];
+    }
+
+    public float getRequiredTime(int id) {
+        return requiredTimes[id];
+    }
+
+    /**
+     * Copies the propagated arrival times, and the required times if they were propagated, into the
+     * TimingVertex objects.  Unconnected vertices keep no required time.
+     */
+    public void writeBack() {
+        parallelFor(0, arrivalTimes.length, v -> {
+            TimingVertex vertex = vertices.get(v);
+            vertex.setArrivalTime(arrivalTimes[v]);
+            if (requiredTimesSet) {
+                vertex.resetRequiredTime();
+                if (faninStart[v] != faninStart[v + 1] || fanoutStart[v] != fanoutStart[v + 1])
+                    vertex.setMinRequiredTime(requiredTimes[v]);
+            }
+        });
+    }
+
+    private interface IndexTask {
+        void run(int i);
+    }
+
+    private void parallelFor(int from, int to, IndexTask task) {
+        if (to - from < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            for (int i = from; i < to; i++) {
+                task.run(i);
+            }
+        } else {
+            pool.invoke(new RangeAction(from, to, task));
+        }
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = -3528736422561379403L;
+        private final int from;
+        private final int to;
+        private final IndexTask task;
+
+        RangeAction(int from, int to, IndexTask task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    task.run(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, task), new RangeAction(mid, to, task));
+        }
+    }
+}
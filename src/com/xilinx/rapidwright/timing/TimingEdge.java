@@ -261,12 +261,15 @@ public class TimingEdge extends DefaultEdge {
     }
     
     public void setRouteDelay(float routeDelay){
+    	float previousDelay = this.delay;
     	this.netDelay = this.intraSiteDelay + routeDelay;
     	this.delay = logicDelay + this.netDelay;
 //    	System.out.println("RouteDelay = " + routeDelay + ", intra site delay = "  + this.intraSiteDelay + ", logic delay = " + logicDelay);
-    	if (timingGraph.containsEdge(this))
+    	if (timingGraph.containsEdge(this)) {
             timingGraph.setEdgeWeight(this, this.delay);
-    	else
+            if (previousDelay != this.delay)
+                timingGraph.markDelayChanged(this);
+    	} else
     		System.err.println("timing graph does not contain timing edge");
 //    	System.out.println(timingGraph.getEdgeWeight(this) == this.delay);
     }
@@ -277,10 +280,14 @@ public class TimingEdge extends DefaultEdge {
      * @param netDelay Net delay in picoseconds.
      */
     public void setNetDelay(float netDelay) {
+        float previousDelay = this.delay;
         this.netDelay = netDelay;
         this.delay = logicDelay + netDelay;
-        if (timingGraph.containsEdge(this))
+        if (timingGraph.containsEdge(this)) {
             timingGraph.setEdgeWeight(this, this.delay);
+            if (previousDelay != this.delay)
+                timingGraph.markDelayChanged(this);
+        }
     }
 
     /**
@@ -288,10 +295,14 @@ public class TimingEdge extends DefaultEdge {
      * @param logicDelay Logic delay in picoseconds.
      */
     public void setLogicDelay(float logicDelay) {
+        float previousDelay = this.delay;
         this.logicDelay = logicDelay;
         this.delay = logicDelay+netDelay;
-        if (timingGraph.containsEdge(this))
+        if (timingGraph.containsEdge(this)) {
             timingGraph.setEdgeWeight(this, this.delay);
+            if (previousDelay != this.delay)
+                timingGraph.markDelayChanged(this);
+        }
     }
 
     /**
@@ -35,6 +35,7 @@ import com.xilinx.rapidwright.edif.EDIFHierPortInst;
 import com.xilinx.rapidwright.edif.EDIFNet;
 import com.xilinx.rapidwright.edif.EDIFPortInst;
 import com.xilinx.rapidwright.routernew.RoutableNodeGroupRouter;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
 import com.xilinx.rapidwright.util.Pair;
 
 import org.jgrapht.GraphPath;
@@ -52,6 +53,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.LinkedList;
 import java.util.List;
@@ -60,6 +62,12 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -93,6 +101,31 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     Map<Pair<SitePinInst, SitePinInst>, List<TimingEdge>> spiPairsAndTimingEdges = new HashMap<>();
 //    Map<TimingVertex, SitePinInst> timingVertexSitePinInsts = new HashMap<>();
     //========================= for router =================================================
+    
+    //========================= for incremental timing analysis ============================
+    // vertices in topological order, kept until an edge or a vertex is added or removed
+    private List<TimingVertex> levelizedOrder;
+    private boolean incrementalTiming = false;
+    // false until arrival times and downstream delays of all vertices have been propagated once
+    private boolean incrementalTimingValid = false;
+    // edges whose delays have changed since the last incremental update
+    private Set<TimingEdge> dirtyEdges = new HashSet<>();
+    // requirement that the required times of the vertices are currently based on
+    private float incrementalRequirement;
+    //========================= for incremental timing analysis ============================
+    
+    //========================= for parallel timing propagation ============================
+    private int propagationThreads = 1;
+    private ForkJoinPool propagationPool;
+    // levelized arrays of the graph, rebuilt after the structure of the graph changes
+    private ParallelTimingPropagator parallelPropagator;
+    //========================= for parallel timing propagation ============================
+    
+    // nets per task of the threads determining the net delays while building the graph
+    private static final int BUILD_NETS_PER_CHUNK = 256;
+    private int buildThreads = 1;
+    // receives the vertices and edges instead of this graph while buildCompact() is building
+    private CompactTimingGraph.Builder compactBuilder;
 
     static {
         
@@ -120,56 +153,151 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
      * Builds the TimingGraph based on analyzing nets within a {@link Design} object.
      */
     public void build() {
+        build(null);
+    }
+
+    /**
+     * Builds the TimingGraph based on analyzing nets within a {@link Design} object.  The net delays 
+     * are determined by {@link #getBuildThreads()} threads, each with its own TimingModel, while 
+     * the vertices and edges are added by the calling thread in the order of the nets, such that 
+     * the resulting graph does not depend on the number of threads.
+     * @param t Tracker receiving the runtime of each phase of the build, may be null.
+     */
+    public void build(CodePerfTracker t) {
         if (timingModel == null) {
             throw new RuntimeException("Error: The TimingModel is not properly set for the "
                     + "TimingGraph prior to building.");
         }
+        if (t != null) t.start("Logic delays");
         String seriesName = design.getDevice().getSeries().name().toLowerCase();
         intrasiteAndLogicDelayModel = DelayModelBuilder.getDelayModel(seriesName);
         HashMap<String, Net> netsByName = new LinkedHashMap<>();
         for (Net n : design.getNets()) {
             netsByName.put(n.getName(), n);
         }        
-        String[] netsArray = netsByName.keySet().toArray(new String[netsByName.size()]);
-        //Arrays.sort(netsArray);
-        for (Net n : design.getNets()) {
-            netsByName.put(n.getName(), n);
-        }
+        Net[] netsArray = netsByName.values().toArray(new Net[netsByName.size()]);
         hierCellInstMap = new LinkedHashMap<>();
         EDIFCellInst top = design.getNetlist().getTopCellInst();
         hierCellInstMap.put(top, top.getName());
         myCellMap = design.getNetlist().generateCellInstMap();
         determineLogicDelaysFromEDIFCellInsts();
+        if (t != null) t.stop().start("Hierarchy");
+        // every EDIFHierCellInst is created once per instantiation, so no duplicate check is needed
         set = new ArrayList<>();
         Queue<EDIFHierCellInst> q = new LinkedList<>();
         q.add(new EDIFHierCellInst("", top));
         while (!q.isEmpty()) {
             EDIFHierCellInst i = q.poll();
+            String fullName = "";
+            if (!i.isTopLevelInst()) {
+                fullName = i.getFullHierarchicalInstName();
+            }
             for (EDIFCellInst child : i.getInst().getCellType().getCellInsts()) {
-                String fullName = "";
-                if (!i.isTopLevelInst()) {
-                    fullName = i.getFullHierarchicalInstName();// + EDIFTools.EDIF_HIER_SEP + child.getName();
-                }
                 EDIFHierCellInst newCell = new EDIFHierCellInst(fullName, child);
-                if (newCell.getInst().getCellType().isPrimitive()) {
-                    set.add(newCell);
-                } else {
-                    if (!set.contains(newCell))
-                        set.add(newCell);
+                set.add(newCell);
+                if (!newCell.getInst().getCellType().isPrimitive()) {
                     q.add(newCell);
                 }
                 hierCellInstMap.put(child, fullName);
             }
         }
+        if (t != null) t.stop().start("Net delays");
+        NetDelayEdges[] netEdges = collectNetDelayEdges(netsArray);
+        if (t != null) t.stop().start("Graph edges");
         prevNet = "";
-        for (String netName : netsArray) {
-            this.netName = netName;
-            this.net = netsByName.get(netName);
+        for (int i = 0; i < netsArray.length; i++) {
+            this.net = netsArray[i];
+            this.netName = net.getName();
             this.edifNet = net.getLogicalNet();
             this.haveIntrasiteNet = (net.getSinkPins().size() == 0);
             this.spi_source = net.getSource();
-            addNetDelayEdges(net);
+            addNetDelayEdges(net, netEdges[i]);
+            netEdges[i] = null;
+        }
+        if (t != null) t.stop();
+    }
+
+    /**
+     * Builds a {@link CompactTimingGraph} based on analyzing nets within a {@link Design} object,
+     * the same way as {@link #build(CodePerfTracker)} but without adding any TimingVertex or
+     * TimingEdge to this graph, which stays empty.  The vertices and edges go straight into the
+     * arrays of a {@link CompactTimingGraph.Builder}, so the heap of the JGraphT-based graph is
+     * never taken.
+     * @param t Tracker receiving the runtime of each phase of the build, may be null.
+     * @return The compact graph, without arrival times computed.
+     */
+    public CompactTimingGraph buildCompact(CodePerfTracker t) {
+        int numNets = design.getNets().size();
+        // the builder grows as needed, most nets have a few pins and cells a few logic arcs
+        compactBuilder = new CompactTimingGraph.Builder(numNets * 4, numNets * 4);
+        try {
+            build(t);
+            if (t != null) t.start("Compact graph");
+            CompactTimingGraph graph = compactBuilder.build(design);
+            if (t != null) t.stop();
+            return graph;
+        } finally {
+            compactBuilder = null;
+        }
+    }
+
+    /**
+     * Determines the net delay edges of all nets, with multiple threads if enabled.
+     * @param nets The physical nets of the design.
+     * @return The edges of each net, at the index of the net.
+     */
+    private NetDelayEdges[] collectNetDelayEdges(Net[] nets) {
+        NetDelayEdges[] netEdges = new NetDelayEdges[nets.length];
+        int threads = Math.min(buildThreads, nets.length / BUILD_NETS_PER_CHUNK + 1);
+        if (threads <= 1) {
+            for (int i = 0; i < nets.length; i++) {
+                netEdges[i] = collectNetDelayEdges(nets[i], timingModel);
+            }
+            return netEdges;
+        }
+        // the map of physical pins is built lazily, build it before it is read concurrently
+        design.getNetlist().getPhysicalNetPinMap();
+        AtomicInteger nextChunk = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                // TimingModel.calcDelay() keeps the state of the current connection in fields
+                TimingModel model = timingModel.copyForThread();
+                int start;
+                while ((start = nextChunk.getAndAdd(BUILD_NETS_PER_CHUNK)) < nets.length) {
+                    int end = Math.min(start + BUILD_NETS_PER_CHUNK, nets.length);
+                    for (int i = start; i < end; i++) {
+                        netEdges[i] = collectNetDelayEdges(nets[i], model);
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            executor.shutdownNow();
+            throw new RuntimeException("ERROR: Determining the net delays of the TimingGraph failed.", e);
         }
+        return netEdges;
+    }
+
+    /**
+     * Sets the number of threads determining the net delays in {@link #build()}.
+     * @param threads The number of threads, 1 builds the TimingGraph with the calling thread only.
+     */
+    public void setBuildThreads(int threads) {
+        buildThreads = Math.max(1, threads);
+    }
+
+    /**
+     * @return The number of threads determining the net delays in {@link #build()}.
+     */
+    public int getBuildThreads() {
+        return buildThreads;
     }
 
     /**
@@ -182,17 +310,38 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     }
 
     /**
-     * Sets the same specified timing requirement on the TimingGraph on GraphPaths that have been 
-     * predetermined.
-     * @param requirement The required time in picoseconds at the sink of the path.
+     * Sets the same specified timing requirement at all timing endpoints of the TimingGraph, 
+     * propagating required times backward vertex by vertex without enumerating GraphPaths, and 
+     * recomputes the arrival times.
+     * @param requirement The required time in picoseconds at the sinks of the paths.
      */
     public void setTimingRequirement(float requirement) {
-        for (GraphPath<TimingVertex, TimingEdge> path : getGraphPaths()) {
-            setTimingRequirement(requirement, path);
-        }
+        computeRequiredTimes(requirement);
         computeArrivalTimes();
     }
     
+    /**
+     * Computes the required times of all vertices in reversed topological order.  Timing endpoints,
+     * i.e. vertices without fan-out, receive the requirement, and other vertices the minimum over
+     * their fan-out of the required time of the fan-out vertex minus the edge delay.
+     * @param requirement The required time in picoseconds at the timing endpoints.
+     */
+    public void computeRequiredTimes(float requirement) {
+        List<TimingVertex> order = getLevelizedOrder();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            TimingVertex v = order.get(i);
+            v.resetRequiredTime();
+            if (outDegreeOf(v) == 0) {
+                if (inDegreeOf(v) > 0)
+                    v.setMinRequiredTime(requirement);
+                continue;
+            }
+            for (TimingEdge e : outgoingEdgesOf(v)) {
+                v.setMinRequiredTime(e.getDst().getRequiredTime() - e.getDelay());
+            }
+        }
+    }
+    
     //==================================== methods added for timing-driven routing ===================================
     boolean routerDebugging = false;
     /**
@@ -201,9 +350,8 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
      * delays.
      */
     public void computeArrivalTimesTopologicalOrder() {
-    	TopologicalOrderIterator<TimingVertex, TimingEdge> orderIterator = new TopologicalOrderIterator<>(this);
-    	while(orderIterator.hasNext()){
-        	for (TimingEdge e : edgesOf(orderIterator.next())){
+    	for (TimingVertex v : getLevelizedOrder()){
+        	for (TimingEdge e : edgesOf(v)){
         		if (inDegreeOf(e.getSrc()) == 0) {
                     e.getSrc().setArrivalTime(0);
                 } 
@@ -215,9 +363,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 
  	//Topological order  
     public void setTimingRequirementOnly(float requirement) {
-        for (GraphPath<TimingVertex, TimingEdge> path : getGraphPaths()) {
-            setMinTimingRequirement(requirement, path);
-        }
+        computeRequiredTimes(requirement);
     }
     
     public void setMinTimingRequirement(float requirement, GraphPath<TimingVertex, TimingEdge> graphPath) {
@@ -277,17 +423,266 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     }
     
     public List<TimingVertex> getReversedOrder(){
-    	List<TimingVertex> reversedOrderedTimingVertices = new ArrayList<>();
-    	TopologicalOrderIterator<TimingVertex, TimingEdge> orderIterator = new TopologicalOrderIterator<>(this);
-    	while(orderIterator.hasNext()){
-    		TimingVertex v = orderIterator.next();
-    		reversedOrderedTimingVertices.add(v);
-    	}
-
+    	List<TimingVertex> reversedOrderedTimingVertices = new ArrayList<>(getLevelizedOrder());
     	Collections.reverse(reversedOrderedTimingVertices);
     	return reversedOrderedTimingVertices;
     }
     
+    /**
+     * Gets the vertices in topological order.  The order is computed once and reused until the 
+     * structure of the graph changes.
+     * @return The vertices of the graph in topological order.
+     */
+    public List<TimingVertex> getLevelizedOrder() {
+        if (levelizedOrder == null) {
+            levelizedOrder = new ArrayList<>(vertexSet().size());
+            TopologicalOrderIterator<TimingVertex, TimingEdge> orderIterator = new TopologicalOrderIterator<>(this);
+            while (orderIterator.hasNext()) {
+                TimingVertex v = orderIterator.next();
+                v.setTopologicalIndex(levelizedOrder.size());
+                levelizedOrder.add(v);
+            }
+        }
+        return levelizedOrder;
+    }
+    
+    private void invalidateLevelizedOrder() {
+        levelizedOrder = null;
+        incrementalTimingValid = false;
+        parallelPropagator = null;
+    }
+    
+    /**
+     * Sets the number of threads propagating arrival and required times in 
+     * {@link #updateTimingInParallel()}.
+     * @param propagationThreads The number of threads, 1 to propagate in the calling thread.
+     */
+    public void setPropagationThreads(int propagationThreads) {
+        this.propagationThreads = propagationThreads;
+        shutdown();
+    }
+    
+    /**
+     * Shuts down the threads started by {@link #updateTimingInParallel()}.  The graph stays usable, 
+     * a later parallel update starts new threads.
+     */
+    public void shutdown() {
+        if (propagationPool != null)
+            propagationPool.shutdown();
+        propagationPool = null;
+        parallelPropagator = null;
+    }
+    
+    public int getPropagationThreads() {
+        return propagationThreads;
+    }
+    
+    /**
+     * Propagates arrival times, the max arrival time as the requirement and required times through
+     * the whole graph level by level, processing the vertices of each level in parallel.
+     * @return The max delay and the vertex where it arrives.
+     */
+    public Pair<Float, TimingVertex> updateTimingInParallel() {
+        if (parallelPropagator == null) {
+            if (propagationPool == null)
+                propagationPool = new ForkJoinPool(propagationThreads);
+            parallelPropagator = new ParallelTimingPropagator(this, propagationPool);
+        }
+        parallelPropagator.propagateArrivalTimes();
+        int maxV = parallelPropagator.getMaxArrivalVertex();
+        if (maxV == -1)
+            return new Pair<>(0f, null);
+        float maxDelay = parallelPropagator.getArrivalTime(maxV);
+        parallelPropagator.propagateRequiredTimes(maxDelay);
+        parallelPropagator.writeBack();
+        return new Pair<>(maxDelay, parallelPropagator.getVertex(maxV));
+    }
+    
+    @Override
+    public boolean addVertex(TimingVertex v) {
+        invalidateLevelizedOrder();
+        return super.addVertex(v);
+    }
+    
+    @Override
+    public boolean removeVertex(TimingVertex v) {
+        invalidateLevelizedOrder();
+        return super.removeVertex(v);
+    }
+    
+    @Override
+    public TimingEdge addEdge(TimingVertex vs, TimingVertex vd) {
+        invalidateLevelizedOrder();
+        return super.addEdge(vs, vd);
+    }
+    
+    @Override
+    public boolean addEdge(TimingVertex vs, TimingVertex vd, TimingEdge e) {
+        invalidateLevelizedOrder();
+        return super.addEdge(vs, vd, e);
+    }
+    
+    @Override
+    public boolean removeEdge(TimingEdge e) {
+        invalidateLevelizedOrder();
+        return super.removeEdge(e);
+    }
+    
+    @Override
+    public TimingEdge removeEdge(TimingVertex vs, TimingVertex vd) {
+        invalidateLevelizedOrder();
+        return super.removeEdge(vs, vd);
+    }
+    
+    /**
+     * Enables or disables the incremental timing analysis of {@link #updateTimingIncrementally()}.
+     * @param incrementalTiming true to record the edges whose delays change, so that only their 
+     * fan-out and fan-in cones are updated.
+     */
+    public void setIncrementalTiming(boolean incrementalTiming) {
+        this.incrementalTiming = incrementalTiming;
+        this.incrementalTimingValid = false;
+        this.dirtyEdges.clear();
+    }
+    
+    public boolean isIncrementalTiming() {
+        return incrementalTiming;
+    }
+    
+    /**
+     * Records an edge whose delay has changed since the last incremental update.  Called by the 
+     * delay setters of {@link TimingEdge}.
+     * @param e The edge whose delay has changed.
+     */
+    void markDelayChanged(TimingEdge e) {
+        if (incrementalTiming && incrementalTimingValid) {
+            dirtyEdges.add(e);
+        }
+    }
+    
+    /**
+     * Updates arrival times, required times and slacks after edge delays changed, using the max 
+     * arrival time as the requirement, as {@link TimingManager#calculateArrivalRequireAndSlack()} 
+     * does with full recomputes.  The first call, and the first call after the structure of the 
+     * graph changed, propagates through all vertices in levelized order.  Later calls only 
+     * propagate arrival times through the fan-out cones and downstream delays through the fan-in 
+     * cones of the edges whose delays have changed.  Required times of all vertices are only 
+     * rewritten when the requirement itself changes.
+     * @return The max delay and the vertex where it arrives.
+     */
+    public Pair<Float, TimingVertex> updateTimingIncrementally() {
+        List<TimingVertex> order = getLevelizedOrder();
+        Set<TimingVertex> changedDownstream;
+        if (!incrementalTimingValid) {
+            for (TimingVertex v : order) {
+                updateArrivalTime(v);
+            }
+            for (int i = order.size() - 1; i >= 0; i--) {
+                updateDownstreamDelay(order.get(i));
+            }
+            changedDownstream = null;
+            incrementalTimingValid = true;
+        } else {
+            changedDownstream = propagateDirtyEdges();
+        }
+        dirtyEdges.clear();
+        
+        Pair<Float, TimingVertex> maxs = getMaxDelay();
+        float requirement = maxs.getFirst();
+        if (changedDownstream == null || requirement != incrementalRequirement) {
+            incrementalRequirement = requirement;
+            for (TimingVertex v : order) {
+                updateRequiredTime(v);
+            }
+        } else {
+            for (TimingVertex v : changedDownstream) {
+                updateRequiredTime(v);
+            }
+        }
+        return maxs;
+    }
+    
+    /**
+     * Propagates the changed delays of the dirty edges, arrival times forward in topological order 
+     * and downstream delays backward in reversed topological order.  Propagation stops at vertices 
+     * whose values do not change.
+     * @return The vertices whose downstream delays have changed.
+     */
+    private Set<TimingVertex> propagateDirtyEdges() {
+        PriorityQueue<TimingVertex> forward = new PriorityQueue<>(
+                (v1, v2) -> Integer.compare(v1.getTopologicalIndex(), v2.getTopologicalIndex()));
+        PriorityQueue<TimingVertex> backward = new PriorityQueue<>(
+                (v1, v2) -> Integer.compare(v2.getTopologicalIndex(), v1.getTopologicalIndex()));
+        Set<TimingVertex> queued = new HashSet<>();
+        for (TimingEdge e : dirtyEdges) {
+            if (queued.add(e.getDst()))
+                forward.add(e.getDst());
+        }
+        while (!forward.isEmpty()) {
+            TimingVertex v = forward.poll();
+            if (updateArrivalTime(v)) {
+                for (TimingEdge e : outgoingEdgesOf(v)) {
+                    if (queued.add(e.getDst()))
+                        forward.add(e.getDst());
+                }
+            }
+        }
+        
+        queued.clear();
+        for (TimingEdge e : dirtyEdges) {
+            if (queued.add(e.getSrc()))
+                backward.add(e.getSrc());
+        }
+        Set<TimingVertex> changedDownstream = new HashSet<>();
+        while (!backward.isEmpty()) {
+            TimingVertex v = backward.poll();
+            if (updateDownstreamDelay(v)) {
+                changedDownstream.add(v);
+                for (TimingEdge e : incomingEdgesOf(v)) {
+                    if (queued.add(e.getSrc()))
+                        backward.add(e.getSrc());
+                }
+            }
+        }
+        return changedDownstream;
+    }
+    
+    /**
+     * Recomputes the arrival time of a vertex from the arrival times of its fan-in.
+     * @return true if the arrival time has changed.
+     */
+    private boolean updateArrivalTime(TimingVertex v) {
+        float arrival = 0;
+        for (TimingEdge e : incomingEdgesOf(v)) {
+            arrival = Math.max(arrival, e.getSrc().getArrivalTime() + e.getDelay());
+        }
+        boolean changed = arrival != v.getArrivalTime();
+        v.setArrivalTime(arrival);
+        return changed;
+    }
+    
+    /**
+     * Recomputes the longest delay from a vertex to the timing endpoints of its fan-out.
+     * @return true if the downstream delay has changed.
+     */
+    private boolean updateDownstreamDelay(TimingVertex v) {
+        float downstream = 0;
+        for (TimingEdge e : outgoingEdgesOf(v)) {
+            downstream = Math.max(downstream, e.getDelay() + e.getDst().getDownstreamDelay());
+        }
+        boolean changed = downstream != v.getDownstreamDelay();
+        v.setDownstreamDelay(downstream);
+        return changed;
+    }
+    
+    private void updateRequiredTime(TimingVertex v) {
+        // unconnected vertices keep no required time, as with the full recompute
+        if (inDegreeOf(v) == 0 && outDegreeOf(v) == 0)
+            return;
+        v.resetRequiredTime();
+        v.setMinRequiredTime(incrementalRequirement - v.getDownstreamDelay());
+    }
+    
     public List<TimingEdge> getCriticalTimingEdgesInOrder(TimingVertex maxV){
     	List<TimingEdge> criticalTimingEdges = new ArrayList<>();
     	TimingVertex timingVertex = maxV;
@@ -480,7 +875,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             }
             result = true;
         }
-        if (result)
+        if (result && graphPathHashSet != null)
             graphPathHashSet.remove(path);
         return result;
     }
@@ -563,22 +958,71 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 */
     
     /**
-     * Finds and returns the path from the TimingGraph having maximum delay.
-     * @return The GraphPath that is the critical path found in the TimingGraph, which might be null
-     * if the GraphPaths haven't been pre-computed by calling {@link #buildGraphPaths()}.
+     * Finds and returns the path from the TimingGraph having maximum delay, traced back from the 
+     * arrival times without enumerating GraphPaths.
+     * @return The GraphPath that is the critical path found in the TimingGraph, which is null if 
+     * the graph has no edges.
      */
     public GraphPath<TimingVertex, TimingEdge> getMaxDelayPath() {
-        GraphPath<TimingVertex, TimingEdge> result = null;
-        float maxWeight = 0;
-        for (GraphPath<TimingVertex, TimingEdge> p : graphPathHashSet) {
-            float w = (float)p.getWeight();
-            if (Math.abs(w) > maxWeight) {
-                result = p;
-                maxWeight = Math.abs(w);
+        List<GraphPath<TimingVertex, TimingEdge>> paths = getCriticalPaths(1);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+    
+    /**
+     * Extracts the k paths with the largest delays, in order of decreasing delay, for reporting.  
+     * Paths are grown backward from the timing endpoints in best-first order, using the arrival 
+     * time at the head of a partial path as the exact delay of its best completion, so only the 
+     * partial paths that can be among the k most critical ones are expanded.
+     * @param k The number of paths to extract.
+     * @return Up to k GraphPaths from a vertex without fan-in to a vertex without fan-out.
+     */
+    public List<GraphPath<TimingVertex, TimingEdge>> getCriticalPaths(int k) {
+        computeArrivalTimes();
+        List<GraphPath<TimingVertex, TimingEdge>> result = new ArrayList<>();
+        PriorityQueue<PathSuffix> queue = new PriorityQueue<>((p1, p2) -> Float.compare(p2.bound, p1.bound));
+        for (TimingVertex v : vertexSet()) {
+            if (outDegreeOf(v) == 0 && inDegreeOf(v) > 0)
+                queue.add(new PathSuffix(v, null, null, 0));
+        }
+        while (!queue.isEmpty() && result.size() < k) {
+            PathSuffix suffix = queue.poll();
+            if (inDegreeOf(suffix.head) == 0) {
+                List<TimingEdge> edges = new ArrayList<>();
+                for (PathSuffix p = suffix; p.edge != null; p = p.next) {
+                    edges.add(p.edge);
+                }
+                TimingVertex end = edges.get(edges.size() - 1).getDst();
+                result.add(new GraphWalk<>(this, suffix.head, end, edges, suffix.delay));
+                continue;
+            }
+            for (TimingEdge e : incomingEdgesOf(suffix.head)) {
+                queue.add(new PathSuffix(e.getSrc(), e, suffix, suffix.delay + e.getDelay()));
             }
         }
         return result;
     }
+    
+    /**
+     * A partial path grown backward from a timing endpoint, sharing its tail with the partial path
+     * it was grown from.
+     */
+    private static class PathSuffix {
+        final TimingVertex head;
+        final TimingEdge edge;
+        final PathSuffix next;
+        // delay from the head to the endpoint
+        final float delay;
+        // delay of the most critical complete path ending with this suffix
+        final float bound;
+        
+        PathSuffix(TimingVertex head, TimingEdge edge, PathSuffix next, float delay) {
+            this.head = head;
+            this.edge = edge;
+            this.next = next;
+            this.delay = delay;
+            this.bound = head.getArrivalTime() + delay;
+        }
+    }
 
     /**
      * This creates a GraphViz library dot file representation of the TimingGraph.  Might be useful 
@@ -749,18 +1193,12 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 
     /**
      * Computes/recomputes the arrival times stored at the vertices of the graph based on the edge 
-     * delays.
+     * delays.  Arrival times are propagated vertex by vertex in topological order, so the runtime 
+     * is linear in the size of the graph rather than in the number of paths.
      */
     public void computeArrivalTimes() {
-        for (GraphPath<TimingVertex, TimingEdge> p : graphPathHashSet) {
-            float arrival = 0;
-            for (TimingEdge e : (List<TimingEdge>) p.getEdgeList()) {
-                arrival += e.getDelay();
-                e.getDst().setMaxArrivalTime(arrival);//TODO should have a check on arrival time to set the max one
-                if (inDegreeOf(e.getSrc())==0) {
-                    e.getSrc().setMaxArrivalTime(0);
-                }
-            }
+        for (TimingVertex v : getLevelizedOrder()) {
+            updateArrivalTime(v);
         }
     }
     
@@ -898,6 +1336,42 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         return unisimFlipFlopTypes.contains(cellType);
     }
 
+    /**
+     * Adds a TimingEdge representing the logic delay from an input pin to an output pin of a cell,
+     * replacing an existing edge between the two pins.  While {@link #buildCompact(CodePerfTracker)}
+     * is building, the edge is added to the CompactTimingGraph.Builder instead.
+     * @param s1 Name of the input pin.
+     * @param s2 Name of the output pin.
+     * @param logicDelay The logic delay in picoseconds.
+     */
+    private void addLogicDelayEdge(String s1, String s2, float logicDelay) {
+        if (compactBuilder != null) {
+            compactBuilder.putEdge(getCompactVertex(s1), getCompactVertex(s2), logicDelay, 0f, null);
+            return;
+        }
+        TimingVertex v1 = newTimingVertex(s1);
+        TimingVertex v2 = newTimingVertex(s2);
+        TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
+        safeAddEdge(e.getSrc(), e.getDst(), e);
+        e.setLogicDelay(logicDelay);
+        setEdgeWeight(e, e.getDelay());
+        if (debug) {
+            System.out.println("Adding v1:" + s1 + " and v2:" + s2 + 
+                               " with edge:" + e + " to SG2");
+        }
+    }
+
+    /**
+     * Gets the vertex of the CompactTimingGraph.Builder for a name, named as by 
+     * {@link #newTimingVertex(String)}.
+     */
+    private int getCompactVertex(String s) {
+        int v = compactBuilder.getVertexId(s);
+        if (v == -1)
+            v = compactBuilder.getOrAddVertex(s.startsWith("/") ? s.substring(1) : s);
+        return v;
+    }
+
     /**
      * Steps through the Physical "Cells" within the design and effectively adds TimingEdges to the 
      * TimingGraph representing logic delays from input pins to corresponding output pins.
@@ -1127,16 +1601,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                 //break;
                             }
 
-                            TimingVertex v1 = newTimingVertex(s1);
-                            TimingVertex v2 = newTimingVertex(s2);
-                            TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                            safeAddEdge(e.getSrc(), e.getDst(), e);
-                            e.setLogicDelay(logicDelay);
-                            setEdgeWeight(e, e.getDelay());
-                            if (debug) {
-                                System.out.println("Adding v1:" + s1 + " and v2:" + s2 + 
-                                                   " with edge:" + e + " to SG2");
-                            }
+                            addLogicDelayEdge(s1, s2, logicDelay);
 
                         }
                     }
@@ -1206,57 +1671,22 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                 if (ep1ContainsRange) {
                                     for (int j = 0; j < 8; j++) {
                                         for (int i = 0; i < 8; i++) {
-                                            TimingVertex v1 = newTimingVertex(k + "/" + ep1FirstLetter + j);
-                                            TimingVertex v2 = newTimingVertex(k + "/" + s2 + i);
-                                            TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                                            safeAddEdge(e.getSrc(), e.getDst(), e);
-                                            e.setLogicDelay(logicDelay);
-                                            setEdgeWeight(e, e.getDelay());
-                                            if (debug)
-                                                System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
+                                            addLogicDelayEdge(k + "/" + ep1FirstLetter + j, k + "/" + s2 + i, logicDelay);
 
                                         }
-                                        TimingVertex v1 = newTimingVertex(k + "/" + ep1FirstLetter + j);
-                                        TimingVertex v2 = newTimingVertex(k + "/" + "OUT1");
-                                        TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                                        safeAddEdge(e.getSrc(), e.getDst(), e);
-                                        e.setLogicDelay(logicDelay);
-                                        setEdgeWeight(e, e.getDelay());
-                                        if (debug)
-                                            System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
+                                        addLogicDelayEdge(k + "/" + ep1FirstLetter + j, k + "/" + "OUT1", logicDelay);
 
                                     }
                                 } else {
                                     for (int i = 0; i < 8; i++) {
-                                        TimingVertex v1 = newTimingVertex(s1);
-                                        TimingVertex v2 = newTimingVertex(s2 + i);
-                                        TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                                        safeAddEdge(e.getSrc(), e.getDst(), e);
-                                        e.setLogicDelay(logicDelay);
-                                        setEdgeWeight(e, e.getDelay());
-                                        if (debug)
-                                            System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
+                                        addLogicDelayEdge(s1, s2 + i, logicDelay);
 
                                     }
-                                    TimingVertex v1 = newTimingVertex(s1);
-                                    TimingVertex v2 = newTimingVertex(k + "/" + "OUT1");
-                                    TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                                    safeAddEdge(e.getSrc(), e.getDst(), e);
-                                    e.setLogicDelay(logicDelay);
-                                    setEdgeWeight(e, e.getDelay());
-                                    if (debug)
-                                        System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
+                                    addLogicDelayEdge(s1, k + "/" + "OUT1", logicDelay);
                                 }
 
                             } else {
-                                TimingVertex v1 = newTimingVertex(s1);
-                                TimingVertex v2 = newTimingVertex(s2);
-                                TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
-                                safeAddEdge(e.getSrc(), e.getDst(), e);
-                                e.setLogicDelay(logicDelay);
-                                setEdgeWeight(e, e.getDelay());
-                                if (debug)
-                                    System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
+                                addLogicDelayEdge(s1, s2, logicDelay);
                             }
                         }
                     }
@@ -1266,19 +1696,38 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     }
 
 
-    private Cell srcCell;
-    private Cell dstCell;
-    private BELPin source;
-    private BELPin sink;
-    private SitePinInst spi_sink;
-    private SitePinInst local_spi_source;
-    private List<SitePinInst> spi_sources;
-    private List<SitePinInst> spi_sinks;
-    private SiteInst si;
+    /**
+     * The TimingEdge of a net delay between a source and a sink pin of a net, as determined by 
+     * {@link #collectNetDelayEdges(Net, TimingModel)} before it is added to the TimingGraph.
+     */
+    private static class NetDelayEdge {
+        String src;
+        String dst;
+        boolean srcFlop;
+        boolean dstFlop;
+        // false if no delay could be determined, only the vertices are added then
+        boolean addEdge;
+        boolean forceUpdate;
+        float netDelay;
+        float logicDelay;
+        float intraSiteDelay;
+        SitePinInst firstSitePinInst;
+        SitePinInst secondSitePinInst;
+    }
+
+    /**
+     * The net delay edges of one physical net and the result to be returned by 
+     * {@link #addNetDelayEdges(Net)}.
+     */
+    private static class NetDelayEdges {
+        final int result;
+        final List<NetDelayEdge> edges;
 
-    //================== extracting intra site delay for timing edges for router =============
-    private float intraSiteDelay = 0.0f;
-    //================== extracting intra site delay for timing edges for router =============
+        NetDelayEdges(int result, List<NetDelayEdge> edges) {
+            this.result = result;
+            this.edges = edges;
+        }
+    }
 
     /**
      * This method is called per physical "Net" object for adding TimingEdges into the TimingGraph 
@@ -1286,23 +1735,35 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
      * @param n Physical "Net" to be analyzed.
      * @return Returns -1 or 0 on failure.  Returns 1 on success.
      */
-    int addNetDelayEdges(Net n) {   	
-        float logicDelay;
-        spi_sinks = new ArrayList<>();
-        local_spi_source = null;
-        spi_sources = new ArrayList<>();
+    int addNetDelayEdges(Net n) {
+        return addNetDelayEdges(n, collectNetDelayEdges(n, timingModel));
+    }
 
+    /**
+     * Determines the net delay edges of a physical net without modifying the TimingGraph, so that
+     * multiple nets can be analyzed concurrently as long as each thread uses its own TimingModel.
+     * @param n Physical "Net" to be analyzed.
+     * @param model The TimingModel calculating the net delays, which is not thread-safe.
+     * @return The edges of the net and the result for {@link #addNetDelayEdges(Net)}.
+     */
+    private NetDelayEdges collectNetDelayEdges(Net n, TimingModel model) {
+        float logicDelay;
+        List<SitePinInst> spi_sources = new ArrayList<>();
+        SitePinInst local_spi_source = null;
+        BELPin source = null;
+        SiteInst si = null;
+        boolean haveIntrasiteNet = (n.getSinkPins().size() == 0);
 
         String netName = n.getName();
 
         if (netName.startsWith("GLOBAL_LOGIC") || netName.startsWith("GLOBAL_USED")) {
-            return -1;
+            return new NetDelayEdges(-1, Collections.emptyList());
         }
         List<EDIFHierPortInst> hports = null;
         hports = design.getNetlist().getPhysicalPins(netName);
 
         if (hports == null) {
-            return 0;
+            return new NetDelayEdges(0, Collections.emptyList());
         }
 
         HashMap<String, SitePinInst> stringSources = new HashMap<>();
@@ -1344,9 +1805,6 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             } else {
                 physPinName = cell.getPhysicalPinMapping(portName);
                 spi5 = cell.getSitePinFromLogicalPin(hport.getPortInst().getName(), null);
-                if(hport.isInput() && n.getName().equals("bd_0_i/hls_inst/inst/grp_fp_conv_fu_507/tmp_23_fu_2015_p3[7]")) {
-                	System.out.println("exampleNet " + physPinName + " " + spi5);
-                }
             }
 
             si = cell.getSiteInst();
@@ -1356,17 +1814,13 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             if (bel != null  && physPinName != null)
                 belpin = bel.getPin(physPinName.replace("[", "").replace("]", ""));
 
-            if(hport.isInput() && n.getName().equals("bd_0_i/hls_inst/inst/grp_fp_conv_fu_507/tmp_23_fu_2015_p3[7]")) {
-            	System.out.println("exampleNet " + physPinName + " " + spi5 + " " + belpin);
-            }
-            
             SitePinInst mypin = spi5;
             if (mypin == null) {
                 if (hport.isOutput()) {
                     stringSources.put(fullName, null);
                     testSourceCell = cell;
                     if (isUnisimFlipFlopType(cell.getType())) {
-                        logicDelay = timingModel.LOGIC_FF_DELAY;
+                        logicDelay = model.LOGIC_FF_DELAY;
                     }
                     source = cell.getBEL().getPin(physPinName);
                 } else {
@@ -1383,12 +1837,9 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 testSourceCell = cell;
                 source = cell.getBEL().getPin(physPinName);
                 if (isUnisimFlipFlopType(cell.getType())) {
-                    logicDelay = timingModel.LOGIC_FF_DELAY;
+                    logicDelay = model.LOGIC_FF_DELAY;
                 }
             } else {
-                mypin = spi5;
-                if (mypin != null)
-                    spi_sinks.add(mypin);
                 testDestCells.put(fullName, cell);
                 stringSinks.put(fullName, mypin);
                 sink_belpins.put(fullName, belpin);
@@ -1397,54 +1848,31 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         if (stringSinks.size() == 0 || stringSources.size() == 0) {
             int nPins = n.getPins().size();
             if (hports.size() != nPins) {
-                return 0;
+                return new NetDelayEdges(0, Collections.emptyList());
             } else
-                return -1;
+                return new NetDelayEdges(-1, Collections.emptyList());
         }
         String S = stringSources.keySet().iterator().next();
         
-        local_spi_source = spi_sources.size() > 0? spi_sources.get(0) : net.getSource() != null ? net.getSource() : local_spi_source;
+        local_spi_source = spi_sources.size() > 0? spi_sources.get(0) : n.getSource();
+        List<NetDelayEdge> edges = new ArrayList<>(stringSinks.size());
         for (String D : stringSinks.keySet()) {
-            spi_sink = stringSinks.get(D);
-            srcCell = testSourceCell;
-            dstCell = testDestCells.get(D);
-            sink = sink_belpins.get(D);
-            TimingVertex vS = safeVertexCheck.get(S);
-            if (vS == null)
-                vS = new TimingVertex(S);
-
-            if(n.getName().equals("bd_0_i/hls_inst/inst/grp_fp_conv_fu_507/tmp_23_fu_2015_p3[7]")) {
-            	for(SitePinInst sinkspi : n.getSinkPins()) {
-            		System.out.println(sinkspi.getName() + " " + sinkspi.getBELPin());
-            	}
-            	System.out.println("spi source size = " + spi_sources.size());
-            	System.out.println(spi_sources.get(0));
-            	System.out.println(stringSinks + " " + D + " " + sink);
-            }
-
+            SitePinInst spi_sink = stringSinks.get(D);
+            Cell srcCell = testSourceCell;
+            Cell dstCell = testDestCells.get(D);
+            BELPin sink = sink_belpins.get(D);
+
+            NetDelayEdge edge = new NetDelayEdge();
+            edges.add(edge);
+            edge.src = S;
+            edge.dst = D;
             String vs_type = (srcCell != null) ? srcCell.getType() : null;
-            if (vs_type != null && isUnisimFlipFlopType(vs_type)) {
-                vS.setFlopOutput();
-            }
-
-            TimingVertex vD = safeVertexCheck.get(D);
-            if (vD == null)
-                vD = new TimingVertex(D);
-
+            edge.srcFlop = vs_type != null && isUnisimFlipFlopType(vs_type);
             String vd_type = (dstCell != null) ? dstCell.getType() : null;
-            if (vd_type != null && isUnisimFlipFlopType(vd_type)) {
-                //String destClk = "";
-                vD.setFlopInput();
-            }
-            vS = safeAddVertex(vS);
-            vD = safeAddVertex(vD);
-            TimingEdge e;
-            e = getEdge(vS, vD);
-            if (e == null)
-                e = new TimingEdge(this, vS, vD, edifNet, net);
+            edge.dstFlop = vd_type != null && isUnisimFlipFlopType(vd_type);
 
-            boolean forceUpdateEdge = false;
             float netDelay = 0f;
+            float intraSiteDelay;
 
             if (haveIntrasiteNet) {
                 String param2 = srcCell.getBELName()+"/"+ source.getName();
@@ -1465,10 +1893,9 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                     continue;
                 }
                 
-                this.intraSiteDelay = Math.max(0f, tmpNetDelay);//YZ - for intrasite net, intrasite delay is equal to net delay
+                intraSiteDelay = Math.max(0f, tmpNetDelay);//YZ - for intrasite net, intrasite delay is equal to net delay
                 
                 netDelay = Math.max(0f, tmpNetDelay);
-                forceUpdateEdge = true;
             } else {
                 if (srcCell == null)
                     continue;
@@ -1484,33 +1911,85 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                 param3);
                         netDelay = tmpNetDelay;
                         
-                        this.intraSiteDelay = tmpNetDelay;// Yun - for timing-driven router
-                        
-                        forceUpdateEdge = true;
+                        intraSiteDelay = tmpNetDelay;// Yun - for timing-driven router
                     }
                     else {
-                        netDelay = timingModel.calcDelay(local_spi_source, spi_sink, source, sink, 
-                                local_spi_source.getSite(), null, net);
+                        netDelay = model.calcDelay(local_spi_source, spi_sink, source, sink, 
+                                local_spi_source.getSite(), null, n);
                         
-                        this.intraSiteDelay = this.timingModel.getIntraSiteDelay();// Yun - for timing-driven router
-                        
-                        forceUpdateEdge = true;
+                        intraSiteDelay = model.getIntraSiteDelay();// Yun - for timing-driven router
                     }
                 }
                 else {
-                    netDelay = timingModel.calcDelay(local_spi_source, spi_sink, source, sink, 
-                            local_spi_source.getSite(), spi_sink.getSite(), net);
-                    
-                    this.intraSiteDelay = this.timingModel.getIntraSiteDelay();// Yun - for timing-driven router
+                    netDelay = model.calcDelay(local_spi_source, spi_sink, source, sink, 
+                            local_spi_source.getSite(), spi_sink.getSite(), n);
                     
-                    forceUpdateEdge = true;
+                    intraSiteDelay = model.getIntraSiteDelay();// Yun - for timing-driven router
                 }
             }
-            if (e.getNetDelay() != 0f || forceUpdateEdge) {
-                e.setNetDelay(netDelay);
-                e.setLogicDelay(logicDelay);
-                e.setIntraSiteDelay(this.intraSiteDelay);// Yun - for timing-driven router
+            edge.addEdge = true;
+            edge.forceUpdate = true;
+            edge.netDelay = netDelay;
+            edge.logicDelay = logicDelay;
+            edge.intraSiteDelay = intraSiteDelay;
+            edge.firstSitePinInst = local_spi_source;
+            edge.secondSitePinInst = spi_sink;
+        }
+        return new NetDelayEdges(1, edges);
+    }
+
+    /**
+     * Adds the vertices and edges determined by {@link #collectNetDelayEdges(Net, TimingModel)} 
+     * into the TimingGraph.
+     * @param n Physical "Net" the edges were determined for.
+     * @param netEdges The edges of the net.
+     * @return Returns -1 or 0 on failure.  Returns 1 on success.
+     */
+    private int addNetDelayEdges(Net n, NetDelayEdges netEdges) {
+        if (compactBuilder != null) {
+            for (NetDelayEdge edge : netEdges.edges) {
+                int vS = compactBuilder.getOrAddVertex(edge.src);
+                if (edge.srcFlop)
+                    compactBuilder.setFlopOutput(vS);
+                int vD = compactBuilder.getOrAddVertex(edge.dst);
+                if (edge.dstFlop)
+                    compactBuilder.setFlopInput(vD);
+                if (edge.addEdge)
+                    compactBuilder.putEdge(vS, vD, edge.logicDelay, edge.netDelay, n);
+            }
+            return netEdges.result;
+        }
+        EDIFNet edifNet = n.getLogicalNet();
+        for (NetDelayEdge edge : netEdges.edges) {
+            TimingVertex vS = safeVertexCheck.get(edge.src);
+            if (vS == null)
+                vS = new TimingVertex(edge.src);
+            if (edge.srcFlop) {
+                vS.setFlopOutput();
+            }
+
+            TimingVertex vD = safeVertexCheck.get(edge.dst);
+            if (vD == null)
+                vD = new TimingVertex(edge.dst);
+            if (edge.dstFlop) {
+                vD.setFlopInput();
+            }
+            vS = safeAddVertex(vS);
+            vD = safeAddVertex(vD);
+            if (!edge.addEdge)
+                continue;
+            TimingEdge e;
+            e = getEdge(vS, vD);
+            if (e == null)
+                e = new TimingEdge(this, vS, vD, edifNet, n);
+
+            if (e.getNetDelay() != 0f || edge.forceUpdate) {
+                e.setNetDelay(edge.netDelay);
+                e.setLogicDelay(edge.logicDelay);
+                e.setIntraSiteDelay(edge.intraSiteDelay);// Yun - for timing-driven router
             }
+            SitePinInst local_spi_source = edge.firstSitePinInst;
+            SitePinInst spi_sink = edge.secondSitePinInst;
             e.setFirstSitePinInst(local_spi_source);
             e.setSecondSitePinInst(spi_sink);
             safeAddEdge(vS, vD, e);
@@ -1533,7 +2012,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             }
             //====================================== for the router ========================================================
         }
-        return 1;
+        return netEdges.result;
     }
     
     public DelayModel getintraSiteAndLogicDelayModel(){
@@ -20,7 +20,6 @@
 
 package com.xilinx.rapidwright.timing;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +32,7 @@ import com.xilinx.rapidwright.device.Node;
 import com.xilinx.rapidwright.routernew.Connection;
 import com.xilinx.rapidwright.routernew.Netplus;
 import com.xilinx.rapidwright.routernew.RoutableNodeGroupRouter;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
 import com.xilinx.rapidwright.util.Pair;
 
 
@@ -44,6 +44,7 @@ public class TimingManager {
 
     private TimingModel timingModel;
     private TimingGraph timingGraph;
+    private CompactTimingGraph compactTimingGraph;
     private Design design;
     private Device device;
 
@@ -76,10 +77,29 @@ public class TimingManager {
         if (doBuild)
             build();
     }
+
+    /**
+     * Alternate constructor for building the TimingModel and a {@link CompactTimingGraph} instead of
+     * the JGraphT-based TimingGraph, for timing analysis of large designs, see {@link #buildCompact()}.
+     * @param design RapidWright Design object.
+     * @param doBuild Whether to go ahead and build the model now.
+     * @param compact Whether to build a CompactTimingGraph instead of the TimingGraph.  The methods 
+     * working on the TimingGraph throw an IllegalStateException afterwards.
+     */
+    public TimingManager(Design design, boolean doBuild, boolean compact) {
+        this(design, false);
+        if (doBuild) {
+            if (compact)
+                buildCompact();
+            else
+                build();
+        }
+    }
     
     //----------------------- methods added for timing-driven routing -------------------------------
     
     public Map<Pair<SitePinInst, SitePinInst>, List<TimingEdge>> getSpiAndTimingEdgesMap(){
+    	checkTimingGraph();
     	return this.timingGraph.spiPairsAndTimingEdges;
     }
     
@@ -97,6 +117,13 @@ public class TimingManager {
       
     //dealing with required time: set to the max delay, i.e. max arrival time
     public Pair<Float, TimingVertex> calculateArrivalRequireAndSlack(){
+    	checkTimingGraph();
+    	if(this.timingGraph.isIncrementalTiming()){
+    		return this.timingGraph.updateTimingIncrementally();
+    	}
+    	if(this.timingGraph.getPropagationThreads() > 1){
+    		return this.timingGraph.updateTimingInParallel();
+    	}
     	this.timingGraph.resetRequiredAndArrivalTime();
     	this.timingGraph.computeArrivalTimesTopologicalOrder();
     	Pair<Float, TimingVertex> maxs = this.timingGraph.getMaxDelay();
@@ -106,6 +133,7 @@ public class TimingManager {
     }
     
     public void getCriticalPathInfo(RoutableNodeGroupRouter router){
+    	checkTimingGraph();
     	TimingVertex maxV = router.maxDelayAndTimingVertex.getSecond();
     	float maxDelay = router.maxDelayAndTimingVertex.getFirst();
     	System.out.println("Max delay: " + maxDelay);
@@ -194,22 +222,121 @@ public class TimingManager {
      * @return Indication of successful completion.
      */
     public boolean build() {
+        return build(null);
+    }
+
+    /**
+     * Builds the TimingModel and TimingGraph, recording the runtime of each phase.
+     * @param t Tracker receiving the runtime of the phases of the build, may be null.
+     * @return Indication of successful completion.
+     */
+    public boolean build(CodePerfTracker t) {
+        checkTimingGraph();
+        if (t != null) t.start("Timing model");
         timingModel.build();
-        timingGraph.build();
-        return postBuild();
+        if (t != null) t.stop();
+        timingGraph.build(t);
+        if (t != null) t.start("Post build");
+        boolean result = postBuild();
+        if (t != null) t.stop();
+        return result;
     }
 
     private boolean postBuild() {
         timingGraph.removeClockCrossingPaths();
-        timingGraph.buildGraphPaths(0);//(BUILD_GRAPH_PATHS_DEFAULT_PARAM);//default, 0 to build all paths
-        timingGraph.computeArrivalTimes();//TopologicalOrder();//.computeArrivalTimes();
+        // arrival times are propagated per vertex, GraphPaths are only extracted on demand for reporting
+        timingGraph.computeArrivalTimes();
         timingGraph.computeSlacks();
         return true;
     }
 
+    /**
+     * Gets the most critical paths for reporting, from the CompactTimingGraph once the TimingGraph
+     * was released.
+     * @param k The number of paths.
+     * @return Up to k GraphPaths in order of decreasing delay.
+     */
+    public List<GraphPath<TimingVertex, TimingEdge>> getCriticalPaths(int k) {
+        if (timingGraph == null && compactTimingGraph != null) {
+            return compactTimingGraph.getCriticalPaths(k);
+        }
+        return timingGraph.getCriticalPaths(k);
+    }
+
+    /**
+     * Builds the TimingModel and a CompactTimingGraph, without ever creating the vertex and edge 
+     * objects of the TimingGraph, see {@link TimingGraph#buildCompact(CodePerfTracker)}.
+     * @return The compact timing graph, with arrival times computed.
+     */
+    public CompactTimingGraph buildCompact() {
+        return buildCompact(null);
+    }
+
+    /**
+     * Builds the TimingModel and a CompactTimingGraph, recording the runtime of each phase.  The 
+     * TimingGraph is released afterwards, as by {@link #compact()}.
+     * @param t Tracker receiving the runtime of the phases of the build, may be null.
+     * @return The compact timing graph, with arrival times computed.
+     */
+    public CompactTimingGraph buildCompact(CodePerfTracker t) {
+        checkTimingGraph();
+        if (t != null) t.start("Timing model");
+        timingModel.build();
+        if (t != null) t.stop();
+        compactTimingGraph = timingGraph.buildCompact(t);
+        if (t != null) t.start("Post build");
+        compactTimingGraph.computeArrivalTimes();
+        if (t != null) t.stop();
+        timingGraph.shutdown();
+        timingGraph = null;
+        return compactTimingGraph;
+    }
+
+    /**
+     * Converts an already built TimingGraph into a CompactTimingGraph and releases the TimingGraph,
+     * so that its vertex and edge objects can be garbage collected.  The peak heap of building the 
+     * TimingGraph is not reduced, use {@link #buildCompact()} instead of building the TimingGraph
+     * for that.  {@link #getTimingGraph()} returns null afterwards, and the methods of this class 
+     * working on the TimingGraph, such as {@link #calculateArrivalRequireAndSlack()}, throw an 
+     * IllegalStateException; use {@link #getCompactTimingGraph()} instead.
+     * @return The compact timing graph, with arrival times computed.
+     */
+    public CompactTimingGraph compact() {
+        checkTimingGraph();
+        compactTimingGraph = CompactTimingGraph.fromTimingGraph(timingGraph);
+        compactTimingGraph.computeArrivalTimes();
+        timingGraph.shutdown();
+        timingGraph = null;
+        return compactTimingGraph;
+    }
+
+    private void checkTimingGraph() {
+        if (timingGraph == null)
+            throw new IllegalStateException("ERROR: The TimingGraph was released by compact(), "
+                    + "use getCompactTimingGraph() instead.");
+    }
+
+    /**
+     * Shuts down the threads the TimingGraph started for parallel propagation.  To be called when
+     * the timing analysis is done, e.g. at the end of routing.
+     */
+    public void shutdown() {
+        if (timingGraph != null)
+            timingGraph.shutdown();
+    }
+
+    /**
+     * Gets the CompactTimingGraph object.
+     * @return The CompactTimingGraph, or null if neither {@link #buildCompact()} nor 
+     * {@link #compact()} has been called.
+     */
+    public CompactTimingGraph getCompactTimingGraph() {
+        return compactTimingGraph;
+    }
+
     /**
      * Gets the TimingGraph object.
-     * @return TimingGraph
+     * @return TimingGraph, or null after {@link #buildCompact()} or {@link #compact()}.
      */
     public TimingGraph getTimingGraph() {
         return timingGraph;
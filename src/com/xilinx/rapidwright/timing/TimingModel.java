@@ -62,7 +62,7 @@ import java.util.regex.Pattern;
  * A TimingModel calculates net delay by implementing the lightweight timing model described in our 
  * FPT'19 paper.
  */
-public class TimingModel {
+public class TimingModel implements Cloneable {
 
     public boolean debug = false;
     public boolean debugFile = false;
@@ -292,6 +292,7 @@ public class TimingModel {
 
     private List<Node> nodeList;
     private List<PIP> relevantPIPs;
+    private DelayCache delayCache;
 
 
     /**
@@ -306,59 +307,30 @@ public class TimingModel {
      */
     public float calcDelay(SitePinInst startPinInst, SitePinInst endPinInst, BELPin sourceBELPin,
                            BELPin sinkBELPin, Site startSite, Site endSite, Net net) {
-        ArrayList<IntentCode> intentCodes = new ArrayList<>();
-        HashMap<PIPType, Integer> pipTypes = new LinkedHashMap<>();
-
-        nodeList = new ArrayList<>();
-        relevantPIPs = new ArrayList<>();
+        if (nodeList == null) {
+            nodeList = new ArrayList<>();
+            relevantPIPs = new ArrayList<>();
+        } else {
+            nodeList.clear();
+            relevantPIPs.clear();
+        }
 
         determineNodeList(net, startPinInst, endPinInst);
 
-        for (PIP p : relevantPIPs) {
-            int tmp = 0;
-            if (pipTypes.get(p.getPIPType()) != null) {
-                tmp = pipTypes.get(p.getPIPType());
-                pipTypes.put(p.getPIPType(), ++tmp);
-            } else {
-                pipTypes.put(p.getPIPType(), 1);
+        // the groups are only printed when they are determined, so the cache is bypassed for debug
+        DelayCache.Key key = null;
+        if (delayCache != null && nodeList.size() > 0 && !verbose && !debugFile) {
+            key = new DelayCache.Key(nodeList, startPinInst, endPinInst, sourceBELPin, sinkBELPin);
+            float[] cached = delayCache.get(key);
+            if (cached != null) {
+                this.intrasiteDelay = cached[1];
+                return cached[0];
             }
         }
 
-        List<IntentCode> nodeIntents = new ArrayList<>();
-        List<Wire> node_start_wires = new ArrayList<>();
-
+        List<IntentCode> nodeIntents = new ArrayList<>(nodeList.size());
         for (Node node : nodeList) {
-            node_start_wires.add(node.getAllWiresInNode()[0]);
-        }
-
-        String[] ptkeys = new String[pipTypes.size()];
-        int ptkCntr = 0;
-        for (
-                PIPType ptk : pipTypes.keySet()) {
-            ptkeys[ptkCntr++] = "" + ptk;
-        }
-        Arrays.sort(ptkeys);
-
-        for (Wire w : node_start_wires) {
-            IntentCode code = w.getIntentCode();
-            nodeIntents.add(code);
-            if (!intentCodes.contains(code)) {
-                intentCodes.add(code);
-            }
-        }
-
-        IntentCode[] codes = intentCodes.toArray(new IntentCode[intentCodes.size()]);
-        HashMap<IntentCode, Integer> intentHash = new LinkedHashMap<>();
-        Arrays.sort(codes);
-        for (
-                IntentCode c : codes) {
-            List<String> intentList = new LinkedList<>();
-            for (Wire w : node_start_wires) {
-                if (w.getIntentCode() == c) {
-                    intentList.add(w.getWireName());
-                }
-            }
-            intentHash.put(c, intentList.size());
+            nodeIntents.add(node.getAllWiresInNode()[0].getIntentCode());
         }
 
         List<TimingGroup> groups = null;
@@ -367,12 +339,59 @@ public class TimingModel {
             groups = determineGroups(nodeList, nodeIntents, relevantPIPs);
 
         float result = 0f;
-        if (groups != null)
+        if (groups != null) {
             result = calcDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
+            if (key != null)
+                delayCache.put(key, result, intrasiteDelay);
+        }
 
         return result;
     }
 
+    /**
+     * Sets the cache of the delays calculated from the routing of connections, no cache is used by
+     * default.  The cache can be shared with other TimingModels of the same device with the same 
+     * delay terms.
+     * @param delayCache The cache, e.g. {@link DelayCache#forDesign(com.xilinx.rapidwright.design.Design)},
+     * or null to calculate every delay.
+     */
+    public void setDelayCache(DelayCache delayCache) {
+        this.delayCache = delayCache;
+    }
+
+    /**
+     * @return The cache of the delays calculated from the routing of connections, or null.
+     */
+    public DelayCache getDelayCache() {
+        return delayCache;
+    }
+
+    /**
+     * Creates a TimingModel for another thread from this built one.  The delay terms, distance 
+     * arrays, delay model and delay cache are shared and must not be modified afterwards, only 
+     * the state of the connection being calculated by calcDelay() is separate.
+     * @return A TimingModel calculating the same delays as this one.
+     */
+    public TimingModel copyForThread() {
+        TimingModel copy;
+        try {
+            copy = (TimingModel) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException("ERROR: Could not copy the TimingModel.", e);
+        }
+        copy.nodeList = null;
+        copy.relevantPIPs = null;
+        copy.pipEndNodeHashMap = null;
+        copy.startPinInst = null;
+        copy.endPinInst = null;
+        copy.sourceBELPin = null;
+        copy.sinkBELPin = null;
+        copy.groups = null;
+        copy.intrasiteDelay = 0;
+        copy.forDebugTimingGroupByPorts = new LinkedHashMap<>();
+        return copy;
+    }
+
     void checkTimingGroup(TimingGroup tg) {
         // INT_X46Y110/IMUX_E17
         // INT_X45Y109/EE2_E_BEG6
@@ -1413,12 +1432,15 @@ public class TimingModel {
         return result.toArray(new TimingGroup[result.size()]);
     }
 
-    private HashMap<String, PIP> pipEndNodeHashMap;
+    private HashMap<Node, PIP> pipEndNodeHashMap;
 
     private void determineNodeListInitHelper(Net net) {
-        pipEndNodeHashMap = new HashMap<>();
+        if (pipEndNodeHashMap == null)
+            pipEndNodeHashMap = new HashMap<>();
+        else
+            pipEndNodeHashMap.clear();
         for (PIP p : net.getPIPs()) {
-            pipEndNodeHashMap.put(p.getEndNode().toString(), p);
+            pipEndNodeHashMap.put(p.getEndNode(), p);
         }
     }
 
@@ -1459,7 +1481,7 @@ public class TimingModel {
                 node = null;
 
             while (node != null && !node.equals(sourcePinNode)) {
-                PIP p = pipEndNodeHashMap.get(node.toString());
+                PIP p = pipEndNodeHashMap.get(node);
                 if (p != null) {
                     relevantPIPs.add(relevantPIPs.size(), p);
                     nodeList.add(nodeList.size(), node);
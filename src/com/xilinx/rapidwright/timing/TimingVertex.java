@@ -34,6 +34,10 @@ public class TimingVertex {
     private boolean isFlopInput;
     private boolean isFlopOutput;
     private boolean printed;
+    //position in the levelized order of the TimingGraph, used by the incremental timing analysis
+    private int topologicalIndex = -1;
+    //longest delay from this vertex to any timing endpoint, so that the required time is the requirement minus this delay
+    private float downstreamDelay;
 
     /**
      * Creates a vertex for insertion into the TimingGraph.
@@ -173,6 +177,22 @@ public class TimingVertex {
         this.arrivalTime = arrivalTime;
     }
     
+    int getTopologicalIndex() {
+        return topologicalIndex;
+    }
+
+    void setTopologicalIndex(int topologicalIndex) {
+        this.topologicalIndex = topologicalIndex;
+    }
+
+    float getDownstreamDelay() {
+        return downstreamDelay;
+    }
+
+    void setDownstreamDelay(float downstreamDelay) {
+        this.downstreamDelay = downstreamDelay;
+    }
+    
     //-------------------------------------------------------------------------------------------------
     
     /**
@@ -59,6 +59,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -82,19 +84,50 @@ import java.util.regex.Pattern;
 public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstimatorBase<T> implements java.io.Serializable {
 	public String BOUNCE_SITEPIN_FILE;
 	public String CLE_OUT_INTABLE_FILE;
-	public long intableQuery;
-	public long outOfTableQuery;
-	public long pinfeedQuery;
-	public long pinbounceQuery;
+	public String BINARY_TABLES_FILE;
+	// query counters, updated by concurrent routing threads
+	private final LongAdder intableQuery = new LongAdder();
+	private final LongAdder outOfTableQuery = new LongAdder();
+	private final LongAdder pinfeedQuery = new LongAdder();
+	private final LongAdder pinbounceQuery = new LongAdder();
+	// min delays to sink pins, not persisted with the tables
+	private transient DelayQueryCache queryCache = new DelayQueryCache();
 	
     public DelayEstimatorTable(Device device, T ictInfo, boolean hpcRun) {
         this(device, ictInfo, true, hpcRun);
-        this.intableQuery = 0;
-        this.outOfTableQuery = 0;
-        this.pinfeedQuery = 0;
-        this.pinbounceQuery = 0;
      }
 
+    public long getIntableQueryCount() {
+        return intableQuery.sum();
+    }
+
+    public long getOutOfTableQueryCount() {
+        return outOfTableQuery.sum();
+    }
+
+    public long getPinfeedQueryCount() {
+        return pinfeedQuery.sum();
+    }
+
+    public long getPinbounceQueryCount() {
+        return pinbounceQuery.sum();
+    }
+
+    /**
+     * @return The cache of the delays from a source timing group to a sink pin, null if disabled.
+     */
+    public DelayQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Replaces the cache of the delays from a source timing group to a sink pin.
+     * @param queryCache The new cache, or null to compute every query.
+     */
+    public void setQueryCache(DelayQueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
     DelayEstimatorTable(Device device, T ictInfo, boolean fastMode, boolean hpcRun) {
 //        this(device, ictInfo, ictInfo.minTableWidth(), ictInfo.minTableHeight(), fastMode, "", 0);
         this(device, ictInfo, ictInfo.minTableWidth(), ictInfo.minTableHeight(), fastMode, "cle_out_intable.ser", 0, hpcRun);
@@ -145,8 +178,11 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
         String DELAY_DATA_FOLDER  = FileTools.DATA_FOLDER_NAME + File.separator + "timing" + File.separator + series;
         this.BOUNCE_SITEPIN_FILE = DELAY_DATA_FOLDER + File.separator + "bounce_sitepin.txt";
         this.CLE_OUT_INTABLE_FILE = DELAY_DATA_FOLDER + File.separator + "cle_out_intable.ser";
-        if(hpcRun)
+        this.BINARY_TABLES_FILE = DELAY_DATA_FOLDER + File.separator + "delay_tables.bin";
+        if(hpcRun) {
         	this.CLE_OUT_INTABLE_FILE = "RapidWright/data/timing/ultrascaleplus/cle_out_intable.ser";
+        	this.BINARY_TABLES_FILE = "RapidWright/data/timing/ultrascaleplus/delay_tables.bin";
+        }
         
         build(this.CLE_OUT_INTABLE_FILE);
     }
@@ -190,17 +226,16 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
                                       NodeGroup sinkPin) {
         // TODO: consider puting this to graph to avoid this if
         if (timingGroup.delayType() == GroupDelayType.PIN_BOUNCE) {
-            NodePair np = new NodePair(timingGroup, sinkPin);
-            Short dly = delayFrBounceToSink.get(np);
-            this.pinbounceQuery++;
-            if (dly == null)
+            short dly = getDelayFrBounceToSink(timingGroup.exitNode(), sinkPin.exitNode());
+            this.pinbounceQuery.increment();
+            if (dly < 0)
                 return Short.MAX_VALUE/2;
             else{
                 // add input sitepin delay
                 return (short) (dly + K0.get(T.Direction.INPUT).get(GroupDelayType.PINFEED));
             }
         } else if (timingGroup.delayType() == GroupDelayType.PINFEED) {
-        	this.pinfeedQuery++;
+        	this.pinfeedQuery.increment();
             return Short.MAX_VALUE/2;
         } else {
             Pair<RoutingNode,RoutingNode> srcDst = tgsToSrcDstNodeMapper.apply(timingGroup, sinkPin);
@@ -322,6 +357,13 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
             }
         }
 
+        // create NodePair from a record of a delay table file
+        NodePair(byte tileOffset, short srcWireIdx, short dstWireIdx) {
+            this.tileOffset = tileOffset;
+            this.srcWireIdx = srcWireIdx;
+            this.dstWireIdx = dstWireIdx;
+        }
+
         // to convert timing groups for lookup
         NodePair(NodeGroup src, NodeGroup dst) {
             this();
@@ -364,11 +406,23 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
         }
     }
 
-    private Map<NodePair,Short> delayFrBounceToSink;
+    // delays from bounce to sink, sorted by the keys of DelayTableFile.bounceKey() for lookup without allocation
+    private long[] bounceKeys;
+    private short[] bounceDelays;
+    // tables mapped from BINARY_TABLES_FILE, null if the tables were loaded from the .ser and .txt files
+    private transient DelayTableFile binaryTables;
+    private short bounceDelay;
 
 
     private void build(String loadFrom) {
-        rgBuilder = new ResourceGraphBuilder(extendedWidth, extendedHeight, loadFrom, 0);
+        if (new File(this.BINARY_TABLES_FILE).exists()) {
+            if (this.verbose > 0)
+                System.out.println("map delay tables " + this.BINARY_TABLES_FILE);
+            binaryTables = DelayTableFile.map(this.BINARY_TABLES_FILE);
+            rgBuilder = new ResourceGraphBuilder(binaryTables, 0);
+        } else {
+            rgBuilder = new ResourceGraphBuilder(extendedWidth, extendedHeight, loadFrom, 0);
+        }
         if(rgBuilder == null) {
         	System.out.println(rgBuilder.nodeMan.getGraph());
         }
@@ -380,25 +434,72 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
 //        initTables();
 //        trimTables();
 //        cleanup();
-        loadBounceDelay(this.BOUNCE_SITEPIN_FILE);
+        if (binaryTables == null) {
+            loadBounceDelay(this.BOUNCE_SITEPIN_FILE);
+        } else {
+            bounceDelay = computeBounceDelay();
+        }
     }
 
+    // bounce is considered a horizontal single with d 0
+    private short computeBounceDelay() {
+        float k0 = K0.get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
+        float k1 = K1.get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
+        short l  = L .get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
+        return (short) (k0 + k1 * l);
+    }
 
+    /**
+     * Get the delay from a bounce node to a sink node, from the mapped binary tables if available.
+     * Only reads immutable tables, so it can be called by concurrent routing threads.
+     * @return The delay including the source bounce, or -1 if the sink is not in the tables.
+     */
+    private short getDelayFrBounceToSink(Node srcNode, Node dstNode) {
+        int tileOffset = dstNode.getTile().getTileYCoordinate() - srcNode.getTile().getTileYCoordinate();
+        // the sink is too far from the bounce, same as NodePair representing non-reachable
+        if (Math.abs(tileOffset) >= 2)
+            return (short) (Short.MAX_VALUE/2);
+        short srcWireIdx = (short) srcNode.getAllWiresInNode()[0].getWireIndex();
+        short dstWireIdx = (short) dstNode.getAllWiresInNode()[0].getWireIndex();
+        if (binaryTables != null) {
+            int numBounces = binaryTables.getNumBounces((byte) tileOffset, srcWireIdx, dstWireIdx);
+            return numBounces < 0 ? -1 : (short) ((1+numBounces) * bounceDelay);
+        }
+        int i = Arrays.binarySearch(bounceKeys, DelayTableFile.bounceKey((byte) tileOffset, srcWireIdx, dstWireIdx));
+        return i < 0 ? -1 : bounceDelays[i];
+    }
 
-    void loadBounceDelay(String fileName) {
+    /**
+     * Write the resource graph and the bounce delays into a flat binary file that is memory-mapped
+     * by later runs instead of deserializing the .ser file and parsing the bounce delay text file.
+     * @param fileName Name of the binary file.
+     */
+    void writeBinaryTables(String fileName) {
+        DelayTableFile.Writer writer = new DelayTableFile.Writer();
+        rgBuilder.nodeMan.writeTo(writer);
+        if (binaryTables == null) {
+            for (int i = 0; i < bounceKeys.length; i++) {
+                long key = bounceKeys[i];
+                short numBounces = (short) (bounceDelays[i] / bounceDelay - 1);
+                writer.addBouncePair((byte) (key >> 32), (short) (key >>> 16), (short) key, numBounces);
+            }
+        } else {
+            throw new RuntimeException("ERROR: The bounce delays were mapped from " + this.BINARY_TABLES_FILE
+                    + ", remove it to convert the .ser and .txt files.");
+        }
+        writer.write(fileName);
+        System.out.println("write delay tables " + fileName);
+    }
 
-        delayFrBounceToSink = new HashMap<>();
 
-        // add an entry to represent unreachable
-        NodePair unreachable = new NodePair();
-        delayFrBounceToSink.put(unreachable,(short) (Short.MAX_VALUE/2));
 
-        // bounce is considered a horizontal single with d 0
-        float k0 = K0.get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
-        float k1 = K1.get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
-        short l  = L .get(T.Direction.HORIZONTAL).get(GroupDelayType.SINGLE);
+    void loadBounceDelay(String fileName) {
+
+        // sorted by key, pairs too far apart to be in the file are handled by getDelayFrBounceToSink
+        TreeMap<Long,Short> delayFrBounceToSink = new TreeMap<>();
+
         // need abs in case the tg is going to the left.
-        short bounceDelay = (short) (k0 + k1 * l);
+        bounceDelay = computeBounceDelay();
 
 
 
@@ -425,7 +526,7 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
                     NodePair np = new NodePair(items.get(1), items.get(0));
                     // the source itself is a bounce and the estimate must contain the delay of the source.
                     short delay = (short) ((1+numBounces) * bounceDelay);
-                    delayFrBounceToSink.put(np, delay);
+                    delayFrBounceToSink.put(DelayTableFile.bounceKey(np.tileOffset, np.srcWireIdx, np.dstWireIdx), delay);
                 }
             }
             // Note that Scanner suppresses exceptions
@@ -449,6 +550,14 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
                 sc.close();
             }
         }
+
+        bounceKeys = new long[delayFrBounceToSink.size()];
+        bounceDelays = new short[delayFrBounceToSink.size()];
+        int i = 0;
+        for (Map.Entry<Long,Short> entry : delayFrBounceToSink.entrySet()) {
+            bounceKeys[i] = entry.getKey();
+            bounceDelays[i++] = entry.getValue();
+        }
     }
 
     // make this generic
@@ -487,6 +596,12 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
             }
         }
 
+        ResourceGraphBuilder(DelayTableFile tables, int verboseLevel) {
+            this.verboseLevel = verboseLevel;
+            nodeMan = new NodeManager();
+            nodeMan.readFrom(tables);
+        }
+
 
         /**
          * Maintain a set of nodes and their name to
@@ -603,6 +718,70 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
                 return distTypeNodemap.get(loc).get(tg);
             }
 
+            /**
+             * Add the nodes and edges to a delay table file. The vertices are numbered in the order of the graph,
+             * followed by nodes that were removed from the graph but can still be looked up by location.
+             */
+            void writeTo(DelayTableFile.Writer writer) {
+                Map<Object, Pair<Pair<Short, Short>, Pair<T.Orientation, T.TileSide>>> locs = new HashMap<>();
+                Map<Object, T.TimingGroup> tgs = new HashMap<>();
+                for (Map.Entry<Pair<Pair<Short, Short>, Pair<T.Orientation, T.TileSide>>, Map<T.TimingGroup, Object>>
+                        forLoc : distTypeNodemap.entrySet()) {
+                    for (Map.Entry<T.TimingGroup, Object> forTg : forLoc.getValue().entrySet()) {
+                        locs.put(forTg.getValue(), forLoc.getKey());
+                        tgs.put(forTg.getValue(), forTg.getKey());
+                    }
+                }
+
+                Map<Object, Integer> ids = new HashMap<>();
+                List<Object> nodes = new ArrayList<>(g.vertexSet());
+                for (Object node : locs.keySet()) {
+                    if (!g.containsVertex(node))
+                        nodes.add(node);
+                }
+                for (Object node : nodes) {
+                    Pair<Pair<Short, Short>, Pair<T.Orientation, T.TileSide>> loc = locs.get(node);
+                    int id;
+                    if (loc == null) {
+                        id = writer.addNode((short) 0, (short) 0, null, null, null, true, false);
+                    } else {
+                        id = writer.addNode(loc.getFirst().getFirst(), loc.getFirst().getSecond(),
+                                loc.getSecond().getFirst(), loc.getSecond().getSecond(), tgs.get(node),
+                                g.containsVertex(node), true);
+                    }
+                    ids.put(node, id);
+                }
+                for (NodeGroupEdge e : g.edgeSet()) {
+                    writer.addEdge(ids.get(g.getEdgeSource(e)), ids.get(g.getEdgeTarget(e)), e.getTimingGroup(),
+                            e.isReverseDirection(), e.isMarked());
+                }
+            }
+
+            /**
+             * Rebuild the nodes and edges from a mapped delay table file, in the order they were written.
+             */
+            void readFrom(DelayTableFile tables) {
+                Object[] nodes = new Object[tables.getNumNodes()];
+                for (int i = 0; i < nodes.length; i++) {
+                    nodes[i] = new Object();
+                    if (tables.isNodeInGraph(i))
+                        g.addVertex(nodes[i]);
+                    if (tables.nodeHasLocation(i)) {
+                        Pair<Pair<Short, Short>, Pair<T.Orientation, T.TileSide>> loc = new Pair<>(
+                                new Pair<>(tables.getNodeX(i), tables.getNodeY(i)),
+                                new Pair<>(tables.getNodeOrientation(i), tables.getNodeSide(i)));
+                        distTypeNodemap.computeIfAbsent(loc, k -> new EnumMap<>(T.TimingGroup.class))
+                                .put(tables.getNodeTimingGroup(i), nodes[i]);
+                    }
+                }
+                for (int i = 0; i < tables.getNumEdges(); i++) {
+                    NodeGroupEdge e = new NodeGroupEdge(tables.getEdgeTimingGroup(i), tables.isEdgeReverseDirection(i));
+                    if (tables.isEdgeMarked(i))
+                        e.setMarker();
+                    g.addEdge(nodes[tables.getEdgeSource(i)], nodes[tables.getEdgeTarget(i)], e);
+                }
+            }
+
             // class use for merging two nodeMan.
             // TODO: use it for distTypeNodeMap as well.
             class NodeIdentity {
@@ -1519,9 +1698,23 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
 
         int distX = Math.abs(begX - endX);
         int distY = Math.abs(begY - endY);
+        boolean inTable = distX < width && distY < height;
+
+        // the route string is only built in verbose mode, so do not cache it
+        DelayQueryCache cache = (verbose > 5 || verbose == -1) ? null : queryCache;
+        DelayQueryCache.Key key = null;
+        if (cache != null) {
+            key = new DelayQueryCache.Key(begTg, endTg, begX, begY, endX, endY, begSide, endSide,
+                    begOrientation, endOrientation);
+            Short delay = cache.get(key);
+            if (delay != null) {
+                (inTable ? intableQuery : outOfTableQuery).increment();
+                return new Pair<>(delay, "");
+            }
+        }
 
         Pair<Short, String> result = null;
-        if (distX < width && distY < height) {
+        if (inTable) {
             // setup graph
             // 1) graph cover the extended width/height. However, the source/sink must be in the target width/height.
             // 2) align the source coordinate to the nearest conor of the target width/height.
@@ -1529,13 +1722,13 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
 
             ConnectionInfo info = getConnectionInfo(begX, begY, endX, endY, begTg, endTg, begSide, endSide, begOrientation, endOrientation);
             
-            intableQuery++;
+            intableQuery.increment();
 
 //            result = lookupDelay(g, info.sourceNode(), info.sinkNode(), info.sourceX(), info.sourceY());
             result = lookupDelay(rgBuilder.getGraph(), info.sourceNode(), info.sinkNode(), begX, begY);
         } else {
         	//TODO counter added for long distance query
-        	outOfTableQuery++;
+        	outOfTableQuery.increment();
             boolean oneway = true;
 
             // TODO: consider shuffleing segments within one or both directions.
@@ -1593,7 +1786,10 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
         }
 
         // add delay of input sitepin
-        return new Pair<>((short) (result.getFirst() + K0.get(T.Direction.INPUT).get(GroupDelayType.PINFEED)), result.getSecond());
+        short delay = (short) (result.getFirst() + K0.get(T.Direction.INPUT).get(GroupDelayType.PINFEED));
+        if (cache != null)
+            cache.put(key, delay);
+        return new Pair<>(delay, result.getSecond());
     }
 
     class InfoHorThenVer {
@@ -1805,9 +2001,10 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
 
 
         // TODO: remove returned boolean and unused callback.
-        Double res = DijkstraWithCallbacks.findMinWeightBetween(ig, src, dst, srcX,srcY,
-                // ExamineEdge. Update edge weight which depend on the beginning loc, length and direction of the TG
-                (g, u, e, x, y, dly) -> {g.setEdgeWeight(e,calcTimingGroupDelayOnEdge(e, u, dst, x, y, dly, isBackward));},
+        // The edge weights are kept by the search rather than set in the shared graph, so that concurrent queries are safe.
+        Double res = DijkstraWithCallbacks.findMinWeightWithEdgeWeight(ig, src, dst, srcX,srcY,
+                // EdgeWeight. The edge weight depends on the beginning loc, length and direction of the TG
+                (g, u, e, x, y, dly) -> {return calcTimingGroupDelayOnEdge(e, u, dst, x, y, dly, isBackward);},
                 // DiscoverVertex. Propagate location at the beginning loc of a timing group edge.
                 (g, u, e, x, y, dly) -> {return discoverVertex(e, x, y, dly, isBackward);},
                 (g, u, e, dly) -> {return updateVertex(e, dly, isBackward);},
@@ -2351,6 +2548,13 @@ public class DelayEstimatorTable<T extends InterconnectInfo> extends DelayEstima
                 est.rgBuilder.serializeTo(args[1] + ".ser");
                 return;
             }
+            else if (args[0].equalsIgnoreCase("WriteBinary")) {
+                // convert <args[1]>.ser and the bounce delay text file into the memory-mapped format
+                System.out.println("DelayEstimatorTable WriteBinary " + args[1] + " to " + args[2]);
+                est.rgBuilder.deserializeFrom(args[1] + ".ser");
+                est.writeBinaryTables(args[2]);
+                return;
+            }
             else if (args[0].equalsIgnoreCase("TrimGraphIn")) {
                 System.out.println("DelayEstimatorTable TrimGraphIn " + args[1] + " at x " + args[2]);
                 est.rgBuilder.deserializeFrom(args[1] + ".ser");
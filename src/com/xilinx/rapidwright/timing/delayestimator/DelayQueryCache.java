@@ -0,0 +1,200 @@
+/*
+ *
+ * Copyright (c) 2020 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing.delayestimator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the min delays computed by {@link DelayEstimatorTable} from a source timing
+ * group to a sink pin.  The cache is split into segments selected by the hash of the query, each
+ * segment is an LRU map with its own lock, so that routing threads querying different connections
+ * rarely wait on each other.
+ */
+public class DelayQueryCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 20;
+    public static final int DEFAULT_NUM_SEGMENTS = 64;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DelayQueryCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_NUM_SEGMENTS);
+    }
+
+    /**
+     * Creates an empty cache.
+     * @param maxSize The max number of queries kept over all segments.
+     * @param numSegments The number of segments, rounded up to a power of 2.
+     */
+    public DelayQueryCache(int maxSize, int numSegments) {
+        int n = 1;
+        while (n < numSegments)
+            n <<= 1;
+        this.segments = new Segment[n];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+        int segmentSize = Math.max(1, maxSize / n);
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Looks up the delay of a query.
+     * @param key The query.
+     * @return The delay in picoseconds, or null if not cached.
+     */
+    public Short get(Key key) {
+        Short delay = segmentOf(key).get(key);
+        if (delay == null)
+            misses.increment();
+        else
+            hits.increment();
+        return delay;
+    }
+
+    /**
+     * Stores the delay of a query, evicting the least recently used query of its segment if the
+     * segment is full.
+     * @param key The query.
+     * @param delay The delay in picoseconds.
+     */
+    public void put(Key key, short delay) {
+        segmentOf(key).put(key, delay);
+    }
+
+    public void clear() {
+        for (Segment s : segments) {
+            s.clear();
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment s : segments) {
+            size += s.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The fraction of the lookups that found the query, 0 if there was no lookup.
+     */
+    public float getHitRate() {
+        long h = hits.sum();
+        long lookups = h + misses.sum();
+        return lookups == 0 ? 0f : (float) h / lookups;
+    }
+
+    private Segment segmentOf(Key key) {
+        // the high bits of the hash select the segment, the low bits the bucket within it
+        return segments[segments.length == 1 ? 0 : (key.hashCode() * 0x9E3779B9) >>> segmentShift];
+    }
+
+    private static class Segment {
+        private final LinkedHashMap<Key, Short> delays;
+
+        Segment(int maxSize) {
+            this.delays = new LinkedHashMap<Key, Short>(16, 0.75f, true) {
+                private static final long serialVersionUID = 6150937284317065263L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Short> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized Short get(Key key) {
+            return delays.get(key);
+        }
+
+        synchronized void put(Key key, short delay) {
+            delays.put(key, delay);
+        }
+
+        synchronized void clear() {
+            delays.clear();
+        }
+
+        synchronized int size() {
+            return delays.size();
+        }
+    }
+
+    /**
+     * A query from a source timing group to a sink pin.  The coordinates are absolute because the
+     * delay of a timing group depends on the columns and rows it crosses, not only on its length.
+     */
+    public static final class Key {
+        private final long coordinates;
+        private final long groups;
+
+        /**
+         * Creates a query.  Enum values may be null.
+         */
+        public Key(InterconnectInfo.TimingGroup begTg, InterconnectInfo.TimingGroup endTg,
+                   short begX, short begY, short endX, short endY,
+                   InterconnectInfo.TileSide begSide, InterconnectInfo.TileSide endSide,
+                   InterconnectInfo.Orientation begOrientation, InterconnectInfo.Orientation endOrientation) {
+            this.coordinates = ((long) (begX & 0xffff) << 48) | ((long) (begY & 0xffff) << 32)
+                    | ((long) (endX & 0xffff) << 16) | (endY & 0xffff);
+            this.groups = ((long) code(begTg) << 40) | ((long) code(endTg) << 32)
+                    | (code(begSide) << 24) | (code(endSide) << 16)
+                    | (code(begOrientation) << 8) | code(endOrientation);
+        }
+
+        private static int code(Enum<?> value) {
+            return value == null ? 0 : value.ordinal() + 1;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = coordinates * 0x9E3779B97F4A7C15L + groups;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return coordinates == other.coordinates && groups == other.groups;
+        }
+    }
+}
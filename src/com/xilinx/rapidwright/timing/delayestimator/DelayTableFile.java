@@ -0,0 +1,277 @@
+/*
+ *
+ * Copyright (c) 2020 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing.delayestimator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat binary file holding the tables of {@link DelayEstimatorTable}: the resource graph loaded
+ * from cle_out_intable.ser and the bounce to sitepin delays loaded from bounce_sitepin.txt.
+ * The file is memory-mapped read-only, so multiple JVMs on a host share the pages of the file,
+ * and the records are read in place by index.
+ *
+ * Layout, little endian:
+ * <pre>
+ * header:  int magic, int version, int numNodes, int numEdges, int numBouncePairs
+ * nodes:   short x, short y, byte orientation, byte side, byte timingGroup, byte flags
+ * edges:   int src, int dst, byte timingGroup, byte flags, short unused
+ * bounce:  byte tileOffset, byte unused, short srcWireIdx, short dstWireIdx, short numBounces
+ * </pre>
+ * Enum values are stored as ordinal + 1, with 0 for null.  Bounce pairs are sorted by tile
+ * offset, source wire and sink wire for binary search.
+ */
+public class DelayTableFile {
+
+    public static final int MAGIC = 0x52574454; // "RWDT"
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 20;
+    static final int NODE_SIZE = 8;
+    static final int EDGE_SIZE = 12;
+    static final int BOUNCE_SIZE = 8;
+
+    // flags of a node
+    static final byte NODE_IN_GRAPH = 1;
+    static final byte NODE_HAS_LOCATION = 2;
+    // flags of an edge
+    static final byte EDGE_REVERSE_DIRECTION = 1;
+    static final byte EDGE_MARKED = 2;
+
+    private final ByteBuffer buffer;
+    private final int numNodes;
+    private final int numEdges;
+    private final int numBouncePairs;
+    private final int edgesStart;
+    private final int bounceStart;
+
+    private DelayTableFile(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new RuntimeException("ERROR: Not a delay table file.");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new RuntimeException("ERROR: Delay table file version " + version
+                    + " is not supported, expected version " + VERSION + ".");
+        }
+        this.numNodes = buffer.getInt(8);
+        this.numEdges = buffer.getInt(12);
+        this.numBouncePairs = buffer.getInt(16);
+        this.edgesStart = HEADER_SIZE + numNodes * NODE_SIZE;
+        this.bounceStart = edgesStart + numEdges * EDGE_SIZE;
+        if (buffer.capacity() < bounceStart + numBouncePairs * BOUNCE_SIZE) {
+            throw new RuntimeException("ERROR: Delay table file is truncated.");
+        }
+    }
+
+    /**
+     * Maps a delay table file into memory.
+     * @param fileName Name of the file.
+     * @return The file, whose records are read from the mapped pages on demand.
+     */
+    public static DelayTableFile map(String fileName) {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DelayTableFile(buffer);
+        } catch (IOException e) {
+            throw new RuntimeException("ERROR: Could not map delay table file " + fileName, e);
+        }
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    public int getNumBouncePairs() {
+        return numBouncePairs;
+    }
+
+    public short getNodeX(int node) {
+        return buffer.getShort(HEADER_SIZE + node * NODE_SIZE);
+    }
+
+    public short getNodeY(int node) {
+        return buffer.getShort(HEADER_SIZE + node * NODE_SIZE + 2);
+    }
+
+    public InterconnectInfo.Orientation getNodeOrientation(int node) {
+        return decode(InterconnectInfo.Orientation.values(), buffer.get(HEADER_SIZE + node * NODE_SIZE + 4));
+    }
+
+    public InterconnectInfo.TileSide getNodeSide(int node) {
+        return decode(InterconnectInfo.TileSide.values(), buffer.get(HEADER_SIZE + node * NODE_SIZE + 5));
+    }
+
+    public InterconnectInfo.TimingGroup getNodeTimingGroup(int node) {
+        return decode(InterconnectInfo.TimingGroup.values(), buffer.get(HEADER_SIZE + node * NODE_SIZE + 6));
+    }
+
+    /**
+     * @return True if the node is a vertex of the resource graph.
+     */
+    public boolean isNodeInGraph(int node) {
+        return (buffer.get(HEADER_SIZE + node * NODE_SIZE + 7) & NODE_IN_GRAPH) != 0;
+    }
+
+    /**
+     * @return True if the node can be looked up by its location and timing group.
+     */
+    public boolean nodeHasLocation(int node) {
+        return (buffer.get(HEADER_SIZE + node * NODE_SIZE + 7) & NODE_HAS_LOCATION) != 0;
+    }
+
+    public int getEdgeSource(int edge) {
+        return buffer.getInt(edgesStart + edge * EDGE_SIZE);
+    }
+
+    public int getEdgeTarget(int edge) {
+        return buffer.getInt(edgesStart + edge * EDGE_SIZE + 4);
+    }
+
+    public InterconnectInfo.TimingGroup getEdgeTimingGroup(int edge) {
+        return decode(InterconnectInfo.TimingGroup.values(), buffer.get(edgesStart + edge * EDGE_SIZE + 8));
+    }
+
+    public boolean isEdgeReverseDirection(int edge) {
+        return (buffer.get(edgesStart + edge * EDGE_SIZE + 9) & EDGE_REVERSE_DIRECTION) != 0;
+    }
+
+    public boolean isEdgeMarked(int edge) {
+        return (buffer.get(edgesStart + edge * EDGE_SIZE + 9) & EDGE_MARKED) != 0;
+    }
+
+    /**
+     * Looks up the number of bounces from a bounce node to a sink node by binary search.
+     * @param tileOffset Y offset of the sink tile from the source tile, -1, 0 or 1.
+     * @param srcWireIdx Wire index of the source node.
+     * @param dstWireIdx Wire index of the sink node.
+     * @return The number of bounces, or -1 if the sink is not reachable from the source.
+     */
+    public int getNumBounces(byte tileOffset, short srcWireIdx, short dstWireIdx) {
+        long key = bounceKey(tileOffset, srcWireIdx, dstWireIdx);
+        int lo = 0;
+        int hi = numBouncePairs - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int pos = bounceStart + mid * BOUNCE_SIZE;
+            long midKey = bounceKey(buffer.get(pos), buffer.getShort(pos + 2), buffer.getShort(pos + 4));
+            if (midKey < key)
+                lo = mid + 1;
+            else if (midKey > key)
+                hi = mid - 1;
+            else
+                return buffer.getShort(pos + 6);
+        }
+        return -1;
+    }
+
+    static long bounceKey(byte tileOffset, short srcWireIdx, short dstWireIdx) {
+        return ((long) tileOffset << 32) | ((long) (srcWireIdx & 0xffff) << 16) | (dstWireIdx & 0xffff);
+    }
+
+    private static <E extends Enum<E>> E decode(E[] values, byte code) {
+        return code == 0 ? null : values[code - 1];
+    }
+
+    private static byte encode(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * Collects the records of a delay table file and writes them.
+     */
+    public static class Writer {
+        private final List<long[]> nodes = new ArrayList<>();
+        private final List<long[]> edges = new ArrayList<>();
+        private final List<long[]> bouncePairs = new ArrayList<>();
+
+        /**
+         * Adds a node, nodes are numbered in the order they are added.
+         * @return The index of the node.
+         */
+        public int addNode(short x, short y, InterconnectInfo.Orientation orientation,
+                           InterconnectInfo.TileSide side, InterconnectInfo.TimingGroup tg,
+                           boolean inGraph, boolean hasLocation) {
+            int flags = (inGraph ? NODE_IN_GRAPH : 0) | (hasLocation ? NODE_HAS_LOCATION : 0);
+            nodes.add(new long[] {x, y, encode(orientation), encode(side), encode(tg), flags});
+            return nodes.size() - 1;
+        }
+
+        public void addEdge(int src, int dst, InterconnectInfo.TimingGroup tg, boolean reverseDirection,
+                            boolean marked) {
+            int flags = (reverseDirection ? EDGE_REVERSE_DIRECTION : 0) | (marked ? EDGE_MARKED : 0);
+            edges.add(new long[] {src, dst, encode(tg), flags});
+        }
+
+        public void addBouncePair(byte tileOffset, short srcWireIdx, short dstWireIdx, short numBounces) {
+            bouncePairs.add(new long[] {bounceKey(tileOffset, srcWireIdx, dstWireIdx), tileOffset,
+                    srcWireIdx, dstWireIdx, numBounces});
+        }
+
+        /**
+         * Writes the collected records.
+         * @param fileName Name of the file.
+         */
+        public void write(String fileName) {
+            long[][] bounce = bouncePairs.toArray(new long[bouncePairs.size()][]);
+            Arrays.sort(bounce, (a, b) -> Long.compare(a[0], b[0]));
+            int size = HEADER_SIZE + nodes.size() * NODE_SIZE + edges.size() * EDGE_SIZE
+                    + bounce.length * BOUNCE_SIZE;
+            ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodes.size()).putInt(edges.size()).putInt(bounce.length);
+            for (long[] n : nodes) {
+                buffer.putShort((short) n[0]).putShort((short) n[1]);
+                buffer.put((byte) n[2]).put((byte) n[3]).put((byte) n[4]).put((byte) n[5]);
+            }
+            for (long[] e : edges) {
+                buffer.putInt((int) e[0]).putInt((int) e[1]).put((byte) e[2]).put((byte) e[3]).putShort((short) 0);
+            }
+            for (long[] b : bounce) {
+                buffer.put((byte) b[1]).put((byte) 0).putShort((short) b[2]).putShort((short) b[3]).putShort((short) b[4]);
+            }
+            buffer.flip();
+            Path path = Paths.get(fileName);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("ERROR: Could not write delay table file " + fileName, e);
+            }
+        }
+    }
+}
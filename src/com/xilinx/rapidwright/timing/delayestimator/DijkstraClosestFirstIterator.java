@@ -26,6 +26,8 @@ class DijkstraClosestFirstIterator<V, E> implements Iterator<V> {
     private DijkstraWithCallbacks.UpdateVertex<V,E> updateVertex;
     // Called when examine an edge lead to a undiscovered vertex
     private DijkstraWithCallbacks.DiscoverVertex<V,E> discoverVertex;
+    // Called instead of examineEdge, if set, to get the weight of an edge without setting it in the graph
+    private DijkstraWithCallbacks.EdgeWeight<V,E> edgeWeight;
 
     private final Graph<V, E> graph;
     private final V source;
@@ -66,6 +68,10 @@ class DijkstraClosestFirstIterator<V, E> implements Iterator<V> {
     }
 
 
+    public void setEdgeWeight(DijkstraWithCallbacks.EdgeWeight<V,E> edgeWeight) {
+        this.edgeWeight = edgeWeight;
+    }
+
     public boolean hasNext() {
         if (this.heap.isEmpty()) {
             return false;
@@ -95,8 +101,13 @@ class DijkstraClosestFirstIterator<V, E> implements Iterator<V> {
             while(var5.hasNext()) {
                 E e = (E) var5.next();
                 V u = Graphs.getOppositeVertex(this.graph, e, v);
-                examineEdge.apply(this.graph, u, e, x, y, vDistance);
-                double eWeight = this.graph.getEdgeWeight(e);
+                double eWeight;
+                if (edgeWeight != null) {
+                    eWeight = edgeWeight.apply(this.graph, u, e, x, y, vDistance);
+                } else {
+                    examineEdge.apply(this.graph, u, e, x, y, vDistance);
+                    eWeight = this.graph.getEdgeWeight(e);
+                }
                 // edge with neg weight indicating that the edge is invalid and should not be used in updateDistance
                 // ie., the edge go out of device bound
                 if (eWeight >= 0.0D) {
@@ -108,6 +119,22 @@ class DijkstraClosestFirstIterator<V, E> implements Iterator<V> {
         }
     }
 
+    /**
+     * @return The distance of a vertex found so far, infinite if the vertex has not been seen.
+     */
+    public double getDistance(V v) {
+        FibonacciHeapNode<DijkstraClosestFirstIterator<V, E>.QueueEntry> node = this.seen.get(v);
+        return node == null ? Double.POSITIVE_INFINITY : node.getKey();
+    }
+
+    /**
+     * @return The edge leading to a vertex on the shortest path found so far, null for the source or an unseen vertex.
+     */
+    public E getPredecessorEdge(V v) {
+        FibonacciHeapNode<DijkstraClosestFirstIterator<V, E>.QueueEntry> node = this.seen.get(v);
+        return node == null ? null : node.getData().e;
+    }
+
     public ShortestPathAlgorithm.SingleSourcePaths<V, E> getPaths() {
         return new TreeSingleSourcePathsImpl(this.graph, this.source, this.getDistanceAndPredecessorMap());
     }
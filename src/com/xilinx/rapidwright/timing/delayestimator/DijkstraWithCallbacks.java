@@ -5,6 +5,7 @@ package com.xilinx.rapidwright.timing.delayestimator;
 import com.xilinx.rapidwright.util.Pair;
 import org.jgrapht.Graph;
 import org.jgrapht.GraphPath;
+import org.jgrapht.Graphs;
 import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
 import org.jgrapht.graph.GraphWalk;
 
@@ -35,6 +36,10 @@ public class DijkstraWithCallbacks<V, E> implements ShortestPathAlgorithm<V, E>
     public static interface OpOnEdge<E> {
         void apply(E e);
     }
+    // Computes the weight of an edge without storing it in the graph, so that a graph can be searched concurrently.
+    public static interface EdgeWeight<V, E> {
+        double apply(Graph<V,E> g, V v, E e, short x, short y, double dist);
+    }
     protected ExamineEdge<V,E> examineEdge;
     protected DiscoverVertex<V,E> discoverVertex;
     protected UpdateVertex<V,E> updateVertex;
@@ -139,6 +144,40 @@ public class DijkstraWithCallbacks<V, E> implements ShortestPathAlgorithm<V, E>
         return (new DijkstraWithCallbacks(graph, srcX, srcY, examineEdge, discoverVertex, updateVertex))
                 .getPathWeightWithOpOnMinEdges(source, sink, opOnMinEdge);
     }
+    /**
+     * Same as findMinWeightBetween with OpOnEdge, but the edge weights are computed by edgeWeight and kept by the search
+     * instead of being set in the graph. Thus, multiple threads can search the same graph.
+     * The weight is the distance found by the search, because the path of JGraphT sums the weights stored in the graph.
+     */
+    public static <V,E> Double findMinWeightWithEdgeWeight(Graph<V, E> graph, V source, V sink, short srcX, short srcY,
+                                                           EdgeWeight<V,E> edgeWeight, DiscoverVertex<V,E> discoverVertex,
+                                                           UpdateVertex<V,E> updateVertex, OpOnEdge<E> opOnMinEdge) {
+        if (!graph.containsVertex(source)) {
+            throw new IllegalArgumentException("Graph must contain the source vertex!");
+        } else if (!graph.containsVertex(sink)) {
+            throw new IllegalArgumentException("Graph must contain the sink vertex!");
+        } else if (source.equals(sink)) {
+            return 0.0D;
+        }
+        DijkstraClosestFirstIterator<V,E> it = new DijkstraClosestFirstIterator<>(graph, source, radius,
+                srcX, srcY, null, discoverVertex, updateVertex);
+        it.setEdgeWeight(edgeWeight);
+        while (it.hasNext()) {
+            if (it.next().equals(sink)) {
+                break;
+            }
+        }
+        double w = it.getDistance(sink);
+        if (opOnMinEdge != null && w != Double.POSITIVE_INFINITY) {
+            V v = sink;
+            E e;
+            while ((e = it.getPredecessorEdge(v)) != null) {
+                opOnMinEdge.apply(e);
+                v = Graphs.getOppositeVertex(graph, e, v);
+            }
+        }
+        return w;
+    }
     public static <V,E> Double findMinWeightBetween(Graph<V, E> graph, V source, V sink, short srcX, short srcY,
                                ExamineEdge<V,E> examineEdge, DiscoverVertex<V,E> discoverVertex, UpdateVertex<V,E> updateVertex) {
         return (new DijkstraWithCallbacks(graph, srcX, srcY, examineEdge, discoverVertex, updateVertex)).getPathWeight(source, sink);